@@ -1,53 +1,129 @@
 package com.chess.analytics.engine;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "analysis.engine.enabled", havingValue = "true", matchIfMissing = false)
 public class AnalysisRunner {
 
-    @Value("${analysis.engine.path:stockfish}")
-    private String enginePath;
+    private final EnginePool enginePool;
+    private final EvaluationCache evaluationCache;
 
-    @Value("${analysis.engine.movetime-ms:400}")
-    private long movetimeMs;
-
-    /** Runs engine on each position from PGN and returns accuracy (0-100) for white and black. */
+    /**
+     * Runs engine on each position from PGN and returns accuracy (0-100) for white and black. Positions are
+     * spread over up to one worker per pooled engine (see {@link PositionQueue}); the pool size is what bounds
+     * the CPU an analysis uses, and best moves are put back in game order before scoring. Positions found in
+     * the {@link EvaluationCache} are not searched again.
+     */
     public AnalysisResult run(String pgn) {
         List<PgnReplay.PositionAndMove> positions = PgnReplay.pgnToPositionAndMoves(pgn);
         if (positions.isEmpty()) {
             return new AnalysisResult(0, 0, 0);
         }
 
-        int whiteCorrect = 0, whiteTotal = 0, blackCorrect = 0, blackTotal = 0;
-
-        try (StockfishRunner engine = new StockfishRunner(enginePath, movetimeMs)) {
-            engine.start();
-            for (PgnReplay.PositionAndMove p : positions) {
-                String best = engine.getBestMove(p.fen());
-                if (best == null) continue;
-                boolean correct = best.equalsIgnoreCase(p.uciMove());
-                if (p.isWhite()) {
-                    whiteTotal++;
-                    if (correct) whiteCorrect++;
-                } else {
-                    blackTotal++;
-                    if (correct) blackCorrect++;
-                }
-            }
+        String[] bestMoves;
+        try {
+            bestMoves = bestMoves(positions);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Engine analysis interrupted", e);
         } catch (Exception e) {
             log.error("Engine analysis failed", e);
             throw new RuntimeException("Engine analysis failed", e);
         }
 
+        int whiteCorrect = 0, whiteTotal = 0, blackCorrect = 0, blackTotal = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            PgnReplay.PositionAndMove p = positions.get(i);
+            String best = bestMoves[i];
+            if (best == null) continue;
+            boolean correct = best.equalsIgnoreCase(p.uciMove());
+            if (p.isWhite()) {
+                whiteTotal++;
+                if (correct) whiteCorrect++;
+            } else {
+                blackTotal++;
+                if (correct) blackCorrect++;
+            }
+        }
+
         int accWhite = whiteTotal == 0 ? 0 : (whiteCorrect * 100) / whiteTotal;
         int accBlack = blackTotal == 0 ? 0 : (blackCorrect * 100) / blackTotal;
         return new AnalysisResult(positions.size(), accWhite, accBlack);
     }
 
+    /**
+     * Best move per position, indexed like {@code positions}. A worker borrows an engine at its first cache miss
+     * and keeps it for the rest of the game. A worker that cannot borrow an engine, or whose engine dies, puts its
+     * position back for the others and stops; the analysis fails only if no worker is left to evaluate it.
+     */
+    private String[] bestMoves(List<PgnReplay.PositionAndMove> positions) throws Exception {
+        String[] bestMoves = new String[positions.size()];
+        int workers = Math.min(enginePool.size(), positions.size());
+        PositionQueue queue = new PositionQueue(positions.size(), workers);
+        AtomicInteger evaluated = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>(workers);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < workers; w++) {
+                int worker = w;
+                futures.add(executor.submit(() -> {
+                    StockfishRunner engine = null;
+                    try {
+                        for (int i = queue.take(worker); i >= 0; i = queue.take(worker)) {
+                            try {
+                                PgnReplay.PositionAndMove position = positions.get(i);
+                                Evaluation eval = evaluationCache.get(position.zobrist());
+                                if (eval == null) {
+                                    if (engine == null) engine = enginePool.borrow();
+                                    eval = engine.analyse(position.fen());
+                                    // a dead engine answers null to everything; not a position without a move
+                                    if (eval == null && !engine.isAlive()) {
+                                        throw new IllegalStateException("Analysis engine died");
+                                    }
+                                    evaluationCache.put(position.zobrist(), eval);
+                                }
+                                bestMoves[i] = eval != null ? eval.bestMove() : null;
+                            } catch (Throwable e) {
+                                // handed back even on an Error: the other workers wait for every taken position
+                                queue.putBack(i);
+                                throw e;
+                            }
+                            evaluated.incrementAndGet();
+                            queue.done(i);
+                        }
+                    } finally {
+                        enginePool.release(engine);
+                    }
+                    return null;
+                }));
+            }
+        } // close() waits for every worker
+
+        Exception failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null && e.getCause() instanceof Exception cause) failure = cause;
+            }
+        }
+        if (failure != null && evaluated.get() < positions.size()) throw failure;
+        return bestMoves;
+    }
+
     public record AnalysisResult(int totalMoves, int accuracyWhite, int accuracyBlack) {}
 }
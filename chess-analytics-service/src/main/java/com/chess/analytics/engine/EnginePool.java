@@ -0,0 +1,143 @@
+package com.chess.analytics.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-lived UCI engine processes shared by analysis jobs, so process spawn and network load are paid once per
+ * engine instead of once per game. The pool size times Threads per engine is the CPU budget of all analyses
+ * together: workers of every job search only on borrowed engines. Borrowers wait in FIFO order for a free engine. An engine is reset with
+ * {@code ucinewgame} when it comes back; one that does not confirm, or whose process died, is closed and
+ * restarted by the next borrower.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "analysis.engine.enabled", havingValue = "true", matchIfMissing = false)
+public class EnginePool {
+
+    private final String enginePath;
+    private final long movetimeMs;
+    private final int size;
+    private final int threads;
+    private final int hashMb;
+    private final long borrowTimeoutMs;
+    private final long healthTimeoutMs;
+    private final BlockingQueue<StockfishRunner> idle;
+    private final Counter restarts;
+
+    private volatile boolean closed;
+
+    public EnginePool(
+            MeterRegistry meterRegistry,
+            @Value("${analysis.engine.path:stockfish}") String enginePath,
+            @Value("${analysis.engine.movetime-ms:400}") long movetimeMs,
+            @Value("${analysis.engine.pool-size:0}") int size,
+            @Value("${analysis.engine.threads:1}") int threads,
+            @Value("${analysis.engine.hash-mb:64}") int hashMb,
+            @Value("${analysis.engine.borrow-timeout-ms:60000}") long borrowTimeoutMs,
+            @Value("${analysis.engine.health-timeout-ms:5000}") long healthTimeoutMs) {
+        this.enginePath = enginePath;
+        this.movetimeMs = movetimeMs;
+        // 0: as many engines as the CPUs allow at the configured Threads each
+        this.size = size > 0 ? size : Math.max(1, Runtime.getRuntime().availableProcessors() / Math.max(1, threads));
+        this.threads = threads;
+        this.hashMb = hashMb;
+        this.borrowTimeoutMs = Math.max(0, borrowTimeoutMs);
+        this.healthTimeoutMs = Math.max(1, healthTimeoutMs);
+        // fair: borrowers blocked on an empty pool are served in arrival order
+        this.idle = new ArrayBlockingQueue<>(this.size, true);
+        Gauge.builder("analysis.engine.pool.idle", idle, BlockingQueue::size)
+                .description("Engines waiting to be borrowed")
+                .register(meterRegistry);
+        this.restarts = Counter.builder("analysis.engine.restarts")
+                .description("Engine processes restarted after dying or failing a health check")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < size; i++) {
+            StockfishRunner engine = newEngine();
+            try {
+                engine.start();
+            } catch (IOException e) {
+                // left in the pool unstarted; the first borrower retries
+                log.warn("Could not start analysis engine {}: {}", enginePath, e.getMessage());
+                engine.close();
+            }
+            idle.add(engine);
+        }
+        log.info("Analysis engine pool started: {} x {} (threads={}, hash={}MB)", size, enginePath, threads, hashMb);
+    }
+
+    @PreDestroy
+    void stop() {
+        closed = true;
+        List<StockfishRunner> engines = new ArrayList<>();
+        idle.drainTo(engines);
+        engines.forEach(StockfishRunner::close);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Takes a free engine, waiting up to {@code analysis.engine.borrow-timeout-ms}. The caller must hand it
+     * back with {@link #release}, also when the analysis fails.
+     */
+    public StockfishRunner borrow() throws InterruptedException {
+        if (closed) throw new IllegalStateException("Analysis engine pool is closed");
+        StockfishRunner engine = idle.poll(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        if (engine == null) {
+            throw new IllegalStateException("No analysis engine free within " + borrowTimeoutMs + " ms");
+        }
+        if (engine.isAlive()) return engine;
+
+        // the process is gone but its streams are still open
+        engine.close();
+        StockfishRunner restarted = newEngine();
+        try {
+            restarted.start();
+        } catch (IOException e) {
+            restarted.close();
+            idle.offer(engine);
+            throw new IllegalStateException("Analysis engine could not be restarted", e);
+        }
+        restarts.increment();
+        log.info("Restarted analysis engine {}", enginePath);
+        return restarted;
+    }
+
+    /** Resets the engine for the next game and puts it back; an engine that does not answer is closed instead. */
+    public void release(StockfishRunner engine) {
+        if (engine == null) return;
+        if (closed) {
+            engine.close();
+            return;
+        }
+        if (!engine.newGame(healthTimeoutMs)) {
+            log.warn("Analysis engine failed its health check; restarting on next borrow");
+            engine.close();
+        }
+        idle.offer(engine);
+    }
+
+    private StockfishRunner newEngine() {
+        return new StockfishRunner(enginePath, movetimeMs, threads, hashMb);
+    }
+}
@@ -0,0 +1,16 @@
+package com.chess.analytics.engine;
+
+/**
+ * Result of one engine search: best move in UCI notation, score in centipawns from the side to move, and the
+ * depth of the last completed iteration. Mates are scored {@link #MATE} minus the moves to mate, negated when
+ * the side to move is getting mated.
+ */
+public record Evaluation(String bestMove, int score, int depth) {
+
+    public static final int MATE = 32_000;
+
+    /** Score for a UCI {@code score mate n}; n is negative when the side to move is mated. */
+    public static int mateScore(int movesToMate) {
+        return movesToMate >= 0 ? MATE - movesToMate : -MATE - movesToMate;
+    }
+}
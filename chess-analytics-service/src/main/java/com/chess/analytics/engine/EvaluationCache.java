@@ -0,0 +1,85 @@
+package com.chess.analytics.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Engine evaluations by Zobrist key, shared across games: openings repeat, so most early positions have been
+ * searched before. Looks in the in-process table first, then in Redis (when the service runs with Redis), and
+ * copies Redis hits into the table. An entry answers a lookup only if it was searched at least
+ * {@code analysis.cache.min-depth} deep; a deeper search replaces a shallower one in both tiers.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "analysis.engine.enabled", havingValue = "true", matchIfMissing = false)
+public class EvaluationCache {
+
+    private final boolean enabled;
+    private final int minDepth;
+    private final LocalEvaluationCache local;
+    private final RedisEvaluationCache redis;
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    public EvaluationCache(
+            MeterRegistry meterRegistry,
+            ObjectProvider<StringRedisTemplate> redisTemplate,
+            @Value("${analysis.cache.enabled:true}") boolean enabled,
+            @Value("${analysis.cache.min-depth:0}") int minDepth,
+            @Value("${analysis.cache.local-entries:262144}") int localEntries,
+            @Value("${analysis.cache.redis.enabled:true}") boolean redisEnabled,
+            @Value("${analysis.cache.redis.ttl-days:30}") long redisTtlDays) {
+        this.enabled = enabled;
+        this.minDepth = minDepth;
+        this.local = new LocalEvaluationCache(localEntries);
+        StringRedisTemplate template = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.redis = template != null ? new RedisEvaluationCache(template, Duration.ofDays(redisTtlDays)) : null;
+        this.localHits = Counter.builder("analysis.cache.hits").tag("tier", "local")
+                .description("Positions answered from the evaluation cache instead of the engine")
+                .register(meterRegistry);
+        this.redisHits = Counter.builder("analysis.cache.hits").tag("tier", "redis")
+                .description("Positions answered from the evaluation cache instead of the engine")
+                .register(meterRegistry);
+        this.misses = Counter.builder("analysis.cache.misses")
+                .description("Positions the engine had to search")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Evaluation cache: {} local entries, redis tier {}", localEntries, redis != null ? "on" : "off");
+        }
+    }
+
+    /** Cached evaluation of the position, or null if it has to be searched. */
+    public Evaluation get(long zobrist) {
+        if (!enabled) return null;
+        Evaluation eval = local.get(zobrist, minDepth);
+        if (eval != null) {
+            localHits.increment();
+            return eval;
+        }
+        if (redis != null) {
+            eval = redis.get(zobrist, minDepth);
+            if (eval != null) {
+                local.put(zobrist, eval);
+                redisHits.increment();
+                return eval;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(long zobrist, Evaluation eval) {
+        if (!enabled || eval == null || eval.bestMove() == null) return;
+        local.put(zobrist, eval);
+        if (redis != null) redis.put(zobrist, eval);
+    }
+}
@@ -0,0 +1,104 @@
+package com.chess.analytics.engine;
+
+/**
+ * In-process tier of the evaluation cache: a fixed-size table over primitive arrays, laid out like an engine's
+ * transposition table, so it holds a few hundred thousand positions without an object per entry. Each Zobrist
+ * key maps to a bucket of two slots; the first keeps the deepest search seen, the second takes whatever the
+ * first turned away, so a shallow newcomer cannot push out a deep entry but still gets cached. The best move is
+ * packed into an int (from, to, promotion).
+ */
+final class LocalEvaluationCache {
+
+    private static final String PROMOTIONS = "nbrq";
+
+    private final long[] keys;
+    private final int[] moves;
+    private final int[] scores;
+    /** 0 marks an empty slot; stored depths are at least 1. */
+    private final byte[] depths;
+    private final int bucketMask;
+
+    /** Capacity is rounded up to a power of two and to at least one bucket. */
+    LocalEvaluationCache(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        keys = new long[slots];
+        moves = new int[slots];
+        scores = new int[slots];
+        depths = new byte[slots];
+        bucketMask = slots / 2 - 1;
+    }
+
+    /** Cached evaluation of the position searched at least {@code minDepth} deep, or null. */
+    synchronized Evaluation get(long zobrist, int minDepth) {
+        int slot = bucket(zobrist);
+        for (int i = slot; i < slot + 2; i++) {
+            if (depths[i] != 0 && keys[i] == zobrist) {
+                return depths[i] >= minDepth ? new Evaluation(unpackMove(moves[i]), scores[i], depths[i]) : null;
+            }
+        }
+        return null;
+    }
+
+    /** Stores the evaluation unless the position is already cached from a deeper search. */
+    synchronized void put(long zobrist, Evaluation eval) {
+        int move = packMove(eval.bestMove());
+        if (move < 0) return;
+        int depth = Math.min(Byte.MAX_VALUE, Math.max(1, eval.depth()));
+        int deep = bucket(zobrist);
+        int recent = deep + 1;
+
+        if (depths[deep] != 0 && keys[deep] == zobrist) {
+            if (depth >= depths[deep]) write(deep, zobrist, move, eval.score(), depth);
+            return;
+        }
+        if (depths[recent] != 0 && keys[recent] == zobrist) {
+            if (depth < depths[recent]) return;
+            depths[recent] = 0;
+        }
+        if (depth >= depths[deep]) {
+            if (depths[deep] != 0) write(recent, keys[deep], moves[deep], scores[deep], depths[deep]);
+            write(deep, zobrist, move, eval.score(), depth);
+        } else {
+            write(recent, zobrist, move, eval.score(), depth);
+        }
+    }
+
+    private int bucket(long zobrist) {
+        return (int) ((zobrist ^ (zobrist >>> 32)) & bucketMask) << 1;
+    }
+
+    private void write(int slot, long zobrist, int move, int score, int depth) {
+        keys[slot] = zobrist;
+        moves[slot] = move;
+        scores[slot] = score;
+        depths[slot] = (byte) depth;
+    }
+
+    /** e2e4 -> from | to << 6 | promotion << 12, or -1 if the text is not a UCI move. */
+    static int packMove(String uci) {
+        if (uci == null || uci.length() < 4 || uci.length() > 5) return -1;
+        int from = square(uci.charAt(0), uci.charAt(1));
+        int to = square(uci.charAt(2), uci.charAt(3));
+        int promotion = uci.length() == 5 ? PROMOTIONS.indexOf(Character.toLowerCase(uci.charAt(4))) + 1 : 0;
+        if (from < 0 || to < 0 || promotion < 0 || (uci.length() == 5 && promotion == 0)) return -1;
+        return from | to << 6 | promotion << 12;
+    }
+
+    static String unpackMove(int packed) {
+        StringBuilder uci = new StringBuilder(5);
+        appendSquare(uci, packed & 63);
+        appendSquare(uci, (packed >>> 6) & 63);
+        int promotion = packed >>> 12;
+        if (promotion > 0) uci.append(PROMOTIONS.charAt(promotion - 1));
+        return uci.toString();
+    }
+
+    private static int square(char file, char rank) {
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') return -1;
+        return (file - 'a') + (rank - '1') * 8;
+    }
+
+    private static void appendSquare(StringBuilder uci, int square) {
+        uci.append((char) ('a' + square % 8)).append((char) ('1' + square / 8));
+    }
+}
@@ -8,7 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
 
-/** Converts PGN text to a list of (fen, uciMove, isWhite) for engine comparison. */
+/** Converts PGN text to a list of (fen, zobrist, uciMove, isWhite) for engine comparison. */
 @Slf4j
 public final class PgnReplay {
 
@@ -28,13 +28,14 @@ public final class PgnReplay {
 
         for (String san : sans) {
             String fen = board.getFen();
+            long zobrist = board.getZobristKey();
             Move move = findLegalMove(board, san);
             if (move == null) {
                 log.warn("Could not find legal move for SAN: {} in PGN", san);
                 break;
             }
             String uci = toUci(move);
-            out.add(new PositionAndMove(fen, uci, whiteTurn));
+            out.add(new PositionAndMove(fen, zobrist, uci, whiteTurn));
             board.doMove(move, true);
             whiteTurn = !whiteTurn;
         }
@@ -79,5 +80,6 @@ public final class PgnReplay {
         return null;
     }
 
-    public record PositionAndMove(String fen, String uciMove, boolean isWhite) {}
+    /** {@code zobrist} identifies the position regardless of move order, so transpositions share cache entries. */
+    public record PositionAndMove(String fen, long zobrist, String uciMove, boolean isWhite) {}
 }
@@ -0,0 +1,75 @@
+package com.chess.analytics.engine;
+
+/**
+ * Hands out position indexes to the workers of one analysis. Each worker starts with a contiguous slice of the
+ * game, so its engine searches consecutive positions and keeps hitting its own hash table; a worker whose slice
+ * runs out steals the back half of the largest slice left, so a slow engine or a worker that never got an engine
+ * does not hold up the rest.
+ * <p>
+ * A taken position is outstanding until the worker reports it {@link #done} or {@link #putBack puts it back}
+ * because it could not evaluate it. Put-back positions go to the next worker that runs out of its own slice, and
+ * {@link #take} only reports the end once nothing is left and nothing is outstanding, so a worker that fails late
+ * still finds someone to take over its position.
+ */
+final class PositionQueue {
+
+    private final int[] next;
+    private final int[] end;
+    private final int[] returned;
+    private int returnedCount;
+    private int outstanding;
+
+    PositionQueue(int positions, int workers) {
+        next = new int[workers];
+        end = new int[workers];
+        returned = new int[positions];
+        for (int w = 0; w < workers; w++) {
+            next[w] = (int) ((long) positions * w / workers);
+            end[w] = (int) ((long) positions * (w + 1) / workers);
+        }
+    }
+
+    /**
+     * Next position for the worker, or -1 once every position is done. Waits while nothing is left to take but
+     * other workers still hold positions they may put back.
+     */
+    synchronized int take(int worker) throws InterruptedException {
+        while (true) {
+            int position = poll(worker);
+            if (position >= 0) {
+                outstanding++;
+                return position;
+            }
+            if (outstanding == 0) return -1;
+            wait();
+        }
+    }
+
+    /** The position was evaluated. */
+    synchronized void done(int position) {
+        if (--outstanding == 0) notifyAll();
+    }
+
+    /** The position was not evaluated; another worker takes it. */
+    synchronized void putBack(int position) {
+        outstanding--;
+        returned[returnedCount++] = position;
+        notifyAll();
+    }
+
+    private int poll(int worker) {
+        if (next[worker] < end[worker]) return next[worker]++;
+        if (returnedCount > 0) return returned[--returnedCount];
+
+        int victim = -1;
+        for (int w = 0; w < next.length; w++) {
+            if (next[w] < end[w] && (victim < 0 || end[w] - next[w] > end[victim] - next[victim])) victim = w;
+        }
+        if (victim < 0) return -1;
+        int split = next[victim] + (end[victim] - next[victim]) / 2;
+        next[worker] = split;
+        end[worker] = end[victim];
+        end[victim] = split;
+        return next[worker]++;
+    }
+}
@@ -0,0 +1,60 @@
+package com.chess.analytics.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared tier of the evaluation cache: one hash per position ({@code analytics:eval:<zobrist hex>} with move,
+ * score and depth), so every analytics instance reuses the others' searches. A put keeps the deeper search
+ * ({@code eval-put.lua}). Redis failures are logged and treated as misses; the cache never fails an analysis.
+ */
+@Slf4j
+final class RedisEvaluationCache {
+
+    private static final String KEY_PREFIX = "analytics:eval:";
+    private static final String PUT_SCRIPT_PATH = "lua/eval-put.lua";
+
+    private final StringRedisTemplate redisTemplate;
+    private final DefaultRedisScript<Long> putScript;
+    private final String ttlSeconds;
+
+    RedisEvaluationCache(StringRedisTemplate redisTemplate, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.putScript = new DefaultRedisScript<>();
+        this.putScript.setLocation(new ClassPathResource(PUT_SCRIPT_PATH));
+        this.putScript.setResultType(Long.class);
+        this.ttlSeconds = String.valueOf(Math.max(1, ttl.toSeconds()));
+    }
+
+    Evaluation get(long zobrist, int minDepth) {
+        try {
+            Map<Object, Object> entry = redisTemplate.opsForHash().entries(key(zobrist));
+            if (entry.isEmpty()) return null;
+            int depth = Integer.parseInt((String) entry.get("depth"));
+            if (depth < minDepth) return null;
+            return new Evaluation((String) entry.get("move"), Integer.parseInt((String) entry.get("score")), depth);
+        } catch (Exception e) {
+            log.debug("Evaluation cache read failed", e);
+            return null;
+        }
+    }
+
+    void put(long zobrist, Evaluation eval) {
+        try {
+            redisTemplate.execute(putScript, List.of(key(zobrist)),
+                    eval.bestMove(), String.valueOf(eval.score()), String.valueOf(eval.depth()), ttlSeconds);
+        } catch (Exception e) {
+            log.debug("Evaluation cache write failed", e);
+        }
+    }
+
+    private static String key(long zobrist) {
+        return KEY_PREFIX + Long.toHexString(zobrist);
+    }
+}
@@ -10,22 +10,35 @@ import java.util.regex.Pattern;
 /**
  * Runs Stockfish (or any UCI engine) as subprocess and returns best move for a FEN position.
  * Engine path is configurable (e.g. stockfish, /usr/bin/stockfish, or path in Docker).
+ * Meant to live across many games: {@link #newGame()} resets it between jobs and {@link #isHealthy(long)}
+ * tells a pool whether the process still answers.
  */
 @Slf4j
 public class StockfishRunner implements AutoCloseable {
 
     private static final Pattern BESTMOVE = Pattern.compile("bestmove\\s+(\\S+)(?:\\s+ponder\\s+\\S+)?");
+    private static final Pattern INFO_DEPTH = Pattern.compile("\\bdepth\\s+(\\d+)");
+    private static final Pattern INFO_SCORE = Pattern.compile("\\bscore\\s+(cp|mate)\\s+(-?\\d+)");
     private static final long DEFAULT_MOVETIME_MS = 500;
 
     private final String enginePath;
     private final long movetimeMs;
+    private final int threads;
+    private final int hashMb;
     private Process process;
     private OutputStream stdin;
     private BufferedReader stdout;
 
     public StockfishRunner(String enginePath, long movetimeMs) {
+        this(enginePath, movetimeMs, 0, 0);
+    }
+
+    /** Threads and Hash (MB) are sent as UCI options on start; 0 keeps the engine's default. */
+    public StockfishRunner(String enginePath, long movetimeMs, int threads, int hashMb) {
         this.enginePath = enginePath == null || enginePath.isBlank() ? "stockfish" : enginePath;
         this.movetimeMs = movetimeMs > 0 ? movetimeMs : DEFAULT_MOVETIME_MS;
+        this.threads = Math.max(0, threads);
+        this.hashMb = Math.max(0, hashMb);
     }
 
     public void start() throws IOException {
@@ -36,21 +49,63 @@ public class StockfishRunner implements AutoCloseable {
         stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
         send("uci");
         waitFor("uciok");
+        if (threads > 0) send("setoption name Threads value " + threads);
+        if (hashMb > 0) send("setoption name Hash value " + hashMb);
         send("isready");
         waitFor("readyok");
-        log.debug("Stockfish started: {}", enginePath);
+        log.debug("Stockfish started: {} (threads={}, hash={}MB)", enginePath, threads, hashMb);
+    }
+
+    /**
+     * Clears the hash table and search history so the next game does not inherit the previous one's.
+     * Returns false if the engine did not confirm within the timeout.
+     */
+    public boolean newGame(long timeoutMs) {
+        if (!isAlive()) return false;
+        try {
+            send("ucinewgame");
+        } catch (IOException e) {
+            return false;
+        }
+        return isHealthy(timeoutMs);
+    }
+
+    public boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    /** True if the process is running and answers {@code isready} within the timeout. */
+    public boolean isHealthy(long timeoutMs) {
+        if (!isAlive()) return false;
+        try {
+            send("isready");
+            return waitFor("readyok", timeoutMs);
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
     /** Returns UCI best move (e.g. e2e4) for the given FEN, or null if engine fails. */
     public String getBestMove(String fen) {
+        Evaluation eval = analyse(fen);
+        return eval != null ? eval.bestMove() : null;
+    }
+
+    /**
+     * Searches the FEN for the configured movetime and returns the best move with the score and depth of the
+     * last completed iteration, or null if the engine fails or has no move.
+     */
+    public Evaluation analyse(String fen) {
         if (process == null || !process.isAlive()) return null;
         try {
             send("position fen " + fen);
             send("go movetime " + movetimeMs);
-            String best = waitForBestMove();
-            return best;
+            return waitForBestMove();
         } catch (Exception e) {
-            log.warn("getBestMove failed for fen", e);
+            log.warn("analyse failed for fen", e);
             return null;
         }
     }
@@ -66,21 +121,51 @@ public class StockfishRunner implements AutoCloseable {
         while ((line = stdout.readLine()) != null) {
             if (line.strip().toLowerCase().contains(token.toLowerCase())) return;
         }
+        throw new EOFException("Engine exited before " + token);
+    }
+
+    /** Like {@link #waitFor(String)} but gives up after the timeout instead of blocking on a hung engine. */
+    private boolean waitFor(String token, long timeoutMs) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (System.nanoTime() < deadline) {
+            if (!stdout.ready()) {
+                if (!process.isAlive()) return false;
+                Thread.sleep(5);
+                continue;
+            }
+            String line = stdout.readLine();
+            if (line == null) return false;
+            if (line.strip().toLowerCase().contains(token.toLowerCase())) return true;
+        }
+        return false;
     }
 
-    private String waitForBestMove() throws IOException {
+    private Evaluation waitForBestMove() throws IOException {
+        int depth = 0;
+        int score = 0;
         String line;
         while ((line = stdout.readLine()) != null) {
+            if (line.startsWith("info")) {
+                var d = INFO_DEPTH.matcher(line);
+                var s = INFO_SCORE.matcher(line);
+                if (d.find() && s.find()) {
+                    depth = Integer.parseInt(d.group(1));
+                    int value = Integer.parseInt(s.group(2));
+                    score = "mate".equals(s.group(1)) ? Evaluation.mateScore(value) : value;
+                }
+                continue;
+            }
             var m = BESTMOVE.matcher(line);
             if (m.find()) {
                 String move = m.group(1);
-                if (!"none".equalsIgnoreCase(move)) return move;
+                if (!"none".equalsIgnoreCase(move)) return new Evaluation(move, score, Math.max(1, depth));
                 return null;
             }
         }
         return null;
     }
 
+    /** Stops the process if it still runs and closes its pipes, also when it has already died. */
     @Override
     public void close() {
         if (process != null && process.isAlive()) {
@@ -91,5 +176,16 @@ public class StockfishRunner implements AutoCloseable {
                 Thread.currentThread().interrupt();
             }
         }
+        closeQuietly(stdin);
+        closeQuietly(stdout);
+    }
+
+    private static void closeQuietly(Closeable stream) {
+        if (stream == null) return;
+        try {
+            stream.close();
+        } catch (IOException e) {
+            log.debug("Could not close engine stream: {}", e.getMessage());
+        }
     }
 }
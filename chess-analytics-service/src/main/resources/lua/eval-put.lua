@@ -0,0 +1,24 @@
+-- Stores an engine evaluation of a position unless the position is already cached from a deeper search.
+--
+-- KEYS[1] evaluation key  analytics:eval:<zobrist hex>
+--
+-- ARGV[1] best move (UCI)
+-- ARGV[2] score (centipawns, side to move)
+-- ARGV[3] depth
+-- ARGV[4] ttl seconds
+--
+-- Returns 1 if the evaluation was stored, 0 if a deeper one was kept (its TTL is refreshed).
+
+local key = KEYS[1]
+local depth = tonumber(ARGV[3])
+local ttl = tonumber(ARGV[4])
+
+local cached = tonumber(redis.call('HGET', key, 'depth'))
+if cached and cached > depth then
+    redis.call('EXPIRE', key, ttl)
+    return 0
+end
+
+redis.call('HSET', key, 'move', ARGV[1], 'score', ARGV[2], 'depth', ARGV[3])
+redis.call('EXPIRE', key, ttl)
+return 1
@@ -0,0 +1,109 @@
+package com.chess.analytics.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AnalysisRunnerTest {
+
+    private static final String PGN = "1. e4 e5 2. Nf3 Nc6 3. Bb5 a6 *";
+
+    @Mock
+    private EnginePool enginePool;
+    @Mock
+    private EvaluationCache evaluationCache;
+    @Mock
+    private StockfishRunner engine;
+    @Mock
+    private StockfishRunner deadEngine;
+
+    private AnalysisRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new AnalysisRunner(enginePool, evaluationCache);
+        when(enginePool.size()).thenReturn(2);
+    }
+
+    @Test
+    void run_handsAPositionToAnotherWorkerWhenBorrowingAnEngineFails() throws Exception {
+        // the first worker's search waits until the second has failed, so the second has taken a position first
+        CountDownLatch secondBorrowFailed = new CountDownLatch(1);
+        when(engine.analyse(anyString())).thenAnswer(inv -> {
+            secondBorrowFailed.await(5, TimeUnit.SECONDS);
+            return new Evaluation("e2e4", 20, 12);
+        });
+        when(enginePool.borrow())
+                .thenReturn(engine)
+                .thenAnswer(inv -> {
+                    secondBorrowFailed.countDown();
+                    throw new IllegalStateException("No analysis engine free within 0 ms");
+                });
+
+        AnalysisRunner.AnalysisResult result = runner.run(PGN);
+
+        assertThat(secondBorrowFailed.getCount()).isZero();
+        assertThat(result.accuracyWhite()).isEqualTo(33);
+        verify(engine, times(6)).analyse(anyString());
+    }
+
+    @Test
+    void run_requeuesThePositionOfAnEngineThatDied() throws Exception {
+        CountDownLatch died = new CountDownLatch(1);
+        when(engine.analyse(anyString())).thenAnswer(inv -> {
+            died.await(5, TimeUnit.SECONDS);
+            return new Evaluation("e2e4", 20, 12);
+        });
+        when(deadEngine.analyse(anyString())).thenAnswer(inv -> {
+            died.countDown();
+            return null;
+        });
+        when(deadEngine.isAlive()).thenReturn(false);
+        when(enginePool.borrow()).thenReturn(engine, deadEngine);
+
+        AnalysisRunner.AnalysisResult result = runner.run(PGN);
+
+        // every white move was scored, including the one the dead engine was searching
+        assertThat(result.accuracyWhite()).isEqualTo(33);
+        verify(engine, times(6)).analyse(anyString());
+        verify(enginePool).release(deadEngine);
+    }
+
+    @Test
+    void run_failsWhenNoWorkerIsLeftToEvaluateAPosition() throws Exception {
+        when(enginePool.borrow()).thenThrow(new IllegalStateException("No analysis engine free within 0 ms"));
+
+        assertThatThrownBy(() -> runner.run(PGN))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Engine analysis failed")
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void run_ignoresAWorkerFailureOnceEveryPositionIsEvaluated() throws Exception {
+        when(engine.analyse(anyString())).thenReturn(new Evaluation("e2e4", 20, 12));
+        when(enginePool.borrow()).thenReturn(engine);
+        doThrow(new IllegalStateException("release failed")).when(enginePool).release(any());
+
+        AnalysisRunner.AnalysisResult result = runner.run(PGN);
+
+        assertThat(result.totalMoves()).isEqualTo(6);
+        assertThat(result.accuracyWhite()).isEqualTo(33);
+        assertThat(result.accuracyBlack()).isZero();
+    }
+}
@@ -0,0 +1,139 @@
+package com.chess.analytics.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Runs the pool against a shell script that speaks just enough UCI, so no real engine is needed. */
+@DisabledOnOs(OS.WINDOWS)
+class EnginePoolTest {
+
+    @TempDir
+    Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EnginePool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.stop();
+        }
+    }
+
+    @Test
+    void borrow_restartsAnEngineWhoseProcessDied() throws Exception {
+        pool = pool(fakeEngine(""), 5_000);
+        pool.start();
+        StockfishRunner first = pool.borrow();
+        pool.release(first);
+
+        killEngineProcesses();
+        StockfishRunner second = pool.borrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.isAlive()).isTrue();
+        assertThat(second.getBestMove("startpos")).isEqualTo("e2e4");
+        assertThat(restarts()).isEqualTo(1.0);
+    }
+
+    @Test
+    void release_keepsAnEngineThatConfirmsTheNewGame() throws Exception {
+        pool = pool(fakeEngine(""), 5_000);
+        pool.start();
+        StockfishRunner engine = pool.borrow();
+
+        pool.release(engine);
+
+        assertThat(engine.isAlive()).isTrue();
+        assertThat(pool.borrow()).isSameAs(engine);
+        assertThat(restarts()).isZero();
+    }
+
+    @Test
+    void release_closesAnEngineThatFailsTheNewGameHealthCheck() throws Exception {
+        pool = pool(fakeEngine("hung=1"), 200);
+        pool.start();
+        StockfishRunner engine = pool.borrow();
+
+        pool.release(engine);
+
+        assertThat(engine.isAlive()).isFalse();
+        StockfishRunner restarted = pool.borrow();
+        assertThat(restarted).isNotSameAs(engine);
+        assertThat(restarted.isAlive()).isTrue();
+        assertThat(restarts()).isEqualTo(1.0);
+    }
+
+    @Test
+    void borrow_keepsTheEngineWhenItCannotBeRestarted() throws Exception {
+        pool = pool(dir.resolve("missing-engine"), 5_000);
+        pool.start();
+
+        assertThatThrownBy(pool::borrow)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("could not be restarted");
+        assertThat(meterRegistry.get("analysis.engine.pool.idle").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void borrow_failsWhenNoEngineFreesUpInTime() throws Exception {
+        pool = pool(fakeEngine(""), 5_000);
+        pool.start();
+        pool.borrow();
+
+        assertThatThrownBy(pool::borrow)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No analysis engine free");
+    }
+
+    private EnginePool pool(Path engine, long healthTimeoutMs) {
+        return new EnginePool(meterRegistry, engine.toString(), 50, 1, 1, 16, 100, healthTimeoutMs);
+    }
+
+    /**
+     * A UCI stub that always plays e2e4. {@code onNewGame} runs on {@code ucinewgame}; {@code hung=1} stops it
+     * answering {@code isready}.
+     */
+    private Path fakeEngine(String onNewGame) throws IOException {
+        Path script = dir.resolve("engine.sh");
+        Files.writeString(script, """
+                #!/bin/sh
+                hung=0
+                while read -r line; do
+                  case "$line" in
+                    uci) echo uciok ;;
+                    isready) [ "$hung" = 0 ] && echo readyok ;;
+                    ucinewgame) %s ;;
+                    go*) echo "info depth 5 score cp 20 pv e2e4"; echo "bestmove e2e4 ponder e7e5" ;;
+                  esac
+                done
+                """.formatted(onNewGame.isEmpty() ? ":" : onNewGame));
+        assertThat(script.toFile().setExecutable(true)).isTrue();
+        return script;
+    }
+
+    private void killEngineProcesses() {
+        ProcessHandle.current().children()
+                .filter(process -> process.info().commandLine().map(line -> line.contains(dir.toString())).orElse(false))
+                .forEach(process -> {
+                    process.destroyForcibly();
+                    process.onExit().orTimeout(2, TimeUnit.SECONDS).join();
+                });
+    }
+
+    private double restarts() {
+        return meterRegistry.get("analysis.engine.restarts").counter().count();
+    }
+}
@@ -0,0 +1,114 @@
+package com.chess.analytics.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalEvaluationCacheTest {
+
+    // with two buckets, even keys share bucket 0
+    private static final long A = 0, B = 2, C = 4;
+
+    private final LocalEvaluationCache cache = new LocalEvaluationCache(4);
+
+    @Test
+    void put_sendsAShallowerNewcomerToTheSecondSlot() {
+        cache.put(A, eval("e2e4", 20));
+        cache.put(B, eval("d2d4", 10));
+
+        assertThat(cache.get(A, 0)).isEqualTo(eval("e2e4", 20));
+        assertThat(cache.get(B, 0)).isEqualTo(eval("d2d4", 10));
+        assertThat(cache.get(C, 0)).isNull();
+    }
+
+    @Test
+    void put_deeperNewcomerPushesTheDeepEntryToTheSecondSlot() {
+        cache.put(A, eval("e2e4", 10));
+        cache.put(B, eval("d2d4", 20));
+        cache.put(C, eval("c2c4", 5));
+
+        // A went to the second slot when B arrived and was then replaced by C; B keeps the first
+        assertThat(cache.get(A, 0)).isNull();
+        assertThat(cache.get(B, 0)).isEqualTo(eval("d2d4", 20));
+        assertThat(cache.get(C, 0)).isEqualTo(eval("c2c4", 5));
+    }
+
+    @Test
+    void put_shallowerSearchOfACachedPositionKeepsTheDeeperOne() {
+        cache.put(A, eval("e2e4", 20));
+        cache.put(B, eval("d2d4", 10));
+
+        cache.put(A, eval("g1f3", 15));
+        cache.put(B, eval("g1f3", 5));
+
+        assertThat(cache.get(A, 0)).isEqualTo(eval("e2e4", 20));
+        assertThat(cache.get(B, 0)).isEqualTo(eval("d2d4", 10));
+    }
+
+    @Test
+    void put_deeperSearchOfTheSecondSlotMovesItToTheFirstWithoutADuplicate() {
+        cache.put(A, eval("e2e4", 20));
+        cache.put(B, eval("d2d4", 10));
+
+        cache.put(B, eval("c2c4", 30));
+        cache.put(C, eval("g1f3", 1));
+
+        // B moved to the first slot and A to the second, which C then took; B is not left behind in the second
+        assertThat(cache.get(B, 0)).isEqualTo(eval("c2c4", 30));
+        assertThat(cache.get(A, 0)).isNull();
+        assertThat(cache.get(C, 0)).isEqualTo(eval("g1f3", 1));
+    }
+
+    @Test
+    void put_equalDepthReplacesTheCachedEvaluation() {
+        cache.put(A, eval("e2e4", 12));
+        cache.put(A, eval("d2d4", 12));
+
+        assertThat(cache.get(A, 0)).isEqualTo(eval("d2d4", 12));
+    }
+
+    @Test
+    void get_missesEntriesShallowerThanMinDepth() {
+        cache.put(A, eval("e2e4", 8));
+
+        assertThat(cache.get(A, 9)).isNull();
+        assertThat(cache.get(A, 8)).isEqualTo(eval("e2e4", 8));
+    }
+
+    @Test
+    void put_clampsDepthToWhatASlotHolds() {
+        cache.put(A, eval("e2e4", 0));
+        cache.put(1, eval("d2d4", 500));
+
+        assertThat(cache.get(A, 0).depth()).isEqualTo(1);
+        assertThat(cache.get(1, 0).depth()).isEqualTo(Byte.MAX_VALUE);
+    }
+
+    @Test
+    void put_skipsEvaluationsWithoutAUciMove() {
+        cache.put(A, eval("none", 20));
+        cache.put(B, eval(null, 20));
+
+        assertThat(cache.get(A, 0)).isNull();
+        assertThat(cache.get(B, 0)).isNull();
+    }
+
+    @Test
+    void packMove_roundTripsPlainMovesAndPromotions() {
+        for (String uci : new String[] {"e2e4", "a1h8", "h8a1", "e7e8q", "a2a1n", "b7b8b", "g2g1r"}) {
+            assertThat(LocalEvaluationCache.unpackMove(LocalEvaluationCache.packMove(uci))).isEqualTo(uci);
+        }
+        assertThat(LocalEvaluationCache.unpackMove(LocalEvaluationCache.packMove("e7e8Q"))).isEqualTo("e7e8q");
+    }
+
+    @Test
+    void packMove_rejectsTextThatIsNotAUciMove() {
+        for (String text : new String[] {null, "", "e2", "e2e", "e2e4qq", "i2e4", "e9e4", "e0e4", "e7e8k", "e7e8 ", "0000"}) {
+            assertThat(LocalEvaluationCache.packMove(text)).as(String.valueOf(text)).isEqualTo(-1);
+        }
+    }
+
+    private static Evaluation eval(String move, int depth) {
+        return new Evaluation(move, 25, depth);
+    }
+}
@@ -0,0 +1,163 @@
+package com.chess.analytics.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PositionQueueTest {
+
+    @Test
+    void take_startsEachWorkerOnItsOwnContiguousSlice() throws Exception {
+        PositionQueue queue = new PositionQueue(10, 3);
+
+        assertThat(evaluate(queue, 0, 3)).containsExactly(0, 1, 2);
+        assertThat(evaluate(queue, 1, 3)).containsExactly(3, 4, 5);
+        assertThat(evaluate(queue, 2, 4)).containsExactly(6, 7, 8, 9);
+    }
+
+    @Test
+    void take_stealsTheBackHalfOfTheLargestSliceLeft() throws Exception {
+        PositionQueue queue = new PositionQueue(10, 3);
+        evaluate(queue, 0, 3);
+        evaluate(queue, 1, 1);
+
+        // worker 1 has 4..5 left, worker 2 has 6..9: worker 0 takes 8..9 and worker 2 keeps 6..7
+        assertThat(evaluate(queue, 0, 2)).containsExactly(8, 9);
+        assertThat(evaluate(queue, 2, 2)).containsExactly(6, 7);
+    }
+
+    @Test
+    void take_stealsASliceOfOneWhole() throws Exception {
+        PositionQueue queue = new PositionQueue(4, 2);
+        evaluate(queue, 0, 2);
+        evaluate(queue, 1, 1);
+
+        assertThat(evaluate(queue, 0, 1)).containsExactly(3);
+        assertThat(queue.take(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void take_returnsMinusOneOnceEveryPositionIsDone() throws Exception {
+        PositionQueue queue = new PositionQueue(3, 2);
+        evaluate(queue, 0, 3);
+
+        assertThat(queue.take(0)).isEqualTo(-1);
+        assertThat(queue.take(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void putBack_handsThePositionToTheNextWorkerOutOfWork() throws Exception {
+        PositionQueue queue = new PositionQueue(4, 2);
+        int lost = queue.take(1);
+        evaluate(queue, 0, 2);
+
+        queue.putBack(lost);
+
+        // worker 1 still has its own slice, so worker 0 gets the returned position
+        assertThat(evaluate(queue, 0, 1)).containsExactly(lost);
+        assertThat(evaluate(queue, 1, 1)).containsExactly(3);
+        assertThat(queue.take(0)).isEqualTo(-1);
+    }
+
+    @Test
+    void take_waitsForAnOutstandingPositionThatMayComeBack() throws Exception {
+        PositionQueue queue = new PositionQueue(2, 2);
+        int held = queue.take(1);
+        evaluate(queue, 0, 1);
+
+        CompletableFuture<Integer> next = CompletableFuture.supplyAsync(() -> take(queue, 0));
+        Thread.sleep(100);
+        assertThat(next).isNotDone();
+
+        queue.putBack(held);
+        assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo(held);
+
+        CompletableFuture<Integer> end = CompletableFuture.supplyAsync(() -> take(queue, 1));
+        Thread.sleep(100);
+        assertThat(end).isNotDone();
+
+        queue.done(held);
+        assertThat(end.get(5, TimeUnit.SECONDS)).isEqualTo(-1);
+    }
+
+    @Test
+    void take_handsOutEveryPositionOnceWhenWorkersOutnumberPositions() throws Exception {
+        PositionQueue queue = new PositionQueue(2, 4);
+        List<Integer> taken = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            for (int i = queue.take(worker); i >= 0; i = queue.take(worker)) {
+                taken.add(i);
+                queue.done(i);
+            }
+        }
+
+        assertThat(taken).containsExactlyInAnyOrder(0, 1);
+    }
+
+    @Test
+    void take_evaluatesEveryPositionOnceAcrossConcurrentWorkers() throws Exception {
+        int positions = 10_000;
+        int workers = 8;
+        PositionQueue queue = new PositionQueue(positions, workers);
+        ConcurrentLinkedQueue<Integer> evaluated = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            int worker = w;
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                    // worker 0 fails on its sixth position: it puts that back and stops, so the others have to
+                    // take over the position and steal the rest of its slice
+                    int limit = worker == 0 ? 5 : Integer.MAX_VALUE;
+                    for (int n = 0; ; n++) {
+                        int i = queue.take(worker);
+                        if (i < 0) break;
+                        if (n == limit) {
+                            queue.putBack(i);
+                            break;
+                        }
+                        evaluated.add(i);
+                        queue.done(i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(evaluated).containsExactlyInAnyOrderElementsOf(IntStream.range(0, positions).boxed().toList());
+    }
+
+    /** Takes {@code count} positions for the worker and marks each done. */
+    private static List<Integer> evaluate(PositionQueue queue, int worker, int count) throws InterruptedException {
+        List<Integer> taken = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int position = queue.take(worker);
+            taken.add(position);
+            queue.done(position);
+        }
+        return taken;
+    }
+
+    private static int take(PositionQueue queue, int worker) {
+        try {
+            return queue.take(worker);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -40,7 +40,9 @@ public class JwtAuthenticationGatewayFilter implements WebFilter {
             "/v1/auth/login",
             "/v1/auth/refresh",
             "/ws/",
-            "/actuator"
+            "/actuator",
+            "/matchmaking/queues",
+            "/v1/matchmaking/queues"
     );
 
     public JwtAuthenticationGatewayFilter(
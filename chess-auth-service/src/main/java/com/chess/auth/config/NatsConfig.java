@@ -1,5 +1,6 @@
 package com.chess.auth.config;
 
+import com.chess.common.concurrent.NatsOptions;
 import com.chess.events.constants.NatsSubjects;
 import io.nats.client.Connection;
 import io.nats.client.ConnectionListener;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import java.io.IOException;
 import java.time.Duration;
@@ -38,9 +40,9 @@ public class NatsConfig {
 
     @Bean
     @ConditionalOnProperty(name = "nats.enabled", havingValue = "true", matchIfMissing = true)
-    public Connection natsConnection() {
+    public Connection natsConnection(Environment environment) {
         try {
-            Options options = new Options.Builder()
+            Options.Builder builder = new Options.Builder()
                     .server(natsUrl)
                     .connectionName(connectionName)
                     .maxReconnects(maxReconnects)
@@ -81,8 +83,9 @@ public class NatsConfig {
                         public void slowConsumerDetected(Connection conn, io.nats.client.Consumer consumer) {
                             log.warn("NATS slow consumer detected: {}", consumer);
                         }
-                    })
-                    .build();
+                    });
+            NatsOptions.applyVirtualThreads(builder, environment);
+            Options options = builder.build();
 
             Connection connection = Nats.connect(options);
             log.info("Connected to NATS server: {}", natsUrl);
@@ -0,0 +1,28 @@
+package com.chess.common.concurrent;
+
+import io.nats.client.Options;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+
+import java.util.concurrent.Executors;
+
+/**
+ * NATS connection options every service's {@code NatsConfig} shares under the {@code virtual-threads} profile.
+ */
+public final class NatsOptions {
+
+    private NatsOptions() {
+    }
+
+    /**
+     * With virtual threads enabled, hands the connection a virtual-thread-per-task executor: each dispatcher loop
+     * (and the listener code it calls) runs on its own virtual thread, and order per dispatcher is kept.
+     * {@code useDispatcherWithExecutor} is deliberately not used, since it runs every message as its own task
+     * and would reorder moves within a game.
+     */
+    public static void applyVirtualThreads(Options.Builder builder, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+    }
+}
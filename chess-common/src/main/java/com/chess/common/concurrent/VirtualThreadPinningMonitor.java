@@ -0,0 +1,111 @@
+package com.chess.common.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listens to JFR {@code jdk.VirtualThreadPinned} in-process: a virtual thread blocked while pinned to its
+ * carrier (inside {@code synchronized} or a native frame) for longer than the threshold. Pins are counted
+ * per call site, the topmost frame outside the JDK, so a pool or driver that still synchronizes around
+ * I/O shows up by name. Each new site is logged once with its stack; afterwards only
+ * the {@code jvm.threads.virtual.pinned} counter moves.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, LongAdder> pinsBySite = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+        this.threshold = threshold;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream rs = new RecordingStream();
+        rs.enable(EVENT).withThreshold(threshold).withStackTrace();
+        rs.onEvent(EVENT, this::onPinned);
+        rs.startAsync();
+        stream = rs;
+        log.info("Virtual thread pinning monitor started: threshold={}ms", threshold.toMillis());
+    }
+
+    /** Pins seen so far per call site. */
+    public Map<String, Long> pinsBySite() {
+        Map<String, Long> out = new ConcurrentHashMap<>();
+        pinsBySite.forEach((site, count) -> out.put(site, count.sum()));
+        return out;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String site = site(frames);
+        // the map runs the mapping function at most once per site, so only one of two racing pins sees it run
+        boolean[] first = new boolean[1];
+        pinsBySite.computeIfAbsent(site, k -> {
+            first[0] = true;
+            return new LongAdder();
+        }).increment();
+        if (meterRegistry != null) {
+            Counter.builder("jvm.threads.virtual.pinned")
+                    .description("Virtual threads blocked while pinned to their carrier")
+                    .tag("site", site)
+                    .register(meterRegistry)
+                    .increment();
+        }
+        if (first[0]) {
+            log.warn("Virtual thread pinned for {}ms at {}{}", event.getDuration().toMillis(), site, stack(frames));
+        }
+    }
+
+    static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (frame.isJavaFrame() && !type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return describe(frame);
+            }
+        }
+        return frames.isEmpty() ? "unknown" : describe(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static String stack(List<RecordedFrame> frames) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < frames.size() && i < LOGGED_FRAMES; i++) {
+            RecordedFrame frame = frames.get(i);
+            sb.append(System.lineSeparator()).append("    at ").append(describe(frame)).append(':').append(frame.getLineNumber());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package com.chess.common.concurrent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Active with the {@code virtual-threads} profile (or {@code spring.threads.virtual.enabled=true}):
+ * starts the pinning monitor so carrier-blocking hot spots show up in logs and metrics.
+ */
+@AutoConfiguration
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "virtual-threads.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${virtual-threads.pinning-monitor.threshold-ms:20}") long thresholdMs) {
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(
+                Duration.ofMillis(thresholdMs), meterRegistry.getIfAvailable());
+        monitor.start();
+        return monitor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.chess.common.concurrent;
+
+import io.nats.client.Options;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NatsOptionsTest {
+
+    @Test
+    void applyVirtualThreads_runsConnectionTasksOnVirtualThreadsWhenEnabled() throws Exception {
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+
+        assertThat(runsOnVirtualThread(environment)).isTrue();
+    }
+
+    @Test
+    void applyVirtualThreads_keepsTheDefaultExecutorOtherwise() throws Exception {
+        assertThat(runsOnVirtualThread(new MockEnvironment())).isFalse();
+        assertThat(runsOnVirtualThread(new MockEnvironment().withProperty("spring.threads.virtual.enabled", "false"))).isFalse();
+    }
+
+    private static boolean runsOnVirtualThread(MockEnvironment environment) throws Exception {
+        Options.Builder builder = new Options.Builder();
+        NatsOptions.applyVirtualThreads(builder, environment);
+        Options options = builder.build();
+
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        options.getExecutor().execute(() -> virtual.complete(Thread.currentThread().isVirtual()));
+        try {
+            return virtual.get(5, TimeUnit.SECONDS);
+        } finally {
+            options.getExecutor().shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.chess.common.concurrent;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VirtualThreadPinningMonitorTest {
+
+    private static final String SITE = "com.chess.game.service.GameService.makeMove";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor =
+            new VirtualThreadPinningMonitor(Duration.ofMillis(10), meterRegistry);
+    private final Logger logger = (Logger) LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private final ListAppender<ILoggingEvent> logs = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        logs.start();
+        logger.addAppender(logs);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(logs);
+        monitor.close();
+    }
+
+    @Test
+    void site_skipsJdkAndNativeFrames() {
+        List<RecordedFrame> frames = List.of(
+                frame("java.lang.VirtualThread", "parkOnCarrierThread", true),
+                frame("jdk.internal.misc.Unsafe", "park", true),
+                frame("sun.nio.ch.NioSocketImpl", "read", true),
+                frame("org.postgresql.core.PGStream", "receive", false),
+                frame("com.zaxxer.hikari.pool.HikariPool", "getConnection", true),
+                frame("com.chess.game.service.GameService", "makeMove", true));
+
+        assertThat(VirtualThreadPinningMonitor.site(frames)).isEqualTo("com.zaxxer.hikari.pool.HikariPool.getConnection");
+    }
+
+    @Test
+    void site_fallsBackToTheTopFrameWhenEveryFrameIsInTheJdk() {
+        List<RecordedFrame> frames = List.of(
+                frame("java.lang.Object", "wait0", false),
+                frame("java.lang.Object", "wait", true));
+
+        assertThat(VirtualThreadPinningMonitor.site(frames)).isEqualTo("java.lang.Object.wait0");
+        assertThat(VirtualThreadPinningMonitor.site(List.of())).isEqualTo("unknown");
+    }
+
+    @Test
+    void onPinned_logsTheFirstPinPerSiteOnceAndCountsEveryPin() {
+        RecordedEvent pin = event("com.chess.game.service.GameService", "makeMove");
+        RecordedEvent otherPin = event("com.chess.user.service.UserService", "updateRating");
+
+        monitor.onPinned(pin);
+        monitor.onPinned(pin);
+        monitor.onPinned(otherPin);
+        monitor.onPinned(pin);
+
+        assertThat(logs.list)
+                .filteredOn(e -> e.getLevel() == Level.WARN)
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .hasSize(2)
+                .anySatisfy(m -> assertThat(m).contains(SITE))
+                .anySatisfy(m -> assertThat(m).contains("com.chess.user.service.UserService.updateRating"));
+        assertThat(pinned(SITE).count()).isEqualTo(3);
+        assertThat(pinned("com.chess.user.service.UserService.updateRating").count()).isEqualTo(1);
+        assertThat(monitor.pinsBySite()).containsEntry(SITE, 3L);
+    }
+
+    @Test
+    void onPinned_logsOnceWhenTheFirstPinsOfASiteRace() throws Exception {
+        RecordedEvent pin = event("com.chess.game.service.GameService", "makeMove");
+        int pins = 64;
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService pool = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < pins; i++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    monitor.onPinned(pin);
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(logs.list).filteredOn(e -> e.getLevel() == Level.WARN).hasSize(1);
+        assertThat(pinned(SITE).count()).isEqualTo(pins);
+    }
+
+    @Test
+    void start_reportsAVirtualThreadBlockedInsideSynchronized() throws Exception {
+        monitor.start();
+        Object lock = new Object();
+
+        Thread pinned = Thread.ofVirtual().start(() -> holdLockWhileSleeping(lock));
+        pinned.join(TimeUnit.SECONDS.toMillis(5));
+
+        String site = VirtualThreadPinningMonitorTest.class.getName() + ".holdLockWhileSleeping";
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(monitor.pinsBySite()).containsKey(site));
+        assertThat(pinned(site).count()).isGreaterThanOrEqualTo(1);
+    }
+
+    private static void holdLockWhileSleeping(Object lock) {
+        synchronized (lock) {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private Counter pinned(String site) {
+        return meterRegistry.get("jvm.threads.virtual.pinned").tag("site", site).counter();
+    }
+
+    private static RecordedEvent event(String type, String method) {
+        RecordedStackTrace stackTrace = mock(RecordedStackTrace.class);
+        List<RecordedFrame> frames = List.of(
+                frame("java.lang.Thread", "sleep", true),
+                frame(type, method, true));
+        when(stackTrace.getFrames()).thenReturn(frames);
+        RecordedEvent event = mock(RecordedEvent.class);
+        when(event.getStackTrace()).thenReturn(stackTrace);
+        when(event.getDuration()).thenReturn(Duration.ofMillis(25));
+        return event;
+    }
+
+    private static RecordedFrame frame(String type, String method, boolean javaFrame) {
+        RecordedClass recordedClass = mock(RecordedClass.class);
+        when(recordedClass.getName()).thenReturn(type);
+        RecordedMethod recordedMethod = mock(RecordedMethod.class);
+        when(recordedMethod.getType()).thenReturn(recordedClass);
+        when(recordedMethod.getName()).thenReturn(method);
+        RecordedFrame frame = mock(RecordedFrame.class);
+        when(frame.getMethod()).thenReturn(recordedMethod);
+        when(frame.isJavaFrame()).thenReturn(javaFrame);
+        return frame;
+    }
+}
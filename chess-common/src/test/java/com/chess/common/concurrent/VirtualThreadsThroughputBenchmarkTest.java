@@ -0,0 +1,100 @@
+package com.chess.common.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Requests per second per core used, on Tomcat's default 200-thread platform pool against virtual threads, for a
+ * request shaped like the services' own: a small CPU slice and then {@value #BLOCKING_MS} ms blocked on I/O
+ * (JDBC, Redis or a call to another service). Opt-in, since it takes about a minute:
+ * {@code ./mvnw -pl chess-common test -Dtest=VirtualThreadsThroughputBenchmarkTest -Dsurefire.failIfNoSpecifiedTests=false -Dcommon.bench=true}.
+ * Cores used is process CPU time over wall time, so it includes GC and JIT; run on a quiet machine.
+ */
+@EnabledIfSystemProperty(named = "common.bench", matches = "true")
+class VirtualThreadsThroughputBenchmarkTest {
+
+    private static final int REQUESTS = 20_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final long BLOCKING_MS = 20;
+    private static final int CPU_ITERATIONS = 20_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final AtomicLong sink = new AtomicLong();
+
+    @Test
+    void throughputPerCore() throws Exception {
+        Result platform = measure(() -> Executors.newFixedThreadPool(PLATFORM_THREADS));
+        Result virtual = measure(Executors::newVirtualThreadPerTaskExecutor);
+
+        System.out.printf("%d requests of a CPU slice + %d ms blocking, %d cores available (median of %d rounds)%n",
+                REQUESTS, BLOCKING_MS, Runtime.getRuntime().availableProcessors(), MEASURED_ROUNDS);
+        System.out.printf("  before, %d platform threads: %,.0f req/s at %.2f cores, %,.0f req/s per core%n",
+                PLATFORM_THREADS, platform.perSecond, platform.cores, platform.perSecond / platform.cores);
+        System.out.printf("  after, virtual threads:       %,.0f req/s at %.2f cores, %,.0f req/s per core%n",
+                virtual.perSecond, virtual.cores, virtual.perSecond / virtual.cores);
+        assertThat(sink.get()).isNotZero();
+    }
+
+    private Result measure(Supplier<ExecutorService> executors) throws InterruptedException {
+        double[] perSecond = new double[MEASURED_ROUNDS];
+        double[] cores = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            CountDownLatch done = new CountDownLatch(REQUESTS);
+            long cpuStart = os.getProcessCpuTime();
+            long start = System.nanoTime();
+            try (ExecutorService executor = executors.get()) {
+                for (int i = 0; i < REQUESTS; i++) {
+                    executor.execute(() -> {
+                        handle();
+                        done.countDown();
+                    });
+                }
+                assertThat(done.await(5, TimeUnit.MINUTES)).isTrue();
+            }
+            long wall = System.nanoTime() - start;
+            long cpu = os.getProcessCpuTime() - cpuStart;
+            if (round >= WARMUP_ROUNDS) {
+                perSecond[round - WARMUP_ROUNDS] = REQUESTS * 1e9 / wall;
+                cores[round - WARMUP_ROUNDS] = (double) cpu / wall;
+            }
+        }
+        return new Result(median(perSecond), median(cores));
+    }
+
+    /** A CPU slice, then blocking I/O. */
+    private void handle() {
+        long x = Thread.currentThread().threadId();
+        for (int i = 0; i < CPU_ITERATIONS; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        sink.addAndGet(x | 1);
+        try {
+            Thread.sleep(BLOCKING_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Result(double perSecond, double cores) {
+    }
+}
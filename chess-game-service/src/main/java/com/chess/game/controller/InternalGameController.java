@@ -0,0 +1,65 @@
+package com.chess.game.controller;
+
+import com.chess.common.exception.ValidationException;
+import com.chess.game.dto.CreateGameRequest;
+import com.chess.game.dto.GameSummaryResponse;
+import com.chess.game.service.GameService;
+import com.chess.game.state.GameState;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+/**
+ * Internal API for matchmaking to create challenge games synchronously, instead of through MatchFound, and to
+ * look up a finished game for a rematch. Not exposed via gateway; only reachable inside the Docker network.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/games")
+@RequiredArgsConstructor
+public class InternalGameController {
+
+    private final GameService gameService;
+
+    @PostMapping
+    public ResponseEntity<GameSummaryResponse> create(@Valid @RequestBody CreateGameRequest request) {
+        if (request.getWhiteId().equals(request.getBlackId())) {
+            throw new ValidationException("Players must differ");
+        }
+        log.info("Internal create game: gameId={}, white={}, black={}, timeControl={}",
+                request.getGameId(), request.getWhiteId(), request.getBlackId(), request.getTimeControlType());
+        GameState state = gameService.createGame(
+                request.getGameId(),
+                request.getWhiteId(),
+                request.getBlackId(),
+                request.getTimeControlType(),
+                request.getBaseSeconds(),
+                request.getIncrementSeconds(),
+                request.getRated());
+        return ResponseEntity.status(HttpStatus.CREATED).body(toSummary(state));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<GameSummaryResponse> get(@PathVariable UUID id) {
+        return ResponseEntity.ok(toSummary(gameService.getState(id)));
+    }
+
+    private GameSummaryResponse toSummary(GameState state) {
+        return GameSummaryResponse.builder()
+                .gameId(state.getGameId())
+                .whiteId(state.getWhiteId())
+                .blackId(state.getBlackId())
+                .timeControlType(state.getTimeControl() != null ? state.getTimeControl().getType() : null)
+                .baseSeconds(state.getTimeControl() != null ? state.getTimeControl().getBaseSeconds() : 0)
+                .incrementSeconds(state.getTimeControl() != null ? state.getTimeControl().getIncrementSeconds() : 0)
+                .rated(state.isRated())
+                .status(state.getStatus() != null ? state.getStatus().name() : null)
+                .result(state.getResult())
+                .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.chess.game.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class CreateGameRequest {
+
+    @NotNull
+    private UUID gameId;
+
+    @NotNull
+    private UUID whiteId;
+
+    @NotNull
+    private UUID blackId;
+
+    @NotBlank
+    private String timeControlType;
+
+    @NotNull
+    @Min(10)
+    @Max(7200)
+    private Integer baseSeconds;
+
+    @NotNull
+    @Min(0)
+    @Max(60)
+    private Integer incrementSeconds;
+
+    @NotNull
+    private Boolean rated;
+}
@@ -0,0 +1,24 @@
+package com.chess.game.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameSummaryResponse {
+    private UUID gameId;
+    private UUID whiteId;
+    private UUID blackId;
+    private String timeControlType;
+    private int baseSeconds;
+    private int incrementSeconds;
+    private boolean rated;
+    private String status;
+    private String result;
+}
@@ -123,25 +123,41 @@ public class GameService {
     public void onMatchFound(MatchFoundEvent event) {
         UUID gameId = UUID.fromString(event.getGameId());
         if (gameRepository.existsById(gameId)) {
-            // idempotent consumer behavior on redelivery
+            // idempotent consumer behavior on redelivery, and games already created directly (challenges)
             log.info("Game already exists for gameId={}, skipping MatchFound", gameId);
             return;
         }
-        UUID whiteId = UUID.fromString(event.getWhitePlayerId());
-        UUID blackId = UUID.fromString(event.getBlackPlayerId());
+        createGame(gameId,
+                UUID.fromString(event.getWhitePlayerId()),
+                UUID.fromString(event.getBlackPlayerId()),
+                event.getTimeControlType(),
+                event.getBaseSeconds(),
+                event.getIncrementSeconds(),
+                event.getRated() != null && event.getRated());
+    }
+
+    /**
+     * Creates a running game with its clocks started and its state already in the state store, so the
+     * first move finds everything in Redis. Idempotent: an existing game is returned as it is.
+     */
+    public GameState createGame(UUID gameId, UUID whiteId, UUID blackId, String timeControlType,
+                                int baseSeconds, int incrementSeconds, boolean rated) {
+        if (gameRepository.existsById(gameId)) {
+            return getState(gameId);
+        }
 
         Instant now = Instant.now();
-        long baseMs = (long) event.getBaseSeconds() * 1000L;
+        long baseMs = (long) baseSeconds * 1000L;
         String startFen = new Board().getFen();
 
         GameEntity entity = GameEntity.builder()
                 .gameId(gameId)
                 .whiteId(whiteId)
                 .blackId(blackId)
-                .timeControlType(event.getTimeControlType())
-                .baseSeconds(event.getBaseSeconds())
-                .incrementSeconds(event.getIncrementSeconds())
-                .rated(event.getRated() != null && event.getRated())
+                .timeControlType(timeControlType)
+                .baseSeconds(baseSeconds)
+                .incrementSeconds(incrementSeconds)
+                .rated(rated)
                 .status(GameStatus.RUNNING)
                 .createdAt(now)
                 .startedAt(now)
@@ -165,11 +181,11 @@ public class GameService {
                         .lastMoveAt(now)
                         .build())
                 .timeControl(GameTimeControl.builder()
-                        .type(event.getTimeControlType())
-                        .baseSeconds(event.getBaseSeconds())
-                        .incrementSeconds(event.getIncrementSeconds())
+                        .type(timeControlType)
+                        .baseSeconds(baseSeconds)
+                        .incrementSeconds(incrementSeconds)
                         .build())
-                .rated(event.getRated() != null && event.getRated())
+                .rated(rated)
                 .status(GameStatus.RUNNING)
                 .startedAt(entity.getStartedAt())
                 .build();
@@ -178,6 +194,7 @@ public class GameService {
 
         gameEventPublisher.publishGameCreated(state);
         gameEventPublisher.publishGameStarted(state);
+        return state;
     }
 
     public GameState applyMove(UUID gameId, UUID userId, String uci, UUID clientMoveId) {
@@ -4,15 +4,35 @@ import com.chess.game.state.GameState;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Active game state in Redis, laid out for Redis Cluster: every key of a game carries the game id as its hash tag
+ * ({@code game:{<id>}}, {@code lock:game:{<id>}}, {@code game:clientMove:{<id>}:<clientMoveId>}), so one game's
+ * keys share a slot while games spread over the nodes. Clock deadlines are indexed in
+ * {@code game:timeoutIndex:<shard>} ZSETs ({@code game.timeout-index-shards}, by game id), so the index is not a
+ * single hot key; a poll reads the due head of every shard in one pipeline and merges them.
+ * <p>
+ * Earlier releases used untagged keys ({@code game:<id>}, {@code lock:game:<id>}, {@code game:clientMove:<id>:...}).
+ * A game still stored under the old key is moved to the tagged one, keeping its TTL, the first time it is read; a
+ * lock still held under the old key is honoured, and remembered client move results are looked up under both. Once
+ * moved, a game is no longer visible to instances of the earlier release, so they see it as ended.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -21,15 +41,24 @@ public class RedisGameStateStore implements GameStateStore {
     private static final String GAME_KEY_PREFIX = "game:";
     private static final String LOCK_KEY_PREFIX = "lock:game:";
     private static final String CLIENT_MOVE_PREFIX = "game:clientMove:";
-    private static final String TIMEOUT_ZSET_KEY = "game:timeoutIndex";
+    private static final String TIMEOUT_ZSET_KEY_PREFIX = "game:timeoutIndex:";
+    /** The unsharded index of earlier releases; entries still in it move to their shard when polled. */
+    private static final String LEGACY_TIMEOUT_ZSET_KEY = "game:timeoutIndex";
+    private static final Duration LEGACY_DEFAULT_TTL = Duration.ofHours(2);
 
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
 
+    @Value("${game.timeout-index-shards:16}")
+    private int timeoutIndexShards = 16;
+
     @Override
     public Optional<GameState> get(UUID gameId) {
-        String key = GAME_KEY_PREFIX + gameId;
+        String key = gameKey(GAME_KEY_PREFIX, gameId);
         String json = redisTemplate.opsForValue().get(key);
+        if (json == null || json.isBlank()) {
+            json = migrateLegacyState(gameId, key);
+        }
         if (json == null || json.isBlank()) {
             return Optional.empty();
         }
@@ -43,7 +72,7 @@ public class RedisGameStateStore implements GameStateStore {
 
     @Override
     public void put(GameState state, Duration ttl) {
-        String key = GAME_KEY_PREFIX + state.getGameId();
+        String key = gameKey(GAME_KEY_PREFIX, state.getGameId());
         try {
             String json = objectMapper.writeValueAsString(state);
             redisTemplate.opsForValue().set(key, json, ttl);
@@ -54,22 +83,32 @@ public class RedisGameStateStore implements GameStateStore {
 
     @Override
     public boolean tryLock(UUID gameId, Duration ttl) {
-        String key = LOCK_KEY_PREFIX + gameId;
+        String key = gameKey(LOCK_KEY_PREFIX, gameId);
         String token = UUID.randomUUID().toString();
         Boolean ok = redisTemplate.opsForValue().setIfAbsent(key, token, ttl);
-        return ok != null && ok;
+        if (ok == null || !ok) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(LOCK_KEY_PREFIX + gameId))) {
+            redisTemplate.delete(key);
+            return false;
+        }
+        return true;
     }
 
     @Override
     public void unlock(UUID gameId) {
-        String key = LOCK_KEY_PREFIX + gameId;
+        String key = gameKey(LOCK_KEY_PREFIX, gameId);
         redisTemplate.delete(key);
     }
 
     @Override
     public Optional<String> getClientMoveResult(UUID gameId, UUID clientMoveId) {
-        String key = CLIENT_MOVE_PREFIX + gameId + ":" + clientMoveId;
+        String key = gameKey(CLIENT_MOVE_PREFIX, gameId) + ":" + clientMoveId;
         String json = redisTemplate.opsForValue().get(key);
+        if (json == null || json.isBlank()) {
+            json = redisTemplate.opsForValue().get(CLIENT_MOVE_PREFIX + gameId + ":" + clientMoveId);
+        }
         if (json == null || json.isBlank()) {
             return Optional.empty();
         }
@@ -78,28 +117,102 @@ public class RedisGameStateStore implements GameStateStore {
 
     @Override
     public void rememberClientMoveResult(UUID gameId, UUID clientMoveId, String resultJson, Duration ttl) {
-        String key = CLIENT_MOVE_PREFIX + gameId + ":" + clientMoveId;
+        String key = gameKey(CLIENT_MOVE_PREFIX, gameId) + ":" + clientMoveId;
         redisTemplate.opsForValue().set(key, resultJson, ttl);
     }
 
     @Override
     public void upsertTimeoutDeadline(UUID gameId, long deadlineEpochMs) {
-        redisTemplate.opsForZSet().add(TIMEOUT_ZSET_KEY, gameId.toString(), deadlineEpochMs);
+        redisTemplate.opsForZSet().add(timeoutKey(gameId), gameId.toString(), deadlineEpochMs);
     }
 
     @Override
     public void removeTimeoutDeadline(UUID gameId) {
-        redisTemplate.opsForZSet().remove(TIMEOUT_ZSET_KEY, gameId.toString());
+        redisTemplate.opsForZSet().remove(timeoutKey(gameId), gameId.toString());
     }
 
+    /** The earliest {@code limit} due deadlines across all shards: each shard's head, merged by deadline. */
     @Override
+    @SuppressWarnings("unchecked")
     public List<UUID> pollExpiredTimeouts(long nowEpochMs, int limit) {
-        Set<String> ids = redisTemplate.opsForZSet()
-                .rangeByScore(TIMEOUT_ZSET_KEY, 0, nowEpochMs, 0, limit);
-        if (ids == null || ids.isEmpty()) {
+        int shards = shards();
+        List<Object> heads = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (int shard = 0; shard < shards; shard++) {
+                    operations.opsForZSet().rangeByScoreWithScores(TIMEOUT_ZSET_KEY_PREFIX + shard, 0, nowEpochMs, 0, limit);
+                }
+                operations.opsForZSet().rangeByScoreWithScores(LEGACY_TIMEOUT_ZSET_KEY, 0, nowEpochMs, 0, limit);
+                return null;
+            }
+        });
+
+        List<ZSetOperations.TypedTuple<String>> due = new ArrayList<>();
+        for (int i = 0; i < heads.size(); i++) {
+            if (heads.get(i) instanceof Set<?> head) {
+                List<ZSetOperations.TypedTuple<String>> entries = new ArrayList<>((Set<ZSetOperations.TypedTuple<String>>) head);
+                due.addAll(entries);
+                if (i == shards && !entries.isEmpty()) {
+                    moveToShards(entries);
+                }
+            }
+        }
+        if (due.isEmpty()) {
             return List.of();
         }
-        return ids.stream().map(UUID::fromString).toList();
+        due.sort(Comparator.comparingDouble(t -> t.getScore() != null ? t.getScore() : 0));
+        return due.stream()
+                .limit(limit)
+                .map(t -> UUID.fromString(t.getValue()))
+                .distinct()
+                .toList();
+    }
+
+    private void moveToShards(List<ZSetOperations.TypedTuple<String>> legacy) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (ZSetOperations.TypedTuple<String> t : legacy) {
+                    String gameId = t.getValue();
+                    operations.opsForZSet().add(timeoutKey(UUID.fromString(gameId)), gameId, t.getScore() != null ? t.getScore() : 0);
+                    operations.opsForZSet().remove(LEGACY_TIMEOUT_ZSET_KEY, gameId);
+                }
+                return null;
+            }
+        });
     }
-}
 
+    /**
+     * Moves a game stored under its pre-cluster key to {@code key} with the TTL it had left. If the tagged key was
+     * written in the meantime, that write wins and the old copy is only dropped.
+     */
+    private String migrateLegacyState(UUID gameId, String key) {
+        String legacyKey = GAME_KEY_PREFIX + gameId;
+        String json = redisTemplate.opsForValue().get(legacyKey);
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        Long ttlMs = redisTemplate.getExpire(legacyKey, TimeUnit.MILLISECONDS);
+        Duration ttl = ttlMs != null && ttlMs > 0 ? Duration.ofMillis(ttlMs) : LEGACY_DEFAULT_TTL;
+        Boolean moved = redisTemplate.opsForValue().setIfAbsent(key, json, ttl);
+        redisTemplate.delete(legacyKey);
+        if (moved == null || !moved) {
+            return redisTemplate.opsForValue().get(key);
+        }
+        log.info("Moved game state of gameId={} to its cluster key", gameId);
+        return json;
+    }
+
+    private String timeoutKey(UUID gameId) {
+        return TIMEOUT_ZSET_KEY_PREFIX + Math.floorMod(gameId.hashCode(), shards());
+    }
+
+    private int shards() {
+        return Math.max(1, timeoutIndexShards);
+    }
+
+    private static String gameKey(String prefix, UUID gameId) {
+        return prefix + "{" + gameId + "}";
+    }
+}
@@ -0,0 +1,63 @@
+package com.chess.loadtest;
+
+import com.chess.loadtest.bot.PlayerBot;
+import com.chess.loadtest.client.PlatformClient;
+import com.chess.loadtest.config.LoadTestProperties;
+import com.chess.loadtest.stats.LoadStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the players spread evenly over the ramp-up, prints the stats table every report interval and
+ * once more when the run ends. The run fails (non-zero exit) if no pairing and no move succeeded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadTestRunner implements CommandLineRunner {
+
+    private final LoadTestProperties properties;
+    private final PlatformClient client;
+    private final LoadStats stats;
+
+    @Override
+    public void run(String... args) throws Exception {
+        int players = properties.getPlayers();
+        long rampNanos = TimeUnit.SECONDS.toNanos(properties.getRampUpSeconds());
+        long start = System.nanoTime();
+        long deadline = start + rampNanos + TimeUnit.SECONDS.toNanos(properties.getDurationSeconds());
+        log.info("Starting {} players against {} (ramp-up {}s, duration {}s, {}+{})",
+                players, properties.getBaseUrl(), properties.getRampUpSeconds(), properties.getDurationSeconds(),
+                properties.getBaseSeconds(), properties.getIncrementSeconds());
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        long interval = Math.max(1, properties.getReportIntervalSeconds());
+        reporter.scheduleAtFixedRate(() -> log.info("\n{}", stats.report()), interval, interval, TimeUnit.SECONDS);
+
+        try (ExecutorService playersExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < players; i++) {
+                long startAt = start + (players > 1 ? rampNanos * i / (players - 1) : 0);
+                long wait = startAt - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                playersExecutor.execute(new PlayerBot(properties.getPlayerOffset() + i, properties, client, stats, deadline));
+            }
+            // close() waits for players; they stop on their own at the deadline
+        } finally {
+            reporter.shutdownNow();
+        }
+        log.info("Load test finished in {}s\n{}", TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), stats.report());
+        // a run in which nobody paired or moved measured nothing; fail it so a smoke run is a usable check
+        if (stats.count(LoadStats.PAIRING) == 0 || stats.count(LoadStats.MOVE) == 0) {
+            throw new IllegalStateException("No game was paired and played; see the failures above");
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.chess.loadtest.bot;
+
+import com.github.bhlangonijr.chesslib.Board;
+import com.github.bhlangonijr.chesslib.Piece;
+import com.github.bhlangonijr.chesslib.move.Move;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/** Picks a uniformly random legal move for the side to move in a FEN. */
+public final class MoveChooser {
+
+    private MoveChooser() {
+    }
+
+    /** UCI of a random legal move, or null when the position has none (mate or stalemate). */
+    public static String randomMove(String fen, RandomGenerator random) {
+        Board board = new Board();
+        board.loadFromFen(fen);
+        List<Move> moves = board.legalMoves();
+        if (moves.isEmpty()) {
+            return null;
+        }
+        return uci(moves.get(random.nextInt(moves.size())));
+    }
+
+    public static boolean whiteToMove(String fen) {
+        String[] fields = fen.split(" ");
+        return fields.length < 2 || "w".equals(fields[1]);
+    }
+
+    static String uci(Move move) {
+        String uci = move.getFrom().value().toLowerCase() + move.getTo().value().toLowerCase();
+        Piece promotion = move.getPromotion();
+        if (promotion == null || promotion == Piece.NONE) {
+            return uci;
+        }
+        return uci + switch (promotion.getPieceType()) {
+            case KNIGHT -> "n";
+            case BISHOP -> "b";
+            case ROOK -> "r";
+            default -> "q";
+        };
+    }
+}
@@ -0,0 +1,296 @@
+package com.chess.loadtest.bot;
+
+import com.chess.loadtest.client.PlatformClient;
+import com.chess.loadtest.client.PlatformException;
+import com.chess.loadtest.client.WsConnection;
+import com.chess.loadtest.config.LoadTestProperties;
+import com.chess.loadtest.stats.LoadStats;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One simulated player on its own virtual thread: logs in, then queues and plays games back to back until
+ * the deadline. Pairing is observed through the matchmaking channel of {@code /ws/stream}, games through
+ * {@code /ws/game/{gameId}}. Move round trip is MOVE sent to MOVE_ACCEPTED/MOVE_REJECTED with the same
+ * clientMoveId received.
+ */
+@Slf4j
+public class PlayerBot implements Runnable {
+
+    private final int index;
+    private final LoadTestProperties properties;
+    private final PlatformClient client;
+    private final LoadStats stats;
+    private final long deadlineNanos;
+
+    public PlayerBot(int index, LoadTestProperties properties, PlatformClient client, LoadStats stats, long deadlineNanos) {
+        this.index = index;
+        this.properties = properties;
+        this.client = client;
+        this.stats = stats;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void run() {
+        String token;
+        try {
+            token = login();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            return;
+        }
+        while (!expired() && !Thread.currentThread().isInterrupted()) {
+            try {
+                MatchFound match = queue(token);
+                if (match != null) {
+                    play(token, match);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.debug("Player {} round failed: {}", index, e.toString());
+                try {
+                    pause(1000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private String login() throws Exception {
+        String email = properties.getEmailPrefix() + index + "@loadtest.local";
+        long start = System.nanoTime();
+        try {
+            client.register(email, properties.getPassword());
+            String token = client.login(email, properties.getPassword());
+            stats.success(LoadStats.LOGIN, System.nanoTime() - start);
+            return token;
+        } catch (PlatformException e) {
+            stats.failure(LoadStats.LOGIN, "http_" + e.getStatus());
+            throw e;
+        } catch (IOException e) {
+            stats.failure(LoadStats.LOGIN, "io");
+            throw e;
+        }
+    }
+
+    /** Joins the queue and waits for MATCH_FOUND; null when pairing failed or timed out. */
+    MatchFound queue(String token) throws Exception {
+        WsConnection stream = connect(() -> client.openStream(token));
+        if (stream == null) {
+            pause(1000);
+            return null;
+        }
+        try {
+            stream.send(Map.of("type", "SUBSCRIBE", "channel", "matchmaking"));
+            if (await(stream, "SUBSCRIBED", properties.getReplyTimeoutMs()) == null) {
+                stats.failure(LoadStats.PAIRING, "subscribe");
+                return null;
+            }
+
+            long start = System.nanoTime();
+            try {
+                client.join(token, properties.getBaseSeconds(), properties.getIncrementSeconds(), properties.isRated());
+                stats.success(LoadStats.JOIN, System.nanoTime() - start);
+            } catch (PlatformException e) {
+                stats.failure(LoadStats.JOIN, "http_" + e.getStatus());
+                pause(1000);
+                return null;
+            }
+
+            JsonNode found = await(stream, "MATCH_FOUND", properties.getPairingTimeoutMs());
+            if (found == null) {
+                stats.failure(LoadStats.PAIRING, "timeout");
+                return null;
+            }
+            stats.success(LoadStats.PAIRING, System.nanoTime() - start);
+            return new MatchFound(UUID.fromString(found.path("gameId").asText()), "WHITE".equals(found.path("color").asText()));
+        } finally {
+            stream.close();
+        }
+    }
+
+    private void play(String token, MatchFound match) throws Exception {
+        WsConnection game = connect(() -> client.openGame(match.gameId(), token));
+        if (game == null) {
+            return;
+        }
+        stats.gameStarted();
+        try {
+            JsonNode state = await(game, "GAME_STATE", properties.getReplyTimeoutMs());
+            if (state == null) {
+                // the game may still have been in creation on connect; ask once more
+                game.send(Map.of("type", "SYNC"));
+                state = await(game, "GAME_STATE", properties.getReplyTimeoutMs());
+            }
+            if (state == null) {
+                stats.failure(LoadStats.MOVE, "no_state");
+                return;
+            }
+            String fen = state.path("fen").asText();
+            int ply = state.path("moves").size();
+            long moveSeq = 0;
+
+            while (true) {
+                if (ply >= properties.getMaxPlies() || expired()) {
+                    game.send(Map.of("type", "RESIGN"));
+                    await(game, "GAME_FINISHED", properties.getReplyTimeoutMs());
+                    return;
+                }
+                boolean myTurn = MoveChooser.whiteToMove(fen) == match.white();
+                if (myTurn) {
+                    pause(thinkTime());
+                    String uci = MoveChooser.randomMove(fen, ThreadLocalRandom.current());
+                    if (uci == null) {
+                        // mate or stalemate on the board; the server finishes the game
+                        await(game, "GAME_FINISHED", properties.getReplyTimeoutMs());
+                        return;
+                    }
+                    String clientMoveId = index + "-" + (++moveSeq);
+                    long sent = System.nanoTime();
+                    game.send(Map.of("type", "MOVE", "uci", uci, "clientMoveId", clientMoveId));
+                    JsonNode reply = awaitMoveReply(game, clientMoveId);
+                    if (reply == null) {
+                        stats.failure(LoadStats.MOVE, "timeout");
+                        return;
+                    }
+                    String type = reply.path("type").asText();
+                    if ("MOVE_ACCEPTED".equals(type)) {
+                        stats.success(LoadStats.MOVE, System.nanoTime() - sent);
+                        fen = reply.path("fen").asText(fen);
+                        ply = Math.max(ply, reply.path("ply").asInt(ply + 1));
+                    } else if ("MOVE_REJECTED".equals(type)) {
+                        stats.failure(LoadStats.MOVE, "rejected_" + reply.path("reason").asText());
+                        return;
+                    } else {
+                        finished(reply);
+                        return;
+                    }
+                } else {
+                    JsonNode frame = game.next(Duration.ofMillis(opponentTimeoutMs()));
+                    if (frame == null) {
+                        stats.failure(LoadStats.MOVE, "opponent_timeout");
+                        return;
+                    }
+                    String type = frame.path("type").asText();
+                    if ("MOVE_ACCEPTED".equals(type) && frame.path("ply").asInt() > ply) {
+                        fen = frame.path("fen").asText(fen);
+                        ply = frame.path("ply").asInt();
+                    } else if (isTerminal(type)) {
+                        finished(frame);
+                        return;
+                    }
+                }
+            }
+        } finally {
+            stats.gameEnded();
+            game.close();
+        }
+    }
+
+    /** Waits for our move's reply; an opponent broadcast of the same ply can arrive first and is skipped. */
+    private JsonNode awaitMoveReply(WsConnection game, String clientMoveId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMillis(properties.getReplyTimeoutMs()).toNanos();
+        while (true) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return null;
+            }
+            JsonNode frame = game.next(Duration.ofNanos(left));
+            if (frame == null) {
+                return null;
+            }
+            String type = frame.path("type").asText();
+            if (("MOVE_ACCEPTED".equals(type) || "MOVE_REJECTED".equals(type))
+                    && clientMoveId.equals(frame.path("clientMoveId").asText(null))) {
+                return frame;
+            }
+            if (isTerminal(type)) {
+                return frame;
+            }
+        }
+    }
+
+    private JsonNode await(WsConnection connection, String type, long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMillis(timeoutMs).toNanos();
+        while (true) {
+            long left = deadline - System.nanoTime();
+            if (left <= 0) {
+                return null;
+            }
+            JsonNode frame = connection.next(Duration.ofNanos(left));
+            if (frame == null) {
+                return null;
+            }
+            String t = frame.path("type").asText();
+            if (type.equals(t)) {
+                return frame;
+            }
+            if (WsConnection.CLOSED.equals(t)) {
+                stats.failure(LoadStats.WS_CONNECT, "closed_" + frame.path("code").asInt());
+                return null;
+            }
+        }
+    }
+
+    private void finished(JsonNode frame) {
+        if (WsConnection.CLOSED.equals(frame.path("type").asText())) {
+            stats.failure(LoadStats.WS_CONNECT, "closed_" + frame.path("code").asInt());
+        }
+    }
+
+    private static boolean isTerminal(String type) {
+        return "GAME_FINISHED".equals(type) || "TIME_EXPIRED".equals(type) || WsConnection.CLOSED.equals(type);
+    }
+
+    private WsConnection connect(SocketOpener opener) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            WsConnection connection = opener.open();
+            stats.success(LoadStats.WS_CONNECT, System.nanoTime() - start);
+            return connection;
+        } catch (IOException e) {
+            stats.failure(LoadStats.WS_CONNECT, "io");
+            return null;
+        }
+    }
+
+    private long thinkTime() {
+        long min = properties.getThinkTimeMinMs();
+        long max = Math.max(min, properties.getThinkTimeMaxMs());
+        return min == max ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    /** The opponent may think up to the max think time, plus the server round trip. */
+    private long opponentTimeoutMs() {
+        return Math.max(properties.getThinkTimeMaxMs(), 0) + properties.getReplyTimeoutMs();
+    }
+
+    private boolean expired() {
+        return System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    private static void pause(long ms) throws InterruptedException {
+        if (ms > 0) {
+            Thread.sleep(ms);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SocketOpener {
+        WsConnection open() throws IOException, InterruptedException;
+    }
+
+    record MatchFound(UUID gameId, boolean white) {
+    }
+}
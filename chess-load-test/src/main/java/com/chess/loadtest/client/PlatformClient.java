@@ -0,0 +1,105 @@
+package com.chess.loadtest.client;
+
+import com.chess.loadtest.config.LoadTestProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * REST and WebSocket access to the platform as a browser would use it. One {@link HttpClient} on virtual
+ * threads carries every player's requests and sockets.
+ */
+@Component
+public class PlatformClient {
+
+    private final LoadTestProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient http;
+
+    public PlatformClient(LoadTestProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .build();
+    }
+
+    /** Registers the user; an already registered email (409) is fine, runs reuse their players. */
+    public void register(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = post(properties.effectiveAuthUrl() + "/v1/auth/register", null,
+                Map.of("email", email, "password", password));
+        if (response.statusCode() != 201 && response.statusCode() != 409) {
+            throw new PlatformException("register", response.statusCode());
+        }
+    }
+
+    /** Returns the access token. */
+    public String login(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = post(properties.effectiveAuthUrl() + "/v1/auth/login", null,
+                Map.of("email", email, "password", password));
+        if (response.statusCode() != 200) {
+            throw new PlatformException("login", response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("accessToken").asText();
+    }
+
+    /** Returns the matchmaking request id. */
+    public String join(String token, int baseSeconds, int incrementSeconds, boolean rated) throws IOException, InterruptedException {
+        HttpResponse<String> response = post(properties.effectiveMatchmakingUrl() + "/v1/matchmaking/join", token,
+                Map.of("baseSeconds", baseSeconds, "incrementSeconds", incrementSeconds, "rated", rated));
+        if (response.statusCode() != 202) {
+            throw new PlatformException("join", response.statusCode());
+        }
+        return objectMapper.readTree(response.body()).path("requestId").asText();
+    }
+
+    public WsConnection openStream(String token) throws IOException, InterruptedException {
+        return openSocket("/ws/stream", token);
+    }
+
+    public WsConnection openGame(UUID gameId, String token) throws IOException, InterruptedException {
+        return openSocket("/ws/game/" + gameId, token);
+    }
+
+    private WsConnection openSocket(String path, String token) throws IOException, InterruptedException {
+        URI uri = URI.create(properties.effectiveWsUrl() + path + "?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8));
+        WsConnection connection = new WsConnection(objectMapper);
+        try {
+            http.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                    .buildAsync(uri, connection)
+                    .get(properties.getConnectTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("WebSocket connect failed: " + path, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("WebSocket connect timed out: " + path, e);
+        }
+        return connection;
+    }
+
+    private HttpResponse<String> post(String url, String token, Object body) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(properties.getReplyTimeoutMs()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,15 @@
+package com.chess.loadtest.client;
+
+import lombok.Getter;
+
+/** Non-success HTTP status from the platform; the status becomes the failure reason in the report. */
+@Getter
+public class PlatformException extends RuntimeException {
+
+    private final int status;
+
+    public PlatformException(String operation, int status) {
+        super(operation + " returned HTTP " + status);
+        this.status = status;
+    }
+}
@@ -0,0 +1,96 @@
+package com.chess.loadtest.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A client socket whose JSON frames are queued for the owning player thread to take in order.
+ * A close or error is delivered as a synthetic {@code {"type":"CLOSED"}} frame so a waiting player wakes up.
+ * Pings are answered by the JDK client, so the server heartbeat sees these sockets as live.
+ */
+public class WsConnection implements WebSocket.Listener {
+
+    public static final String CLOSED = "CLOSED";
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<JsonNode> inbox = new LinkedBlockingQueue<>();
+    private final StringBuilder partial = new StringBuilder();
+    private volatile WebSocket socket;
+
+    WsConnection(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.socket = webSocket;
+        webSocket.request(1);
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        partial.append(data);
+        if (last) {
+            try {
+                inbox.add(objectMapper.readTree(partial.toString()));
+            } catch (IOException e) {
+                inbox.add(closed(1007, "unparseable frame"));
+            }
+            partial.setLength(0);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        inbox.add(closed(statusCode, reason));
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        inbox.add(closed(1006, error.getClass().getSimpleName()));
+    }
+
+    /** Sends one JSON frame; callers are single-threaded per connection, as the JDK client requires. */
+    public void send(Object message) throws IOException, InterruptedException {
+        try {
+            socket.sendText(objectMapper.writeValueAsString(message), true).get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("WebSocket send failed", e);
+        }
+    }
+
+    /** Next frame, or null on timeout. */
+    public JsonNode next(Duration timeout) throws InterruptedException {
+        return inbox.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void close() {
+        WebSocket ws = socket;
+        if (ws != null && !ws.isOutputClosed()) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "").exceptionally(e -> null);
+        }
+    }
+
+    private static ObjectNode closed(int code, String reason) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("type", CLOSED);
+        node.put("code", code);
+        node.put("reason", reason);
+        return node;
+    }
+}
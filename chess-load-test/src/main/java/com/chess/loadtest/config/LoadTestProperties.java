@@ -0,0 +1,56 @@
+package com.chess.loadtest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "load")
+public class LoadTestProperties {
+
+    /** Gateway of the docker-compose stack; the per-service URLs below default to it. */
+    private String baseUrl = "http://localhost:8080";
+    private String authUrl;
+    private String matchmakingUrl;
+    /** ws:// or wss:// root of the WebSocket endpoints. */
+    private String wsUrl;
+
+    /** Simulated players; pairs of them make the concurrent games. */
+    private int players = 2000;
+    private String emailPrefix = "loadtest-";
+    private String password = "LoadTest123";
+    /** Offset of the first player index, so several generators can share one stack without colliding. */
+    private int playerOffset = 0;
+
+    private long rampUpSeconds = 60;
+    private long durationSeconds = 300;
+    private long reportIntervalSeconds = 10;
+
+    private int baseSeconds = 300;
+    private int incrementSeconds = 3;
+    private boolean rated = false;
+
+    /** Think time per move, drawn uniformly from [min, max]. */
+    private long thinkTimeMinMs = 500;
+    private long thinkTimeMaxMs = 3000;
+    /** Players resign after this many plies so games do not outlive the run. */
+    private int maxPlies = 120;
+
+    private long connectTimeoutMs = 10000;
+    private long pairingTimeoutMs = 120000;
+    private long replyTimeoutMs = 15000;
+
+    public String effectiveAuthUrl() {
+        return StringUtils.hasText(authUrl) ? authUrl : baseUrl;
+    }
+
+    public String effectiveMatchmakingUrl() {
+        return StringUtils.hasText(matchmakingUrl) ? matchmakingUrl : baseUrl;
+    }
+
+    public String effectiveWsUrl() {
+        return StringUtils.hasText(wsUrl) ? wsUrl : baseUrl.replaceFirst("^http", "ws");
+    }
+}
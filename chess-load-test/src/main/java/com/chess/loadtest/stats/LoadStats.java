@@ -0,0 +1,107 @@
+package com.chess.loadtest.stats;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and success/failure counts per operation, recorded from all player threads.
+ * Latencies are kept in microseconds with three significant digits, up to one hour.
+ */
+@Component
+public class LoadStats {
+
+    public static final String LOGIN = "login";
+    public static final String JOIN = "join";
+    public static final String PAIRING = "pairing";
+    public static final String WS_CONNECT = "ws_connect";
+    public static final String MOVE = "move";
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> attempts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final AtomicInteger gamesInProgress = new AtomicInteger();
+
+    /** Records a successful operation that took {@code nanos}. */
+    public void success(String op, long nanos) {
+        attempts(op).increment();
+        latencies.computeIfAbsent(op, k -> new ConcurrentHistogram(HIGHEST_MICROS, 3))
+                .recordValue(Math.min(HIGHEST_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos))));
+    }
+
+    /** Records a failed operation; {@code reason} is a short code such as an HTTP status or close reason. */
+    public void failure(String op, String reason) {
+        attempts(op).increment();
+        failures.computeIfAbsent(op + ":" + reason, k -> new LongAdder()).increment();
+    }
+
+    public void gameStarted() {
+        gamesInProgress.incrementAndGet();
+    }
+
+    public void gameEnded() {
+        gamesInProgress.decrementAndGet();
+        gamesFinished.increment();
+    }
+
+    public long count(String op) {
+        Histogram h = latencies.get(op);
+        return h != null ? h.getTotalCount() : 0;
+    }
+
+    /** Latency at the percentile in milliseconds, or 0 when nothing was recorded. */
+    public double percentileMs(String op, double percentile) {
+        Histogram h = latencies.get(op);
+        return h != null && h.getTotalCount() > 0 ? h.getValueAtPercentile(percentile) / 1000.0 : 0;
+    }
+
+    public double errorRate(String op) {
+        long total = attempts(op).sum();
+        if (total == 0) {
+            return 0;
+        }
+        long failed = failures.entrySet().stream()
+                .filter(e -> e.getKey().startsWith(op + ":"))
+                .mapToLong(e -> e.getValue().sum())
+                .sum();
+        return (double) failed / total;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "games: in progress=%d finished=%d%n", gamesInProgress.get(), gamesFinished.sum()));
+        sb.append(String.format(Locale.ROOT, "%-11s %9s %9s %9s %9s %9s %8s%n", "op", "count", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors"));
+        for (String op : new TreeMap<>(attempts).keySet()) {
+            Histogram h = latencies.get(op);
+            sb.append(String.format(Locale.ROOT, "%-11s %9d %9.1f %9.1f %9.1f %9.1f %7.2f%%%n",
+                    op,
+                    count(op),
+                    percentileMs(op, 50),
+                    percentileMs(op, 99),
+                    percentileMs(op, 99.9),
+                    h != null ? h.getMaxValue() / 1000.0 : 0,
+                    errorRate(op) * 100));
+        }
+        if (!failures.isEmpty()) {
+            sb.append("failures:");
+            new TreeMap<>(failures).forEach((k, v) -> sb.append(' ').append(k).append('=').append(v.sum()));
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private LongAdder attempts(String op) {
+        return attempts.computeIfAbsent(op, k -> new LongAdder());
+    }
+}
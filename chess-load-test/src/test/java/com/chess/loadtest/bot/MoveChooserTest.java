@@ -0,0 +1,37 @@
+package com.chess.loadtest.bot;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveChooserTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void randomMove_returnsLegalUci() {
+        String uci = MoveChooser.randomMove(START, new Random(1));
+
+        assertThat(uci).matches("[a-h][1-8][a-h][1-8]");
+        assertThat(uci.charAt(1)).isIn('1', '2');
+    }
+
+    @Test
+    void randomMove_isNullWhenMated_andPromotesWithSuffix() {
+        // fool's mate, white to move
+        assertThat(MoveChooser.randomMove("rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3", new Random(1))).isNull();
+        // lone pawn about to promote: every legal pawn move carries a promotion piece
+        String uci = MoveChooser.randomMove("8/P7/8/8/8/8/8/k6K w - - 0 1", new Random(3));
+        if (uci.startsWith("a7")) {
+            assertThat(uci).matches("a7a8[qrbn]");
+        }
+    }
+
+    @Test
+    void whiteToMove_readsFenSideField() {
+        assertThat(MoveChooser.whiteToMove(START)).isTrue();
+        assertThat(MoveChooser.whiteToMove("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1")).isFalse();
+    }
+}
@@ -0,0 +1,79 @@
+package com.chess.loadtest.bot;
+
+import com.chess.loadtest.client.PlatformClient;
+import com.chess.loadtest.client.WsConnection;
+import com.chess.loadtest.config.LoadTestProperties;
+import com.chess.loadtest.stats.LoadStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlayerBotTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoadTestProperties properties = new LoadTestProperties();
+    private final PlatformClient client = mock(PlatformClient.class);
+    private final WsConnection stream = mock(WsConnection.class);
+    private final LoadStats stats = new LoadStats();
+    private PlayerBot bot;
+
+    @BeforeEach
+    void setUp() {
+        properties.setReplyTimeoutMs(1000);
+        properties.setPairingTimeoutMs(1000);
+        bot = new PlayerBot(0, properties, client, stats, System.nanoTime() + Duration.ofMinutes(1).toNanos());
+    }
+
+    @Test
+    void queue_subscribesToMatchmakingStream_thenJoins_andReturnsMatch() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        when(client.openStream("token")).thenReturn(stream);
+        when(stream.next(any())).thenReturn(
+                objectMapper.readTree("{\"type\":\"SUBSCRIBED\",\"channel\":\"matchmaking\"}"),
+                objectMapper.readTree("{\"type\":\"MATCH_FOUND\",\"gameId\":\"" + gameId + "\",\"color\":\"BLACK\"}"));
+
+        PlayerBot.MatchFound match = bot.queue("token");
+
+        assertThat(match).isEqualTo(new PlayerBot.MatchFound(gameId, false));
+        verify(stream).send(Map.of("type", "SUBSCRIBE", "channel", "matchmaking"));
+        verify(client).join(anyString(), anyInt(), anyInt(), anyBoolean());
+        verify(stream).close();
+        assertThat(stats.count(LoadStats.PAIRING)).isEqualTo(1);
+    }
+
+    @Test
+    void queue_failedStreamHandshake_isCountedAndNeverJoins() throws Exception {
+        when(client.openStream("token")).thenThrow(new IOException("WebSocket connect failed: /ws/stream"));
+
+        assertThat(bot.queue("token")).isNull();
+
+        verify(client, never()).join(anyString(), anyInt(), anyInt(), anyBoolean());
+        assertThat(stats.errorRate(LoadStats.WS_CONNECT)).isEqualTo(1.0);
+    }
+
+    @Test
+    void queue_streamClosedBeforeSubscribed_failsPairingWithoutJoining() throws Exception {
+        when(client.openStream("token")).thenReturn(stream);
+        when(stream.next(any())).thenReturn(objectMapper.readTree("{\"type\":\"CLOSED\",\"code\":1008}"));
+
+        assertThat(bot.queue("token")).isNull();
+
+        verify(client, never()).join(anyString(), anyInt(), anyInt(), anyBoolean());
+        assertThat(stats.report()).contains("pairing:subscribe=1", "ws_connect:closed_1008=1");
+    }
+}
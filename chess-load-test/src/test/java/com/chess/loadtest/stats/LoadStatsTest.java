@@ -0,0 +1,39 @@
+package com.chess.loadtest.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoadStatsTest {
+
+    @Test
+    void percentiles_areReportedInMillis() {
+        LoadStats stats = new LoadStats();
+        for (int i = 1; i <= 1000; i++) {
+            stats.success(LoadStats.MOVE, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        assertThat(stats.count(LoadStats.MOVE)).isEqualTo(1000);
+        assertThat(stats.percentileMs(LoadStats.MOVE, 50)).isCloseTo(500, within(1.0));
+        assertThat(stats.percentileMs(LoadStats.MOVE, 99)).isCloseTo(990, within(1.0));
+        assertThat(stats.percentileMs(LoadStats.MOVE, 99.9)).isCloseTo(999, within(1.0));
+        assertThat(stats.percentileMs(LoadStats.PAIRING, 50)).isZero();
+    }
+
+    @Test
+    void errorRate_countsFailuresPerOperation() {
+        LoadStats stats = new LoadStats();
+        stats.success(LoadStats.JOIN, 1_000_000);
+        stats.success(LoadStats.JOIN, 1_000_000);
+        stats.success(LoadStats.JOIN, 1_000_000);
+        stats.failure(LoadStats.JOIN, "http_429");
+        stats.failure(LoadStats.LOGIN, "io");
+
+        assertThat(stats.errorRate(LoadStats.JOIN)).isEqualTo(0.25);
+        assertThat(stats.errorRate(LoadStats.LOGIN)).isEqualTo(1.0);
+        assertThat(stats.report()).contains("join:http_429=1", "login:io=1");
+    }
+}
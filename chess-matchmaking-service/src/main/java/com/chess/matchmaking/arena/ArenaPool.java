@@ -0,0 +1,398 @@
+package com.chess.matchmaking.arena;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * In-memory state of one arena on the instance that owns it: every player's standing, and the players
+ * waiting for a game ordered as in the standings (points, then rating). Not thread-safe: the owner serializes
+ * access per arena.
+ *
+ * A player becoming free is paired with the nearest waiting player in the standings who is not one of their
+ * recent opponents, looking at no more than {@code maxCandidates} neighbours, so a pairing costs O(log w) in
+ * the number of waiting players rather than a scan of the arena. Players in a game are not in the waiting set.
+ */
+public class ArenaPool {
+
+    public enum State {
+        WAITING, PLAYING, PAUSED
+    }
+
+    /** A pairing; {@code white} is the player who has had black more often. */
+    public record Pairing(Player white, Player black) {
+    }
+
+    private record Game(Player white, Player black, long startedAtMs) {
+    }
+
+    public static final class Player {
+        private final String userId;
+        private final double rating;
+        private int points;
+        private int games;
+        private int wins;
+        private int streak;
+        /** Games with white minus games with black. */
+        private int colourBalance;
+        private final Deque<String> recentOpponents = new ArrayDeque<>();
+        private State state = State.PAUSED;
+        private long waitingSinceMs;
+        private String gameId;
+        private long gameStartedAtMs;
+        private boolean white;
+        /** Paused while in a game: the player finishes it, then goes to PAUSED instead of back to waiting. */
+        private boolean pauseRequested;
+
+        public Player(String userId, double rating) {
+            this.userId = userId;
+            this.rating = rating;
+        }
+
+        public String userId() {
+            return userId;
+        }
+
+        public double rating() {
+            return rating;
+        }
+
+        public int points() {
+            return points;
+        }
+
+        public int games() {
+            return games;
+        }
+
+        public int wins() {
+            return wins;
+        }
+
+        public int streak() {
+            return streak;
+        }
+
+        public int colourBalance() {
+            return colourBalance;
+        }
+
+        public List<String> recentOpponents() {
+            return List.copyOf(recentOpponents);
+        }
+
+        public State state() {
+            return state;
+        }
+
+        public String gameId() {
+            return gameId;
+        }
+
+        public long gameStartedAtMs() {
+            return gameStartedAtMs;
+        }
+
+        /** Whether the player has white in their current game. */
+        public boolean white() {
+            return white;
+        }
+
+        public boolean pauseRequested() {
+            return pauseRequested;
+        }
+
+        /** Restores a standing read back from Redis. */
+        public Player restore(int points, int games, int wins, int streak, int colourBalance,
+                              List<String> recentOpponents, State state, String gameId, long gameStartedAtMs,
+                              boolean white, boolean pauseRequested) {
+            this.points = points;
+            this.games = games;
+            this.wins = wins;
+            this.streak = streak;
+            this.colourBalance = colourBalance;
+            this.recentOpponents.clear();
+            this.recentOpponents.addAll(recentOpponents);
+            this.state = state;
+            this.gameId = gameId;
+            this.gameStartedAtMs = gameStartedAtMs;
+            this.white = white;
+            this.pauseRequested = pauseRequested;
+            return this;
+        }
+    }
+
+    private static final Comparator<Player> STANDINGS = Comparator
+            .comparingInt(Player::points).reversed()
+            .thenComparing(Comparator.comparingDouble(Player::rating).reversed())
+            .thenComparing(Player::userId);
+
+    private final Map<String, Player> players = new HashMap<>();
+    private final NavigableSet<Player> waiting = new TreeSet<>(STANDINGS);
+    /** Running games in the order they started. */
+    private final Map<String, Game> games = new LinkedHashMap<>();
+    private final int recentOpponents;
+    private final long repeatRelaxMs;
+    private final int maxCandidates;
+
+    public ArenaPool(int recentOpponents, long repeatRelaxMs, int maxCandidates) {
+        this.recentOpponents = Math.max(1, recentOpponents);
+        this.repeatRelaxMs = repeatRelaxMs;
+        this.maxCandidates = Math.max(1, maxCandidates);
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    public int waitingCount() {
+        return waiting.size();
+    }
+
+    public Player player(String userId) {
+        return players.get(userId);
+    }
+
+    public Collection<Player> players() {
+        return players.values();
+    }
+
+    /** Whether the game is one of this arena's and has not been scored yet. */
+    public boolean hasGame(String gameId) {
+        return games.containsKey(gameId);
+    }
+
+    public int gamesInProgress() {
+        return games.size();
+    }
+
+    /** Adds a player restored from Redis; call {@link #restoreGames()} once all of them are added. */
+    public void restore(Player player) {
+        players.put(player.userId(), player);
+        if (player.state == State.WAITING) {
+            waiting.add(player);
+        }
+    }
+
+    /**
+     * Rebuilds the running games from restored players once all of them are loaded. A player whose game
+     * cannot be rebuilt (the opponent's sheet disagrees) goes back to waiting.
+     */
+    public void restoreGames(long nowMs) {
+        List<Player> playing = new ArrayList<>();
+        for (Player p : players.values()) {
+            if (p.state == State.PLAYING) {
+                playing.add(p);
+            }
+        }
+        playing.sort(Comparator.comparingLong(Player::gameStartedAtMs));
+        for (Player p : playing) {
+            if (p.gameId != null && games.containsKey(p.gameId)) {
+                continue;
+            }
+            Player opponent = p.recentOpponents.isEmpty() ? null : players.get(p.recentOpponents.peekFirst());
+            if (p.gameId != null && opponent != null && opponent.state == State.PLAYING
+                    && p.gameId.equals(opponent.gameId)) {
+                games.put(p.gameId, new Game(p.white ? p : opponent, p.white ? opponent : p, p.gameStartedAtMs));
+            } else {
+                release(p, nowMs);
+            }
+        }
+    }
+
+    /**
+     * A player joins, or comes back from a pause; a player in a game stays in it, and a pause they asked for
+     * during it is called off. Returns the player.
+     */
+    public Player join(String userId, double rating, long nowMs) {
+        Player player = players.computeIfAbsent(userId, id -> new Player(id, rating));
+        player.pauseRequested = false;
+        if (player.state == State.PAUSED) {
+            player.state = State.WAITING;
+            player.waitingSinceMs = nowMs;
+            waiting.add(player);
+        }
+        return player;
+    }
+
+    /**
+     * A waiting player stops being paired; their standing stays. A player in a game stays in it and is paused
+     * once it is over.
+     */
+    public Player pause(String userId) {
+        Player player = players.get(userId);
+        if (player != null && player.state == State.WAITING) {
+            waiting.remove(player);
+            player.state = State.PAUSED;
+        } else if (player != null && player.state == State.PLAYING) {
+            player.pauseRequested = true;
+        }
+        return player;
+    }
+
+    /**
+     * Scores a finished game of this arena and puts both players back in the waiting set. Returns the two
+     * players (white first), or null when the game is unknown or was already scored.
+     */
+    public Player[] finish(String gameId, double whiteScore, long nowMs) {
+        Game game = games.remove(gameId);
+        if (game == null) {
+            return null;
+        }
+        score(game.white(), whiteScore, nowMs);
+        score(game.black(), 1 - whiteScore, nowMs);
+        return new Player[]{game.white(), game.black()};
+    }
+
+    /**
+     * Writes off games started before the cutoff whose result never arrived, and puts their players back to
+     * waiting without scoring them. Looks only at games old enough, oldest first.
+     */
+    public List<Player> abandonStartedBefore(long cutoffMs, long nowMs) {
+        List<Player> released = new ArrayList<>();
+        Iterator<Game> it = games.values().iterator();
+        while (it.hasNext()) {
+            Game game = it.next();
+            if (game.startedAtMs() >= cutoffMs) {
+                break;
+            }
+            it.remove();
+            release(game.white(), nowMs);
+            release(game.black(), nowMs);
+            released.add(game.white());
+            released.add(game.black());
+        }
+        return released;
+    }
+
+    /** Pairs each of the given players that is still waiting, in standings order. */
+    public List<Pairing> pair(Collection<Player> free, long nowMs) {
+        List<Player> ordered = new ArrayList<>(free);
+        ordered.sort(STANDINGS);
+        List<Pairing> pairings = new ArrayList<>();
+        for (Player p : ordered) {
+            Pairing pairing = pairOne(p, nowMs);
+            if (pairing != null) {
+                pairings.add(pairing);
+            }
+        }
+        return pairings;
+    }
+
+    /** Retries every waiting player; the waiting set holds only players between games, not the arena. */
+    public List<Pairing> pairWaiting(long nowMs) {
+        return pair(new ArrayList<>(waiting), nowMs);
+    }
+
+    /** Records the game of a pairing whose id was chosen by the caller. */
+    public void started(Pairing pairing, String gameId, long nowMs) {
+        for (Player p : new Player[]{pairing.white(), pairing.black()}) {
+            p.gameId = gameId;
+            p.gameStartedAtMs = nowMs;
+            p.white = p == pairing.white();
+        }
+        games.put(gameId, new Game(pairing.white(), pairing.black(), nowMs));
+    }
+
+    /** Every waiting player stops being paired, e.g. when the arena ends. */
+    public void pauseAll() {
+        for (Player p : waiting) {
+            p.state = State.PAUSED;
+        }
+        waiting.clear();
+    }
+
+    private Pairing pairOne(Player player, long nowMs) {
+        if (player.state != State.WAITING) {
+            return null;
+        }
+        boolean relaxed = nowMs - player.waitingSinceMs >= repeatRelaxMs;
+        Iterator<Player> up = waiting.headSet(player, false).descendingIterator();
+        Iterator<Player> down = waiting.tailSet(player, false).iterator();
+        Player above = next(up);
+        Player below = next(down);
+        for (int looked = 0; looked < maxCandidates && (above != null || below != null); looked++) {
+            boolean takeAbove = below == null || (above != null && closer(player, above, below));
+            Player candidate = takeAbove ? above : below;
+            if (acceptable(player, candidate, relaxed, nowMs)) {
+                return start(player, candidate);
+            }
+            if (takeAbove) {
+                above = next(up);
+            } else {
+                below = next(down);
+            }
+        }
+        return null;
+    }
+
+    private boolean acceptable(Player player, Player candidate, boolean relaxed, long nowMs) {
+        boolean candidateRelaxed = nowMs - candidate.waitingSinceMs >= repeatRelaxMs;
+        if (relaxed && candidateRelaxed) {
+            return !candidate.userId.equals(player.recentOpponents.peekFirst());
+        }
+        return !player.recentOpponents.contains(candidate.userId) && !candidate.recentOpponents.contains(player.userId);
+    }
+
+    private Pairing start(Player a, Player b) {
+        waiting.remove(a);
+        waiting.remove(b);
+        boolean aWhite = a.colourBalance != b.colourBalance ? a.colourBalance < b.colourBalance : a.games % 2 == 0;
+        Player white = aWhite ? a : b;
+        Player black = aWhite ? b : a;
+        white.colourBalance++;
+        black.colourBalance--;
+        for (Player[] p : new Player[][]{{a, b}, {b, a}}) {
+            p[0].state = State.PLAYING;
+            p[0].recentOpponents.addFirst(p[1].userId);
+            while (p[0].recentOpponents.size() > recentOpponents) {
+                p[0].recentOpponents.removeLast();
+            }
+        }
+        return new Pairing(white, black);
+    }
+
+    private void score(Player player, double score, long nowMs) {
+        player.points += ArenaScoring.points(score, player.streak);
+        player.streak = ArenaScoring.streak(score, player.streak);
+        player.games++;
+        player.wins += score >= ArenaScoring.WIN ? 1 : 0;
+        release(player, nowMs);
+    }
+
+    private void release(Player player, long nowMs) {
+        player.gameId = null;
+        player.gameStartedAtMs = 0;
+        if (player.state == State.PLAYING && player.pauseRequested) {
+            player.state = State.PAUSED;
+            player.pauseRequested = false;
+        } else if (player.state == State.PLAYING) {
+            player.state = State.WAITING;
+            player.waitingSinceMs = nowMs;
+            waiting.add(player);
+        }
+    }
+
+    /** Whether {@code a} is nearer to {@code player} in the standings than {@code b}: points first, then rating. */
+    private static boolean closer(Player player, Player a, Player b) {
+        int pa = Math.abs(a.points - player.points);
+        int pb = Math.abs(b.points - player.points);
+        if (pa != pb) {
+            return pa < pb;
+        }
+        return Math.abs(a.rating - player.rating) <= Math.abs(b.rating - player.rating);
+    }
+
+    private static Player next(Iterator<Player> it) {
+        return it.hasNext() ? it.next() : null;
+    }
+}
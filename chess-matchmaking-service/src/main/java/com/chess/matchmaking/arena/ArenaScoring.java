@@ -0,0 +1,51 @@
+package com.chess.matchmaking.arena;
+
+/**
+ * Arena points: a win is worth 2, a draw 1, a loss nothing. Two wins in a row put a player on a streak, and
+ * while on it a win scores 4 and a draw 2; any result but a win ends the streak.
+ */
+public final class ArenaScoring {
+
+    public static final double WIN = 1.0;
+    public static final double DRAW = 0.5;
+    public static final double LOSS = 0.0;
+
+    private ArenaScoring() {
+    }
+
+    /** Points for a result given the consecutive wins before it. */
+    public static int points(double score, int streak) {
+        int multiplier = streak >= 2 ? 2 : 1;
+        if (score >= WIN) {
+            return 2 * multiplier;
+        }
+        if (score >= DRAW) {
+            return multiplier;
+        }
+        return 0;
+    }
+
+    /** Consecutive wins after the result. */
+    public static int streak(double score, int streak) {
+        return score >= WIN ? streak + 1 : 0;
+    }
+
+    /** White's score for a PGN result; anything but a decisive result counts as a draw. */
+    public static double whiteScore(String result) {
+        if ("1-0".equals(result)) {
+            return WIN;
+        }
+        if ("0-1".equals(result)) {
+            return LOSS;
+        }
+        return DRAW;
+    }
+
+    /**
+     * Sorted set score of a standing: points first, rating breaks ties. Ratings are clamped below 10000 so the
+     * two never overlap.
+     */
+    public static double standingScore(int points, double rating) {
+        return points * 10_000.0 + Math.max(0, Math.min(9_999, Math.round(rating)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.chess.matchmaking.challenge;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: scheduling is O(1), and each {@link #advance} visits only the slots of the ticks that
+ * passed, not every pending deadline. Deadlines further out than one rotation share a slot with nearer ones
+ * and are skipped until their round comes. Items cannot be cancelled; callers ignore those no longer pending.
+ */
+public final class TimingWheel<T> {
+
+    private record Timeout<T>(T item, long tick) {
+    }
+
+    private final long tickMs;
+    private final ArrayDeque<Timeout<T>>[] slots;
+    /** First tick not processed yet. */
+    private long nextTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slots, long tickMs, long nowMs) {
+        if (slots < 1 || tickMs < 1) {
+            throw new IllegalArgumentException("slots and tickMs must be positive");
+        }
+        this.tickMs = tickMs;
+        this.slots = new ArrayDeque[slots];
+        for (int i = 0; i < slots; i++) {
+            this.slots[i] = new ArrayDeque<>();
+        }
+        this.nextTick = nowMs / tickMs + 1;
+    }
+
+    /** Schedules the item to come out of the first {@link #advance} at or after the deadline. */
+    public synchronized void schedule(T item, long deadlineMs) {
+        long tick = Math.max(Math.ceilDiv(deadlineMs, tickMs), nextTick);
+        slots[(int) (tick % slots.length)].add(new Timeout<>(item, tick));
+        size++;
+    }
+
+    /** Removes and returns the items whose deadline is at or before now. */
+    public synchronized List<T> advance(long nowMs) {
+        long lastTick = nowMs / tickMs;
+        if (lastTick < nextTick) {
+            return List.of();
+        }
+        List<T> due = new ArrayList<>();
+        long visit = Math.min(lastTick - nextTick + 1, slots.length);
+        for (long tick = nextTick; tick < nextTick + visit; tick++) {
+            Iterator<Timeout<T>> it = slots[(int) (tick % slots.length)].iterator();
+            while (it.hasNext()) {
+                Timeout<T> timeout = it.next();
+                if (timeout.tick() <= lastTick) {
+                    it.remove();
+                    due.add(timeout.item());
+                }
+            }
+        }
+        size -= due.size();
+        nextTick = lastTick + 1;
+        return due;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
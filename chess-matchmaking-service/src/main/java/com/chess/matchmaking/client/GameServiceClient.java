@@ -0,0 +1,88 @@
+package com.chess.matchmaking.client;
+
+import com.chess.common.exception.NotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/** game-service's internal API: direct game creation for accepted challenges, and game lookup for rematches. */
+@Component
+@RequiredArgsConstructor
+public class GameServiceClient {
+
+    private final RestClient gameServiceRestClient;
+
+    public record GameSummary(String gameId, String whiteId, String blackId, String timeControlType,
+                              int baseSeconds, int incrementSeconds, boolean rated, String status, String result) {
+    }
+
+    /** Creates the game with its state in place; safe to repeat with the same game id. */
+    public GameSummary createGame(String gameId, String whiteId, String blackId, String timeControlType,
+                                  int baseSeconds, int incrementSeconds, boolean rated) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("gameId", gameId);
+        body.put("whiteId", whiteId);
+        body.put("blackId", blackId);
+        body.put("timeControlType", timeControlType);
+        body.put("baseSeconds", baseSeconds);
+        body.put("incrementSeconds", incrementSeconds);
+        body.put("rated", rated);
+        return gameServiceRestClient.post()
+                .uri("/internal/games")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> {
+                    throw new RuntimeException("Game-service returned status " + res.getStatusCode());
+                })
+                .body(GameSummary.class);
+    }
+
+    public GameSummary getGame(String gameId) {
+        return gameServiceRestClient.get()
+                .uri("/internal/games/{gameId}", gameId)
+                .retrieve()
+                .onStatus(status -> status.value() == HttpStatus.NOT_FOUND.value(), (req, res) -> {
+                    throw new NotFoundException("Game", gameId);
+                })
+                .onStatus(HttpStatusCode::isError, (req, res) -> {
+                    throw new RuntimeException("Game-service returned status " + res.getStatusCode());
+                })
+                .body(GameSummary.class);
+    }
+
+    @Configuration
+    public static class Config {
+        @Bean
+        RestClient gameServiceRestClient(
+                @Value("${game-service.base-url:http://localhost:8084}") String baseUrl,
+                @Value("${game-service.connect-timeout-ms:1000}") long connectTimeoutMs,
+                @Value("${game-service.read-timeout-ms:3000}") long readTimeoutMs
+        ) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+            return RestClient.builder()
+                    .baseUrl(baseUrl)
+                    .requestFactory(requestFactory)
+                    .build();
+        }
+    }
+}
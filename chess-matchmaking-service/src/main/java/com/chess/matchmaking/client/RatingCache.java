@@ -0,0 +1,192 @@
+package com.chess.matchmaking.client;
+
+import com.chess.common.exception.NotFoundException;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Ratings of recently seen users, so a queue join does not need a user-service call.
+ *
+ * <ul>
+ *   <li>Bounded by user count and by age; {@code RatingUpdated} events refresh cached users in place.</li>
+ *   <li>A miss loads through user-service. Concurrent joins of one user share a single call, and misses that
+ *   arrive while a call is in flight are sent together in the next one (one bulk call instead of one per
+ *   user during a queue rush or right after a restart).</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class RatingCache {
+
+    private final UserRatingsClient client;
+    private final int maxBatch;
+    private final AsyncLoadingCache<UUID, Map<String, UserRatingsClient.RatingInfo>> cache;
+    private final Executor loaders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Object lock = new Object();
+    private final Map<UUID, CompletableFuture<Map<String, UserRatingsClient.RatingInfo>>> pending = new LinkedHashMap<>();
+    private boolean draining;
+
+    public RatingCache(
+            UserRatingsClient client,
+            MeterRegistry meterRegistry,
+            @Value("${matchmaking.rating-cache.max-users:200000}") long maxUsers,
+            @Value("${matchmaking.rating-cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${matchmaking.rating-cache.max-batch:200}") int maxBatch) {
+        this.client = client;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync(new AsyncCacheLoader<>() {
+                    @Override
+                    public CompletableFuture<Map<String, UserRatingsClient.RatingInfo>> asyncLoad(UUID userId, Executor executor) {
+                        return enqueue(userId);
+                    }
+
+                    @Override
+                    public CompletableFuture<Map<UUID, Map<String, UserRatingsClient.RatingInfo>>> asyncLoadAll(
+                            Set<? extends UUID> userIds, Executor executor) {
+                        return CompletableFuture.supplyAsync(() -> fetchInBatches(userIds), loaders);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "matchmaking.rating_cache");
+    }
+
+    public UserRatingsClient.RatingInfo get(UUID userId, String timeControlType) {
+        Map<String, UserRatingsClient.RatingInfo> ratings;
+        try {
+            ratings = cache.get(userId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        UserRatingsClient.RatingInfo info = ratings.get(timeControlType.toUpperCase());
+        if (info == null) {
+            throw new NotFoundException("Rating for timeControlType=" + timeControlType + " not found");
+        }
+        return info;
+    }
+
+    /** Loads the given users that are not cached yet, in bulk calls; failures are logged and ignored. */
+    public void prefetch(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        cache.getAll(userIds).exceptionally(e -> {
+            log.warn("Rating prefetch failed for {} users: {}", userIds.size(), e.getMessage());
+            return Map.of();
+        });
+    }
+
+    /**
+     * Applies a rating change to a cached user. Users not in the cache are left alone: they load in full
+     * on their next join. An entry still loading is dropped, since it may have read the old rating.
+     */
+    public void onRatingUpdated(UUID userId, String timeControl, double rating, double ratingDeviation) {
+        String type = timeControl.toUpperCase();
+        cache.asMap().computeIfPresent(userId, (id, future) -> {
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                return null;
+            }
+            Map<String, UserRatingsClient.RatingInfo> updated = new HashMap<>(future.join());
+            updated.put(type, new UserRatingsClient.RatingInfo(type, rating, ratingDeviation));
+            return CompletableFuture.completedFuture(Map.copyOf(updated));
+        });
+    }
+
+    long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    private CompletableFuture<Map<String, UserRatingsClient.RatingInfo>> enqueue(UUID userId) {
+        synchronized (lock) {
+            CompletableFuture<Map<String, UserRatingsClient.RatingInfo>> future =
+                    pending.computeIfAbsent(userId, id -> new CompletableFuture<>());
+            if (!draining) {
+                draining = true;
+                loaders.execute(this::drain);
+            }
+            return future;
+        }
+    }
+
+    /** Sends pending misses until none are left; whatever queues up during a call goes out in the next one. */
+    private void drain() {
+        while (true) {
+            Map<UUID, CompletableFuture<Map<String, UserRatingsClient.RatingInfo>>> batch = new LinkedHashMap<>();
+            synchronized (lock) {
+                Iterator<Map.Entry<UUID, CompletableFuture<Map<String, UserRatingsClient.RatingInfo>>>> it =
+                        pending.entrySet().iterator();
+                while (it.hasNext() && batch.size() < maxBatch) {
+                    Map.Entry<UUID, CompletableFuture<Map<String, UserRatingsClient.RatingInfo>>> e = it.next();
+                    batch.put(e.getKey(), e.getValue());
+                    it.remove();
+                }
+                if (batch.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+            }
+            try {
+                Map<UUID, Map<String, UserRatingsClient.RatingInfo>> loaded = batch.size() == 1
+                        ? singleUser(batch.keySet().iterator().next())
+                        : client.fetchRatings(batch.keySet());
+                batch.forEach((userId, future) -> {
+                    Map<String, UserRatingsClient.RatingInfo> ratings = loaded.get(userId);
+                    if (ratings != null) {
+                        future.complete(ratings);
+                    } else {
+                        future.completeExceptionally(new NotFoundException("Ratings for user " + userId + " not found"));
+                    }
+                });
+            } catch (Exception e) {
+                batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+
+    private Map<UUID, Map<String, UserRatingsClient.RatingInfo>> singleUser(UUID userId) {
+        return Map.of(userId, client.fetchAllRatings(userId));
+    }
+
+    private Map<UUID, Map<String, UserRatingsClient.RatingInfo>> fetchInBatches(Set<? extends UUID> userIds) {
+        Map<UUID, Map<String, UserRatingsClient.RatingInfo>> result = new HashMap<>();
+        List<UUID> chunk = new ArrayList<>(maxBatch);
+        for (UUID userId : userIds) {
+            chunk.add(userId);
+            if (chunk.size() == maxBatch) {
+                result.putAll(client.fetchRatings(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            result.putAll(client.fetchRatings(chunk));
+        }
+        return result;
+    }
+}
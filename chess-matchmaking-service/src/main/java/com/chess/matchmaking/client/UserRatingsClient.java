@@ -6,11 +6,21 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
 
 @Component
 @RequiredArgsConstructor
@@ -22,6 +32,15 @@ public class UserRatingsClient {
     }
 
     public RatingInfo fetchRating(UUID userId, String timeControlType) {
+        RatingInfo info = fetchAllRatings(userId).get(timeControlType.toUpperCase());
+        if (info == null) {
+            throw new NotFoundException("Rating for timeControlType=" + timeControlType + " not found");
+        }
+        return info;
+    }
+
+    /** All ratings of one user keyed by upper-case time control. */
+    public Map<String, RatingInfo> fetchAllRatings(UUID userId) {
         UserRatingsResponse response = restClient.get()
                 .uri("/users/{userId}/ratings", userId)
                 .retrieve()
@@ -33,28 +52,69 @@ public class UserRatingsClient {
         if (response == null || response.getRatings() == null) {
             throw new RuntimeException("User-service returned empty ratings response");
         }
+        return toRatingInfos(response);
+    }
 
-        return response.getRatings().stream()
-                .filter(r -> timeControlType.equalsIgnoreCase(r.getTimeControl()))
-                .findFirst()
-                .map(r -> new RatingInfo(
-                        timeControlType,
-                        r.getRating() != null ? r.getRating() : 0.0,
-                        r.getRatingDeviation() != null ? r.getRatingDeviation() : 0.0
-                ))
-                .orElseThrow(() -> new NotFoundException("Rating for timeControlType=" + timeControlType + " not found"));
+    /** Ratings of many users in one call; users unknown to user-service are absent from the result. */
+    public Map<UUID, Map<String, RatingInfo>> fetchRatings(Collection<UUID> userIds) {
+        List<UserRatingsResponse> responses = restClient.post()
+                .uri("/internal/users/ratings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(userIds)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> {
+                    throw new RuntimeException("User-service returned status " + res.getStatusCode());
+                })
+                .body(new ParameterizedTypeReference<>() {
+                });
+
+        Map<UUID, Map<String, RatingInfo>> result = new HashMap<>();
+        if (responses != null) {
+            for (UserRatingsResponse response : responses) {
+                if (response.getUserId() != null && response.getRatings() != null) {
+                    result.put(response.getUserId(), toRatingInfos(response));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, RatingInfo> toRatingInfos(UserRatingsResponse response) {
+        Map<String, RatingInfo> ratings = new HashMap<>();
+        for (UserRatingsResponse.RatingDto r : response.getRatings()) {
+            if (r.getTimeControl() == null) {
+                continue;
+            }
+            String type = r.getTimeControl().toUpperCase();
+            ratings.put(type, new RatingInfo(
+                    type,
+                    r.getRating() != null ? r.getRating() : 0.0,
+                    r.getRatingDeviation() != null ? r.getRatingDeviation() : 0.0
+            ));
+        }
+        return Map.copyOf(ratings);
     }
 
     @Configuration
     public static class Config {
         @Bean
         RestClient restClient(
-                @Value("${user-service.base-url:http://localhost:8082}") String baseUrl
+                @Value("${user-service.base-url:http://localhost:8082}") String baseUrl,
+                @Value("${user-service.connect-timeout-ms:1000}") long connectTimeoutMs,
+                @Value("${user-service.read-timeout-ms:2000}") long readTimeoutMs
         ) {
+            // pooled keep-alive connections, and bounded waits so a slow user-service cannot hang joins
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+            requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
             return RestClient.builder()
                     .baseUrl(baseUrl)
+                    .requestFactory(requestFactory)
                     .build();
         }
     }
 }
-
@@ -18,6 +18,25 @@ public class MatchmakingProperties {
     private long rangeExpansionIntervalSeconds = 10;
     private long queueTimeoutSeconds = 120;
 
+    /**
+     * {@code redis} (Lua match per join), {@code order-book} (in-memory book per pool) or
+     * {@code bucketed} (queues sharded into rating bands spread over the instances).
+     */
+    private String engine = "redis";
+    /**
+     * {@code per-join} (match each join against the queue) or {@code batch} (pair the whole queue every tick);
+     * the bucketed engine always matches per join.
+     */
+    private String pairing = "per-join";
+    /** How often queued requests are paired between joins (order-book and bucketed engines, or batch pairing). */
+    private long tickMs = 100;
+    private OrderBook orderBook = new OrderBook();
+    private Batch batch = new Batch();
+    private Buckets buckets = new Buckets();
+    private Pools pools = new Pools();
+    private Arena arena = new Arena();
+    private Challenge challenge = new Challenge();
+
     private Map<String, TimeControlParams> timeControls = defaultTimeControls();
 
     private static Map<String, TimeControlParams> defaultTimeControls() {
@@ -29,6 +48,87 @@ public class MatchmakingProperties {
         return map;
     }
 
+    public boolean isBatchPairing() {
+        return "batch".equals(pairing);
+    }
+
+    @Data
+    public static class OrderBook {
+        /** Ownership lease per pool; a new owner takes over within this long of a crash. */
+        private long leaseMs = 3000;
+        private int logReadBatch = 500;
+        private long logMaxLength = 100_000;
+    }
+
+    @Data
+    public static class Batch {
+        /** How many lower-rated neighbours each request may be paired with, skipping those in between. */
+        private int window = 3;
+        /** Cost of leaving a request unpaired grows by this much per second it has waited. */
+        private double waitCostPerSecond = 2.0;
+        /** Pairs whose average rating deviation exceeds this get their rating difference discounted. */
+        private double referenceDeviation = 80.0;
+    }
+
+    @Data
+    public static class Buckets {
+        /** Rating band width; a search widens into neighbouring bands as its range grows. */
+        private int width = 100;
+        /** Ring points per instance; more points spread the bands more evenly. */
+        private int virtualNodes = 64;
+        /** Instance id on the ring; a random id is used when blank. */
+        private String nodeId = "";
+        /** An instance that has not refreshed its ring membership for this long loses its bands. */
+        private long nodeTtlMs = 5000;
+        /** Oldest requests of a band retried per tick. */
+        private int sweepLimit = 200;
+    }
+
+    @Data
+    public static class Pools {
+        /** How often the shared pool index is re-read, and re-announced by instances taking joins for a pool. */
+        private long refreshMs = 1000;
+        /**
+         * After waiting this long a request may be paired with one of the same category in another pool, on the
+         * clock of whichever of the two waited longer; 0 keeps every request in its own pool.
+         */
+        private long fallbackAfterSeconds = 0;
+        /** How often waiting requests are looked at for a cross-pool pairing. */
+        private long fallbackTickMs = 1000;
+        /** Oldest requests per queue considered per fallback pass. */
+        private int fallbackSweepLimit = 200;
+    }
+
+    @Data
+    public static class Challenge {
+        /** How long a challenge or rematch offer stays open. */
+        private long ttlSeconds = 60;
+        /** Expiry timing wheel: resolution, and slots per rotation (a rotation should cover the TTL). */
+        private long wheelTickMs = 100;
+        private int wheelSlots = 1024;
+    }
+
+    @Data
+    public static class Arena {
+        /** How often the owning instance applies forwarded joins and pairs players still waiting. */
+        private long tickMs = 500;
+        /** Ownership lease per arena; a new owner takes over within this long of a crash. */
+        private long leaseMs = 3000;
+        /** A player is not paired with any of their last this many opponents while others are waiting. */
+        private int recentOpponents = 3;
+        /** After waiting this long, only a rematch of the very last game is avoided. */
+        private long repeatRelaxMs = 15_000;
+        /** Waiting neighbours in the standings looked at per pairing attempt. */
+        private int maxCandidates = 32;
+        /**
+         * A game whose result has not arrived this long after both clocks could have run out (base plus 60
+         * increments each) is written off unscored. An arena closes once none of its games is still running.
+         */
+        private long gameGraceMs = 300_000;
+        private int logReadBatch = 500;
+        private long logMaxLength = 100_000;
+    }
+
     @Data
     public static class TimeControlParams {
         private int initialTimeSeconds;
@@ -12,6 +12,13 @@ import java.util.List;
 public class RedisScriptConfig {
 
     private static final String TRY_MATCH_SCRIPT_PATH = "lua/try-match.lua";
+    private static final String CLAIM_PAIRS_SCRIPT_PATH = "lua/claim-pairs.lua";
+    private static final String CLAIM_REQUESTS_SCRIPT_PATH = "lua/claim-requests.lua";
+    private static final String JOIN_SCRIPT_PATH = "lua/join.lua";
+    private static final String MATCH_BUCKET_SCRIPT_PATH = "lua/match-bucket.lua";
+    private static final String EXPIRE_SCRIPT_PATH = "lua/expire.lua";
+    private static final String CHALLENGE_TRANSITION_SCRIPT_PATH = "lua/challenge-transition.lua";
+    private static final String QUEUE_DEPTH_SCRIPT_PATH = "lua/queue-depth.lua";
 
     @Bean
     @SuppressWarnings("rawtypes")
@@ -21,4 +28,66 @@ public class RedisScriptConfig {
         script.setResultType(List.class);
         return script;
     }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> claimPairsScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(CLAIM_PAIRS_SCRIPT_PATH));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> claimRequestsScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(CLAIM_REQUESTS_SCRIPT_PATH));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> joinScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(JOIN_SCRIPT_PATH));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> matchBucketScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(MATCH_BUCKET_SCRIPT_PATH));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> expireScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(EXPIRE_SCRIPT_PATH));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> queueDepthScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(QUEUE_DEPTH_SCRIPT_PATH));
+        script.setResultType(List.class);
+        return script;
+    }
+
+    @Bean
+    public RedisScript<Long> challengeTransitionScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(CHALLENGE_TRANSITION_SCRIPT_PATH));
+        script.setResultType(Long.class);
+        return script;
+    }
 }
@@ -0,0 +1,74 @@
+package com.chess.matchmaking.controller;
+
+import com.chess.common.security.SecurityUser;
+import com.chess.matchmaking.dto.ArenaResponse;
+import com.chess.matchmaking.dto.ArenaStandingsResponse;
+import com.chess.matchmaking.dto.CreateArenaRequest;
+import com.chess.matchmaking.service.ArenaService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping({"/v1/matchmaking/arenas", "/matchmaking/arenas"})
+@RequiredArgsConstructor
+public class ArenaController {
+
+    private final ArenaService arenaService;
+
+    @PostMapping
+    public ResponseEntity<ArenaResponse> create(
+            @Valid @RequestBody CreateArenaRequest request,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("POST /matchmaking/arenas - userId: {}, name: {}, baseSeconds: {}, incrementSeconds: {}, minutes: {}",
+                userId, request.getName(), request.getBaseSeconds(), request.getIncrementSeconds(),
+                request.getDurationMinutes());
+        return ResponseEntity.status(HttpStatus.CREATED).body(arenaService.create(userId, request));
+    }
+
+    @GetMapping("/{arenaId}")
+    public ResponseEntity<ArenaResponse> get(@PathVariable String arenaId) {
+        return ResponseEntity.ok(arenaService.get(arenaId));
+    }
+
+    @PostMapping("/{arenaId}/join")
+    public ResponseEntity<Void> join(
+            @PathVariable String arenaId,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("POST /matchmaking/arenas/{}/join - userId: {}", arenaId, userId);
+        arenaService.join(userId, arenaId);
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/{arenaId}/pause")
+    public ResponseEntity<Void> pause(
+            @PathVariable String arenaId,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("POST /matchmaking/arenas/{}/pause - userId: {}", arenaId, userId);
+        arenaService.pause(userId, arenaId);
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/{arenaId}/standings")
+    public ResponseEntity<ArenaStandingsResponse> standings(
+            @PathVariable String arenaId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        return ResponseEntity.ok(arenaService.standings(arenaId, page, size, user.getUserId()));
+    }
+}
@@ -0,0 +1,91 @@
+package com.chess.matchmaking.controller;
+
+import com.chess.common.security.SecurityUser;
+import com.chess.matchmaking.dto.ChallengeListResponse;
+import com.chess.matchmaking.dto.ChallengeResponse;
+import com.chess.matchmaking.dto.CreateChallengeRequest;
+import com.chess.matchmaking.service.ChallengeService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping({"/v1/matchmaking/challenges", "/matchmaking/challenges"})
+@RequiredArgsConstructor
+public class ChallengeController {
+
+    private final ChallengeService challengeService;
+
+    @PostMapping
+    public ResponseEntity<ChallengeResponse> create(
+            @Valid @RequestBody CreateChallengeRequest request,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("POST /matchmaking/challenges - userId: {}, challenged: {}, baseSeconds: {}, incrementSeconds: {}",
+                userId, request.getChallengedUserId(), request.getBaseSeconds(), request.getIncrementSeconds());
+        return ResponseEntity.status(HttpStatus.CREATED).body(challengeService.create(userId, request));
+    }
+
+    @PostMapping("/rematch/{gameId}")
+    public ResponseEntity<ChallengeResponse> rematch(
+            @PathVariable String gameId,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("POST /matchmaking/challenges/rematch/{} - userId: {}", gameId, userId);
+        return ResponseEntity.ok(challengeService.rematch(userId, gameId));
+    }
+
+    @GetMapping
+    public ResponseEntity<ChallengeListResponse> pending(@AuthenticationPrincipal SecurityUser user) {
+        return ResponseEntity.ok(challengeService.pending(user.getUserId()));
+    }
+
+    @GetMapping("/{challengeId}")
+    public ResponseEntity<ChallengeResponse> get(
+            @PathVariable String challengeId,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        return ResponseEntity.ok(challengeService.get(user.getUserId(), challengeId));
+    }
+
+    @PostMapping("/{challengeId}/accept")
+    public ResponseEntity<ChallengeResponse> accept(
+            @PathVariable String challengeId,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("POST /matchmaking/challenges/{}/accept - userId: {}", challengeId, userId);
+        return ResponseEntity.ok(challengeService.accept(userId, challengeId));
+    }
+
+    @PostMapping("/{challengeId}/decline")
+    public ResponseEntity<Void> decline(
+            @PathVariable String challengeId,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("POST /matchmaking/challenges/{}/decline - userId: {}", challengeId, userId);
+        challengeService.decline(userId, challengeId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{challengeId}")
+    public ResponseEntity<Void> cancel(
+            @PathVariable String challengeId,
+            @AuthenticationPrincipal SecurityUser user
+    ) {
+        UUID userId = user.getUserId();
+        log.info("DELETE /matchmaking/challenges/{} - userId: {}", challengeId, userId);
+        challengeService.cancel(userId, challengeId);
+        return ResponseEntity.noContent().build();
+    }
+}
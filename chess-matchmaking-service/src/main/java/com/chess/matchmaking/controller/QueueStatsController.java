@@ -0,0 +1,32 @@
+package com.chess.matchmaking.controller;
+
+import com.chess.matchmaking.domain.TimeControlType;
+import com.chess.matchmaking.dto.QueueStatsResponse;
+import com.chess.matchmaking.stats.QueueStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Public (no auth) wait estimates, so clients can show an ETA before and while queueing. */
+@RestController
+@RequestMapping({"/v1/matchmaking", "/matchmaking"})
+@RequiredArgsConstructor
+public class QueueStatsController {
+
+    private final QueueStats queueStats;
+
+    @GetMapping("/queues")
+    public ResponseEntity<QueueStatsResponse> queues() {
+        long now = System.currentTimeMillis();
+        List<QueueStatsResponse.TimeControlQueue> queues = new ArrayList<>();
+        for (TimeControlType tct : TimeControlType.values()) {
+            queues.add(queueStats.snapshot(tct.name(), now));
+        }
+        return ResponseEntity.ok(new QueueStatsResponse(queues));
+    }
+}
@@ -5,18 +5,24 @@ import org.springframework.stereotype.Component;
 @Component
 public class TimeControlClassifier {
 
+    /** Moves a game of average length is assumed to last when weighing the increment against the base. */
+    private static final int EXPECTED_MOVES = 40;
+
+    /**
+     * Rating category by estimated game duration, {@code base + 40 * increment} per side, so that e.g.
+     * {@code 120+1} is bullet but {@code 120+5} is blitz. The exact clock is kept by {@link TimeControlPool}.
+     */
     public TimeControlType classify(int baseSeconds, int incrementSeconds) {
-        // TS does not define exact thresholds; using common chess conventions by base time.
-        if (baseSeconds <= 120) {
+        long estimatedSeconds = (long) baseSeconds + (long) EXPECTED_MOVES * Math.max(0, incrementSeconds);
+        if (estimatedSeconds < 180) {
             return TimeControlType.BULLET;
         }
-        if (baseSeconds <= 300) {
+        if (estimatedSeconds < 600) {
             return TimeControlType.BLITZ;
         }
-        if (baseSeconds <= 900) {
+        if (estimatedSeconds < 1800) {
             return TimeControlType.RAPID;
         }
         return TimeControlType.CLASSICAL;
     }
 }
-
@@ -0,0 +1,44 @@
+package com.chess.matchmaking.domain;
+
+/**
+ * An exact clock players queue for, e.g. {@code 180+2}. Requests are only paired within their pool so both
+ * players get the clock they asked for; ratings are looked up by the pool's {@link TimeControlType} category.
+ * Instances are interned by {@link TimeControlPools}, so pools compare by identity and {@link #key()} is
+ * computed once.
+ */
+public final class TimeControlPool {
+
+    private final int baseSeconds;
+    private final int incrementSeconds;
+    private final TimeControlType category;
+    private final String key;
+
+    TimeControlPool(int baseSeconds, int incrementSeconds, TimeControlType category) {
+        this.baseSeconds = baseSeconds;
+        this.incrementSeconds = incrementSeconds;
+        this.category = category;
+        this.key = baseSeconds + "+" + incrementSeconds;
+    }
+
+    public int baseSeconds() {
+        return baseSeconds;
+    }
+
+    public int incrementSeconds() {
+        return incrementSeconds;
+    }
+
+    public TimeControlType category() {
+        return category;
+    }
+
+    /** Suffix of the pool's queue keys, {@code <base>+<increment>}. */
+    public String key() {
+        return key;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,137 @@
+package com.chess.matchmaking.domain;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns {@link TimeControlPool}s by (base, increment). Lookups of a known pool read an open-addressed table of
+ * primitive ids without locking or allocating; a new pool copies the table under a lock, which happens once per
+ * pool for the life of the instance. Copying is only cheap while the table is small, and any user can ask for any
+ * of the few hundred thousand valid clocks, so the table takes the first {@link #TABLE_CAPACITY} pools (the
+ * standard clocks, in practice) and the rest go to a plain concurrent map, one entry each.
+ */
+@Component
+public class TimeControlPools {
+
+    /** Pools held in the copy-on-write table; a copy at this size is a few kilobytes. */
+    static final int TABLE_CAPACITY = 256;
+
+    private final TimeControlClassifier classifier;
+    private volatile Table table = new Table(64);
+    private final Map<Long, TimeControlPool> overflow = new ConcurrentHashMap<>();
+
+    public TimeControlPools(TimeControlClassifier classifier) {
+        this.classifier = classifier;
+    }
+
+    public TimeControlPool of(int baseSeconds, int incrementSeconds) {
+        long id = id(baseSeconds, incrementSeconds);
+        TimeControlPool pool = table.get(id);
+        if (pool != null) {
+            return pool;
+        }
+        pool = overflow.get(id);
+        return pool != null ? pool : intern(baseSeconds, incrementSeconds, id);
+    }
+
+    /** The pool named by {@link TimeControlPool#key()}, or null if {@code key} is not one. */
+    public TimeControlPool parse(String key) {
+        int plus = key != null ? key.indexOf('+') : -1;
+        if (plus <= 0 || plus == key.length() - 1) {
+            return null;
+        }
+        try {
+            return of(Integer.parseInt(key, 0, plus, 10), Integer.parseInt(key, plus + 1, key.length(), 10));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private synchronized TimeControlPool intern(int baseSeconds, int incrementSeconds, long id) {
+        TimeControlPool pool = table.get(id);
+        if (pool == null) {
+            pool = overflow.get(id);
+        }
+        if (pool == null) {
+            pool = new TimeControlPool(baseSeconds, incrementSeconds, classifier.classify(baseSeconds, incrementSeconds));
+            if (table.size < TABLE_CAPACITY) {
+                table = table.with(id, pool);
+            } else {
+                overflow.put(id, pool);
+            }
+        }
+        return pool;
+    }
+
+    /** Pools in the table, for tests. */
+    int tableSize() {
+        return table.size;
+    }
+
+    private static long id(int baseSeconds, int incrementSeconds) {
+        return ((long) baseSeconds << 32) | (incrementSeconds & 0xffffffffL);
+    }
+
+    /** Immutable once published; linear probing, at most half full. */
+    private static final class Table {
+        final long[] ids;
+        final TimeControlPool[] pools;
+        final int size;
+
+        Table(int capacity) {
+            this(new long[capacity], new TimeControlPool[capacity], 0);
+        }
+
+        private Table(long[] ids, TimeControlPool[] pools, int size) {
+            this.ids = ids;
+            this.pools = pools;
+            this.size = size;
+        }
+
+        TimeControlPool get(long id) {
+            int mask = ids.length - 1;
+            for (int i = slot(id, mask); pools[i] != null; i = (i + 1) & mask) {
+                if (ids[i] == id) {
+                    return pools[i];
+                }
+            }
+            return null;
+        }
+
+        Table with(long id, TimeControlPool pool) {
+            Table next = 2 * (size + 1) > ids.length
+                    ? rehash(ids.length * 2)
+                    : new Table(Arrays.copyOf(ids, ids.length), Arrays.copyOf(pools, pools.length), size);
+            next.put(id, pool);
+            return new Table(next.ids, next.pools, size + 1);
+        }
+
+        private Table rehash(int capacity) {
+            Table next = new Table(capacity);
+            for (int i = 0; i < ids.length; i++) {
+                if (pools[i] != null) {
+                    next.put(ids[i], pools[i]);
+                }
+            }
+            return next;
+        }
+
+        private void put(long id, TimeControlPool pool) {
+            int mask = ids.length - 1;
+            int i = slot(id, mask);
+            while (pools[i] != null) {
+                i = (i + 1) & mask;
+            }
+            ids[i] = id;
+            pools[i] = pool;
+        }
+
+        private static int slot(long id, int mask) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.chess.matchmaking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class ArenaResponse {
+    private String arenaId;
+    private String name;
+    private String timeControl;
+    private int baseSeconds;
+    private int incrementSeconds;
+    private boolean rated;
+    private Instant startsAt;
+    private Instant endsAt;
+    private String status; // UPCOMING|RUNNING|FINISHED
+    private long players;
+}
@@ -0,0 +1,29 @@
+package com.chess.matchmaking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ArenaStandingsResponse {
+    private String arenaId;
+    private int page; // 0-based
+    private int size;
+    private long totalPlayers;
+    private List<Entry> standings;
+    private Entry me; // nullable: the caller has not joined
+
+    @Data
+    @AllArgsConstructor
+    public static class Entry {
+        private long rank; // 1-based
+        private String userId;
+        private int points;
+        private int games;
+        private int wins;
+        private boolean onFire; // next win scores double
+        private String state; // WAITING|PLAYING|PAUSED
+    }
+}
@@ -0,0 +1,14 @@
+package com.chess.matchmaking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/** Pending challenges of the caller. */
+@Data
+@AllArgsConstructor
+public class ChallengeListResponse {
+    private List<ChallengeResponse> incoming;
+    private List<ChallengeResponse> outgoing;
+}
@@ -0,0 +1,24 @@
+package com.chess.matchmaking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class ChallengeResponse {
+    private String challengeId;
+    private String challengerId;
+    private String challengedId;
+    private String whiteId;
+    private String blackId;
+    private String timeControl;
+    private int baseSeconds;
+    private int incrementSeconds;
+    private boolean rated;
+    private String status; // PENDING|ACCEPTED|DECLINED|CANCELLED|EXPIRED
+    private String gameId; // nullable: set once accepted
+    private String rematchOf; // nullable
+    private Instant expiresAt;
+}
@@ -0,0 +1,38 @@
+package com.chess.matchmaking.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class CreateArenaRequest {
+
+    @NotBlank
+    @Size(max = 80)
+    private String name;
+
+    @NotNull
+    @Min(10)
+    @Max(7200)
+    private Integer baseSeconds;
+
+    @NotNull
+    @Min(0)
+    @Max(60)
+    private Integer incrementSeconds;
+
+    @NotNull
+    private Boolean rated;
+
+    private Instant startsAt; // nullable: starts now
+
+    @NotNull
+    @Min(5)
+    @Max(720)
+    private Integer durationMinutes;
+}
@@ -0,0 +1,32 @@
+package com.chess.matchmaking.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class CreateChallengeRequest {
+
+    @NotNull
+    private UUID challengedUserId;
+
+    @NotNull
+    @Min(10)
+    @Max(7200)
+    private Integer baseSeconds;
+
+    @NotNull
+    @Min(0)
+    @Max(60)
+    private Integer incrementSeconds;
+
+    @NotNull
+    private Boolean rated;
+
+    @Pattern(regexp = "WHITE|BLACK|RANDOM")
+    private String color; // challenger's colour; nullable: RANDOM
+}
@@ -0,0 +1,33 @@
+package com.chess.matchmaking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/** Recent time-to-match per time control and rating band; waits are in seconds and null without data. */
+@Data
+@AllArgsConstructor
+public class QueueStatsResponse {
+    private List<TimeControlQueue> timeControls;
+
+    @Data
+    @AllArgsConstructor
+    public static class TimeControlQueue {
+        private String timeControl;
+        private int recentMatches;
+        private Double estimatedWaitSeconds; // median
+        private Double p95WaitSeconds;
+        private List<RatingBand> bands;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RatingBand {
+        private int minRating;
+        private int maxRating;
+        private int recentMatches;
+        private Double estimatedWaitSeconds; // median
+        private Double p95WaitSeconds;
+    }
+}
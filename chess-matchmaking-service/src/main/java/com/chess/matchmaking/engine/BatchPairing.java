@@ -0,0 +1,110 @@
+package com.chess.matchmaking.engine;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pairs a whole queue at once instead of first-come. Requests are sorted by rating and a dynamic program
+ * over the sorted list picks the pairing with the lowest total cost, where
+ * <ul>
+ *   <li>a pair costs its rating difference, discounted when both players' ratings are uncertain (high
+ *   rating deviation, e.g. new accounts) so they are not held back waiting for a close opponent;</li>
+ *   <li>leaving a request unpaired costs more than any acceptable pair, plus a charge per second waited, so
+ *   the program pairs as many requests as possible and prefers to pair the ones that waited longest.</li>
+ * </ul>
+ * Only pairs both sides accept under the {@link RangePolicy} are considered. A request may be paired with
+ * any of the {@code window} requests below it, skipping the ones in between, so a tick costs O(n log n)
+ * for the sort plus O(n * window).
+ */
+public class BatchPairing {
+
+    private static final Comparator<OrderBook.Entry> BY_RATING = Comparator
+            .comparingDouble(OrderBook.Entry::rating)
+            .thenComparing(OrderBook.Entry::requestId);
+
+    private final RangePolicy policy;
+    private final int window;
+    private final double waitCostPerSecond;
+    private final double referenceDeviation;
+
+    public BatchPairing(RangePolicy policy, int window, double waitCostPerSecond, double referenceDeviation) {
+        this.policy = policy;
+        this.window = Math.max(1, window);
+        this.waitCostPerSecond = waitCostPerSecond;
+        this.referenceDeviation = referenceDeviation;
+    }
+
+    public static BatchPairing of(MatchmakingProperties properties) {
+        MatchmakingProperties.Batch batch = properties.getBatch();
+        return new BatchPairing(RangePolicy.of(properties), batch.getWindow(), batch.getWaitCostPerSecond(),
+                batch.getReferenceDeviation());
+    }
+
+    /** Pairs in rating order; requests left out stay queued. The input is not modified. */
+    public List<OrderBook.Entry[]> pair(List<OrderBook.Entry> queue, long nowMs) {
+        List<OrderBook.Entry> sorted = new ArrayList<>(queue);
+        sorted.sort(BY_RATING);
+        int n = sorted.size();
+        if (n < 2) {
+            return List.of();
+        }
+
+        // skipBefore[i] = cost of leaving sorted[0..i-1] unpaired
+        double[] skipBefore = new double[n + 1];
+        for (int i = 0; i < n; i++) {
+            skipBefore[i + 1] = skipBefore[i] + skipCost(sorted.get(i), nowMs);
+        }
+
+        // best[k] = lowest cost for the first k requests; partner[k] = index paired with k-1, or -1 if unpaired
+        double[] best = new double[n + 1];
+        int[] partner = new int[n + 1];
+        for (int k = 1; k <= n; k++) {
+            int i = k - 1;
+            OrderBook.Entry current = sorted.get(i);
+            best[k] = best[i] + (skipBefore[k] - skipBefore[i]);
+            partner[k] = -1;
+            for (int j = i - 1; j >= 0 && j >= i - window; j--) {
+                OrderBook.Entry lower = sorted.get(j);
+                if (current.rating() - lower.rating() > policy.maxRange()) {
+                    break;
+                }
+                if (!policy.accepts(lower, current, nowMs)) {
+                    continue;
+                }
+                double cost = best[j] + pairCost(lower, current) + (skipBefore[i] - skipBefore[j + 1]);
+                if (cost < best[k]) {
+                    best[k] = cost;
+                    partner[k] = j;
+                }
+            }
+        }
+
+        List<OrderBook.Entry[]> pairs = new ArrayList<>();
+        for (int k = n; k > 0; ) {
+            int j = partner[k];
+            if (j < 0) {
+                k--;
+            } else {
+                pairs.add(new OrderBook.Entry[]{sorted.get(j), sorted.get(k - 1)});
+                k = j;
+            }
+        }
+        Collections.reverse(pairs);
+        return pairs;
+    }
+
+    double pairCost(OrderBook.Entry a, OrderBook.Entry b) {
+        double deviation = (a.ratingDeviation() + b.ratingDeviation()) / 2;
+        double discount = deviation > referenceDeviation ? referenceDeviation / deviation : 1.0;
+        return Math.abs(a.rating() - b.rating()) * discount;
+    }
+
+    double skipCost(OrderBook.Entry entry, long nowMs) {
+        // above any acceptable pair cost, so two requests that accept each other are never both left out
+        return policy.maxRange() + waitCostPerSecond * Math.max(0, nowMs - entry.queuedAtMs()) / 1000.0;
+    }
+}
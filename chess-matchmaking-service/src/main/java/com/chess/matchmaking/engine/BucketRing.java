@@ -0,0 +1,44 @@
+package com.chess.matchmaking.engine;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Consistent-hash ring assigning rating bands to matchmaking nodes. Each node is placed at several points
+ * so bands spread evenly, and a node joining or leaving only moves the bands next to its own points.
+ * Every node builds the same ring from the same member list, so they agree on owners without coordination.
+ */
+public final class BucketRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    public BucketRing(Collection<String> nodes, int virtualNodes) {
+        for (String node : nodes) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                points.put(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /** Owner of the key, or null when the ring is empty. */
+    public String owner(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> e = points.ceilingEntry(hash(key));
+        return e != null ? e.getValue() : points.firstEntry().getValue();
+    }
+
+    public boolean isEmpty() {
+        return points.isEmpty();
+    }
+
+    private static long hash(String key) {
+        // MD5-based: stable across JVMs, unlike String.hashCode, and well spread
+        return UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+}
@@ -0,0 +1,317 @@
+package com.chess.matchmaking.engine;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Queues sharded into rating bands: a request waits in {@code mm:queue:{<pool>:<band>}} (and the matching
+ * {@code mm:queue_ts:} key) instead of one queue per pool. Each script call then ranges over a short per-band set
+ * instead of the whole pool, and the retry sweeps are split across instances by band.
+ *
+ * Every band is its own hash tag, so on Redis Cluster the bands of one pool spread over the slots and nodes, and
+ * a busy pool is not bound to one node. A script only ever pairs within one band. A pair across a band edge is
+ * claimed side by side in the two slots ({@link QueueClaims}, as for cross-pool fallback): a join that finds no
+ * partner in its band looks into the bands its range reaches, and each sweep pairs the band's waiting requests
+ * with the oldest ones of its neighbours.
+ *
+ * Requests left waiting are retried every tick by the instance that owns their band on a consistent-hash ring;
+ * instances keep their ring membership alive in {@code mm:nodes}, and bands move to the remaining instances when
+ * one stops refreshing. Pairing is ownership-free: a request is claimed by taking it out of its queue, so two
+ * instances looking at the same band during a handover cannot match a request twice.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "matchmaking.engine", havingValue = "bucketed")
+public class BucketedMatchmakingEngine implements MatchmakingEngine {
+
+    private static final String BUCKETS_KEY_PREFIX = "mm:queue_buckets:";
+    private static final String NODES_KEY = "mm:nodes";
+    private static final int MAX_MATCH_CANDIDATES = 50;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> matchBucketScript;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> claimRequestsScript;
+    private final MatchmakingProperties properties;
+    private final RatingBuckets buckets;
+    private final String nodeId;
+    /** Bands known to be in the per-time-control index, so a join only writes the index for a new band. */
+    private final Map<String, Set<Integer>> indexed = new ConcurrentHashMap<>();
+
+    private volatile BucketRing ring = new BucketRing(List.of(), 1);
+    private volatile long ringRefreshedAt;
+
+    public BucketedMatchmakingEngine(RedisTemplate<String, String> redisTemplate,
+                                     @SuppressWarnings("rawtypes") RedisScript<List> matchBucketScript,
+                                     @SuppressWarnings("rawtypes") RedisScript<List> claimRequestsScript,
+                                     MatchmakingProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.matchBucketScript = matchBucketScript;
+        this.claimRequestsScript = claimRequestsScript;
+        this.properties = properties;
+        this.buckets = new RatingBuckets(properties.getBuckets().getWidth());
+        String configured = properties.getBuckets().getNodeId();
+        this.nodeId = configured != null && !configured.isBlank() ? configured : UUID.randomUUID().toString();
+    }
+
+    @Override
+    public String queueName(String pool, double rating) {
+        return RatingBuckets.queueName(pool, buckets.bucket(rating));
+    }
+
+    @Override
+    public MatchPair enqueueAndTryMatch(String pool, String requestId, double rating, double ratingDeviation,
+                                        int initialRange, int rangeIncrement, int maxRange, long expansionIntervalMs) {
+        int bucket = buckets.bucket(rating);
+        String queue = RatingBuckets.queueName(pool, bucket);
+        // the join script normally queued the request already; NX keeps its original join time
+        redisTemplate.opsForZSet().addIfAbsent(QueueKeys.queue(queue), requestId, rating);
+        redisTemplate.opsForZSet().addIfAbsent(QueueKeys.queueTs(queue), requestId, System.currentTimeMillis());
+        index(pool, bucket);
+
+        RangePolicy policy = new RangePolicy(initialRange, rangeIncrement, maxRange, expansionIntervalMs);
+        List<String> claimed = matchBucket(queue, requestId, policy);
+        if (claimed.size() >= 2) {
+            return new MatchPair(claimed.get(0), claimed.get(1));
+        }
+        if (buckets.first(rating, initialRange) == bucket && buckets.last(rating, initialRange) == bucket) {
+            return null;
+        }
+        return matchAcrossBands(pool, bucket, requestId, rating, policy);
+    }
+
+    @Override
+    public void removeFromQueues(String pool, String requestId) {
+        Object rating = redisTemplate.opsForHash().get(QueueKeys.request(requestId), "rating");
+        List<Integer> bands = rating != null
+                ? List.of(buckets.bucket(Double.parseDouble(rating.toString())))
+                : indexedBuckets(pool);
+        for (int bucket : bands) {
+            String queue = RatingBuckets.queueName(pool, bucket);
+            redisTemplate.opsForZSet().remove(QueueKeys.queue(queue), requestId);
+            redisTemplate.opsForZSet().remove(QueueKeys.queueTs(queue), requestId);
+        }
+    }
+
+    @Override
+    public List<String> queueNames(String pool) {
+        return indexedBuckets(pool).stream()
+                .map(b -> RatingBuckets.queueName(pool, b))
+                .toList();
+    }
+
+    /** Retries the waiting requests of every band this instance owns, reaching as far as the maximum range. */
+    @Override
+    public List<MatchPair> matchWaiting(String pool) {
+        long now = System.currentTimeMillis();
+        refreshRing(now);
+        RangePolicy policy = RangePolicy.of(properties);
+        int reach = buckets.reach(policy.maxRange());
+        List<MatchPair> pairs = new ArrayList<>();
+        List<Integer> bands = indexedBuckets(pool);
+        for (int bucket : bands) {
+            if (!nodeId.equals(ring.owner(RatingBuckets.queueName(pool, bucket)))) {
+                continue;
+            }
+            try {
+                String queue = RatingBuckets.queueName(pool, bucket);
+                List<String> claimed = matchBucket(queue, "", policy);
+                for (int i = 0; i + 1 < claimed.size(); i += 2) {
+                    pairs.add(new MatchPair(claimed.get(i), claimed.get(i + 1)));
+                }
+                pairs.addAll(sweepAcrossBands(pool, bucket, bands, reach, policy, now));
+            } catch (Exception e) {
+                log.warn("Bucket sweep failed for {} band {}: {}", pool, bucket, e.getMessage());
+            }
+        }
+        return pairs;
+    }
+
+    /** Rating bands of the pool this instance currently sweeps. */
+    public List<Integer> ownedBuckets(String pool) {
+        return indexedBuckets(pool).stream()
+                .filter(b -> nodeId.equals(ring.owner(RatingBuckets.queueName(pool, b))))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> matchBucket(String queue, String requestId, RangePolicy policy) {
+        List<String> claimed = redisTemplate.execute(
+                matchBucketScript,
+                List.of(QueueKeys.queue(queue), QueueKeys.queueTs(queue)),
+                requestId,
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(policy.initialRange()),
+                String.valueOf(policy.rangeIncrement()),
+                String.valueOf(policy.maxRange()),
+                String.valueOf(Math.max(1, policy.expansionIntervalMs())),
+                String.valueOf(MAX_MATCH_CANDIDATES),
+                String.valueOf(Math.max(1, properties.getBuckets().getSweepLimit())));
+        return claimed != null ? claimed : List.of();
+    }
+
+    /**
+     * A join its own band had no partner for, against the neighbouring bands its range reaches: the nearest
+     * acceptable request there is claimed together with the joiner, each in its own band.
+     */
+    private MatchPair matchAcrossBands(String pool, int bucket, String requestId, double rating, RangePolicy policy) {
+        long now = System.currentTimeMillis();
+        String ownQueue = RatingBuckets.queueName(pool, bucket);
+        Double queuedAt = redisTemplate.opsForZSet().score(QueueKeys.queueTs(ownQueue), requestId);
+        if (queuedAt == null) {
+            // matched, cancelled or expired meanwhile
+            return null;
+        }
+        OrderBook.Entry self = new OrderBook.Entry(requestId, rating, 0, queuedAt.longValue());
+        int range = (int) policy.range(self.queuedAtMs(), now);
+        PoolFallback.Waiting best = null;
+        for (int b = buckets.first(rating, range); b <= buckets.last(rating, range); b++) {
+            if (b == bucket) {
+                continue;
+            }
+            String queue = RatingBuckets.queueName(pool, b);
+            Set<ZSetOperations.TypedTuple<String>> candidates = redisTemplate.opsForZSet().rangeByScoreWithScores(
+                    QueueKeys.queue(queue), rating - range, rating + range, 0, MAX_MATCH_CANDIDATES);
+            for (PoolFallback.Waiting w : withJoinTimes(queue, candidates)) {
+                double gap = Math.abs(rating - w.entry().rating());
+                if (policy.accepts(self, w.entry(), now)
+                        && (best == null || gap < Math.abs(rating - best.entry().rating()))) {
+                    best = w;
+                }
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        List<PoolFallback.Waiting[]> proposed = new ArrayList<>();
+        proposed.add(new PoolFallback.Waiting[]{new PoolFallback.Waiting(ownQueue, ownQueue, self), best});
+        if (QueueClaims.claim(redisTemplate, claimRequestsScript, proposed).isEmpty()) {
+            return null;
+        }
+        return new MatchPair(requestId, best.entry().requestId());
+    }
+
+    /**
+     * Pairs the oldest requests still waiting in a band with the oldest of the indexed bands within {@code reach},
+     * the way {@link PoolFallback} pairs across pools, and claims each pair in its two bands.
+     */
+    private List<MatchPair> sweepAcrossBands(String pool, int bucket, List<Integer> bands, int reach,
+                                             RangePolicy policy, long now) {
+        if (reach == 0) {
+            return List.of();
+        }
+        int limit = Math.max(1, properties.getBuckets().getSweepLimit());
+        String ownQueue = RatingBuckets.queueName(pool, bucket);
+        List<PoolFallback.Waiting> waiting = new ArrayList<>(oldest(ownQueue, limit));
+        if (waiting.isEmpty()) {
+            return List.of();
+        }
+        for (int b : bands) {
+            if (b != bucket && Math.abs(b - bucket) <= reach) {
+                waiting.addAll(oldest(RatingBuckets.queueName(pool, b), limit));
+            }
+        }
+        // pairs between two neighbours are left to the owners of those bands
+        List<PoolFallback.Waiting[]> proposed = PoolFallback.pair(waiting, policy, now).stream()
+                .filter(p -> p[0].queue().equals(ownQueue) || p[1].queue().equals(ownQueue))
+                .toList();
+        List<MatchPair> pairs = new ArrayList<>();
+        for (PoolFallback.Waiting[] p : QueueClaims.claim(redisTemplate, claimRequestsScript, proposed)) {
+            pairs.add(new MatchPair(p[0].entry().requestId(), p[1].entry().requestId()));
+        }
+        return pairs;
+    }
+
+    /** The longest-waiting requests of a band, with their ratings. */
+    private List<PoolFallback.Waiting> oldest(String queue, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> since = redisTemplate.opsForZSet()
+                .rangeWithScores(QueueKeys.queueTs(queue), 0, limit - 1);
+        if (since == null || since.isEmpty()) {
+            return List.of();
+        }
+        List<ZSetOperations.TypedTuple<String>> ordered = new ArrayList<>(since);
+        Object[] ids = ordered.stream().map(ZSetOperations.TypedTuple::getValue).toArray();
+        List<Double> ratings = redisTemplate.opsForZSet().score(QueueKeys.queue(queue), ids);
+        List<PoolFallback.Waiting> waiting = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Double rating = ratings != null ? ratings.get(i) : null;
+            Double queuedAt = ordered.get(i).getScore();
+            if (rating != null && queuedAt != null) {
+                waiting.add(new PoolFallback.Waiting(queue, queue,
+                        new OrderBook.Entry((String) ids[i], rating, 0, queuedAt.longValue())));
+            }
+        }
+        return waiting;
+    }
+
+    /** Candidates read from a band's rating queue, with their join times from its ts queue. */
+    private List<PoolFallback.Waiting> withJoinTimes(String queue, Set<ZSetOperations.TypedTuple<String>> candidates) {
+        if (candidates == null || candidates.isEmpty()) {
+            return List.of();
+        }
+        List<ZSetOperations.TypedTuple<String>> ordered = new ArrayList<>(candidates);
+        Object[] ids = ordered.stream().map(ZSetOperations.TypedTuple::getValue).toArray();
+        List<Double> since = redisTemplate.opsForZSet().score(QueueKeys.queueTs(queue), ids);
+        List<PoolFallback.Waiting> waiting = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Double rating = ordered.get(i).getScore();
+            Double queuedAt = since != null ? since.get(i) : null;
+            if (rating != null && queuedAt != null) {
+                waiting.add(new PoolFallback.Waiting(queue, queue,
+                        new OrderBook.Entry((String) ids[i], rating, 0, queuedAt.longValue())));
+            }
+        }
+        return waiting;
+    }
+
+    private void index(String pool, int bucket) {
+        Set<Integer> known = indexed.computeIfAbsent(pool, k -> ConcurrentHashMap.newKeySet());
+        if (known.add(bucket)) {
+            redisTemplate.opsForSet().add(QueueKeys.pooled(BUCKETS_KEY_PREFIX, pool), String.valueOf(bucket));
+        }
+    }
+
+    private List<Integer> indexedBuckets(String pool) {
+        Set<String> members = redisTemplate.opsForSet().members(QueueKeys.pooled(BUCKETS_KEY_PREFIX, pool));
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        Set<Integer> sorted = new TreeSet<>();
+        for (String m : members) {
+            sorted.add(Integer.parseInt(m));
+        }
+        return List.copyOf(sorted);
+    }
+
+    /** Heartbeats this instance into {@code mm:nodes}, drops silent ones and rebuilds the ring from the rest. */
+    private void refreshRing(long now) {
+        long ttlMs = properties.getBuckets().getNodeTtlMs();
+        if (!ring.isEmpty() && now - ringRefreshedAt < ttlMs / 3) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().add(NODES_KEY, nodeId, now);
+            redisTemplate.opsForZSet().removeRangeByScore(NODES_KEY, 0, now - ttlMs);
+            Set<String> nodes = redisTemplate.opsForZSet().range(NODES_KEY, 0, -1);
+            ring = new BucketRing(nodes != null && !nodes.isEmpty() ? nodes : List.of(nodeId),
+                    properties.getBuckets().getVirtualNodes());
+            ringRefreshedAt = now;
+        } catch (Exception e) {
+            log.warn("Failed to refresh matchmaking ring membership: {}", e.getMessage());
+        }
+    }
+}
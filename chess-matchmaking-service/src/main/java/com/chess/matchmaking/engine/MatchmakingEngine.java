@@ -0,0 +1,59 @@
+package com.chess.matchmaking.engine;
+
+import java.util.List;
+
+/**
+ * Queue and pairing for one service instance. Implementations are selected with {@code matchmaking.engine}:
+ * {@code redis} (per-join Lua match, the default), {@code order-book} (in-memory books per pool) or
+ * {@code bucketed} (rating-band queues owned by instances on a consistent-hash ring).
+ * Either can pair on join or, with {@code matchmaking.pairing=batch}, leave joins queued and pair the whole
+ * queue with {@link BatchPairing} every tick.
+ */
+public interface MatchmakingEngine {
+
+    record MatchPair(String requestId1, String requestId2) {
+    }
+
+    /**
+     * Adds the request to the queue of its pool and returns a pair if it can be matched right away.
+     * {@code ratingDeviation} is 0 when unknown.
+     */
+    MatchPair enqueueAndTryMatch(String pool, String requestId, double rating, double ratingDeviation,
+                                 int initialRange, int rangeIncrement, int maxRange, long expansionIntervalMs);
+
+    /**
+     * True when requests are matched by the request store's join itself (Redis engine, per-join pairing, with
+     * the same {@code try-match.lua} on the queue), so the service skips {@link #enqueueAndTryMatch}.
+     */
+    default boolean matchesInJoinScript() {
+        return false;
+    }
+
+    /**
+     * Suffix of the {@code mm:queue:} / {@code mm:queue_ts:} keys a request with this rating waits in;
+     * the pool's hash tag ({@link QueueKeys#tag}) unless the engine shards its queues, and always a hash tag,
+     * so the request's other keys can be placed in the same slot.
+     */
+    default String queueName(String pool, double rating) {
+        return QueueKeys.tag(pool);
+    }
+
+    void removeFromQueues(String pool, String requestId);
+
+    /** Every queue of the pool that may hold requests, as named by {@link #queueName}. */
+    default List<String> queueNames(String pool) {
+        return List.of(QueueKeys.tag(pool));
+    }
+
+    /** Called after the request store expired these requests and took them out of the Redis queues. */
+    default void onExpired(String pool, List<String> requestIds) {
+    }
+
+    /**
+     * Pairs requests that are already waiting, e.g. because their rating ranges have grown since they joined.
+     * Called every matchmaking tick; engines that only match on join return nothing.
+     */
+    default List<MatchPair> matchWaiting(String pool) {
+        return List.of();
+    }
+}
@@ -0,0 +1,114 @@
+package com.chess.matchmaking.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Waiting requests of one pool ordered by rating. Not thread-safe: the owning engine serializes
+ * access per book.
+ *
+ * A join looks outward from its own rating, nearest opponents first, and stops once the difference
+ * exceeds its own range, so a match costs O(log n) plus the few entries inside the window. The periodic
+ * sweep walks the ladder once and pairs neighbours whose ranges have grown to cover the gap.
+ */
+public class OrderBook {
+
+    /** {@code ratingDeviation} is 0 when unknown. */
+    public record Entry(String requestId, double rating, double ratingDeviation, long queuedAtMs) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingDouble(Entry::rating)
+            .thenComparing(Entry::requestId);
+
+    private final NavigableSet<Entry> ladder = new TreeSet<>(ORDER);
+    private final Map<String, Entry> byId = new HashMap<>();
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean contains(String requestId) {
+        return byId.containsKey(requestId);
+    }
+
+    /** Adds the entry unless its request is already present. */
+    public boolean add(Entry entry) {
+        if (byId.putIfAbsent(entry.requestId(), entry) != null) {
+            return false;
+        }
+        ladder.add(entry);
+        return true;
+    }
+
+    public Entry remove(String requestId) {
+        Entry entry = byId.remove(requestId);
+        if (entry != null) {
+            ladder.remove(entry);
+        }
+        return entry;
+    }
+
+    /** Nearest acceptable opponent for a queued entry, or null. The entry stays in the book. */
+    public Entry findMatch(Entry entry, RangePolicy policy, long nowMs) {
+        double limit = policy.range(entry.queuedAtMs(), nowMs);
+        Iterator<Entry> down = ladder.headSet(entry, false).descendingIterator();
+        Iterator<Entry> up = ladder.tailSet(entry, false).iterator();
+        Entry below = next(down);
+        Entry above = next(up);
+        while (below != null || above != null) {
+            boolean takeBelow = above == null
+                    || (below != null && entry.rating() - below.rating() <= above.rating() - entry.rating());
+            Entry candidate = takeBelow ? below : above;
+            if (Math.abs(candidate.rating() - entry.rating()) > limit) {
+                return null;
+            }
+            if (policy.accepts(entry, candidate, nowMs)) {
+                return candidate;
+            }
+            if (takeBelow) {
+                below = next(down);
+            } else {
+                above = next(up);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes and returns pairs of rating neighbours that now accept each other. One pass over the ladder;
+     * a request is paired with its closest unpaired neighbour, never skipped over.
+     */
+    public List<Entry[]> sweep(RangePolicy policy, long nowMs) {
+        List<Entry[]> pairs = new ArrayList<>();
+        Entry previous = null;
+        for (Entry current : ladder) {
+            if (previous != null && policy.accepts(previous, current, nowMs)) {
+                pairs.add(new Entry[]{previous, current});
+                previous = null;
+            } else {
+                previous = current;
+            }
+        }
+        for (Entry[] pair : pairs) {
+            remove(pair[0].requestId());
+            remove(pair[1].requestId());
+        }
+        return pairs;
+    }
+
+    /** Snapshot in rating order. */
+    public List<Entry> entries() {
+        return new ArrayList<>(ladder);
+    }
+
+    private static Entry next(Iterator<Entry> it) {
+        return it.hasNext() ? it.next() : null;
+    }
+}
@@ -0,0 +1,282 @@
+package com.chess.matchmaking.engine;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory order book per pool. One instance owns each book (a Redis lease per pool) and
+ * matches joins it receives in-process, without a Redis round trip on the matching path. Other instances
+ * forward their joins and leaves through a Redis stream that the owner applies every tick.
+ *
+ * Redis keeps what a new owner needs after failover: queue membership stays write-through in the same
+ * {@code mm:queue:{<pool>}} / {@code mm:queue_ts:{<pool>}} ZSETs the Lua engine uses, and {@code mm:log:{<pool>}} carries
+ * changes made since. A new owner notes the log tail, loads the ZSETs, then replays the log from that point;
+ * replays are idempotent, and recently removed requests are not re-added.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "matchmaking.engine", havingValue = "order-book")
+public class OrderBookMatchmakingEngine implements MatchmakingEngine {
+
+    private static final String LOG_KEY_PREFIX = "mm:log:";
+    private static final String OWNER_KEY_PREFIX = "mm:engine:owner:";
+
+    private static final RedisScript<Long> RENEW_LEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final MatchmakingProperties properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+
+    public OrderBookMatchmakingEngine(RedisTemplate<String, String> redisTemplate, MatchmakingProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+    }
+
+    @Override
+    public MatchPair enqueueAndTryMatch(String pool, String requestId, double rating, double ratingDeviation,
+                                        int initialRange, int rangeIncrement, int maxRange, long expansionIntervalMs) {
+        long now = System.currentTimeMillis();
+        Book book = book(pool);
+        // membership is written first so a takeover snapshot never misses an entry the log refers to
+        String queue = QueueKeys.tag(pool);
+        redisTemplate.opsForZSet().addIfAbsent(QueueKeys.queue(queue), requestId, rating);
+        redisTemplate.opsForZSet().addIfAbsent(QueueKeys.queueTs(queue), requestId, now);
+
+        OrderBook.Entry entry = new OrderBook.Entry(requestId, rating, ratingDeviation, now);
+        RangePolicy policy = new RangePolicy(initialRange, rangeIncrement, maxRange, expansionIntervalMs);
+        OrderBook.Entry opponent = null;
+        synchronized (book) {
+            if (book.owned) {
+                if (book.orders.add(entry) && !properties.isBatchPairing()) {
+                    opponent = book.orders.findMatch(entry, policy, now);
+                    if (opponent != null) {
+                        book.take(entry.requestId(), now);
+                        book.take(opponent.requestId(), now);
+                    }
+                }
+            } else {
+                log(pool, "add", entry);
+            }
+        }
+        if (opponent == null) {
+            return null;
+        }
+        dequeue(pool, requestId, opponent.requestId());
+        return new MatchPair(requestId, opponent.requestId());
+    }
+
+    @Override
+    public void removeFromQueues(String pool, String requestId) {
+        dequeue(pool, requestId);
+        Book book = book(pool);
+        synchronized (book) {
+            if (book.owned) {
+                book.take(requestId, System.currentTimeMillis());
+            } else {
+                log(pool, "remove", new OrderBook.Entry(requestId, 0, 0, 0));
+            }
+        }
+    }
+
+    @Override
+    public void onExpired(String pool, List<String> requestIds) {
+        Book book = book(pool);
+        synchronized (book) {
+            long now = System.currentTimeMillis();
+            for (String requestId : requestIds) {
+                if (book.owned) {
+                    book.take(requestId, now);
+                } else {
+                    log(pool, "remove", new OrderBook.Entry(requestId, 0, 0, 0));
+                }
+            }
+        }
+    }
+
+    /** Keeps the lease, applies forwarded changes and pairs waiting requests whose ranges now overlap. */
+    @Override
+    public List<MatchPair> matchWaiting(String pool) {
+        Book book = book(pool);
+        long now = System.currentTimeMillis();
+        List<MatchPair> pairs = new ArrayList<>();
+        synchronized (book) {
+            try {
+                if (!holdLease(pool, book, now)) {
+                    return pairs;
+                }
+                applyLog(pool, book, now);
+                for (OrderBook.Entry[] pair : pairWaiting(book.orders, now)) {
+                    book.forget(pair[0].requestId(), now);
+                    book.forget(pair[1].requestId(), now);
+                    pairs.add(new MatchPair(pair[0].requestId(), pair[1].requestId()));
+                }
+                book.purgeForgotten(now);
+            } catch (Exception e) {
+                // a book that may have missed updates is rebuilt from Redis on the next tick
+                log.warn("Order book tick failed for {}: {}", pool, e.getMessage());
+                book.owned = false;
+            }
+        }
+        for (MatchPair pair : pairs) {
+            dequeue(pool, pair.requestId1(), pair.requestId2());
+        }
+        return pairs;
+    }
+
+    private List<OrderBook.Entry[]> pairWaiting(OrderBook orders, long now) {
+        if (!properties.isBatchPairing()) {
+            return orders.sweep(RangePolicy.of(properties), now);
+        }
+        List<OrderBook.Entry[]> pairs = BatchPairing.of(properties).pair(orders.entries(), now);
+        for (OrderBook.Entry[] pair : pairs) {
+            orders.remove(pair[0].requestId());
+            orders.remove(pair[1].requestId());
+        }
+        return pairs;
+    }
+
+    /** Requests currently held in memory for the pool; zero on instances that do not own it. */
+    public int depth(String pool) {
+        Book book = book(pool);
+        synchronized (book) {
+            return book.owned ? book.orders.size() : 0;
+        }
+    }
+
+    private boolean holdLease(String pool, Book book, long now) {
+        String ownerKey = QueueKeys.pooled(OWNER_KEY_PREFIX, pool);
+        long leaseMs = properties.getOrderBook().getLeaseMs();
+        if (book.owned) {
+            if (now - book.leaseRenewedAt < leaseMs / 3) {
+                return true;
+            }
+            Long renewed = redisTemplate.execute(RENEW_LEASE, List.of(ownerKey), nodeId, String.valueOf(leaseMs));
+            if (renewed != null && renewed == 1L) {
+                book.leaseRenewedAt = now;
+                return true;
+            }
+            log.warn("Lost order book ownership for {}", pool);
+            book.owned = false;
+        }
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(ownerKey, nodeId, Duration.ofMillis(leaseMs)))) {
+            return false;
+        }
+        rebuild(pool, book, now);
+        book.owned = true;
+        book.leaseRenewedAt = now;
+        log.info("Took over order book for {}: {} waiting", pool, book.orders.size());
+        return true;
+    }
+
+    private void rebuild(String pool, Book book, long now) {
+        List<MapRecord<String, Object, Object>> tail = redisTemplate.opsForStream()
+                .reverseRange(QueueKeys.pooled(LOG_KEY_PREFIX, pool), Range.unbounded(), Limit.limit().count(1));
+        book.logOffset = tail == null || tail.isEmpty() ? "0-0" : tail.get(0).getId().getValue();
+
+        book.orders = new OrderBook();
+        for (OrderBook.Entry entry : QueueSnapshot.read(redisTemplate, QueueKeys.tag(pool), now)) {
+            book.orders.add(entry);
+        }
+    }
+
+    private void applyLog(String pool, Book book, long now) {
+        int batch = properties.getOrderBook().getLogReadBatch();
+        while (true) {
+            List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                    StreamReadOptions.empty().count(batch),
+                    StreamOffset.create(QueueKeys.pooled(LOG_KEY_PREFIX, pool), ReadOffset.from(book.logOffset)));
+            if (records == null || records.isEmpty()) {
+                return;
+            }
+            for (MapRecord<String, Object, Object> record : records) {
+                Map<Object, Object> v = record.getValue();
+                String requestId = String.valueOf(v.get("id"));
+                if ("remove".equals(v.get("op"))) {
+                    book.take(requestId, now);
+                } else if (!book.forgotten.containsKey(requestId)) {
+                    book.orders.add(new OrderBook.Entry(
+                            requestId,
+                            Double.parseDouble(String.valueOf(v.get("rating"))),
+                            Double.parseDouble(String.valueOf(v.getOrDefault("rd", "0"))),
+                            Long.parseLong(String.valueOf(v.get("ts")))));
+                }
+                book.logOffset = record.getId().getValue();
+            }
+            if (records.size() < batch) {
+                return;
+            }
+        }
+    }
+
+    private void log(String pool, String op, OrderBook.Entry entry) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("op", op);
+        fields.put("id", entry.requestId());
+        fields.put("rating", String.valueOf(entry.rating()));
+        fields.put("rd", String.valueOf(entry.ratingDeviation()));
+        fields.put("ts", String.valueOf(entry.queuedAtMs()));
+        redisTemplate.opsForStream().add(
+                StreamRecords.newRecord().in(QueueKeys.pooled(LOG_KEY_PREFIX, pool)).ofMap(fields),
+                XAddOptions.maxlen(properties.getOrderBook().getLogMaxLength()).approximateTrimming(true));
+    }
+
+    private void dequeue(String pool, String... requestIds) {
+        String queue = QueueKeys.tag(pool);
+        redisTemplate.opsForZSet().remove(QueueKeys.queue(queue), (Object[]) requestIds);
+        redisTemplate.opsForZSet().remove(QueueKeys.queueTs(queue), (Object[]) requestIds);
+    }
+
+    private Book book(String pool) {
+        return books.computeIfAbsent(pool, k -> new Book());
+    }
+
+    private static final class Book {
+        OrderBook orders = new OrderBook();
+        boolean owned;
+        long leaseRenewedAt;
+        String logOffset = "0-0";
+        /** Requests matched or removed recently, so a late or replayed "add" does not bring them back. */
+        final Map<String, Long> forgotten = new LinkedHashMap<>();
+
+        void take(String requestId, long now) {
+            orders.remove(requestId);
+            forget(requestId, now);
+        }
+
+        void forget(String requestId, long now) {
+            forgotten.put(requestId, now);
+        }
+
+        void purgeForgotten(long now) {
+            Iterator<Map.Entry<String, Long>> it = forgotten.entrySet().iterator();
+            while (it.hasNext() && now - it.next().getValue() > 600_000L) {
+                it.remove();
+            }
+        }
+    }
+}
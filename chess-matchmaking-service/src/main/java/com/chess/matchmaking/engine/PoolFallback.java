@@ -0,0 +1,56 @@
+package com.chess.matchmaking.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Pairs requests that waited past the fallback threshold across pools of one rating category. Requests are
+ * sorted by rating and each is paired with the nearest unpaired one above it from a different pool that both
+ * sides accept under the {@link RangePolicy}; two requests of the same pool are left to the pool's own
+ * matching. The one that waited longer comes first in the pair, and its clock is the one played.
+ */
+public final class PoolFallback {
+
+    /**
+     * A request waiting in {@code queue} (as named by {@link MatchmakingEngine#queueName}) of {@code pool}. Only
+     * requests of different {@code pool}s are paired; the bucketed engine passes the band as the pool to pair
+     * across band edges.
+     */
+    public record Waiting(String pool, String queue, OrderBook.Entry entry) {
+    }
+
+    private static final Comparator<Waiting> BY_RATING = Comparator
+            .comparingDouble((Waiting w) -> w.entry().rating())
+            .thenComparing(w -> w.entry().requestId());
+
+    private PoolFallback() {
+    }
+
+    public static List<Waiting[]> pair(List<Waiting> waiting, RangePolicy policy, long nowMs) {
+        List<Waiting> sorted = new ArrayList<>(waiting);
+        sorted.sort(BY_RATING);
+        boolean[] taken = new boolean[sorted.size()];
+        List<Waiting[]> pairs = new ArrayList<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (taken[i]) {
+                continue;
+            }
+            Waiting a = sorted.get(i);
+            for (int j = i + 1; j < sorted.size(); j++) {
+                Waiting b = sorted.get(j);
+                if (b.entry().rating() - a.entry().rating() > policy.maxRange()) {
+                    break;
+                }
+                if (taken[j] || a.pool().equals(b.pool()) || !policy.accepts(a.entry(), b.entry(), nowMs)) {
+                    continue;
+                }
+                taken[i] = true;
+                taken[j] = true;
+                pairs.add(a.entry().queuedAtMs() <= b.entry().queuedAtMs() ? new Waiting[]{a, b} : new Waiting[]{b, a});
+                break;
+            }
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,81 @@
+package com.chess.matchmaking.engine;
+
+import com.chess.matchmaking.dto.MatchmakingStatus;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Claims pairs whose two sides wait in different queues, and so in different Redis Cluster slots: pairs across
+ * pools ({@code PoolFallbackJob}) and across rating bands ({@link BucketedMatchmakingEngine}). No script can take
+ * both sides at once, so the first sides are claimed with {@code claim-requests.lua}, one call per queue, then
+ * the second sides of the pairs whose first side was still there. A first side whose partner was gone goes back
+ * in its queue with its rating and join time, unless it was cancelled meanwhile.
+ */
+public final class QueueClaims {
+
+    private QueueClaims() {
+    }
+
+    /** The proposed pairs ({@link PoolFallback.Waiting} per side) of which both sides are now taken. */
+    public static List<PoolFallback.Waiting[]> claim(RedisTemplate<String, String> redisTemplate,
+                                                     @SuppressWarnings("rawtypes") RedisScript<List> claimRequestsScript,
+                                                     List<PoolFallback.Waiting[]> proposed) {
+        if (proposed.isEmpty()) {
+            return List.of();
+        }
+        Set<String> first = claimSide(redisTemplate, claimRequestsScript, proposed, 0, null);
+        Set<String> second = claimSide(redisTemplate, claimRequestsScript, proposed, 1, first);
+        List<PoolFallback.Waiting[]> claimed = new ArrayList<>();
+        for (PoolFallback.Waiting[] p : proposed) {
+            if (!first.contains(p[0].entry().requestId())) {
+                continue;
+            }
+            if (second.contains(p[1].entry().requestId())) {
+                claimed.add(p);
+            } else {
+                requeue(redisTemplate, p[0]);
+            }
+        }
+        return claimed;
+    }
+
+    /** Claims one side of each proposed pair, one script call per queue; {@code onlyWith} filters by the other side. */
+    @SuppressWarnings("unchecked")
+    private static Set<String> claimSide(RedisTemplate<String, String> redisTemplate,
+                                         @SuppressWarnings("rawtypes") RedisScript<List> claimRequestsScript,
+                                         List<PoolFallback.Waiting[]> proposed, int side, Set<String> onlyWith) {
+        Map<String, List<String>> byQueue = new LinkedHashMap<>();
+        for (PoolFallback.Waiting[] p : proposed) {
+            if (onlyWith == null || onlyWith.contains(p[1 - side].entry().requestId())) {
+                byQueue.computeIfAbsent(p[side].queue(), q -> new ArrayList<>()).add(p[side].entry().requestId());
+            }
+        }
+        Set<String> claimed = new HashSet<>();
+        for (Map.Entry<String, List<String>> e : byQueue.entrySet()) {
+            List<String> ids = redisTemplate.execute(claimRequestsScript,
+                    List.of(QueueKeys.queue(e.getKey()), QueueKeys.queueTs(e.getKey())), e.getValue().toArray());
+            if (ids != null) {
+                claimed.addAll(ids);
+            }
+        }
+        return claimed;
+    }
+
+    /** Puts a claimed request back with its rating and join time, unless it was cancelled meanwhile. */
+    private static void requeue(RedisTemplate<String, String> redisTemplate, PoolFallback.Waiting w) {
+        String requestId = w.entry().requestId();
+        Object status = redisTemplate.opsForHash().get(QueueKeys.request(requestId), "status");
+        if (!MatchmakingStatus.QUEUED.name().equals(status)) {
+            return;
+        }
+        redisTemplate.opsForZSet().addIfAbsent(QueueKeys.queue(w.queue()), requestId, w.entry().rating());
+        redisTemplate.opsForZSet().addIfAbsent(QueueKeys.queueTs(w.queue()), requestId, w.entry().queuedAtMs());
+    }
+}
@@ -0,0 +1,76 @@
+package com.chess.matchmaking.engine;
+
+import io.lettuce.core.cluster.SlotHash;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis keys of the matchmaking queues. Every key of a pool carries the pool as its hash tag
+ * ({@code mm:queue:{180+2}}, {@code mm:engine:owner:{180+2}}), so on Redis Cluster a pool's queues, lease and
+ * log share one slot and a script may touch them together, while different pools spread over the nodes. A
+ * rating band of the bucketed engine is a tag of its own ({@code mm:queue:{180+2:15}}), so the bands of one
+ * pool spread too.
+ *
+ * <p>A request's hash lives in the slot of the queue it joined too. Its id is a random UUID whose last
+ * {@value #SLOT_SUFFIX_LENGTH} hex digits are chosen to hash to that slot, and its key is tagged with them
+ * ({@code mm:req:{1a2b3}:<id>}), so the key still follows from the id alone while the join script can write
+ * the request, queue it and match it against the hashes of the requests waiting with it.
+ */
+public final class QueueKeys {
+
+    public static final String QUEUE_KEY_PREFIX = "mm:queue:";
+    public static final String QUEUE_TS_KEY_PREFIX = "mm:queue_ts:";
+    public static final String REQUEST_KEY_PREFIX = "mm:req:";
+
+    private static final int SLOT_SUFFIX_LENGTH = 5;
+    /** Per cluster slot, the first {@value #SLOT_SUFFIX_LENGTH}-digit hex string that hashes to it. */
+    private static final Map<Integer, String> SLOT_SUFFIXES = new ConcurrentHashMap<>();
+
+    private QueueKeys() {
+    }
+
+    /** Hash tag of a pool, e.g. {@code {180+2}}; also the queue name of a pool that is not split into bands. */
+    public static String tag(String pool) {
+        return "{" + pool + "}";
+    }
+
+    /** A per-pool key other than the queues, e.g. {@code mm:engine:owner:{180+2}}. */
+    public static String pooled(String prefix, String pool) {
+        return prefix + tag(pool);
+    }
+
+    /** Rating ZSET of a queue named by {@link MatchmakingEngine#queueName}. */
+    public static String queue(String queueName) {
+        return QUEUE_KEY_PREFIX + queueName;
+    }
+
+    /** Join time ZSET of a queue named by {@link MatchmakingEngine#queueName}. */
+    public static String queueTs(String queueName) {
+        return QUEUE_TS_KEY_PREFIX + queueName;
+    }
+
+    /** Hash of a request, in the slot {@link #newRequestId} made its id for, e.g. {@code mm:req:{1a2b3}:<id>}. */
+    public static String request(String requestId) {
+        String suffix = requestId.substring(Math.max(0, requestId.length() - SLOT_SUFFIX_LENGTH));
+        return REQUEST_KEY_PREFIX + "{" + suffix + "}:" + requestId;
+    }
+
+    /** A new request id whose {@link #request hash} shares the slot of the queue it joins. */
+    public static String newRequestId(String queueName) {
+        String id = UUID.randomUUID().toString();
+        String suffix = SLOT_SUFFIXES.computeIfAbsent(SlotHash.getSlot(queue(queueName)), QueueKeys::slotSuffix);
+        return id.substring(0, id.length() - SLOT_SUFFIX_LENGTH) + suffix;
+    }
+
+    private static String slotSuffix(int slot) {
+        // 16^5 strings over 16384 slots: every slot is hit, on average after 16384 tries
+        for (int n = 0; ; n++) {
+            String suffix = String.format("%05x", n);
+            if (SlotHash.getSlot(suffix) == slot) {
+                return suffix;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.chess.matchmaking.engine;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a whole Redis queue in three round trips: ratings from {@code mm:queue:<queue>}, join times from
+ * {@code mm:queue_ts:<queue>} and one pipelined read of each request's rating deviation.
+ */
+public final class QueueSnapshot {
+
+    private QueueSnapshot() {
+    }
+
+    public static List<OrderBook.Entry> read(RedisTemplate<String, String> redisTemplate, String queue, long nowMs) {
+        Set<ZSetOperations.TypedTuple<String>> ratings = redisTemplate.opsForZSet()
+                .rangeWithScores(QueueKeys.queue(queue), 0, -1);
+        if (ratings == null || ratings.isEmpty()) {
+            return List.of();
+        }
+        Set<ZSetOperations.TypedTuple<String>> queuedAt = redisTemplate.opsForZSet()
+                .rangeWithScores(QueueKeys.queueTs(queue), 0, -1);
+        Map<String, Long> since = new HashMap<>();
+        if (queuedAt != null) {
+            for (ZSetOperations.TypedTuple<String> t : queuedAt) {
+                since.put(t.getValue(), t.getScore() != null ? t.getScore().longValue() : nowMs);
+            }
+        }
+
+        List<ZSetOperations.TypedTuple<String>> members = new ArrayList<>(ratings);
+        List<Object> deviations = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (ZSetOperations.TypedTuple<String> t : members) {
+                    operations.opsForHash().get(QueueKeys.request(t.getValue()), "ratingDeviation");
+                }
+                return null;
+            }
+        });
+
+        List<OrderBook.Entry> entries = new ArrayList<>(members.size());
+        for (int i = 0; i < members.size(); i++) {
+            ZSetOperations.TypedTuple<String> t = members.get(i);
+            Object deviation = i < deviations.size() ? deviations.get(i) : null;
+            entries.add(new OrderBook.Entry(
+                    t.getValue(),
+                    t.getScore() != null ? t.getScore() : 0.0,
+                    deviation != null ? Double.parseDouble(deviation.toString()) : 0.0,
+                    since.getOrDefault(t.getValue(), nowMs)));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,25 @@
+package com.chess.matchmaking.engine;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+
+/** Accepted rating difference for a request, growing by a fixed step per expansion interval up to a cap. */
+public record RangePolicy(int initialRange, int rangeIncrement, int maxRange, long expansionIntervalMs) {
+
+    public static RangePolicy of(MatchmakingProperties properties) {
+        return new RangePolicy(
+                properties.getInitialRatingRange(),
+                properties.getRatingRangeIncrement(),
+                properties.getMaxRatingRange(),
+                properties.getRangeExpansionIntervalSeconds() * 1000L);
+    }
+
+    public double range(long queuedAtMs, long nowMs) {
+        long expansions = expansionIntervalMs > 0 ? Math.max(0, nowMs - queuedAtMs) / expansionIntervalMs : 0;
+        return Math.min(maxRange, initialRange + expansions * (double) rangeIncrement);
+    }
+
+    /** Both sides must accept the difference, as in try-match.lua. */
+    public boolean accepts(OrderBook.Entry a, OrderBook.Entry b, long nowMs) {
+        return Math.abs(a.rating() - b.rating()) <= Math.min(range(a.queuedAtMs(), nowMs), range(b.queuedAtMs(), nowMs));
+    }
+}
@@ -0,0 +1,39 @@
+package com.chess.matchmaking.engine;
+
+/**
+ * Splits a pool's queue into fixed-width rating bands. A request waits in the band of its rating;
+ * a search with range {@code r} looks at every band that overlaps {@code [rating - r, rating + r]}, so it
+ * moves into neighbouring bands as the range widens.
+ */
+public record RatingBuckets(int width) {
+
+    public RatingBuckets {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+    }
+
+    public int bucket(double rating) {
+        return (int) Math.floor(rating / width);
+    }
+
+    /** First band a search of {@code range} around {@code rating} can reach. */
+    public int first(double rating, int range) {
+        return bucket(rating - range);
+    }
+
+    /** Last band a search of {@code range} around {@code rating} can reach. */
+    public int last(double rating, int range) {
+        return bucket(rating + range);
+    }
+
+    /** Neighbours on each side a request in a band may be matched with, given the widest possible range. */
+    public int reach(int maxRange) {
+        return (maxRange + width - 1) / width;
+    }
+
+    /** Queue name of a band, e.g. {@code {180+2:15}} for 1500-1599; each band is its own hash tag. */
+    public static String queueName(String pool, int bucket) {
+        return QueueKeys.tag(pool + ":" + bucket);
+    }
+}
@@ -0,0 +1,84 @@
+package com.chess.matchmaking.messaging;
+
+import com.chess.events.common.EventEnvelope;
+import com.chess.events.constants.NatsSubjects;
+import com.chess.events.game.GameFinishedEvent;
+import com.chess.matchmaking.service.ArenaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import io.nats.client.JetStream;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.Message;
+import io.nats.client.PushSubscribeOptions;
+import io.nats.client.api.AckPolicy;
+import io.nats.client.api.ConsumerConfiguration;
+import io.nats.client.api.DeliverPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Feeds finished games to {@link ArenaService}. Each arena is paired by whichever instance owns it, so every
+ * instance reads all results through an ephemeral consumer starting at new messages; the owner picks out its
+ * arenas' games and the others drop them without touching Redis.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "nats.enabled", havingValue = "true", matchIfMissing = true)
+public class ArenaGameFinishedListener {
+
+    private final Connection natsConnection;
+    private final JetStream jetStream;
+    private final ObjectMapper objectMapper;
+    private final ArenaService arenaService;
+
+    private Dispatcher dispatcher;
+    private JetStreamSubscription subscription;
+
+    @PostConstruct
+    public void init() {
+        try {
+            dispatcher = natsConnection.createDispatcher();
+            subscription = jetStream.subscribe(NatsSubjects.GAME_FINISHED, dispatcher, this::onGameFinished, true,
+                    PushSubscribeOptions.builder().configuration(ConsumerConfiguration.builder()
+                            .ackPolicy(AckPolicy.None)
+                            .deliverPolicy(DeliverPolicy.New)
+                            .build()).build());
+            log.info("Subscribed to finished games for arenas: {}", NatsSubjects.GAME_FINISHED);
+        } catch (Exception e) {
+            // arena games without a result are written off by the owner's tick once they are overdue
+            log.warn("Failed to subscribe to finished games: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (subscription != null) {
+            try {
+                subscription.unsubscribe();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    void onGameFinished(Message msg) {
+        try {
+            EventEnvelope<GameFinishedEvent> env = objectMapper.readValue(new String(msg.getData(), StandardCharsets.UTF_8),
+                    objectMapper.getTypeFactory().constructParametricType(EventEnvelope.class, GameFinishedEvent.class));
+            GameFinishedEvent e = env.getPayload();
+            if (e == null || e.getGameId() == null) {
+                return;
+            }
+            arenaService.onGameFinished(e.getGameId(), e.getResult());
+        } catch (Exception ex) {
+            log.warn("Failed to handle GameFinished", ex);
+        }
+    }
+}
@@ -18,7 +18,11 @@ import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
@@ -128,6 +132,55 @@ public class MatchmakingEventPublisher {
         }
     }
 
+    /**
+     * Publishes one PlayerDequeued event per request without waiting for each acknowledgement in turn: all
+     * messages are sent first and the returned future completes once JetStream has acknowledged them all.
+     * Failures are logged per request; the deterministic event ids make a later retry safe.
+     */
+    public CompletableFuture<Void> publishPlayersDequeued(Map<String, UUID> usersByRequestId, String reason) {
+        if (usersByRequestId.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (natsConnection == null || natsConnection.getStatus() != Connection.Status.CONNECTED) {
+            log.warn("NATS connection is not available. {} PlayerDequeued events will not be published", usersByRequestId.size());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<CompletableFuture<?>> acks = new ArrayList<>(usersByRequestId.size());
+        for (Map.Entry<String, UUID> e : usersByRequestId.entrySet()) {
+            String requestId = e.getKey();
+            try {
+                PlayerDequeuedEvent payload = PlayerDequeuedEvent.builder()
+                        .requestId(requestId)
+                        .userId(e.getValue().toString())
+                        .reason(reason)
+                        .build();
+                String eventId = deterministicEventId("PlayerDequeued", requestId);
+                EventEnvelope<PlayerDequeuedEvent> event = EventBuilder.envelope(eventId, "PlayerDequeued", PRODUCER, payload);
+                byte[] body = objectMapper.writeValueAsBytes(event);
+                Headers headers = new Headers();
+                headers.put("Nats-Msg-Id", eventId);
+                if (event.getCorrelationId() != null) {
+                    headers.put("X-Correlation-Id", event.getCorrelationId());
+                }
+
+                if (jetStream != null) {
+                    acks.add(jetStream.publishAsync(NatsSubjects.MATCHMAKING_PLAYER_DEQUEUED, headers, body)
+                            .whenComplete((ack, ex) -> {
+                                if (ex != null) {
+                                    log.error("Error publishing PlayerDequeued event requestId={}", requestId, ex);
+                                }
+                            }));
+                } else {
+                    natsConnection.publish(NatsSubjects.MATCHMAKING_PLAYER_DEQUEUED, headers, body);
+                }
+            } catch (Exception ex) {
+                log.error("Error publishing PlayerDequeued event requestId={}", requestId, ex);
+            }
+        }
+        return CompletableFuture.allOf(acks.toArray(CompletableFuture[]::new));
+    }
+
     private void publish(String subject, Object event) throws Exception {
         String eventJson = objectMapper.writeValueAsString(event);
 
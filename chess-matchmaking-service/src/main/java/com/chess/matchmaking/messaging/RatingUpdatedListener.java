@@ -0,0 +1,85 @@
+package com.chess.matchmaking.messaging;
+
+import com.chess.events.common.EventEnvelope;
+import com.chess.events.constants.NatsSubjects;
+import com.chess.events.users.RatingUpdatedEvent;
+import com.chess.matchmaking.client.RatingCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import io.nats.client.JetStream;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.Message;
+import io.nats.client.PushSubscribeOptions;
+import io.nats.client.api.AckPolicy;
+import io.nats.client.api.ConsumerConfiguration;
+import io.nats.client.api.DeliverPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Keeps {@link RatingCache} current. Every instance has its own cache, so each one reads all rating updates
+ * through an ephemeral consumer starting at new messages, instead of sharing a durable one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "nats.enabled", havingValue = "true", matchIfMissing = true)
+public class RatingUpdatedListener {
+
+    private final Connection natsConnection;
+    private final JetStream jetStream;
+    private final ObjectMapper objectMapper;
+    private final RatingCache ratingCache;
+
+    private Dispatcher dispatcher;
+    private JetStreamSubscription subscription;
+
+    @PostConstruct
+    public void init() {
+        try {
+            dispatcher = natsConnection.createDispatcher();
+            subscription = jetStream.subscribe(NatsSubjects.USER_RATING_UPDATED, dispatcher, this::onRatingUpdated, true,
+                    PushSubscribeOptions.builder().configuration(ConsumerConfiguration.builder()
+                            .ackPolicy(AckPolicy.None)
+                            .deliverPolicy(DeliverPolicy.New)
+                            .build()).build());
+            log.info("Subscribed to rating updates: {}", NatsSubjects.USER_RATING_UPDATED);
+        } catch (Exception e) {
+            // the cache still expires entries, so ratings are at most one TTL stale without updates
+            log.warn("Failed to subscribe to rating updates: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (subscription != null) {
+            try {
+                subscription.unsubscribe();
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    void onRatingUpdated(Message msg) {
+        try {
+            EventEnvelope<RatingUpdatedEvent> env = objectMapper.readValue(new String(msg.getData(), StandardCharsets.UTF_8),
+                    objectMapper.getTypeFactory().constructParametricType(EventEnvelope.class, RatingUpdatedEvent.class));
+            RatingUpdatedEvent e = env.getPayload();
+            if (e == null || e.getUserId() == null || e.getTimeControl() == null
+                    || e.getNewRating() == null || e.getNewRd() == null) {
+                return;
+            }
+            ratingCache.onRatingUpdated(UUID.fromString(e.getUserId()), e.getTimeControl(), e.getNewRating(), e.getNewRd());
+        } catch (Exception ex) {
+            log.warn("Failed to handle RatingUpdated", ex);
+        }
+    }
+}
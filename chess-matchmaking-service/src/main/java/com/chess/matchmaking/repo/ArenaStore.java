@@ -0,0 +1,388 @@
+package com.chess.matchmaking.repo;
+
+import com.chess.matchmaking.arena.ArenaPool;
+import com.chess.matchmaking.arena.ArenaScoring;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Arena state in Redis:
+ * <ul>
+ *   <li>{@code arena:<id>} hash: settings and status; {@code arena:active} set of arenas not finished yet</li>
+ *   <li>{@code arena:<id>:standings} ZSET scored by {@link ArenaScoring#standingScore}, so a page of standings
+ *       or a player's rank is one O(log n) read</li>
+ *   <li>{@code arena:<id>:player:<userId>} hash: a player's score sheet and pairing state</li>
+ *   <li>{@code arena:<id>:log} stream of joins and pauses received by instances that do not own the arena</li>
+ *   <li>{@code arena:<id>:owner} lease of the instance that pairs the arena</li>
+ * </ul>
+ * Only the owner writes score sheets after a player's first join; it rebuilds its pool from them on takeover.
+ */
+@Component
+@RequiredArgsConstructor
+public class ArenaStore {
+
+    public static final String CREATED = "CREATED";
+    public static final String FINISHED = "FINISHED";
+
+    private static final String ARENA_KEY_PREFIX = "arena:";
+    private static final String ACTIVE_KEY = "arena:active";
+    private static final Duration FINISHED_TTL = Duration.ofDays(7);
+    private static final int LOAD_CHUNK = 1000;
+    private static final String[] SHEET_FIELDS = {"points", "games", "wins", "streak", "state"};
+
+    private static final RedisScript<Long> RENEW_LEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+            Long.class);
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public record Arena(String id, String name, String timeControlType, int baseSeconds, int incrementSeconds,
+                        boolean rated, long startsAtMs, long endsAtMs, String createdBy, String status) {
+    }
+
+    /** One row of the standings; {@code rank} is 1-based. */
+    public record Standing(long rank, String userId, int points, int games, int wins, int streak, String state) {
+    }
+
+    /** An operation forwarded to the owner through the log. */
+    public record LogEntry(String id, String op, String userId, double rating) {
+    }
+
+    public void create(Arena arena) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("name", arena.name());
+        fields.put("timeControlType", arena.timeControlType());
+        fields.put("baseSeconds", String.valueOf(arena.baseSeconds()));
+        fields.put("incrementSeconds", String.valueOf(arena.incrementSeconds()));
+        fields.put("rated", String.valueOf(arena.rated()));
+        fields.put("startsAtMs", String.valueOf(arena.startsAtMs()));
+        fields.put("endsAtMs", String.valueOf(arena.endsAtMs()));
+        fields.put("createdBy", arena.createdBy());
+        fields.put("status", arena.status());
+        redisTemplate.opsForHash().putAll(arenaKey(arena.id()), fields);
+        redisTemplate.opsForSet().add(ACTIVE_KEY, arena.id());
+    }
+
+    public Arena get(String arenaId) {
+        Map<Object, Object> h = redisTemplate.opsForHash().entries(arenaKey(arenaId));
+        if (h == null || h.isEmpty()) {
+            return null;
+        }
+        return new Arena(
+                arenaId,
+                str(h.get("name")),
+                str(h.get("timeControlType")),
+                (int) parseLong(h.get("baseSeconds")),
+                (int) parseLong(h.get("incrementSeconds")),
+                Boolean.parseBoolean(str(h.get("rated"))),
+                parseLong(h.get("startsAtMs")),
+                parseLong(h.get("endsAtMs")),
+                str(h.get("createdBy")),
+                str(h.get("status")));
+    }
+
+    public Set<String> activeIds() {
+        Set<String> ids = redisTemplate.opsForSet().members(ACTIVE_KEY);
+        return ids != null ? ids : Set.of();
+    }
+
+    /** Marks the arena finished; settings, standings and score sheets stay readable for a week. */
+    public void finish(String arenaId, Collection<String> userIds) {
+        redisTemplate.opsForHash().put(arenaKey(arenaId), "status", FINISHED);
+        redisTemplate.opsForSet().remove(ACTIVE_KEY, arenaId);
+        redisTemplate.delete(logKey(arenaId));
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.expire(arenaKey(arenaId), FINISHED_TTL);
+                operations.expire(standingsKey(arenaId), FINISHED_TTL);
+                for (String userId : userIds) {
+                    operations.expire(playerKey(arenaId, userId), FINISHED_TTL);
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Gives a player their first score sheet. Returns false when they already have one; a rejoin changes
+     * nothing in Redis until the owner applies it.
+     */
+    public boolean addPlayer(String arenaId, String userId, double rating) {
+        Boolean added = redisTemplate.opsForZSet()
+                .addIfAbsent(standingsKey(arenaId), userId, ArenaScoring.standingScore(0, rating));
+        if (!Boolean.TRUE.equals(added)) {
+            return false;
+        }
+        redisTemplate.opsForHash().putAll(playerKey(arenaId, userId), sheet(new ArenaPool.Player(userId, rating)));
+        return true;
+    }
+
+    public boolean isPlayer(String arenaId, String userId) {
+        return redisTemplate.opsForZSet().score(standingsKey(arenaId), userId) != null;
+    }
+
+    /** Writes score sheets and standings of the given players in one pipeline. */
+    public void savePlayers(String arenaId, Collection<ArenaPool.Player> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<String, Map<String, String>>> sheets = new ArrayList<>(players.size());
+        List<Double> scores = new ArrayList<>(players.size());
+        for (ArenaPool.Player p : players) {
+            sheets.add(Map.entry(p.userId(), sheet(p)));
+            scores.add(ArenaScoring.standingScore(p.points(), p.rating()));
+        }
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (int i = 0; i < sheets.size(); i++) {
+                    String userId = sheets.get(i).getKey();
+                    operations.opsForHash().putAll(playerKey(arenaId, userId), sheets.get(i).getValue());
+                    operations.opsForZSet().add(standingsKey(arenaId), userId, scores.get(i));
+                }
+                return null;
+            }
+        });
+    }
+
+    /** Every score sheet of the arena, for a new owner; one pipelined read per thousand players. */
+    public List<ArenaPool.Player> loadPlayers(String arenaId) {
+        Set<ZSetOperations.TypedTuple<String>> members = redisTemplate.opsForZSet()
+                .rangeWithScores(standingsKey(arenaId), 0, -1);
+        if (members == null || members.isEmpty()) {
+            return List.of();
+        }
+        List<String> userIds = new ArrayList<>(members.size());
+        for (ZSetOperations.TypedTuple<String> t : members) {
+            userIds.add(t.getValue());
+        }
+        List<ArenaPool.Player> players = new ArrayList<>(userIds.size());
+        for (int from = 0; from < userIds.size(); from += LOAD_CHUNK) {
+            List<String> chunk = userIds.subList(from, Math.min(userIds.size(), from + LOAD_CHUNK));
+            List<Object> sheets = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (String userId : chunk) {
+                        operations.opsForHash().entries(playerKey(arenaId, userId));
+                    }
+                    return null;
+                }
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                Object sheet = i < sheets.size() ? sheets.get(i) : null;
+                if (sheet instanceof Map<?, ?> h && !h.isEmpty()) {
+                    players.add(player(chunk.get(i), h));
+                }
+            }
+        }
+        return players;
+    }
+
+    /** A page of the standings: one ZREVRANGE and one pipelined read of the page's score sheets. */
+    public List<Standing> standings(String arenaId, long offset, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> page = redisTemplate.opsForZSet()
+                .reverseRangeWithScores(standingsKey(arenaId), offset, offset + limit - 1);
+        if (page == null || page.isEmpty()) {
+            return List.of();
+        }
+        List<String> userIds = new ArrayList<>(page.size());
+        for (ZSetOperations.TypedTuple<String> t : page) {
+            userIds.add(t.getValue());
+        }
+        List<Object> sheets = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String userId : userIds) {
+                    operations.opsForHash().multiGet(playerKey(arenaId, userId), Arrays.asList((Object[]) SHEET_FIELDS));
+                }
+                return null;
+            }
+        });
+        List<Standing> standings = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            Object sheet = i < sheets.size() ? sheets.get(i) : null;
+            standings.add(standing(offset + i + 1, userIds.get(i), sheet instanceof List<?> l ? l : List.of()));
+        }
+        return standings;
+    }
+
+    /** A player's row of the standings, or null when they never joined. */
+    public Standing standing(String arenaId, String userId) {
+        Long rank = redisTemplate.opsForZSet().reverseRank(standingsKey(arenaId), userId);
+        if (rank == null) {
+            return null;
+        }
+        List<Object> sheet = redisTemplate.opsForHash()
+                .multiGet(playerKey(arenaId, userId), Arrays.asList((Object[]) SHEET_FIELDS));
+        return standing(rank + 1, userId, sheet);
+    }
+
+    public long playerCount(String arenaId) {
+        Long count = redisTemplate.opsForZSet().zCard(standingsKey(arenaId));
+        return count != null ? count : 0;
+    }
+
+    // --- ownership and forwarded operations ---
+
+    public boolean acquireLease(String arenaId, String nodeId, long leaseMs) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(ownerKey(arenaId), nodeId, Duration.ofMillis(leaseMs)));
+    }
+
+    public boolean renewLease(String arenaId, String nodeId, long leaseMs) {
+        Long renewed = redisTemplate.execute(RENEW_LEASE, List.of(ownerKey(arenaId)), nodeId, String.valueOf(leaseMs));
+        return renewed != null && renewed == 1L;
+    }
+
+    public void releaseLease(String arenaId, String nodeId) {
+        redisTemplate.execute(RELEASE_LEASE, List.of(ownerKey(arenaId)), nodeId);
+    }
+
+    public void log(String arenaId, String op, String userId, double rating, long maxLength) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("op", op);
+        fields.put("user", userId);
+        fields.put("rating", String.valueOf(rating));
+        redisTemplate.opsForStream().add(
+                StreamRecords.newRecord().in(logKey(arenaId)).ofMap(fields),
+                XAddOptions.maxlen(maxLength).approximateTrimming(true));
+    }
+
+    /** Id of the last logged operation, or {@code 0-0} for an empty log. */
+    public String logTail(String arenaId) {
+        List<MapRecord<String, Object, Object>> tail = redisTemplate.opsForStream()
+                .reverseRange(logKey(arenaId), Range.unbounded(), Limit.limit().count(1));
+        return tail == null || tail.isEmpty() ? "0-0" : tail.get(0).getId().getValue();
+    }
+
+    public List<LogEntry> readLog(String arenaId, String afterId, int count) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+                StreamReadOptions.empty().count(count),
+                StreamOffset.create(logKey(arenaId), ReadOffset.from(afterId)));
+        if (records == null || records.isEmpty()) {
+            return List.of();
+        }
+        List<LogEntry> entries = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> v = record.getValue();
+            entries.add(new LogEntry(record.getId().getValue(), str(v.get("op")), str(v.get("user")),
+                    Double.parseDouble(String.valueOf(v.getOrDefault("rating", "0")))));
+        }
+        return entries;
+    }
+
+    private static Map<String, String> sheet(ArenaPool.Player p) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("rating", String.valueOf(p.rating()));
+        fields.put("points", String.valueOf(p.points()));
+        fields.put("games", String.valueOf(p.games()));
+        fields.put("wins", String.valueOf(p.wins()));
+        fields.put("streak", String.valueOf(p.streak()));
+        fields.put("colourBalance", String.valueOf(p.colourBalance()));
+        fields.put("recent", String.join(",", p.recentOpponents()));
+        fields.put("state", p.state().name());
+        fields.put("gameId", p.gameId() != null ? p.gameId() : "");
+        fields.put("gameStartedAtMs", String.valueOf(p.gameStartedAtMs()));
+        fields.put("white", String.valueOf(p.white()));
+        fields.put("pauseRequested", String.valueOf(p.pauseRequested()));
+        return fields;
+    }
+
+    private static ArenaPool.Player player(String userId, Map<?, ?> h) {
+        String recent = str(h.get("recent"));
+        String gameId = str(h.get("gameId"));
+        return new ArenaPool.Player(userId, Double.parseDouble(String.valueOf(h.get("rating") != null ? h.get("rating") : "0")))
+                .restore(
+                        (int) parseLong(h.get("points")),
+                        (int) parseLong(h.get("games")),
+                        (int) parseLong(h.get("wins")),
+                        (int) parseLong(h.get("streak")),
+                        (int) parseLong(h.get("colourBalance")),
+                        recent == null || recent.isEmpty() ? List.of() : List.of(recent.split(",")),
+                        ArenaPool.State.valueOf(h.get("state") != null ? String.valueOf(h.get("state")) : ArenaPool.State.PAUSED.name()),
+                        gameId == null || gameId.isEmpty() ? null : gameId,
+                        parseLong(h.get("gameStartedAtMs")),
+                        Boolean.parseBoolean(str(h.get("white"))),
+                        Boolean.parseBoolean(str(h.get("pauseRequested"))));
+    }
+
+    private static Standing standing(long rank, String userId, List<?> sheet) {
+        return new Standing(rank, userId,
+                (int) parseLong(at(sheet, 0)),
+                (int) parseLong(at(sheet, 1)),
+                (int) parseLong(at(sheet, 2)),
+                (int) parseLong(at(sheet, 3)),
+                at(sheet, 4) != null ? String.valueOf(at(sheet, 4)) : ArenaPool.State.PAUSED.name());
+    }
+
+    private static Object at(List<?> values, int i) {
+        return i < values.size() ? values.get(i) : null;
+    }
+
+    private static String str(Object v) {
+        return v != null ? v.toString() : null;
+    }
+
+    private static long parseLong(Object v) {
+        if (v == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(v.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String arenaKey(String arenaId) {
+        return ARENA_KEY_PREFIX + arenaId;
+    }
+
+    private static String standingsKey(String arenaId) {
+        return ARENA_KEY_PREFIX + arenaId + ":standings";
+    }
+
+    private static String playerKey(String arenaId, String userId) {
+        return ARENA_KEY_PREFIX + arenaId + ":player:" + userId;
+    }
+
+    private static String logKey(String arenaId) {
+        return ARENA_KEY_PREFIX + arenaId + ":log";
+    }
+
+    private static String ownerKey(String arenaId) {
+        return ARENA_KEY_PREFIX + arenaId + ":owner";
+    }
+}
@@ -0,0 +1,205 @@
+package com.chess.matchmaking.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Direct challenges in Redis: {@code ch:<id>} hash per challenge, and {@code ch:in:<userId>} /
+ * {@code ch:out:<userId>} ZSETs of the pending ones each user received and sent, scored by expiry.
+ * {@code ch:rematch:<gameId>} holds the one rematch offer a finished game can have.
+ * Status changes go through {@code challenge-transition.lua}, so accept, decline, cancel and expiry race safely;
+ * the pending sets follow the status right after and are only a listing aid.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChallengeStore {
+
+    public static final String PENDING = "PENDING";
+    public static final String ACCEPTED = "ACCEPTED";
+    public static final String DECLINED = "DECLINED";
+    public static final String CANCELLED = "CANCELLED";
+    public static final String EXPIRED = "EXPIRED";
+
+    private static final String CHALLENGE_KEY_PREFIX = "ch:";
+    private static final String INCOMING_KEY_PREFIX = "ch:in:";
+    private static final String OUTGOING_KEY_PREFIX = "ch:out:";
+    private static final String REMATCH_KEY_PREFIX = "ch:rematch:";
+    /** Accepted games stay readable for the challenger to pick up; closed challenges go soon after. */
+    private static final Duration ACCEPTED_TTL = Duration.ofHours(1);
+    private static final Duration CLOSED_TTL = Duration.ofMinutes(5);
+    /** Pending challenges outlive their expiry a little, so a late expiry still finds the key. */
+    private static final Duration PENDING_SLACK = Duration.ofMinutes(5);
+    private static final int MAX_LISTED = 50;
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisScript<Long> challengeTransitionScript;
+
+    public record Challenge(String challengeId, String challengerId, String challengedId, String whiteId,
+                            String blackId, String timeControlType, int baseSeconds, int incrementSeconds,
+                            boolean rated, String gameId, String rematchOf, long createdAtMs, long expiresAtMs,
+                            String status) {
+    }
+
+    public void create(Challenge c) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("challengeId", c.challengeId());
+        fields.put("challengerId", c.challengerId());
+        fields.put("challengedId", c.challengedId());
+        fields.put("whiteId", c.whiteId());
+        fields.put("blackId", c.blackId());
+        fields.put("timeControlType", c.timeControlType());
+        fields.put("baseSeconds", String.valueOf(c.baseSeconds()));
+        fields.put("incrementSeconds", String.valueOf(c.incrementSeconds()));
+        fields.put("rated", String.valueOf(c.rated()));
+        fields.put("gameId", c.gameId());
+        fields.put("rematchOf", c.rematchOf() != null ? c.rematchOf() : "");
+        fields.put("createdAtMs", String.valueOf(c.createdAtMs()));
+        fields.put("expiresAtMs", String.valueOf(c.expiresAtMs()));
+        fields.put("status", c.status());
+        Duration ttl = Duration.ofMillis(Math.max(0, c.expiresAtMs() - c.createdAtMs())).plus(PENDING_SLACK);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForHash().putAll(challengeKey(c.challengeId()), fields);
+                operations.expire(challengeKey(c.challengeId()), ttl);
+                operations.opsForZSet().add(INCOMING_KEY_PREFIX + c.challengedId(), c.challengeId(), c.expiresAtMs());
+                operations.expire(INCOMING_KEY_PREFIX + c.challengedId(), ttl);
+                operations.opsForZSet().add(OUTGOING_KEY_PREFIX + c.challengerId(), c.challengeId(), c.expiresAtMs());
+                operations.expire(OUTGOING_KEY_PREFIX + c.challengerId(), ttl);
+                return null;
+            }
+        });
+    }
+
+    public Challenge get(String challengeId) {
+        Map<Object, Object> h = redisTemplate.opsForHash().entries(challengeKey(challengeId));
+        return h == null || h.isEmpty() ? null : toChallenge(h);
+    }
+
+    /** Changes the status if it is still {@code from}; returns whether it did. */
+    public boolean transition(Challenge c, String from, String to) {
+        Duration ttl = switch (to) {
+            case ACCEPTED -> ACCEPTED_TTL;
+            case PENDING -> Duration.ofMillis(Math.max(0, c.expiresAtMs() - System.currentTimeMillis())).plus(PENDING_SLACK);
+            default -> CLOSED_TTL;
+        };
+        Long changed = redisTemplate.execute(
+                challengeTransitionScript,
+                List.of(challengeKey(c.challengeId())),
+                from,
+                to,
+                String.valueOf(ttl.toMillis()));
+        if (changed == null || changed != 1L) {
+            return false;
+        }
+        // the users' sets live in other slots; a stale entry is harmless, pending() checks the status
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String key : List.of(INCOMING_KEY_PREFIX + c.challengedId(), OUTGOING_KEY_PREFIX + c.challengerId())) {
+                    if (PENDING.equals(to)) {
+                        operations.opsForZSet().add(key, c.challengeId(), c.expiresAtMs());
+                    } else {
+                        operations.opsForZSet().remove(key, c.challengeId());
+                    }
+                }
+                return null;
+            }
+        });
+        return true;
+    }
+
+    /** Pending challenges the user received and sent that have not expired, soonest to expire first. */
+    public List<Challenge> pending(String userId, boolean incoming, long nowMs) {
+        String key = (incoming ? INCOMING_KEY_PREFIX : OUTGOING_KEY_PREFIX) + userId;
+        // expired entries are normally removed by the expiry wheel; this catches those of a lost instance
+        redisTemplate.opsForZSet().removeRangeByScore(key, Double.NEGATIVE_INFINITY, nowMs);
+        Set<String> ids = redisTemplate.opsForZSet().rangeByScore(key, nowMs, Double.POSITIVE_INFINITY, 0, MAX_LISTED);
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<String> ordered = new ArrayList<>(ids);
+        List<Object> hashes = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String id : ordered) {
+                    operations.opsForHash().entries(challengeKey(id));
+                }
+                return null;
+            }
+        });
+        List<Challenge> challenges = new ArrayList<>(ordered.size());
+        for (Object h : hashes) {
+            if (h instanceof Map<?, ?> m && !m.isEmpty()) {
+                Challenge c = toChallenge(m);
+                if (PENDING.equals(c.status())) {
+                    challenges.add(c);
+                }
+            }
+        }
+        return challenges;
+    }
+
+    /** Reserves the rematch of a game for the challenge; false when the game already has one. */
+    public boolean claimRematch(String gameId, String challengeId, Duration ttl) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(REMATCH_KEY_PREFIX + gameId, challengeId, ttl));
+    }
+
+    /** The challenge holding the rematch of a game, or null. */
+    public String rematchOf(String gameId) {
+        return redisTemplate.opsForValue().get(REMATCH_KEY_PREFIX + gameId);
+    }
+
+    private static Challenge toChallenge(Map<?, ?> h) {
+        String rematchOf = str(h.get("rematchOf"));
+        return new Challenge(
+                str(h.get("challengeId")),
+                str(h.get("challengerId")),
+                str(h.get("challengedId")),
+                str(h.get("whiteId")),
+                str(h.get("blackId")),
+                str(h.get("timeControlType")),
+                (int) parseLong(h.get("baseSeconds")),
+                (int) parseLong(h.get("incrementSeconds")),
+                Boolean.parseBoolean(str(h.get("rated"))),
+                str(h.get("gameId")),
+                rematchOf == null || rematchOf.isEmpty() ? null : rematchOf,
+                parseLong(h.get("createdAtMs")),
+                parseLong(h.get("expiresAtMs")),
+                str(h.get("status")));
+    }
+
+    private static String str(Object v) {
+        return v != null ? v.toString() : null;
+    }
+
+    private static long parseLong(Object v) {
+        if (v == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(v.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String challengeKey(String challengeId) {
+        return CHALLENGE_KEY_PREFIX + challengeId;
+    }
+}
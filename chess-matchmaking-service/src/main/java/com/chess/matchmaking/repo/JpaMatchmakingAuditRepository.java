@@ -3,16 +3,18 @@ package com.chess.matchmaking.repo;
 import com.chess.matchmaking.repo.entity.MatchmakingRequestAudit;
 import com.chess.matchmaking.repo.jpa.MatchmakingRequestAuditJpaRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.UUID;
 
+/** Synchronous audit, one transaction per change; used when {@code matchmaking.audit.write-behind=false}. */
 @Repository
 @RequiredArgsConstructor
-@ConditionalOnProperty(name = "matchmaking.audit.enabled", havingValue = "true")
+@ConditionalOnExpression("${matchmaking.audit.enabled:false} and !${matchmaking.audit.write-behind:true}")
 public class JpaMatchmakingAuditRepository implements MatchmakingAuditRepository {
 
     private final MatchmakingRequestAuditJpaRepository jpaRepository;
@@ -100,5 +102,13 @@ public class JpaMatchmakingAuditRepository implements MatchmakingAuditRepository
 
         jpaRepository.save(entity);
     }
-}
 
+    @Override
+    @Transactional
+    public void markExpired(Collection<UUID> requestIds) {
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        jpaRepository.updateStatus(requestIds, "EXPIRED", "timeout", Instant.now());
+    }
+}
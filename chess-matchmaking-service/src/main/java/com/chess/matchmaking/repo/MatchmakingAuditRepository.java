@@ -1,5 +1,6 @@
 package com.chess.matchmaking.repo;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface MatchmakingAuditRepository {
@@ -22,5 +23,8 @@ public interface MatchmakingAuditRepository {
     void markCancelled(UUID requestId, String reason);
 
     void markExpired(UUID requestId);
+
+    /** Marks many requests expired at once; rows that were never audited as queued are skipped. */
+    void markExpired(Collection<UUID> requestIds);
 }
 
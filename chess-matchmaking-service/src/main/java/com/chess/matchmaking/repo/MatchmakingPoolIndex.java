@@ -0,0 +1,90 @@
+package com.chess.matchmaking.repo;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlPool;
+import com.chess.matchmaking.domain.TimeControlPools;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pools with recent joins, shared by all instances in {@code mm:pools} (a ZSET of pool key by last join time),
+ * so the tick and expiry jobs visit custom pools joined on another instance and stop visiting pools nobody has
+ * joined for a while. A join writes the index only when its pool was last announced by this instance more than
+ * {@code matchmaking.pools.refresh-ms} ago.
+ */
+@Slf4j
+@Component
+public class MatchmakingPoolIndex {
+
+    private static final String POOLS_KEY = "mm:pools";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TimeControlPools timeControlPools;
+    private final MatchmakingProperties properties;
+    private final Map<TimeControlPool, AtomicLong> announcedAt = new ConcurrentHashMap<>();
+
+    private volatile List<TimeControlPool> active = List.of();
+    private volatile long refreshedAt;
+
+    public MatchmakingPoolIndex(RedisTemplate<String, String> redisTemplate, TimeControlPools timeControlPools,
+                                MatchmakingProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.timeControlPools = timeControlPools;
+        this.properties = properties;
+    }
+
+    /** Called before a request is queued in the pool, so the jobs find it before its request can wait long. */
+    public void joined(TimeControlPool pool, long nowMs) {
+        AtomicLong last = announcedAt.computeIfAbsent(pool, p -> new AtomicLong());
+        long previous = last.get();
+        if (nowMs - previous < properties.getPools().getRefreshMs() || !last.compareAndSet(previous, nowMs)) {
+            return;
+        }
+        redisTemplate.opsForZSet().add(POOLS_KEY, pool.key(), nowMs);
+    }
+
+    /**
+     * Pools joined within the last {@link #idleMs() idle period}, re-read from Redis at most once per
+     * {@code matchmaking.pools.refresh-ms}. Keeps the previous list if Redis cannot be read.
+     */
+    public List<TimeControlPool> pools(long nowMs) {
+        if (nowMs - refreshedAt < properties.getPools().getRefreshMs()) {
+            return active;
+        }
+        try {
+            long idleBefore = nowMs - idleMs();
+            redisTemplate.opsForZSet().removeRangeByScore(POOLS_KEY, Double.NEGATIVE_INFINITY, idleBefore);
+            Set<String> keys = redisTemplate.opsForZSet().rangeByScore(POOLS_KEY, idleBefore, Double.POSITIVE_INFINITY);
+            List<TimeControlPool> pools = new ArrayList<>(keys != null ? keys.size() : 0);
+            if (keys != null) {
+                for (String key : keys) {
+                    TimeControlPool pool = timeControlPools.parse(key);
+                    if (pool != null) {
+                        pools.add(pool);
+                    }
+                }
+            }
+            active = List.copyOf(pools);
+            refreshedAt = nowMs;
+        } catch (Exception e) {
+            log.warn("Failed to read matchmaking pool index: {}", e.getMessage());
+        }
+        return active;
+    }
+
+    /**
+     * A pool leaves the index once it has had no join for twice the queue timeout: its last request has then
+     * been expired by a few expiry scans already.
+     */
+    private long idleMs() {
+        return 2 * Math.max(1, properties.getQueueTimeoutSeconds()) * 1000L + properties.getPools().getRefreshMs();
+    }
+}
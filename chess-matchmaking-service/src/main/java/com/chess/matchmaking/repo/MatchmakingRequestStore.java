@@ -1,5 +1,6 @@
 package com.chess.matchmaking.repo;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface MatchmakingRequestStore {
@@ -10,6 +11,7 @@ public interface MatchmakingRequestStore {
             String status,
             String gameId,
             String timeControlType,
+            String pool,
             String baseSeconds,
             String incrementSeconds,
             String rated,
@@ -19,25 +21,57 @@ public interface MatchmakingRequestStore {
     ) {
     }
 
-    String createOrGetActiveRequest(
+    /** Range settings for matching inside the join; {@code gameId} is used if a match is found. */
+    record MatchParams(int initialRange, int rangeIncrement, int maxRange, long expansionIntervalMs, String gameId) {
+    }
+
+    /**
+     * {@code timeControlType} is the rating category and {@code pool} the exact clock
+     * ({@link com.chess.matchmaking.domain.TimeControlPool#key()}); {@code queue} names the queue keys the
+     * request is added to (see {@link com.chess.matchmaking.engine.MatchmakingEngine#queueName}); {@code match}
+     * is null when pairing is left to the engine.
+     */
+    record JoinCommand(
             UUID userId,
             int baseSeconds,
             int incrementSeconds,
             boolean rated,
             String idempotencyKey,
-            String requestIdHeader
-    );
-
-    void enrichQueuedRequest(
-            String requestId,
+            String requestIdHeader,
             String timeControlType,
+            String pool,
             double rating,
-            double ratingDeviation
-    );
+            double ratingDeviation,
+            String queue,
+            MatchParams match
+    ) {
+    }
+
+    /**
+     * {@code created} is false when the user already had an active request (or the idempotency key was
+     * seen); {@code request} is then that request. {@code opponent} is set when the join was matched.
+     */
+    record JoinResult(boolean created, StoredRequest request, StoredRequest opponent) {
+    }
+
+    record ExpiredRequest(String requestId, String userId, double rating) {
+    }
+
+    /**
+     * Creates the user's request with its rating and queues it, unless the user already has an active request
+     * in the same queue, and matches it when {@link JoinCommand#match()} is given; one atomic step. The active
+     * request is kept per queue, since the user's reservation lives in the queue's slot.
+     */
+    JoinResult join(JoinCommand command);
 
     void markMatched(String requestId, String gameId);
 
-    void markExpired(String requestId);
+    /**
+     * Atomically takes up to {@code limit} requests queued before {@code expireBeforeMs} out of the named queue
+     * (see {@link JoinCommand#queue()}), then marks those still queued expired. Returns only the latter. When
+     * marking fails, the requests go back in the queue, still due, before the failure is rethrown.
+     */
+    List<ExpiredRequest> expireQueued(String queue, long expireBeforeMs, int limit);
 
     StoredRequest getRequest(String requestId);
 
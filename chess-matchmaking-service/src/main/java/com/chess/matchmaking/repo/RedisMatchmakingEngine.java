@@ -1,33 +1,47 @@
 package com.chess.matchmaking.repo;
 
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.engine.BatchPairing;
+import com.chess.matchmaking.engine.MatchmakingEngine;
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.QueueKeys;
+import com.chess.matchmaking.engine.QueueSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
-public class RedisMatchmakingEngine {
+@ConditionalOnProperty(name = "matchmaking.engine", havingValue = "redis", matchIfMissing = true)
+public class RedisMatchmakingEngine implements MatchmakingEngine {
 
-    private static final String REQ_KEY_PREFIX = "mm:req:";
-    private static final String QUEUE_KEY_PREFIX = "mm:queue:";
-    private static final String QUEUE_TS_KEY_PREFIX = "mm:queue_ts:";
+    private static final String BATCH_TICK_KEY_PREFIX = "mm:batch:tick:";
 
     private final RedisTemplate<String, String> redisTemplate;
     @SuppressWarnings("rawtypes")
     private final RedisScript<List> tryMatchScript;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> claimPairsScript;
+    private final MatchmakingProperties properties;
 
-    public record MatchPair(String requestId1, String requestId2) {
-    }
-
-    public MatchPair enqueueAndTryMatch(String timeControlType, String requestId, double rating,
+    @Override
+    public MatchPair enqueueAndTryMatch(String pool, String requestId, double rating, double ratingDeviation,
                                         int initialRange, int rangeIncrement, int maxRange, long expansionIntervalMs) {
-        String queueKey = QUEUE_KEY_PREFIX + timeControlType;
-        String queueTsKey = QUEUE_TS_KEY_PREFIX + timeControlType;
+        String queueKey = QueueKeys.queue(QueueKeys.tag(pool));
+        String queueTsKey = QueueKeys.queueTs(QueueKeys.tag(pool));
+
+        if (properties.isBatchPairing()) {
+            // paired by the next tick
+            redisTemplate.opsForZSet().addIfAbsent(queueKey, requestId, rating);
+            redisTemplate.opsForZSet().addIfAbsent(queueTsKey, requestId, System.currentTimeMillis());
+            return null;
+        }
 
         List<String> keys = List.of(queueKey, queueTsKey);
         @SuppressWarnings("unchecked")
@@ -40,8 +54,7 @@ public class RedisMatchmakingEngine {
                 String.valueOf(initialRange),
                 String.valueOf(rangeIncrement),
                 String.valueOf(maxRange),
-                String.valueOf(expansionIntervalMs),
-                REQ_KEY_PREFIX,
+                String.valueOf(Math.max(1, expansionIntervalMs)),
                 "50"
         );
 
@@ -51,21 +64,57 @@ public class RedisMatchmakingEngine {
         return new MatchPair(pair.get(0), pair.get(1));
     }
 
-    public void removeFromQueues(String timeControlType, String requestId) {
-        String queueKey = QUEUE_KEY_PREFIX + timeControlType;
-        String queueTsKey = QUEUE_TS_KEY_PREFIX + timeControlType;
+    @Override
+    public boolean matchesInJoinScript() {
+        return !properties.isBatchPairing();
+    }
+
+    @Override
+    public void removeFromQueues(String pool, String requestId) {
+        String queueKey = QueueKeys.queue(QueueKeys.tag(pool));
+        String queueTsKey = QueueKeys.queueTs(QueueKeys.tag(pool));
         redisTemplate.opsForZSet().remove(queueKey, requestId);
         redisTemplate.opsForZSet().remove(queueTsKey, requestId);
     }
 
-    public List<String> findExpired(String timeControlType, long expireBeforeMs, int limit) {
-        String queueTsKey = QUEUE_TS_KEY_PREFIX + timeControlType;
-        Set<String> ids = redisTemplate.opsForZSet()
-                .rangeByScore(queueTsKey, 0, expireBeforeMs, 0, limit);
-        if (ids == null || ids.isEmpty()) {
-            return Collections.emptyList();
+    /**
+     * Batch pairing: one instance per tick (a short Redis lock) reads the whole queue, pairs it and claims
+     * the pairs in one script call that skips any request cancelled or expired in the meantime.
+     */
+    @Override
+    public List<MatchPair> matchWaiting(String pool) {
+        if (!properties.isBatchPairing()) {
+            return List.of();
         }
-        return ids.stream().toList();
+        Boolean ticking = redisTemplate.opsForValue().setIfAbsent(
+                QueueKeys.pooled(BATCH_TICK_KEY_PREFIX, pool), "1", Duration.ofMillis(Math.max(1, properties.getTickMs())));
+        if (!Boolean.TRUE.equals(ticking)) {
+            return List.of();
+        }
+
+        long now = System.currentTimeMillis();
+        List<OrderBook.Entry[]> proposed = BatchPairing.of(properties)
+                .pair(QueueSnapshot.read(redisTemplate, QueueKeys.tag(pool), now), now);
+        if (proposed.isEmpty()) {
+            return List.of();
+        }
+        String[] ids = new String[proposed.size() * 2];
+        for (int i = 0; i < proposed.size(); i++) {
+            ids[2 * i] = proposed.get(i)[0].requestId();
+            ids[2 * i + 1] = proposed.get(i)[1].requestId();
+        }
+        @SuppressWarnings("unchecked")
+        List<String> claimed = redisTemplate.execute(
+                claimPairsScript,
+                List.of(QueueKeys.queue(QueueKeys.tag(pool)), QueueKeys.queueTs(QueueKeys.tag(pool))),
+                (Object[]) ids);
+        if (claimed == null) {
+            return List.of();
+        }
+        List<MatchPair> pairs = new ArrayList<>(claimed.size() / 2);
+        for (int i = 0; i + 1 < claimed.size(); i += 2) {
+            pairs.add(new MatchPair(claimed.get(i), claimed.get(i + 1)));
+        }
+        return pairs;
     }
 }
-
@@ -1,138 +1,236 @@
 package com.chess.matchmaking.repo;
 
 import com.chess.matchmaking.dto.MatchmakingStatus;
+import com.chess.matchmaking.engine.QueueKeys;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Requests in Redis, laid out for Redis Cluster: every key of a request lives in the slot of the queue it
+ * joined. The queue ZSETs are named by the engine under the pool's hash tag, the user's active request in that
+ * queue is {@code mm:user:<queue>:<userId>} with its idempotency keys next to it, and the request hash is
+ * {@link QueueKeys#request} of an id made for the queue's slot. So {@code join.lua} creates, reserves, queues
+ * and matches a request in one call, on a single node and on a cluster alike.
+ *
+ * <p>The expiry sweep is still split: its script takes due requests out of the queue, and the status check, the
+ * EXPIRED mark and releasing each user follow as pipelines. If one of those fails, the taken requests go back in
+ * the queue so the next sweep finishes them; otherwise a user would hold a QUEUED request that sits in no queue
+ * until the reservation's TTL runs out.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class RedisMatchmakingRequestStore implements MatchmakingRequestStore {
 
-    private static final String REQ_KEY_PREFIX = "mm:req:";
     private static final String USER_KEY_PREFIX = "mm:user:";
     private static final String IDEMP_JOIN_PREFIX = "mm:idemp:join:";
     private static final String IDEMP_LEAVE_PREFIX = "mm:idemp:leave:";
+    private static final int MAX_MATCH_CANDIDATES = 50;
 
     private static final Duration IDEMP_TTL = Duration.ofHours(24);
     private static final Duration REQUEST_TTL = Duration.ofHours(3);
+    private static final Duration MATCHED_TTL = Duration.ofHours(6);
+    private static final Duration CLOSED_TTL = Duration.ofMinutes(30);
 
     private final RedisTemplate<String, String> redisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> joinScript;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> expireScript;
 
     @Override
-    public String createOrGetActiveRequest(UUID userId, int baseSeconds, int incrementSeconds, boolean rated, String idempotencyKey, String requestIdHeader) {
-        String userKey = USER_KEY_PREFIX + userId;
-
-        // Idempotency: if same key used, return same requestId
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            String idemKey = IDEMP_JOIN_PREFIX + userId + ":" + idempotencyKey;
-            String existing = redisTemplate.opsForValue().get(idemKey);
-            if (existing != null && !existing.isBlank()) {
-                return existing;
-            }
-        }
-
-        // Single active request per user: if exists, return it
-        String existingReqId = redisTemplate.opsForValue().get(userKey);
-        if (existingReqId != null && !existingReqId.isBlank()) {
-            return existingReqId;
+    @SuppressWarnings("unchecked")
+    public JoinResult join(JoinCommand command) {
+        String requestId = QueueKeys.newRequestId(command.queue());
+        boolean idempotent = command.idempotencyKey() != null && !command.idempotencyKey().isBlank();
+        MatchParams match = command.match();
+        List<String> keys = new ArrayList<>(5);
+        keys.add(userKey(command.queue(), command.userId()));
+        keys.add(QueueKeys.request(requestId));
+        keys.add(QueueKeys.queue(command.queue()));
+        keys.add(QueueKeys.queueTs(command.queue()));
+        if (idempotent) {
+            keys.add(IDEMP_JOIN_PREFIX + command.queue() + ":" + command.userId() + ":" + command.idempotencyKey());
         }
-
-        String requestId = UUID.randomUUID().toString();
-        long now = System.currentTimeMillis();
-
-        String reqKey = REQ_KEY_PREFIX + requestId;
-        Map<String, String> data = Map.of(
-                "requestId", requestId,
-                "userId", userId.toString(),
-                "status", MatchmakingStatus.QUEUED.name(),
-                "baseSeconds", String.valueOf(baseSeconds),
-                "incrementSeconds", String.valueOf(incrementSeconds),
-                "rated", String.valueOf(rated),
-                "queuedAtMs", String.valueOf(now),
-                "xRequestId", requestIdHeader != null ? requestIdHeader : ""
-        );
-        redisTemplate.opsForHash().putAll(reqKey, data);
-        redisTemplate.expire(reqKey, REQUEST_TTL);
-
-        redisTemplate.opsForValue().set(userKey, requestId, REQUEST_TTL);
-
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            String idemKey = IDEMP_JOIN_PREFIX + userId + ":" + idempotencyKey;
-            redisTemplate.opsForValue().set(idemKey, requestId, IDEMP_TTL);
+        List<Object> result = redisTemplate.execute(
+                joinScript,
+                keys,
+                requestId,
+                command.userId().toString(),
+                String.valueOf(command.baseSeconds()),
+                String.valueOf(command.incrementSeconds()),
+                String.valueOf(command.rated()),
+                command.requestIdHeader() != null ? command.requestIdHeader() : "",
+                command.timeControlType(),
+                command.pool(),
+                command.queue(),
+                String.valueOf(command.rating()),
+                String.valueOf(command.ratingDeviation()),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(REQUEST_TTL.toSeconds()),
+                String.valueOf(IDEMP_TTL.toSeconds()),
+                match != null ? "1" : "0",
+                String.valueOf(match != null ? match.initialRange() : 0),
+                String.valueOf(match != null ? match.rangeIncrement() : 0),
+                String.valueOf(match != null ? match.maxRange() : 0),
+                String.valueOf(match != null ? Math.max(1, match.expansionIntervalMs()) : 1),
+                String.valueOf(MAX_MATCH_CANDIDATES),
+                match != null ? match.gameId() : "",
+                String.valueOf(MATCHED_TTL.toSeconds()));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("Join script returned no result");
         }
-
-        return requestId;
-    }
-
-    @Override
-    public void enrichQueuedRequest(String requestId, String timeControlType, double rating, double ratingDeviation) {
-        String reqKey = REQ_KEY_PREFIX + requestId;
-        redisTemplate.opsForHash().put(reqKey, "timeControlType", timeControlType);
-        redisTemplate.opsForHash().put(reqKey, "rating", String.valueOf(rating));
-        redisTemplate.opsForHash().put(reqKey, "ratingDeviation", String.valueOf(ratingDeviation));
+        boolean created = Long.valueOf(1L).equals(result.get(0));
+        StoredRequest request = toStoredRequest(toMap((List<Object>) result.get(1)));
+        StoredRequest opponent = toStoredRequest(toMap((List<Object>) result.get(2)));
+        return new JoinResult(created, request, opponent);
     }
 
     @Override
     public void markMatched(String requestId, String gameId) {
-        String reqKey = REQ_KEY_PREFIX + requestId;
+        String reqKey = QueueKeys.request(requestId);
         redisTemplate.opsForHash().put(reqKey, "status", MatchmakingStatus.MATCHED.name());
         redisTemplate.opsForHash().put(reqKey, "gameId", gameId);
-        redisTemplate.expire(reqKey, Duration.ofHours(6));
+        redisTemplate.expire(reqKey, MATCHED_TTL);
     }
 
+    /**
+     * The queue script only takes the requests out of their queue; the status check, the EXPIRED mark and
+     * releasing each user's reservation follow as pipelines, so a sweep costs the same few round trips at any
+     * size. If one of those fails, the taken requests go back in the queue, still due, and the next sweep
+     * finishes them.
+     */
     @Override
-    public void markExpired(String requestId) {
-        String reqKey = REQ_KEY_PREFIX + requestId;
-        Object statusObj = redisTemplate.opsForHash().get(reqKey, "status");
-        String status = statusObj != null ? statusObj.toString() : null;
-        if (MatchmakingStatus.MATCHED.name().equals(status) || MatchmakingStatus.CANCELLED.name().equals(status)) {
-            return;
+    @SuppressWarnings("unchecked")
+    public List<ExpiredRequest> expireQueued(String queue, long expireBeforeMs, int limit) {
+        List<String> taken = redisTemplate.execute(
+                expireScript,
+                List.of(QueueKeys.queue(queue), QueueKeys.queueTs(queue)),
+                String.valueOf(expireBeforeMs),
+                String.valueOf(limit));
+        if (taken == null || taken.isEmpty()) {
+            return List.of();
         }
+        try {
+            return expireTaken(queue, taken);
+        } catch (RuntimeException e) {
+            requeue(queue, taken, expireBeforeMs);
+            throw e;
+        }
+    }
 
-        redisTemplate.opsForHash().put(reqKey, "status", MatchmakingStatus.EXPIRED.name());
-        redisTemplate.expire(reqKey, Duration.ofMinutes(30));
+    /** Puts requests taken by the expiry script back in their queue, with a join time that is still due. */
+    private void requeue(String queue, List<String> taken, long expireBeforeMs) {
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (int i = 0; i + 1 < taken.size(); i += 2) {
+                        operations.opsForZSet().addIfAbsent(QueueKeys.queue(queue), taken.get(i), Double.parseDouble(taken.get(i + 1)));
+                        operations.opsForZSet().addIfAbsent(QueueKeys.queueTs(queue), taken.get(i), expireBeforeMs);
+                    }
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to put {} requests back in queue {} after a failed expiry", taken.size() / 2, queue, e);
+        }
+    }
 
-        Object userIdObj = redisTemplate.opsForHash().get(reqKey, "userId");
-        if (userIdObj != null) {
-            String userKey = USER_KEY_PREFIX + userIdObj;
-            String activeReq = redisTemplate.opsForValue().get(userKey);
-            if (requestId.equals(activeReq)) {
-                redisTemplate.delete(userKey);
+    @SuppressWarnings("unchecked")
+    private List<ExpiredRequest> expireTaken(String queue, List<String> taken) {
+        List<String> ids = new ArrayList<>(taken.size() / 2);
+        for (int i = 0; i + 1 < taken.size(); i += 2) {
+            ids.add(taken.get(i));
+        }
+        List<Object> states = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (String id : ids) {
+                    operations.opsForHash().multiGet(QueueKeys.request(id), List.of("status", "userId"));
+                }
+                return null;
+            }
+        });
+
+        // matched, cancelled and vanished requests were only cleaned out of the queue; EXPIRED ones are back from a
+        // sweep that failed before it released their users
+        List<ExpiredRequest> expired = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size() && i < states.size(); i++) {
+            List<Object> state = (List<Object>) states.get(i);
+            Object status = state != null ? state.get(0) : null;
+            Object userId = state != null ? state.get(1) : null;
+            if (userId != null && (status == null || MatchmakingStatus.QUEUED.name().equals(status)
+                    || MatchmakingStatus.EXPIRED.name().equals(status))) {
+                expired.add(new ExpiredRequest(ids.get(i), userId.toString(), Double.parseDouble(taken.get(2 * i + 1))));
             }
         }
+        if (expired.isEmpty()) {
+            return expired;
+        }
+
+        List<Object> active = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                for (ExpiredRequest e : expired) {
+                    operations.opsForHash().put(QueueKeys.request(e.requestId()), "status", MatchmakingStatus.EXPIRED.name());
+                    operations.expire(QueueKeys.request(e.requestId()), CLOSED_TTL);
+                }
+                for (ExpiredRequest e : expired) {
+                    operations.opsForValue().get(userKey(queue, e.userId()));
+                }
+                return null;
+            }
+        });
+        List<Object> owners = active.subList(active.size() - expired.size(), active.size());
+        List<String> released = new ArrayList<>();
+        for (int i = 0; i < expired.size(); i++) {
+            if (expired.get(i).requestId().equals(owners.get(i))) {
+                released.add(userKey(queue, expired.get(i).userId()));
+            }
+        }
+        if (!released.isEmpty()) {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    released.forEach(operations::delete);
+                    return null;
+                }
+            });
+        }
+        return expired;
     }
 
     @Override
     public StoredRequest getRequest(String requestId) {
-        String reqKey = REQ_KEY_PREFIX + requestId;
-        Map<Object, Object> map = redisTemplate.opsForHash().entries(reqKey);
+        Map<Object, Object> map = redisTemplate.opsForHash().entries(QueueKeys.request(requestId));
         if (map == null || map.isEmpty()) {
             return null;
         }
-        return new StoredRequest(
-                requestId,
-                (String) map.get("userId"),
-                (String) map.get("status"),
-                (String) map.get("gameId"),
-                (String) map.get("timeControlType"),
-                (String) map.get("baseSeconds"),
-                (String) map.get("incrementSeconds"),
-                (String) map.get("rated"),
-                (String) map.get("rating"),
-                (String) map.get("ratingDeviation"),
-                (String) map.get("queuedAtMs")
-        );
+        return toStoredRequest(map);
     }
 
     @Override
     public void cancelRequest(UUID userId, String requestId, String idempotencyKey, String requestIdHeader) {
         if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            String idemKey = IDEMP_LEAVE_PREFIX + userId + ":" + idempotencyKey;
+            String idemKey = IDEMP_LEAVE_PREFIX + "{" + userId + "}:" + idempotencyKey;
             String already = redisTemplate.opsForValue().get(idemKey);
             if (already != null) {
                 return;
@@ -140,15 +238,52 @@ public class RedisMatchmakingRequestStore implements MatchmakingRequestStore {
             redisTemplate.opsForValue().set(idemKey, "1", IDEMP_TTL);
         }
 
-        String reqKey = REQ_KEY_PREFIX + requestId;
+        String reqKey = QueueKeys.request(requestId);
+        Object queue = redisTemplate.opsForHash().get(reqKey, "queue");
         redisTemplate.opsForHash().put(reqKey, "status", MatchmakingStatus.CANCELLED.name());
-        redisTemplate.expire(reqKey, Duration.ofMinutes(30));
+        redisTemplate.expire(reqKey, CLOSED_TTL);
+        if (queue == null) {
+            return;
+        }
 
-        String userKey = USER_KEY_PREFIX + userId;
+        String userKey = userKey(queue.toString(), userId);
         String activeReq = redisTemplate.opsForValue().get(userKey);
         if (requestId.equals(activeReq)) {
             redisTemplate.delete(userKey);
         }
     }
-}
 
+    /** The user's active request in a queue, in the queue's slot, e.g. {@code mm:user:{180+2}:<userId>}. */
+    private static String userKey(String queue, Object userId) {
+        return USER_KEY_PREFIX + queue + ":" + userId;
+    }
+
+    /** An HGETALL reply from a script, a flat field/value list, as a map. */
+    private static Map<Object, Object> toMap(List<Object> flat) {
+        Map<Object, Object> map = new HashMap<>();
+        for (int i = 0; flat != null && i + 1 < flat.size(); i += 2) {
+            map.put(flat.get(i), flat.get(i + 1));
+        }
+        return map;
+    }
+
+    private static StoredRequest toStoredRequest(Map<Object, Object> map) {
+        if (map.isEmpty()) {
+            return null;
+        }
+        return new StoredRequest(
+                (String) map.get("requestId"),
+                (String) map.get("userId"),
+                (String) map.get("status"),
+                (String) map.get("gameId"),
+                (String) map.get("timeControlType"),
+                (String) map.get("pool"),
+                (String) map.get("baseSeconds"),
+                (String) map.get("incrementSeconds"),
+                (String) map.get("rated"),
+                (String) map.get("rating"),
+                (String) map.get("ratingDeviation"),
+                (String) map.get("queuedAtMs")
+        );
+    }
+}
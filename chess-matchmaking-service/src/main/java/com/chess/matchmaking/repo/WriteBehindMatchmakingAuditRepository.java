@@ -0,0 +1,292 @@
+package com.chess.matchmaking.repo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Asynchronous audit sink. Changes go into a bounded buffer and return immediately; one writer thread
+ * flushes them every {@code flush-interval-ms} or as soon as {@code batch-rows} are waiting. Changes to the
+ * same request within a flush are merged, so a join matched right away costs one row, not two.
+ *
+ * A flush is at most two statements: a multi-row {@code INSERT ... ON CONFLICT (request_id) DO UPDATE} for
+ * requests whose queued details are in the batch, and a multi-row {@code UPDATE ... FROM (VALUES ...)} for
+ * status changes of requests queued in an earlier flush (an insert cannot be used for those: the queued
+ * columns are NOT NULL). Audit stays best-effort: when the buffer is full, changes are dropped and counted in
+ * {@code matchmaking.audit.dropped}.
+ */
+@Slf4j
+@Repository
+@ConditionalOnExpression("${matchmaking.audit.enabled:false} and ${matchmaking.audit.write-behind:true}")
+public class WriteBehindMatchmakingAuditRepository implements MatchmakingAuditRepository {
+
+    private static final String UPSERT_PREFIX = """
+            INSERT INTO matchmaking_request_audit (request_id, user_id, time_control_type, base_seconds,
+                increment_seconds, rated, rating, rating_deviation, status, matched_game_id, cancel_reason,
+                x_request_id, idempotency_key, created_at, updated_at)
+            VALUES\s""";
+    private static final String UPSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPSERT_SUFFIX = """
+             ON CONFLICT (request_id) DO UPDATE SET
+                user_id = EXCLUDED.user_id,
+                time_control_type = EXCLUDED.time_control_type,
+                base_seconds = EXCLUDED.base_seconds,
+                increment_seconds = EXCLUDED.increment_seconds,
+                rated = EXCLUDED.rated,
+                rating = EXCLUDED.rating,
+                rating_deviation = EXCLUDED.rating_deviation,
+                status = EXCLUDED.status,
+                matched_game_id = EXCLUDED.matched_game_id,
+                cancel_reason = EXCLUDED.cancel_reason,
+                x_request_id = EXCLUDED.x_request_id,
+                idempotency_key = EXCLUDED.idempotency_key,
+                updated_at = EXCLUDED.updated_at""";
+    private static final String UPDATE_PREFIX = """
+            UPDATE matchmaking_request_audit AS a SET
+                status = v.status,
+                matched_game_id = COALESCE(v.matched_game_id, a.matched_game_id),
+                cancel_reason = v.cancel_reason,
+                updated_at = v.updated_at
+            FROM (VALUES\s""";
+    private static final String UPDATE_ROW =
+            "(CAST(? AS uuid), CAST(? AS varchar), CAST(? AS uuid), CAST(? AS varchar), CAST(? AS timestamp))";
+    private static final String UPDATE_SUFFIX = """
+            ) AS v (request_id, status, matched_game_id, cancel_reason, updated_at)
+            WHERE a.request_id = v.request_id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<Change> buffer;
+    private final long flushIntervalMs;
+    private final int batchRows;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public WriteBehindMatchmakingAuditRepository(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${matchmaking.audit.buffer-size:65536}") int bufferSize,
+            @Value("${matchmaking.audit.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${matchmaking.audit.batch-rows:500}") int batchRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.batchRows = Math.max(1, batchRows);
+        Gauge.builder("matchmaking.audit.buffered", buffer, BlockingQueue::size)
+                .description("Audit changes waiting to be written")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("matchmaking.audit.dropped")
+                .description("Audit changes dropped because the buffer was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("matchmaking.audit.written")
+                .description("Audit rows written")
+                .register(meterRegistry);
+        this.failed = Counter.builder("matchmaking.audit.failed")
+                .description("Audit rows lost to failed flushes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("mm-audit-writer").daemon(true).start(this::run);
+    }
+
+    /** Writes what is still buffered before the DataSource goes away. */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(5000);
+        }
+        List<Change> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        flush(rest);
+    }
+
+    @Override
+    public void upsertQueued(UUID requestId, UUID userId, String timeControlType, int baseSeconds, int incrementSeconds,
+                             boolean rated, Double rating, Double ratingDeviation, String xRequestId, String idempotencyKey) {
+        offer(new Change(requestId, "QUEUED", Instant.now(), null, null,
+                new Queued(userId, timeControlType, baseSeconds, incrementSeconds, rated, rating, ratingDeviation,
+                        xRequestId, idempotencyKey)));
+    }
+
+    @Override
+    public void markMatched(UUID requestId, UUID gameId) {
+        offer(new Change(requestId, "MATCHED", Instant.now(), gameId, null, null));
+    }
+
+    @Override
+    public void markCancelled(UUID requestId, String reason) {
+        offer(new Change(requestId, "CANCELLED", Instant.now(), null, reason, null));
+    }
+
+    @Override
+    public void markExpired(UUID requestId) {
+        offer(new Change(requestId, "EXPIRED", Instant.now(), null, "timeout", null));
+    }
+
+    @Override
+    public void markExpired(Collection<UUID> requestIds) {
+        Instant now = Instant.now();
+        for (UUID requestId : requestIds) {
+            offer(new Change(requestId, "EXPIRED", now, null, "timeout", null));
+        }
+    }
+
+    private void offer(Change change) {
+        if (!buffer.offer(change)) {
+            dropped.increment();
+        }
+    }
+
+    private void run() {
+        List<Change> batch = new ArrayList<>(batchRows);
+        while (running) {
+            try {
+                Change first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchRows) {
+                    buffer.drainTo(batch, batchRows - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= batchRows || left <= 0) {
+                        break;
+                    }
+                    Change next = buffer.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                flush(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Merges the changes per request and writes them; never throws. */
+    void flush(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        Map<UUID, Row> rows = new LinkedHashMap<>();
+        for (Change change : changes) {
+            rows.computeIfAbsent(change.requestId(), id -> new Row(id, change.at())).apply(change);
+        }
+        List<Row> full = new ArrayList<>();
+        List<Row> statusOnly = new ArrayList<>();
+        for (Row row : rows.values()) {
+            (row.queued != null ? full : statusOnly).add(row);
+        }
+        write(full, UPSERT_PREFIX, UPSERT_ROW, UPSERT_SUFFIX, Row::upsertArgs);
+        write(statusOnly, UPDATE_PREFIX, UPDATE_ROW, UPDATE_SUFFIX, Row::updateArgs);
+    }
+
+    private void write(List<Row> rows, String prefix, String rowSql, String suffix,
+                       Function<Row, Object[]> args) {
+        for (int from = 0; from < rows.size(); from += batchRows) {
+            List<Row> chunk = rows.subList(from, Math.min(rows.size(), from + batchRows));
+            StringBuilder sql = new StringBuilder(prefix);
+            List<Object> params = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "" : ", ").append(rowSql);
+                params.addAll(Arrays.asList(args.apply(chunk.get(i))));
+            }
+            sql.append(suffix);
+            try {
+                jdbcTemplate.update(sql.toString(), params.toArray());
+                written.increment(chunk.size());
+            } catch (Exception e) {
+                failed.increment(chunk.size());
+                log.warn("Failed to write {} matchmaking audit rows: {}", chunk.size(), e.getMessage());
+            }
+        }
+    }
+
+    record Queued(UUID userId, String timeControlType, int baseSeconds, int incrementSeconds, boolean rated,
+                  Double rating, Double ratingDeviation, String xRequestId, String idempotencyKey) {
+    }
+
+    /** One audit change; {@code queued} is set only for the change that queued the request. */
+    record Change(UUID requestId, String status, Instant at, UUID gameId, String cancelReason, Queued queued) {
+    }
+
+    /** The net effect of a request's changes within one flush. */
+    private static final class Row {
+        final UUID requestId;
+        final Instant createdAt;
+        Queued queued;
+        String status;
+        UUID gameId;
+        String cancelReason;
+        Instant updatedAt;
+
+        Row(UUID requestId, Instant createdAt) {
+            this.requestId = requestId;
+            this.createdAt = createdAt;
+        }
+
+        /** Same field semantics as the JPA repository's upsertQueued / markMatched / markCancelled / markExpired. */
+        void apply(Change change) {
+            status = change.status();
+            updatedAt = change.at();
+            if (change.queued() != null) {
+                queued = change.queued();
+                gameId = null;
+                cancelReason = null;
+            } else if (change.gameId() != null) {
+                gameId = change.gameId();
+                cancelReason = null;
+            } else {
+                cancelReason = change.cancelReason();
+            }
+        }
+
+        Object[] upsertArgs() {
+            return new Object[]{
+                    requestId, queued.userId(), queued.timeControlType(), queued.baseSeconds(),
+                    queued.incrementSeconds(), queued.rated(), queued.rating(), queued.ratingDeviation(), status,
+                    gameId, cancelReason, queued.xRequestId(), queued.idempotencyKey(),
+                    Timestamp.from(createdAt), Timestamp.from(updatedAt)};
+        }
+
+        Object[] updateArgs() {
+            return new Object[]{requestId, status, gameId, cancelReason, Timestamp.from(updatedAt)};
+        }
+    }
+}
@@ -2,9 +2,21 @@ package com.chess.matchmaking.repo.jpa;
 
 import com.chess.matchmaking.repo.entity.MatchmakingRequestAudit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.UUID;
 
 public interface MatchmakingRequestAuditJpaRepository extends JpaRepository<MatchmakingRequestAudit, UUID> {
-}
 
+    @Modifying
+    @Query("update MatchmakingRequestAudit a set a.status = :status, a.cancelReason = :reason, a.updatedAt = :now "
+            + "where a.requestId in :requestIds")
+    int updateStatus(@Param("requestIds") Collection<UUID> requestIds,
+                     @Param("status") String status,
+                     @Param("reason") String reason,
+                     @Param("now") Instant now);
+}
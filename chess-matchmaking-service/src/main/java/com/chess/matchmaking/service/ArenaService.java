@@ -0,0 +1,377 @@
+package com.chess.matchmaking.service;
+
+import com.chess.common.exception.ConflictException;
+import com.chess.common.exception.NotFoundException;
+import com.chess.matchmaking.arena.ArenaPool;
+import com.chess.matchmaking.arena.ArenaScoring;
+import com.chess.matchmaking.client.RatingCache;
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlClassifier;
+import com.chess.matchmaking.dto.ArenaResponse;
+import com.chess.matchmaking.dto.ArenaStandingsResponse;
+import com.chess.matchmaking.dto.CreateArenaRequest;
+import com.chess.matchmaking.dto.MatchFoundDto;
+import com.chess.matchmaking.messaging.MatchmakingEventPublisher;
+import com.chess.matchmaking.repo.ArenaStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Arena tournaments: players join a time-boxed arena and get a new opponent as soon as their previous game
+ * ends, until the arena closes. Each arena is paired by one instance at a time (a Redis lease per arena) from
+ * an in-memory {@link ArenaPool}; other instances forward joins and pauses through the arena's log, which
+ * the owner applies every tick.
+ *
+ * Results arrive as GameFinished events, which every instance receives; only the owner knows the arena's
+ * games and re-pairs both players right away. Standings are written through to a Redis sorted set, so
+ * any instance serves them.
+ */
+@Slf4j
+@Service
+public class ArenaService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ArenaStore arenaStore;
+    private final TimeControlClassifier timeControlClassifier;
+    private final RatingCache ratingCache;
+    private final MatchmakingEventPublisher eventPublisher;
+    private final MatchmakingProperties.Arena properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Owned> owned = new ConcurrentHashMap<>();
+    /** Running games of the arenas this instance owns; GameFinished events for other games cost nothing. */
+    private final Map<String, String> arenaByGame = new ConcurrentHashMap<>();
+
+    public ArenaService(ArenaStore arenaStore, TimeControlClassifier timeControlClassifier, RatingCache ratingCache,
+                        MatchmakingEventPublisher eventPublisher, MatchmakingProperties properties) {
+        this.arenaStore = arenaStore;
+        this.timeControlClassifier = timeControlClassifier;
+        this.ratingCache = ratingCache;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties.getArena();
+    }
+
+    public ArenaResponse create(UUID userId, CreateArenaRequest request) {
+        long now = System.currentTimeMillis();
+        long startsAt = request.getStartsAt() != null ? request.getStartsAt().toEpochMilli() : now;
+        if (startsAt + request.getDurationMinutes() * 60_000L <= now) {
+            throw new ConflictException("Arena would already be over");
+        }
+        ArenaStore.Arena arena = new ArenaStore.Arena(
+                UUID.randomUUID().toString(),
+                request.getName(),
+                timeControlClassifier.classify(request.getBaseSeconds(), request.getIncrementSeconds()).name(),
+                request.getBaseSeconds(),
+                request.getIncrementSeconds(),
+                request.getRated(),
+                startsAt,
+                startsAt + request.getDurationMinutes() * 60_000L,
+                userId.toString(),
+                ArenaStore.CREATED);
+        arenaStore.create(arena);
+        return response(arena, 0, now);
+    }
+
+    public ArenaResponse get(String arenaId) {
+        return response(arena(arenaId), arenaStore.playerCount(arenaId), System.currentTimeMillis());
+    }
+
+    /** Joins the arena, or resumes pairing after a pause; joining again while waiting or playing is a no-op. */
+    public void join(UUID userId, String arenaId) {
+        ArenaStore.Arena arena = arena(arenaId);
+        long now = System.currentTimeMillis();
+        if (ArenaStore.FINISHED.equals(arena.status()) || now >= arena.endsAtMs()) {
+            throw new ConflictException("Arena is over");
+        }
+        double rating = ratingCache.get(userId, arena.timeControlType()).rating();
+        arenaStore.addPlayer(arenaId, userId.toString(), rating);
+        forward(arenaId, "join", userId.toString(), rating);
+    }
+
+    /** Stops pairing the player once their current game, if any, ends; their score stays in the standings. */
+    public void pause(UUID userId, String arenaId) {
+        arena(arenaId);
+        if (!arenaStore.isPlayer(arenaId, userId.toString())) {
+            throw new NotFoundException("Not a player of this arena");
+        }
+        forward(arenaId, "pause", userId.toString(), 0);
+    }
+
+    public ArenaStandingsResponse standings(String arenaId, int page, int size, UUID userId) {
+        arena(arenaId);
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, size));
+        int pageIndex = Math.max(0, page);
+        List<ArenaStandingsResponse.Entry> entries = new ArrayList<>();
+        for (ArenaStore.Standing s : arenaStore.standings(arenaId, (long) pageIndex * pageSize, pageSize)) {
+            entries.add(entry(s));
+        }
+        ArenaStore.Standing me = arenaStore.standing(arenaId, userId.toString());
+        return new ArenaStandingsResponse(arenaId, pageIndex, pageSize, arenaStore.playerCount(arenaId), entries,
+                me != null ? entry(me) : null);
+    }
+
+    /** One owner tick over every active arena: keep or take leases, apply forwarded changes, pair, close. */
+    public void tick() {
+        Set<String> active = arenaStore.activeIds();
+        owned.keySet().retainAll(active);
+        for (String arenaId : active) {
+            try {
+                tick(arenaId);
+            } catch (Exception e) {
+                log.warn("Arena tick failed for {}: {}", arenaId, e.getMessage());
+            }
+        }
+    }
+
+    void tick(String arenaId) {
+        Owned arena = owned.computeIfAbsent(arenaId, Owned::new);
+        long now = System.currentTimeMillis();
+        List<ArenaPool.Pairing> pairings = List.of();
+        synchronized (arena) {
+            try {
+                if (!holdLease(arena, now)) {
+                    return;
+                }
+                applyLog(arena, now);
+                List<ArenaPool.Player> released = arena.pool.abandonStartedBefore(now - maxGameMs(arena.meta), now);
+                if (!released.isEmpty()) {
+                    log.warn("Arena {}: wrote off {} games without a result", arena.id, released.size() / 2);
+                    arenaStore.savePlayers(arena.id, released);
+                }
+                if (now >= arena.meta.endsAtMs()) {
+                    close(arena);
+                    return;
+                }
+                if (now >= arena.meta.startsAtMs()) {
+                    pairings = start(arena, arena.pool.pairWaiting(now), now);
+                }
+            } catch (Exception e) {
+                // a pool that may have missed updates is rebuilt from Redis on the next tick
+                log.warn("Arena tick failed for {}: {}", arenaId, e.getMessage());
+                drop(arena);
+                return;
+            }
+        }
+        announce(arena, pairings);
+    }
+
+    /** Scores a finished game of an arena this instance owns and pairs both players again right away. */
+    public void onGameFinished(String gameId, String result) {
+        String arenaId = arenaByGame.remove(gameId);
+        Owned arena = arenaId != null ? owned.get(arenaId) : null;
+        if (arena == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<ArenaPool.Pairing> pairings = List.of();
+        synchronized (arena) {
+            if (!arena.owned) {
+                return;
+            }
+            ArenaPool.Player[] players = arena.pool.finish(gameId, ArenaScoring.whiteScore(result), now);
+            if (players == null) {
+                return;
+            }
+            if (now < arena.meta.endsAtMs()) {
+                pairings = start(arena, arena.pool.pair(List.of(players), now), now);
+            }
+            Set<ArenaPool.Player> changed = new LinkedHashSet<>(List.of(players));
+            pairings.forEach(p -> changed.addAll(List.of(p.white(), p.black())));
+            arenaStore.savePlayers(arena.id, changed);
+        }
+        announce(arena, pairings);
+    }
+
+    /** Number of arenas this instance currently pairs. */
+    public int ownedArenas() {
+        return (int) owned.values().stream().filter(a -> a.owned).count();
+    }
+
+    private void forward(String arenaId, String op, String userId, double rating) {
+        Owned arena = owned.get(arenaId);
+        if (arena != null) {
+            synchronized (arena) {
+                if (arena.owned) {
+                    apply(arena, op, userId, rating, System.currentTimeMillis());
+                    return;
+                }
+            }
+        }
+        arenaStore.log(arenaId, op, userId, rating, properties.getLogMaxLength());
+    }
+
+    private boolean holdLease(Owned arena, long now) {
+        long leaseMs = properties.getLeaseMs();
+        if (arena.owned) {
+            if (now - arena.leaseRenewedAt < leaseMs / 3) {
+                return true;
+            }
+            if (arenaStore.renewLease(arena.id, nodeId, leaseMs)) {
+                arena.leaseRenewedAt = now;
+                return true;
+            }
+            log.warn("Lost arena ownership for {}", arena.id);
+            drop(arena);
+        }
+        // renewing covers a pool dropped after a failed tick while the lease is still ours
+        if (!arenaStore.acquireLease(arena.id, nodeId, leaseMs) && !arenaStore.renewLease(arena.id, nodeId, leaseMs)) {
+            return false;
+        }
+        ArenaStore.Arena meta = arenaStore.get(arena.id);
+        if (meta == null) {
+            arenaStore.releaseLease(arena.id, nodeId);
+            return false;
+        }
+        arena.meta = meta;
+        arena.logOffset = arenaStore.logTail(arena.id);
+        arena.pool = new ArenaPool(properties.getRecentOpponents(), properties.getRepeatRelaxMs(),
+                properties.getMaxCandidates());
+        for (ArenaPool.Player player : arenaStore.loadPlayers(arena.id)) {
+            arena.pool.restore(player);
+        }
+        arena.pool.restoreGames(now);
+        for (ArenaPool.Player player : arena.pool.players()) {
+            if (player.gameId() != null && arena.pool.hasGame(player.gameId())) {
+                arenaByGame.put(player.gameId(), arena.id);
+            }
+        }
+        arena.owned = true;
+        arena.leaseRenewedAt = now;
+        log.info("Took over arena {}: {} players, {} games running", arena.id, arena.pool.size(),
+                arena.pool.gamesInProgress());
+        return true;
+    }
+
+    private void applyLog(Owned arena, long now) {
+        int batch = properties.getLogReadBatch();
+        while (true) {
+            List<ArenaStore.LogEntry> entries = arenaStore.readLog(arena.id, arena.logOffset, batch);
+            for (ArenaStore.LogEntry e : entries) {
+                apply(arena, e.op(), e.userId(), e.rating(), now);
+                arena.logOffset = e.id();
+            }
+            if (entries.size() < batch) {
+                return;
+            }
+        }
+    }
+
+    private void apply(Owned arena, String op, String userId, double rating, long now) {
+        ArenaPool.Player player = "pause".equals(op)
+                ? arena.pool.pause(userId)
+                : now < arena.meta.endsAtMs() ? arena.pool.join(userId, rating, now) : null;
+        if (player != null) {
+            arenaStore.savePlayers(arena.id, List.of(player));
+        }
+    }
+
+    /** Assigns game ids to new pairings and writes the paired players through. */
+    private List<ArenaPool.Pairing> start(Owned arena, List<ArenaPool.Pairing> pairings, long now) {
+        if (pairings.isEmpty()) {
+            return pairings;
+        }
+        List<ArenaPool.Player> paired = new ArrayList<>(pairings.size() * 2);
+        for (ArenaPool.Pairing pairing : pairings) {
+            String gameId = UUID.randomUUID().toString();
+            arena.pool.started(pairing, gameId, now);
+            arenaByGame.put(gameId, arena.id);
+            paired.add(pairing.white());
+            paired.add(pairing.black());
+        }
+        arenaStore.savePlayers(arena.id, paired);
+        return pairings;
+    }
+
+    private void announce(Owned arena, List<ArenaPool.Pairing> pairings) {
+        for (ArenaPool.Pairing pairing : pairings) {
+            try {
+                eventPublisher.publishMatchFound(MatchFoundDto.builder()
+                        .matchId(pairing.white().gameId())
+                        .whitePlayerId(pairing.white().userId())
+                        .blackPlayerId(pairing.black().userId())
+                        .timeControl(arena.meta.timeControlType())
+                        .initialTimeSeconds(arena.meta.baseSeconds())
+                        .incrementSeconds(arena.meta.incrementSeconds())
+                        .rated(arena.meta.rated())
+                        .build());
+            } catch (Exception e) {
+                log.warn("Failed to announce arena {} game {}", arena.id, pairing.white().gameId(), e);
+            }
+        }
+    }
+
+    /**
+     * Past the end nobody is paired any more; games still running are scored as they finish (or are written
+     * off), then the arena is finished and this instance lets go of it.
+     */
+    private void close(Owned arena) {
+        if (arena.pool.waitingCount() > 0) {
+            List<ArenaPool.Player> waiting = arena.pool.players().stream()
+                    .filter(p -> p.state() == ArenaPool.State.WAITING)
+                    .toList();
+            arena.pool.pauseAll();
+            arenaStore.savePlayers(arena.id, waiting);
+        }
+        if (arena.pool.gamesInProgress() > 0) {
+            return;
+        }
+        arenaStore.finish(arena.id, arena.pool.players().stream().map(ArenaPool.Player::userId).toList());
+        arenaStore.releaseLease(arena.id, nodeId);
+        drop(arena);
+        owned.remove(arena.id);
+        log.info("Arena {} finished: {} players", arena.id, arena.pool.size());
+    }
+
+    private void drop(Owned arena) {
+        arena.owned = false;
+        arenaByGame.values().removeIf(arena.id::equals);
+    }
+
+    /** Longest a game of the arena can take before its result is overdue. */
+    private long maxGameMs(ArenaStore.Arena arena) {
+        return 2_000L * (arena.baseSeconds() + 60L * arena.incrementSeconds()) + properties.getGameGraceMs();
+    }
+
+    private ArenaStore.Arena arena(String arenaId) {
+        ArenaStore.Arena arena = arenaStore.get(arenaId);
+        if (arena == null) {
+            throw new NotFoundException("Arena", arenaId);
+        }
+        return arena;
+    }
+
+    private static ArenaResponse response(ArenaStore.Arena arena, long players, long now) {
+        String status = ArenaStore.FINISHED.equals(arena.status()) || now >= arena.endsAtMs() ? "FINISHED"
+                : now < arena.startsAtMs() ? "UPCOMING" : "RUNNING";
+        return new ArenaResponse(arena.id(), arena.name(), arena.timeControlType(), arena.baseSeconds(),
+                arena.incrementSeconds(), arena.rated(), Instant.ofEpochMilli(arena.startsAtMs()),
+                Instant.ofEpochMilli(arena.endsAtMs()), status, players);
+    }
+
+    private static ArenaStandingsResponse.Entry entry(ArenaStore.Standing s) {
+        return new ArenaStandingsResponse.Entry(s.rank(), s.userId(), s.points(), s.games(), s.wins(),
+                s.streak() >= 2, s.state());
+    }
+
+    private static final class Owned {
+        final String id;
+        ArenaStore.Arena meta;
+        ArenaPool pool;
+        boolean owned;
+        long leaseRenewedAt;
+        String logOffset = "0-0";
+
+        Owned(String id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.chess.matchmaking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Drives arena ownership, forwarded joins and pairing of players still waiting (see {@link ArenaService#tick}). */
+@Component
+@RequiredArgsConstructor
+public class ArenaTickJob {
+
+    private final ArenaService arenaService;
+
+    @Scheduled(fixedDelayString = "${matchmaking.arena.tick-ms:500}")
+    public void tick() {
+        arenaService.tick();
+    }
+}
@@ -0,0 +1,18 @@
+package com.chess.matchmaking.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Turns the challenge expiry wheel (see {@link ChallengeService#expireDue}). */
+@Component
+@RequiredArgsConstructor
+public class ChallengeExpiryJob {
+
+    private final ChallengeService challengeService;
+
+    @Scheduled(fixedDelayString = "${matchmaking.challenge.wheel-tick-ms:100}")
+    public void tick() {
+        challengeService.expireDue();
+    }
+}
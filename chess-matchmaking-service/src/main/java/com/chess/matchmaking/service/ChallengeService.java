@@ -0,0 +1,295 @@
+package com.chess.matchmaking.service;
+
+import com.chess.common.exception.ConflictException;
+import com.chess.common.exception.ForbiddenException;
+import com.chess.common.exception.NotFoundException;
+import com.chess.common.exception.ValidationException;
+import com.chess.matchmaking.challenge.TimingWheel;
+import com.chess.matchmaking.client.GameServiceClient;
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlClassifier;
+import com.chess.matchmaking.dto.ChallengeListResponse;
+import com.chess.matchmaking.dto.ChallengeResponse;
+import com.chess.matchmaking.dto.CreateChallengeRequest;
+import com.chess.matchmaking.dto.MatchFoundDto;
+import com.chess.matchmaking.messaging.MatchmakingEventPublisher;
+import com.chess.matchmaking.repo.ChallengeStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Direct challenges and rematches, outside the queue: no rating lookup and no search. The game id and colours
+ * are fixed when the challenge is made, so accepting it is one status change in Redis and one call creating
+ * the game in game-service; the game's state is in place before either player hears about it.
+ *
+ * Each instance expires the challenges it created through a {@link TimingWheel}. Should an instance go away,
+ * its challenges still cannot be accepted past their expiry and drop out of the pending lists.
+ */
+@Slf4j
+@Service
+public class ChallengeService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ChallengeStore challengeStore;
+    private final GameServiceClient gameServiceClient;
+    private final TimeControlClassifier timeControlClassifier;
+    private final MatchmakingEventPublisher eventPublisher;
+    private final MatchmakingProperties.Challenge properties;
+    private final TimingWheel<String> expiries;
+
+    public ChallengeService(ChallengeStore challengeStore, GameServiceClient gameServiceClient,
+                            TimeControlClassifier timeControlClassifier, MatchmakingEventPublisher eventPublisher,
+                            MatchmakingProperties properties) {
+        this.challengeStore = challengeStore;
+        this.gameServiceClient = gameServiceClient;
+        this.timeControlClassifier = timeControlClassifier;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties.getChallenge();
+        this.expiries = new TimingWheel<>(this.properties.getWheelSlots(), this.properties.getWheelTickMs(),
+                System.currentTimeMillis());
+    }
+
+    public ChallengeResponse create(UUID challengerId, CreateChallengeRequest request) {
+        if (challengerId.equals(request.getChallengedUserId())) {
+            throw new ValidationException("Cannot challenge yourself");
+        }
+        String color = request.getColor() != null ? request.getColor() : "RANDOM";
+        boolean challengerWhite = "RANDOM".equals(color) ? RANDOM.nextBoolean() : "WHITE".equals(color);
+        ChallengeStore.Challenge challenge = newChallenge(
+                challengerId.toString(),
+                request.getChallengedUserId().toString(),
+                challengerWhite,
+                request.getBaseSeconds(),
+                request.getIncrementSeconds(),
+                request.getRated(),
+                null);
+        open(challenge);
+        return response(challenge);
+    }
+
+    /**
+     * Offers the opponent of a finished game another one with colours swapped. When the opponent has already
+     * offered it, this accepts their offer instead, so both players clicking rematch start a single game.
+     */
+    public ChallengeResponse rematch(UUID userId, String gameId) {
+        GameServiceClient.GameSummary game = gameServiceClient.getGame(gameId);
+        String me = userId.toString();
+        if (!me.equals(game.whiteId()) && !me.equals(game.blackId())) {
+            throw new ForbiddenException("Not a player of this game");
+        }
+        if ("RUNNING".equals(game.status())) {
+            throw new ConflictException("Game is still running");
+        }
+
+        ChallengeResponse existing = existingRematch(userId, gameId);
+        if (existing != null) {
+            return existing;
+        }
+        boolean wasWhite = me.equals(game.whiteId());
+        ChallengeStore.Challenge challenge = newChallenge(
+                me,
+                wasWhite ? game.blackId() : game.whiteId(),
+                !wasWhite,
+                game.baseSeconds(),
+                game.incrementSeconds(),
+                game.rated(),
+                gameId);
+        if (!challengeStore.claimRematch(gameId, challenge.challengeId(), Duration.ofSeconds(properties.getTtlSeconds()))) {
+            // the opponent asked at the same moment
+            existing = existingRematch(userId, gameId);
+            if (existing != null) {
+                return existing;
+            }
+            throw new ConflictException("Rematch is no longer available");
+        }
+        open(challenge);
+        return response(challenge);
+    }
+
+    public ChallengeResponse accept(UUID userId, String challengeId) {
+        ChallengeStore.Challenge challenge = challenge(challengeId);
+        if (!userId.toString().equals(challenge.challengedId())) {
+            throw new ForbiddenException("Challenge is not addressed to user");
+        }
+        if (ChallengeStore.ACCEPTED.equals(challenge.status())) {
+            return response(challenge);
+        }
+        if (!ChallengeStore.PENDING.equals(challenge.status()) || System.currentTimeMillis() >= challenge.expiresAtMs()) {
+            throw new ConflictException("Challenge is no longer pending");
+        }
+        if (!challengeStore.transition(challenge, ChallengeStore.PENDING, ChallengeStore.ACCEPTED)) {
+            ChallengeStore.Challenge now = challenge(challengeId);
+            if (ChallengeStore.ACCEPTED.equals(now.status())) {
+                return response(now);
+            }
+            throw new ConflictException("Challenge is no longer pending");
+        }
+
+        try {
+            gameServiceClient.createGame(challenge.gameId(), challenge.whiteId(), challenge.blackId(),
+                    challenge.timeControlType(), challenge.baseSeconds(), challenge.incrementSeconds(),
+                    challenge.rated());
+        } catch (RuntimeException e) {
+            // back to pending so the challenge can be accepted again; the game id stays, so a retry is safe
+            challengeStore.transition(challenge, ChallengeStore.ACCEPTED, ChallengeStore.PENDING);
+            throw e;
+        }
+
+        // the game exists already; MatchFound only tells both players (game-service skips existing games)
+        try {
+            eventPublisher.publishMatchFound(MatchFoundDto.builder()
+                    .matchId(challenge.gameId())
+                    .whitePlayerId(challenge.whiteId())
+                    .blackPlayerId(challenge.blackId())
+                    .timeControl(challenge.timeControlType())
+                    .initialTimeSeconds(challenge.baseSeconds())
+                    .incrementSeconds(challenge.incrementSeconds())
+                    .rated(challenge.rated())
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to announce challenge game {}", challenge.gameId(), e);
+        }
+        return response(withStatus(challenge, ChallengeStore.ACCEPTED));
+    }
+
+    public void decline(UUID userId, String challengeId) {
+        ChallengeStore.Challenge challenge = challenge(challengeId);
+        if (!userId.toString().equals(challenge.challengedId())) {
+            throw new ForbiddenException("Challenge is not addressed to user");
+        }
+        close(challenge, ChallengeStore.DECLINED);
+    }
+
+    public void cancel(UUID userId, String challengeId) {
+        ChallengeStore.Challenge challenge = challenge(challengeId);
+        if (!userId.toString().equals(challenge.challengerId())) {
+            throw new ForbiddenException("Challenge does not belong to user");
+        }
+        close(challenge, ChallengeStore.CANCELLED);
+    }
+
+    public ChallengeResponse get(UUID userId, String challengeId) {
+        ChallengeStore.Challenge challenge = challenge(challengeId);
+        String me = userId.toString();
+        if (!me.equals(challenge.challengerId()) && !me.equals(challenge.challengedId())) {
+            throw new ForbiddenException("Challenge does not belong to user");
+        }
+        return response(challenge);
+    }
+
+    public ChallengeListResponse pending(UUID userId) {
+        long now = System.currentTimeMillis();
+        return new ChallengeListResponse(
+                challengeStore.pending(userId.toString(), true, now).stream().map(ChallengeService::response).toList(),
+                challengeStore.pending(userId.toString(), false, now).stream().map(ChallengeService::response).toList());
+    }
+
+    /** Expires the challenges this instance created whose time is up; called every wheel tick. */
+    public void expireDue() {
+        List<String> due = expiries.advance(System.currentTimeMillis());
+        for (String challengeId : due) {
+            try {
+                ChallengeStore.Challenge challenge = challengeStore.get(challengeId);
+                if (challenge != null && ChallengeStore.PENDING.equals(challenge.status())) {
+                    challengeStore.transition(challenge, ChallengeStore.PENDING, ChallengeStore.EXPIRED);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to expire challenge {}: {}", challengeId, e.getMessage());
+            }
+        }
+    }
+
+    /** Challenges waiting on this instance's expiry wheel. */
+    public int scheduledExpiries() {
+        return expiries.size();
+    }
+
+    private ChallengeResponse existingRematch(UUID userId, String gameId) {
+        String challengeId = challengeStore.rematchOf(gameId);
+        ChallengeStore.Challenge challenge = challengeId != null ? challengeStore.get(challengeId) : null;
+        if (challenge == null) {
+            return null;
+        }
+        if (ChallengeStore.PENDING.equals(challenge.status())
+                && userId.toString().equals(challenge.challengedId())) {
+            return accept(userId, challengeId);
+        }
+        if (ChallengeStore.PENDING.equals(challenge.status()) || ChallengeStore.ACCEPTED.equals(challenge.status())) {
+            return response(challenge);
+        }
+        throw new ConflictException("Rematch was " + challenge.status().toLowerCase());
+    }
+
+    private ChallengeStore.Challenge newChallenge(String challengerId, String challengedId, boolean challengerWhite,
+                                                  int baseSeconds, int incrementSeconds, boolean rated,
+                                                  String rematchOf) {
+        long now = System.currentTimeMillis();
+        return new ChallengeStore.Challenge(
+                UUID.randomUUID().toString(),
+                challengerId,
+                challengedId,
+                challengerWhite ? challengerId : challengedId,
+                challengerWhite ? challengedId : challengerId,
+                timeControlClassifier.classify(baseSeconds, incrementSeconds).name(),
+                baseSeconds,
+                incrementSeconds,
+                rated,
+                UUID.randomUUID().toString(),
+                rematchOf,
+                now,
+                now + properties.getTtlSeconds() * 1000L,
+                ChallengeStore.PENDING);
+    }
+
+    private void open(ChallengeStore.Challenge challenge) {
+        challengeStore.create(challenge);
+        expiries.schedule(challenge.challengeId(), challenge.expiresAtMs());
+    }
+
+    private void close(ChallengeStore.Challenge challenge, String status) {
+        if (status.equals(challenge.status())) {
+            return;
+        }
+        if (!challengeStore.transition(challenge, ChallengeStore.PENDING, status)) {
+            throw new ConflictException("Challenge is no longer pending");
+        }
+    }
+
+    private ChallengeStore.Challenge challenge(String challengeId) {
+        ChallengeStore.Challenge challenge = challengeStore.get(challengeId);
+        if (challenge == null) {
+            throw new NotFoundException("Challenge", challengeId);
+        }
+        return challenge;
+    }
+
+    private static ChallengeStore.Challenge withStatus(ChallengeStore.Challenge c, String status) {
+        return new ChallengeStore.Challenge(c.challengeId(), c.challengerId(), c.challengedId(), c.whiteId(),
+                c.blackId(), c.timeControlType(), c.baseSeconds(), c.incrementSeconds(), c.rated(), c.gameId(),
+                c.rematchOf(), c.createdAtMs(), c.expiresAtMs(), status);
+    }
+
+    private static ChallengeResponse response(ChallengeStore.Challenge c) {
+        return new ChallengeResponse(
+                c.challengeId(),
+                c.challengerId(),
+                c.challengedId(),
+                c.whiteId(),
+                c.blackId(),
+                c.timeControlType(),
+                c.baseSeconds(),
+                c.incrementSeconds(),
+                c.rated(),
+                c.status(),
+                ChallengeStore.ACCEPTED.equals(c.status()) ? c.gameId() : null,
+                c.rematchOf(),
+                Instant.ofEpochMilli(c.expiresAtMs()));
+    }
+}
@@ -1,74 +1,99 @@
 package com.chess.matchmaking.service;
 
 import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlPool;
 import com.chess.matchmaking.domain.TimeControlType;
-import com.chess.matchmaking.dto.MatchmakingStatus;
+import com.chess.matchmaking.engine.MatchmakingEngine;
 import com.chess.matchmaking.repo.MatchmakingAuditRepository;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
 import com.chess.matchmaking.repo.MatchmakingRequestStore;
-import com.chess.matchmaking.repo.RedisMatchmakingEngine;
 import com.chess.matchmaking.messaging.MatchmakingEventPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Expires requests that waited longer than {@code matchmaking.queue-timeout-seconds} in the queues of every
+ * pool in the {@link MatchmakingPoolIndex}. Each queue is expired by one Redis script call per batch; the
+ * dequeue events of a batch are published together and its audit rows are updated with one statement.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class MatchmakingExpiryJob {
 
-    private final RedisMatchmakingEngine matchmakingEngine;
+    private final MatchmakingEngine matchmakingEngine;
     private final MatchmakingRequestStore requestStore;
     private final MatchmakingProperties properties;
     private final MatchmakingEventPublisher eventPublisher;
     private final ObjectProvider<MatchmakingAuditRepository> auditRepositoryProvider;
+    private final MatchmakingPoolIndex poolIndex;
+
+    @Value("${matchmaking.expire-batch-size:1000}")
+    private int batchSize = 1000;
 
     @Scheduled(fixedDelayString = "${matchmaking.expire-scan-interval-ms:5000}")
     public void expireQueued() {
         long expireBeforeMs = Instant.now().minusSeconds(properties.getQueueTimeoutSeconds()).toEpochMilli();
 
+        for (TimeControlPool pool : poolIndex.pools(System.currentTimeMillis())) {
+            expirePool(pool.key(), expireBeforeMs);
+        }
+        // requests queued before pools existed wait in a queue named after their category, without a hash tag
         for (TimeControlType tct : TimeControlType.values()) {
-            List<String> expired = matchmakingEngine.findExpired(tct.name(), expireBeforeMs, 200);
-            if (expired.isEmpty()) {
-                continue;
-            }
-            for (String requestId : expired) {
-                MatchmakingRequestStore.StoredRequest req = requestStore.getRequest(requestId);
-                if (req == null) {
-                    // orphan in ZSET; just cleanup
-                    matchmakingEngine.removeFromQueues(tct.name(), requestId);
-                    continue;
-                }
+            expireQueue(tct.name(), tct.name(), expireBeforeMs);
+        }
+    }
 
-                String status = req.status() != null ? req.status() : MatchmakingStatus.QUEUED.name();
-                if (!MatchmakingStatus.QUEUED.name().equals(status)) {
-                    matchmakingEngine.removeFromQueues(tct.name(), requestId);
-                    continue;
-                }
+    private void expirePool(String pool, long expireBeforeMs) {
+        for (String queue : matchmakingEngine.queueNames(pool)) {
+            expireQueue(pool, queue, expireBeforeMs);
+        }
+    }
 
-                matchmakingEngine.removeFromQueues(tct.name(), requestId);
-                requestStore.markExpired(requestId);
+    private void expireQueue(String pool, String queue, long expireBeforeMs) {
+        List<MatchmakingRequestStore.ExpiredRequest> expired;
+        do {
+            expired = requestStore.expireQueued(queue, expireBeforeMs, batchSize);
+            if (!expired.isEmpty()) {
+                onExpired(pool, expired);
+            }
+            // a full batch means more may be waiting (e.g. a backlog after an outage)
+        } while (expired.size() >= batchSize);
+    }
+
+    private void onExpired(String pool, List<MatchmakingRequestStore.ExpiredRequest> expired) {
+        Map<String, UUID> users = new LinkedHashMap<>();
+        List<UUID> requestIds = new ArrayList<>(expired.size());
+        for (MatchmakingRequestStore.ExpiredRequest e : expired) {
+            users.put(e.requestId(), UUID.fromString(e.userId()));
+            requestIds.add(UUID.fromString(e.requestId()));
+        }
+        matchmakingEngine.onExpired(pool, List.copyOf(users.keySet()));
 
-                try {
-                    eventPublisher.publishPlayerDequeued(requestId, UUID.fromString(req.userId()), "EXPIRED");
-                } catch (Exception ignored) {
-                }
+        try {
+            eventPublisher.publishPlayersDequeued(users, "EXPIRED");
+        } catch (Exception e) {
+            log.warn("Failed to publish {} expiry events", users.size(), e);
+        }
 
-                MatchmakingAuditRepository audit = auditRepositoryProvider.getIfAvailable();
-                if (audit != null) {
-                    try {
-                        audit.markExpired(UUID.fromString(requestId));
-                    } catch (Exception e) {
-                        log.warn("Failed to write expiry audit for requestId={}", requestId, e);
-                    }
-                }
+        MatchmakingAuditRepository audit = auditRepositoryProvider.getIfAvailable();
+        if (audit != null) {
+            try {
+                audit.markExpired(requestIds);
+            } catch (Exception e) {
+                log.warn("Failed to write expiry audit for {} requests", requestIds.size(), e);
             }
         }
     }
 }
-
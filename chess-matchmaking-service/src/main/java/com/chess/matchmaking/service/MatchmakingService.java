@@ -2,17 +2,21 @@ package com.chess.matchmaking.service;
 
 import com.chess.common.exception.ForbiddenException;
 import com.chess.common.exception.NotFoundException;
+import com.chess.matchmaking.client.RatingCache;
 import com.chess.matchmaking.client.UserRatingsClient;
 import com.chess.matchmaking.config.MatchmakingProperties;
-import com.chess.matchmaking.domain.TimeControlClassifier;
+import com.chess.matchmaking.domain.TimeControlPool;
+import com.chess.matchmaking.domain.TimeControlPools;
 import com.chess.matchmaking.domain.TimeControlType;
 import com.chess.matchmaking.dto.MatchFoundDto;
 import com.chess.matchmaking.dto.MatchmakingStatus;
 import com.chess.matchmaking.dto.MatchmakingStatusResponse;
+import com.chess.matchmaking.engine.MatchmakingEngine;
 import com.chess.matchmaking.messaging.MatchmakingEventPublisher;
 import com.chess.matchmaking.repo.MatchmakingAuditRepository;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
 import com.chess.matchmaking.repo.MatchmakingRequestStore;
-import com.chess.matchmaking.repo.RedisMatchmakingEngine;
+import com.chess.matchmaking.stats.QueueStats;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
@@ -25,38 +29,55 @@ import java.util.UUID;
 public class MatchmakingService {
 
     private final MatchmakingRequestStore requestStore;
-    private final TimeControlClassifier timeControlClassifier;
-    private final UserRatingsClient userRatingsClient;
-    private final RedisMatchmakingEngine matchmakingEngine;
+    private final TimeControlPools timeControlPools;
+    private final MatchmakingPoolIndex poolIndex;
+    private final RatingCache ratingCache;
+    private final MatchmakingEngine matchmakingEngine;
     private final MatchmakingProperties properties;
     private final MatchmakingEventPublisher eventPublisher;
     private final ObjectProvider<MatchmakingAuditRepository> auditRepositoryProvider;
+    private final QueueStats queueStats;
 
     public String join(UUID userId, int baseSeconds, int incrementSeconds, boolean rated, String idempotencyKey, String requestIdHeader) {
-        String requestId = requestStore.createOrGetActiveRequest(userId, baseSeconds, incrementSeconds, rated, idempotencyKey, requestIdHeader);
-
-        MatchmakingRequestStore.StoredRequest stored = requestStore.getRequest(requestId);
-        if (stored == null) {
+        // requests only meet others on the same clock; the category picks the rating
+        TimeControlPool pool = timeControlPools.of(baseSeconds, incrementSeconds);
+        TimeControlType timeControlType = pool.category();
+        UserRatingsClient.RatingInfo ratingInfo = ratingCache.get(userId, timeControlType.name());
+        poolIndex.joined(pool, System.currentTimeMillis());
+
+        // create, queue and (with the per-join Redis engine) match in one Redis call
+        boolean matchInStore = matchmakingEngine.matchesInJoinScript();
+        String gameId = UUID.randomUUID().toString();
+        MatchmakingRequestStore.JoinResult joined = requestStore.join(new MatchmakingRequestStore.JoinCommand(
+                userId,
+                baseSeconds,
+                incrementSeconds,
+                rated,
+                idempotencyKey,
+                requestIdHeader,
+                timeControlType.name(),
+                pool.key(),
+                ratingInfo.rating(),
+                ratingInfo.ratingDeviation(),
+                matchmakingEngine.queueName(pool.key(), ratingInfo.rating()),
+                matchInStore
+                        ? new MatchmakingRequestStore.MatchParams(
+                                properties.getInitialRatingRange(),
+                                properties.getRatingRangeIncrement(),
+                                properties.getMaxRatingRange(),
+                                properties.getRangeExpansionIntervalSeconds() * 1000L,
+                                gameId)
+                        : null
+        ));
+        if (joined.request() == null) {
             throw new NotFoundException("Matchmaking request not found after creation");
         }
-
-        String status = stored.status() != null ? stored.status() : MatchmakingStatus.QUEUED.name();
-        if (!MatchmakingStatus.QUEUED.name().equals(status)) {
+        String requestId = joined.request().requestId();
+        if (!joined.created()) {
+            // retry of a join that is already queued or matched
             return requestId;
         }
 
-        TimeControlType timeControlType = timeControlClassifier.classify(baseSeconds, incrementSeconds);
-
-        boolean needsEnrichment = stored.timeControlType() == null || stored.rating() == null || stored.ratingDeviation() == null;
-        if (needsEnrichment) {
-            UserRatingsClient.RatingInfo ratingInfo = userRatingsClient.fetchRating(userId, timeControlType.name());
-            requestStore.enrichQueuedRequest(requestId, timeControlType.name(), ratingInfo.rating(), ratingInfo.ratingDeviation());
-        }
-
-        MatchmakingRequestStore.StoredRequest enriched = requestStore.getRequest(requestId);
-        double rating = enriched != null && enriched.rating() != null ? Double.parseDouble(enriched.rating()) : 0.0;
-        Double ratingDeviation = enriched != null && enriched.ratingDeviation() != null ? Double.valueOf(enriched.ratingDeviation()) : null;
-
         // Publish queued (idempotent via deterministic Nats-Msg-Id)
         eventPublisher.publishPlayerQueued(requestId, userId, timeControlType.name(), baseSeconds, incrementSeconds, rated);
 
@@ -70,8 +91,8 @@ public class MatchmakingService {
                         baseSeconds,
                         incrementSeconds,
                         rated,
-                        rating,
-                        ratingDeviation,
+                        ratingInfo.rating(),
+                        ratingInfo.ratingDeviation(),
                         requestIdHeader,
                         idempotencyKey
                 );
@@ -80,10 +101,19 @@ public class MatchmakingService {
             }
         }
 
-        RedisMatchmakingEngine.MatchPair pair = matchmakingEngine.enqueueAndTryMatch(
-                timeControlType.name(),
+        if (matchInStore) {
+            if (joined.opponent() != null) {
+                announceMatch(timeControlType.name(), gameId, joined.request(), joined.opponent(),
+                        baseSeconds, incrementSeconds, rated);
+            }
+            return requestId;
+        }
+
+        MatchmakingEngine.MatchPair pair = matchmakingEngine.enqueueAndTryMatch(
+                pool.key(),
                 requestId,
-                rating,
+                ratingInfo.rating(),
+                ratingInfo.ratingDeviation(),
                 properties.getInitialRatingRange(),
                 properties.getRatingRangeIncrement(),
                 properties.getMaxRatingRange(),
@@ -91,49 +121,70 @@ public class MatchmakingService {
         );
 
         if (pair != null) {
-            String gameId = UUID.randomUUID().toString();
-            requestStore.markMatched(pair.requestId1(), gameId);
-            requestStore.markMatched(pair.requestId2(), gameId);
-
-            MatchmakingRequestStore.StoredRequest r1 = requestStore.getRequest(pair.requestId1());
-            MatchmakingRequestStore.StoredRequest r2 = requestStore.getRequest(pair.requestId2());
-            if (r1 != null && r2 != null) {
-                boolean whiteFirst = new SecureRandom().nextBoolean();
-                String white = whiteFirst ? r1.userId() : r2.userId();
-                String black = whiteFirst ? r2.userId() : r1.userId();
-
-                // Dequeued due to match
-                try {
-                    eventPublisher.publishPlayerDequeued(pair.requestId1(), UUID.fromString(r1.userId()), "MATCHED");
-                    eventPublisher.publishPlayerDequeued(pair.requestId2(), UUID.fromString(r2.userId()), "MATCHED");
-                } catch (Exception ignored) {
-                    // best-effort
-                }
-
-                eventPublisher.publishMatchFound(MatchFoundDto.builder()
-                        .matchId(gameId)
-                        .whitePlayerId(white)
-                        .blackPlayerId(black)
-                        .timeControl(timeControlType.name())
-                        .initialTimeSeconds(baseSeconds)
-                        .incrementSeconds(incrementSeconds)
-                        .rated(rated)
-                        .build());
-            }
-
-            if (audit != null) {
-                try {
-                    UUID gameUuid = UUID.fromString(gameId);
-                    audit.markMatched(UUID.fromString(pair.requestId1()), gameUuid);
-                    audit.markMatched(UUID.fromString(pair.requestId2()), gameUuid);
-                } catch (Exception ignored) {
-                }
-            }
+            completeMatch(timeControlType.name(), pair, baseSeconds, incrementSeconds, rated);
         }
 
         return requestId;
     }
 
+    /**
+     * Marks both requests matched and announces the game. {@code timeControlType} is the rating category;
+     * game settings default to those of the first request when the caller has none at hand.
+     */
+    public void completeMatch(String timeControlType, MatchmakingEngine.MatchPair pair,
+                              Integer baseSeconds, Integer incrementSeconds, Boolean rated) {
+        String gameId = UUID.randomUUID().toString();
+        requestStore.markMatched(pair.requestId1(), gameId);
+        requestStore.markMatched(pair.requestId2(), gameId);
+
+        MatchmakingRequestStore.StoredRequest r1 = requestStore.getRequest(pair.requestId1());
+        MatchmakingRequestStore.StoredRequest r2 = requestStore.getRequest(pair.requestId2());
+        if (r1 != null && r2 != null) {
+            announceMatch(timeControlType, gameId, r1, r2, baseSeconds, incrementSeconds, rated);
+        }
+    }
+
+    /** Publishes the dequeue and MatchFound events and audits both requests of an already matched pair. */
+    private void announceMatch(String timeControlType, String gameId,
+                               MatchmakingRequestStore.StoredRequest r1, MatchmakingRequestStore.StoredRequest r2,
+                               Integer baseSeconds, Integer incrementSeconds, Boolean rated) {
+        long now = System.currentTimeMillis();
+        queueStats.matched(timeControlType, parseDouble(r1.rating()), parseLong(r1.queuedAtMs(), now), now);
+        queueStats.matched(timeControlType, parseDouble(r2.rating()), parseLong(r2.queuedAtMs(), now), now);
+
+        boolean whiteFirst = new SecureRandom().nextBoolean();
+        String white = whiteFirst ? r1.userId() : r2.userId();
+        String black = whiteFirst ? r2.userId() : r1.userId();
+
+        // Dequeued due to match
+        try {
+            eventPublisher.publishPlayerDequeued(r1.requestId(), UUID.fromString(r1.userId()), "MATCHED");
+            eventPublisher.publishPlayerDequeued(r2.requestId(), UUID.fromString(r2.userId()), "MATCHED");
+        } catch (Exception ignored) {
+            // best-effort
+        }
+
+        eventPublisher.publishMatchFound(MatchFoundDto.builder()
+                .matchId(gameId)
+                .whitePlayerId(white)
+                .blackPlayerId(black)
+                .timeControl(timeControlType)
+                .initialTimeSeconds(baseSeconds != null ? baseSeconds : parseInt(r1.baseSeconds()))
+                .incrementSeconds(incrementSeconds != null ? incrementSeconds : parseInt(r1.incrementSeconds()))
+                .rated(rated != null ? rated : Boolean.parseBoolean(r1.rated()))
+                .build());
+
+        MatchmakingAuditRepository audit = auditRepositoryProvider.getIfAvailable();
+        if (audit != null) {
+            try {
+                UUID gameUuid = UUID.fromString(gameId);
+                audit.markMatched(UUID.fromString(r1.requestId()), gameUuid);
+                audit.markMatched(UUID.fromString(r2.requestId()), gameUuid);
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
     public void leave(UUID userId, String requestId, String idempotencyKey, String requestIdHeader) {
         MatchmakingRequestStore.StoredRequest req = requestStore.getRequest(requestId);
         if (req == null) {
@@ -143,7 +194,9 @@ public class MatchmakingService {
             throw new ForbiddenException("Request does not belong to user");
         }
         if (req.timeControlType() != null && !req.timeControlType().isBlank()) {
-            matchmakingEngine.removeFromQueues(req.timeControlType(), requestId);
+            // requests queued before pools existed wait in the queue of their category
+            String queuedIn = req.pool() != null && !req.pool().isBlank() ? req.pool() : req.timeControlType();
+            matchmakingEngine.removeFromQueues(queuedIn, requestId);
         }
         requestStore.cancelRequest(userId, requestId, idempotencyKey, requestIdHeader);
 
@@ -173,4 +226,16 @@ public class MatchmakingService {
         String status = req.status() != null ? req.status() : MatchmakingStatus.QUEUED.name();
         return new MatchmakingStatusResponse(requestId, status, req.gameId());
     }
+
+    private static int parseInt(String value) {
+        return value != null && !value.isBlank() ? Integer.parseInt(value) : 0;
+    }
+
+    private static double parseDouble(String value) {
+        return value != null && !value.isBlank() ? Double.parseDouble(value) : 0.0;
+    }
+
+    private static long parseLong(String value, long fallback) {
+        return value != null && !value.isBlank() ? Long.parseLong(value) : fallback;
+    }
 }
@@ -0,0 +1,36 @@
+package com.chess.matchmaking.service;
+
+import com.chess.matchmaking.domain.TimeControlPool;
+import com.chess.matchmaking.engine.MatchmakingEngine;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Drives engines that pair waiting requests between joins (see {@link MatchmakingEngine#matchWaiting}). */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${matchmaking.engine:redis}' != 'redis' or '${matchmaking.pairing:per-join}' == 'batch'")
+public class MatchmakingTickJob {
+
+    private final MatchmakingEngine matchmakingEngine;
+    private final MatchmakingService matchmakingService;
+    private final MatchmakingPoolIndex poolIndex;
+
+    @Scheduled(fixedDelayString = "${matchmaking.tick-ms:100}")
+    public void tick() {
+        for (TimeControlPool pool : poolIndex.pools(System.currentTimeMillis())) {
+            for (MatchmakingEngine.MatchPair pair : matchmakingEngine.matchWaiting(pool.key())) {
+                try {
+                    matchmakingService.completeMatch(pool.category().name(), pair,
+                            pool.baseSeconds(), pool.incrementSeconds(), null);
+                } catch (Exception e) {
+                    log.warn("Failed to complete match {} / {}", pair.requestId1(), pair.requestId2(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.chess.matchmaking.service;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlPool;
+import com.chess.matchmaking.domain.TimeControlType;
+import com.chess.matchmaking.engine.MatchmakingEngine;
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.PoolFallback;
+import com.chess.matchmaking.engine.QueueClaims;
+import com.chess.matchmaking.engine.QueueKeys;
+import com.chess.matchmaking.engine.RangePolicy;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cross-pool fallback ({@code matchmaking.pools.fallback-after-seconds}): requests that waited that long are
+ * paired with requests of another pool in the same rating category, on the clock of the one that waited longer.
+ * One instance per category and tick (a short Redis lock) reads the oldest requests of each queue, pairs them
+ * with {@link PoolFallback} and claims each side in its own queue ({@link QueueClaims}), so a request matched in
+ * its own pool meanwhile is skipped and its would-be partner put back. The order-book engine holds its queues in
+ * memory on the owning instance and is not supported.
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${matchmaking.pools.fallback-after-seconds:0} > 0 and '${matchmaking.engine:redis}' != 'order-book'")
+public class PoolFallbackJob {
+
+    private static final String LOCK_KEY_PREFIX = "mm:pools:fallback:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> claimRequestsScript;
+    private final MatchmakingEngine matchmakingEngine;
+    private final MatchmakingService matchmakingService;
+    private final MatchmakingPoolIndex poolIndex;
+    private final MatchmakingProperties properties;
+
+    public PoolFallbackJob(RedisTemplate<String, String> redisTemplate,
+                           @SuppressWarnings("rawtypes") RedisScript<List> claimRequestsScript,
+                           MatchmakingEngine matchmakingEngine, MatchmakingService matchmakingService,
+                           MatchmakingPoolIndex poolIndex, MatchmakingProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.claimRequestsScript = claimRequestsScript;
+        this.matchmakingEngine = matchmakingEngine;
+        this.matchmakingService = matchmakingService;
+        this.poolIndex = poolIndex;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${matchmaking.pools.fallback-tick-ms:1000}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+        Map<TimeControlType, List<TimeControlPool>> byCategory = new EnumMap<>(TimeControlType.class);
+        for (TimeControlPool pool : poolIndex.pools(now)) {
+            byCategory.computeIfAbsent(pool.category(), c -> new ArrayList<>()).add(pool);
+        }
+        for (Map.Entry<TimeControlType, List<TimeControlPool>> e : byCategory.entrySet()) {
+            if (e.getValue().size() < 2) {
+                continue;
+            }
+            try {
+                fallback(e.getKey(), e.getValue(), now);
+            } catch (Exception ex) {
+                log.warn("Cross-pool fallback failed for {}: {}", e.getKey(), ex.getMessage());
+            }
+        }
+    }
+
+    private void fallback(TimeControlType category, List<TimeControlPool> pools, long now) {
+        long tickMs = Math.max(1, properties.getPools().getFallbackTickMs());
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY_PREFIX + category.name(), "1", Duration.ofMillis(tickMs)))) {
+            return;
+        }
+        long waitedSince = now - properties.getPools().getFallbackAfterSeconds() * 1000L;
+        Map<String, TimeControlPool> poolByKey = new HashMap<>();
+        List<PoolFallback.Waiting> waiting = new ArrayList<>();
+        for (TimeControlPool pool : pools) {
+            poolByKey.put(pool.key(), pool);
+            for (String queue : matchmakingEngine.queueNames(pool.key())) {
+                waiting.addAll(oldest(pool.key(), queue, waitedSince));
+            }
+        }
+        List<PoolFallback.Waiting[]> proposed = PoolFallback.pair(waiting, RangePolicy.of(properties), now);
+        if (proposed.isEmpty()) {
+            return;
+        }
+
+        // the two sides of a pair wait in different pools, i.e. different slots
+        for (PoolFallback.Waiting[] p : QueueClaims.claim(redisTemplate, claimRequestsScript, proposed)) {
+            MatchmakingEngine.MatchPair pair = new MatchmakingEngine.MatchPair(
+                    p[0].entry().requestId(), p[1].entry().requestId());
+            TimeControlPool clock = poolByKey.get(p[0].pool());
+            try {
+                matchmakingService.completeMatch(category.name(), pair, clock.baseSeconds(), clock.incrementSeconds(), null);
+            } catch (Exception ex) {
+                log.warn("Failed to complete fallback match {} / {}", pair.requestId1(), pair.requestId2(), ex);
+            }
+        }
+    }
+
+    /** Requests of one queue waiting since before {@code waitedSince}, oldest first, with their ratings. */
+    private List<PoolFallback.Waiting> oldest(String pool, String queue, long waitedSince) {
+        Set<ZSetOperations.TypedTuple<String>> since = redisTemplate.opsForZSet().rangeByScoreWithScores(
+                QueueKeys.queueTs(queue), Double.NEGATIVE_INFINITY, waitedSince,
+                0, Math.max(1, properties.getPools().getFallbackSweepLimit()));
+        if (since == null || since.isEmpty()) {
+            return List.of();
+        }
+        List<ZSetOperations.TypedTuple<String>> ordered = new ArrayList<>(since);
+        Object[] ids = new Object[ordered.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ordered.get(i).getValue();
+        }
+        List<Double> ratings = redisTemplate.opsForZSet().score(QueueKeys.queue(queue), ids);
+        List<PoolFallback.Waiting> waiting = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Double rating = ratings != null ? ratings.get(i) : null;
+            Double queuedAt = ordered.get(i).getScore();
+            if (rating != null && queuedAt != null) {
+                waiting.add(new PoolFallback.Waiting(pool, queue,
+                        new OrderBook.Entry((String) ids[i], rating, 0, queuedAt.longValue())));
+            }
+        }
+        return waiting;
+    }
+}
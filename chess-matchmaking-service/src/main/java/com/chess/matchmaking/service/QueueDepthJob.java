@@ -0,0 +1,82 @@
+package com.chess.matchmaking.service;
+
+import com.chess.matchmaking.domain.TimeControlPool;
+import com.chess.matchmaking.domain.TimeControlType;
+import com.chess.matchmaking.engine.MatchmakingEngine;
+import com.chess.matchmaking.engine.QueueKeys;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
+import com.chess.matchmaking.stats.QueueStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sets the {@link QueueStats} depth gauges from the Redis queues themselves, so they cannot drift the way
+ * counting this instance's enqueues and dequeues did: a request queued here and matched or expired elsewhere
+ * never came back down. Reads every queue of every pool in the {@link MatchmakingPoolIndex} with one script call
+ * each; on failure the gauges keep their last values.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueueDepthJob {
+
+    private final MatchmakingEngine matchmakingEngine;
+    private final MatchmakingPoolIndex poolIndex;
+    private final RedisTemplate<String, String> redisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> queueDepthScript;
+    private final QueueStats queueStats;
+
+    @Scheduled(fixedDelayString = "${matchmaking.stats.depth-refresh-ms:10000}")
+    public void refresh() {
+        Map<TimeControlType, Depth> depths = new EnumMap<>(TimeControlType.class);
+        for (TimeControlType tct : TimeControlType.values()) {
+            depths.put(tct, new Depth());
+        }
+        try {
+            for (TimeControlPool pool : poolIndex.pools(System.currentTimeMillis())) {
+                for (String queue : matchmakingEngine.queueNames(pool.key())) {
+                    count(queue, depths.get(pool.category()));
+                }
+            }
+            // requests queued before pools existed wait in a queue named after their category, without a hash tag
+            for (TimeControlType tct : TimeControlType.values()) {
+                count(tct.name(), depths.get(tct));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read matchmaking queue depths: {}", e.getMessage());
+            return;
+        }
+        depths.forEach((tct, depth) -> queueStats.depth(tct.name(), depth.total, depth.bins));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void count(String queue, Depth depth) {
+        List<Object> counts = redisTemplate.execute(
+                queueDepthScript,
+                List.of(QueueKeys.queue(queue)),
+                String.valueOf(queueStats.binWidth()));
+        if (counts == null || counts.isEmpty()) {
+            return;
+        }
+        depth.total += Long.parseLong(String.valueOf(counts.get(0)));
+        for (int i = 1; i + 1 < counts.size(); i += 2) {
+            depth.bins.merge(Integer.parseInt(String.valueOf(counts.get(i))),
+                    Long.parseLong(String.valueOf(counts.get(i + 1))), Long::sum);
+        }
+    }
+
+    private static final class Depth {
+        long total;
+        final Map<Integer, Long> bins = new HashMap<>();
+    }
+}
@@ -0,0 +1,57 @@
+package com.chess.matchmaking.service;
+
+import com.chess.matchmaking.client.RatingCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fills the rating cache after a restart with users who joined matchmaking in the last few hours (they
+ * still have a {@code mm:user:<queue>:<userId>} key), in bulk calls rather than one call per join when they return.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "matchmaking.rating-cache.prefetch-on-start", havingValue = "true", matchIfMissing = true)
+public class RatingCacheWarmer {
+
+    private static final String USER_KEY_PREFIX = "mm:user:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RatingCache ratingCache;
+
+    @Value("${matchmaking.rating-cache.prefetch-limit:20000}")
+    private int prefetchLimit;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prefetch() {
+        List<UUID> userIds = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().match(USER_KEY_PREFIX + "*").count(1000).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            while (keys.hasNext() && userIds.size() < prefetchLimit) {
+                try {
+                    String key = keys.next();
+                    userIds.add(UUID.fromString(key.substring(key.lastIndexOf(':') + 1)));
+                } catch (IllegalArgumentException ignored) {
+                    // not a user key
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Rating cache prefetch skipped: {}", e.getMessage());
+            return;
+        }
+        log.info("Prefetching ratings for {} recent matchmaking users", userIds.size());
+        ratingCache.prefetch(userIds);
+    }
+}
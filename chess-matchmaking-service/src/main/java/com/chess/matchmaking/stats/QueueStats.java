@@ -0,0 +1,210 @@
+package com.chess.matchmaking.stats;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.dto.QueueStatsResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue health per time control:
+ *
+ * <ul>
+ *   <li>{@code matchmaking.queue.depth} and {@code matchmaking.queue.rating_bin} (fixed-width rating bins)
+ *   gauges, set from the Redis queues by {@code QueueDepthJob}. Every instance reports the same cluster-wide
+ *   value, so aggregate them with max, not sum.</li>
+ *   <li>{@code matchmaking.time_to_match} timer with p50/p95 and {@code matchmaking.match.expansion_level}:
+ *   how many range expansions a request had gone through when it was matched.</li>
+ *   <li>Recent time-to-match samples per rating bin, for wait estimates ({@link #snapshot}).</li>
+ * </ul>
+ */
+@Component
+public class QueueStats {
+
+    private final MeterRegistry meterRegistry;
+    private final MatchmakingProperties properties;
+    private final int binWidth;
+    private final int samplesPerBin;
+    private final long windowMs;
+    private final Map<String, TimeControlStats> byTimeControl = new ConcurrentHashMap<>();
+
+    public QueueStats(
+            MeterRegistry meterRegistry,
+            MatchmakingProperties properties,
+            @Value("${matchmaking.stats.bin-width:100}") int binWidth,
+            @Value("${matchmaking.stats.samples-per-bin:256}") int samplesPerBin,
+            @Value("${matchmaking.stats.window-seconds:900}") long windowSeconds) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.binWidth = Math.max(1, binWidth);
+        this.samplesPerBin = Math.max(1, samplesPerBin);
+        this.windowMs = Math.max(1, windowSeconds) * 1000L;
+    }
+
+    public int binWidth() {
+        return binWidth;
+    }
+
+    /**
+     * Sets the depth gauges to what is queued now: {@code ratingBins} maps bin (rating / bin width) to requests;
+     * bins missing from it drop to zero.
+     */
+    public void depth(String timeControlType, long depth, Map<Integer, Long> ratingBins) {
+        TimeControlStats stats = stats(timeControlType);
+        stats.depth.set(depth);
+        ratingBins.forEach((bin, count) -> stats.bin(bin).set(count));
+        stats.bins.forEach((bin, count) -> {
+            if (!ratingBins.containsKey(bin)) {
+                count.set(0);
+            }
+        });
+    }
+
+    public void matched(String timeControlType, double rating, long queuedAtMs, long nowMs) {
+        TimeControlStats stats = stats(timeControlType);
+        long waitMs = Math.max(0, nowMs - queuedAtMs);
+        stats.timeToMatch.record(Duration.ofMillis(waitMs));
+        long intervalMs = Math.max(1, properties.getRangeExpansionIntervalSeconds() * 1000L);
+        stats.expansionLevel.record(Math.min(maxExpansionLevel(), waitMs / intervalMs));
+        stats.samples.computeIfAbsent(bin(rating), b -> new Samples(samplesPerBin)).add(waitMs, nowMs);
+    }
+
+    /** Estimated wait per rating bin from matches within the rolling window. */
+    public QueueStatsResponse.TimeControlQueue snapshot(String timeControlType, long nowMs) {
+        TimeControlStats stats = stats(timeControlType);
+        long since = nowMs - windowMs;
+        List<Long> all = new ArrayList<>();
+        List<QueueStatsResponse.RatingBand> bands = new ArrayList<>();
+        for (int bin : new TreeSet<>(stats.samples.keySet())) {
+            long[] waits = stats.samples.get(bin).since(since);
+            if (waits.length == 0) {
+                continue;
+            }
+            Arrays.sort(waits);
+            for (long w : waits) {
+                all.add(w);
+            }
+            bands.add(new QueueStatsResponse.RatingBand(
+                    bin * binWidth, (bin + 1) * binWidth - 1, waits.length,
+                    seconds(percentile(waits, 0.5)), seconds(percentile(waits, 0.95))));
+        }
+        long[] sorted = all.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new QueueStatsResponse.TimeControlQueue(
+                timeControlType,
+                sorted.length,
+                sorted.length > 0 ? seconds(percentile(sorted, 0.5)) : null,
+                sorted.length > 0 ? seconds(percentile(sorted, 0.95)) : null,
+                bands);
+    }
+
+    private int bin(double rating) {
+        return (int) Math.floor(rating / binWidth);
+    }
+
+    private long maxExpansionLevel() {
+        int increment = Math.max(1, properties.getRatingRangeIncrement());
+        int span = Math.max(0, properties.getMaxRatingRange() - properties.getInitialRatingRange());
+        return (span + increment - 1) / increment;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))];
+    }
+
+    private static Double seconds(long ms) {
+        return ms / 1000.0;
+    }
+
+    private TimeControlStats stats(String timeControlType) {
+        return byTimeControl.computeIfAbsent(timeControlType, TimeControlStats::new);
+    }
+
+    private final class TimeControlStats {
+        final String timeControlType;
+        final AtomicLong depth = new AtomicLong();
+        final Map<Integer, AtomicLong> bins = new ConcurrentSkipListMap<>();
+        final Map<Integer, Samples> samples = new ConcurrentHashMap<>();
+        final Timer timeToMatch;
+        final DistributionSummary expansionLevel;
+
+        TimeControlStats(String timeControlType) {
+            this.timeControlType = timeControlType;
+            Tags tags = Tags.of("time_control", timeControlType);
+            Gauge.builder("matchmaking.queue.depth", depth, AtomicLong::get)
+                    .tags(tags)
+                    .description("Requests waiting in the Redis queues of the time control, cluster-wide")
+                    .register(meterRegistry);
+            this.timeToMatch = Timer.builder("matchmaking.time_to_match")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.95)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            // boundaries between whole levels, so each level gets its own cumulative bucket
+            double[] levels = new double[(int) maxExpansionLevel() + 1];
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = i + 0.5;
+            }
+            this.expansionLevel = DistributionSummary.builder("matchmaking.match.expansion_level")
+                    .tags(tags)
+                    .description("Rating range expansions a request had gone through when matched")
+                    .serviceLevelObjectives(levels)
+                    .register(meterRegistry);
+        }
+
+        AtomicLong bin(int bin) {
+            return bins.computeIfAbsent(bin, b -> {
+                AtomicLong count = new AtomicLong();
+                Gauge.builder("matchmaking.queue.rating_bin", count, AtomicLong::get)
+                        .tags(Tags.of("time_control", timeControlType, "bin", String.valueOf(b * binWidth)))
+                        .description("Queued requests per rating bin (lower bound), cluster-wide")
+                        .register(meterRegistry);
+                return count;
+            });
+        }
+    }
+
+    /** Most recent waits of one rating bin, with the time each match happened. */
+    private static final class Samples {
+        private final long[] waits;
+        private final long[] at;
+        private int next;
+        private int size;
+
+        Samples(int capacity) {
+            this.waits = new long[capacity];
+            this.at = new long[capacity];
+        }
+
+        synchronized void add(long waitMs, long nowMs) {
+            waits[next] = waitMs;
+            at[next] = nowMs;
+            next = (next + 1) % waits.length;
+            size = Math.min(size + 1, waits.length);
+        }
+
+        synchronized long[] since(long sinceMs) {
+            long[] out = new long[size];
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (at[i] >= sinceMs) {
+                    out[n++] = waits[i];
+                }
+            }
+            return Arrays.copyOf(out, n);
+        }
+    }
+}
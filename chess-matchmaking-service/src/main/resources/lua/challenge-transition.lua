@@ -0,0 +1,23 @@
+-- Moves a challenge from one status to another if it is still in the first, in one atomic step.
+--
+-- KEYS[1] challenge key        ch:<challengeId>
+--
+-- ARGV[1] expected status, ARGV[2] new status, ARGV[3] ttl ms of the challenge key after the change
+--
+-- Only the challenge key is touched, so the script runs on Redis Cluster; the caller then lists or unlists the
+-- challenge in both users' pending sets, which sit in other slots.
+-- Returns 1 when the status changed, 0 when the challenge was gone or in another status.
+
+local challenge_key = KEYS[1]
+local expected = ARGV[1]
+local status = ARGV[2]
+local ttl_ms = tonumber(ARGV[3])
+
+local current = redis.call('HGET', challenge_key, 'status')
+if current ~= expected then
+    return 0
+end
+
+redis.call('HSET', challenge_key, 'status', status)
+redis.call('PEXPIRE', challenge_key, ttl_ms)
+return 1
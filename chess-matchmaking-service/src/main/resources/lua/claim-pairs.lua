@@ -0,0 +1,18 @@
+local queue_key = KEYS[1]
+local queue_ts_key = KEYS[2]
+
+-- ARGV: request ids, two per proposed pair
+-- A pair is claimed only if both requests are still queued (not cancelled, expired or matched meanwhile).
+local claimed = {}
+for i = 1, #ARGV - 1, 2 do
+    local a = ARGV[i]
+    local b = ARGV[i + 1]
+    if redis.call('ZSCORE', queue_key, a) and redis.call('ZSCORE', queue_key, b) then
+        redis.call('ZREM', queue_key, a, b)
+        redis.call('ZREM', queue_ts_key, a, b)
+        claimed[#claimed + 1] = a
+        claimed[#claimed + 1] = b
+    end
+end
+
+return claimed
@@ -0,0 +1,22 @@
+-- Takes requests out of one queue if they are still in it, e.g. one side of cross-pool fallback pairs. A pair
+-- spanning two pools spans two hash slots, so each side is claimed in its own pool's slot.
+--
+-- KEYS[1] queue key     mm:queue:<queue>
+-- KEYS[2] queue ts key  mm:queue_ts:<queue>
+--
+-- ARGV: request ids
+--
+-- Returns the ids that were still queued (not cancelled, expired or matched meanwhile) and are now taken.
+
+local queue_key = KEYS[1]
+local queue_ts_key = KEYS[2]
+
+local claimed = {}
+for _, id in ipairs(ARGV) do
+    if redis.call('ZREM', queue_key, id) == 1 then
+        redis.call('ZREM', queue_ts_key, id)
+        claimed[#claimed + 1] = id
+    end
+end
+
+return claimed
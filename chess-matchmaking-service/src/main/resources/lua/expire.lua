@@ -0,0 +1,35 @@
+-- Takes up to N requests that have waited since before a cutoff out of a queue, in one atomic step.
+--
+-- KEYS[1] queue key     mm:queue:<queue>
+-- KEYS[2] queue ts key  mm:queue_ts:<queue>
+--
+-- ARGV[1] cutoff ms, ARGV[2] max requests
+--
+-- Only the queue's own keys are touched, so the script stays in the pool's slot on Redis Cluster; marking the
+-- requests expired and releasing their users is left to the caller. Returns {requestId, rating, ...} for the
+-- requests taken out.
+
+local queue_key = KEYS[1]
+local queue_ts_key = KEYS[2]
+local cutoff_ms = ARGV[1]
+local limit = tonumber(ARGV[2])
+
+local ids = redis.call('ZRANGEBYSCORE', queue_ts_key, '-inf', cutoff_ms, 'LIMIT', 0, limit)
+if #ids == 0 then
+    return {}
+end
+
+local taken = {}
+for _, id in ipairs(ids) do
+    local rating = redis.call('ZSCORE', queue_key, id)
+    taken[#taken + 1] = id
+    taken[#taken + 1] = rating or '0'
+end
+-- ZREM takes many members; chunked to stay clear of Lua's unpack limit
+for i = 1, #ids, 1000 do
+    local last = math.min(i + 999, #ids)
+    redis.call('ZREM', queue_key, unpack(ids, i, last))
+    redis.call('ZREM', queue_ts_key, unpack(ids, i, last))
+end
+
+return taken
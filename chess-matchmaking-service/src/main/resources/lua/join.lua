@@ -0,0 +1,128 @@
+-- Whole queue join in one round trip: idempotency, the user's single active request in the queue, creating
+-- the request, queueing it and (optionally) matching it, including marking both requests matched.
+--
+-- KEYS[1] user key           mm:user:<queue>:<userId>
+-- KEYS[2] request key        mm:req:{<slot suffix>}:<new requestId>
+-- KEYS[3] queue key          mm:queue:<queue>
+-- KEYS[4] queue ts key       mm:queue_ts:<queue>
+-- KEYS[5] idempotency key    mm:idemp:join:<queue>:<userId>:<key>, only when the client sent one
+--
+-- ARGV[1] request id, ARGV[2] user id, ARGV[3] base seconds, ARGV[4] increment seconds, ARGV[5] rated,
+-- ARGV[6] x-request-id, ARGV[7] time control type, ARGV[8] pool, ARGV[9] queue, ARGV[10] rating,
+-- ARGV[11] rating deviation, ARGV[12] now ms, ARGV[13] ttl seconds of the request, ARGV[14] ttl seconds of
+-- the idempotency key, ARGV[15] '1' to match, ARGV[16..19] initial range, range increment, max range,
+-- expansion interval ms, ARGV[20] max candidates, ARGV[21] game id, ARGV[22] ttl seconds of a matched request
+--
+-- Every key shares the queue's hash tag, or the slot the request ids of the queue were made for (see
+-- QueueKeys.newRequestId), so all of them are in one Redis Cluster slot. The hashes of other requests in the
+-- queue are not declared: their ids are only known from the queue. Redis Cluster still runs the script, since
+-- it only refuses keys in another slot than the declared ones.
+--
+-- Returns {created, request fields, opponent fields}; fields are flat HGETALL lists, the opponent list is
+-- empty unless the request was matched by this call.
+
+local user_key = KEYS[1]
+local req_key = KEYS[2]
+local queue_key = KEYS[3]
+local queue_ts_key = KEYS[4]
+local idem_key = KEYS[5]
+
+local request_id = ARGV[1]
+local rating = tonumber(ARGV[10])
+local now_ms = tonumber(ARGV[12])
+local request_ttl_s = tonumber(ARGV[13])
+local idem_ttl_s = tonumber(ARGV[14])
+local match = ARGV[15] == '1'
+local initial_range = tonumber(ARGV[16])
+local range_increment = tonumber(ARGV[17])
+local max_range = tonumber(ARGV[18])
+local expansion_interval_ms = tonumber(ARGV[19])
+local max_candidates = tonumber(ARGV[20]) or 50
+local game_id = ARGV[21]
+local matched_ttl_s = tonumber(ARGV[22])
+
+-- same layout as QueueKeys.request
+local function request_key(id)
+    return 'mm:req:{' .. string.sub(id, -5) .. '}:' .. id
+end
+
+local function existing(id)
+    return {0, redis.call('HGETALL', request_key(id)), {}}
+end
+
+if idem_key then
+    local id = redis.call('GET', idem_key)
+    if id then
+        return existing(id)
+    end
+end
+
+local active = redis.call('GET', user_key)
+if active then
+    return existing(active)
+end
+
+redis.call('HSET', req_key,
+    'requestId', request_id,
+    'userId', ARGV[2],
+    'status', 'QUEUED',
+    'baseSeconds', ARGV[3],
+    'incrementSeconds', ARGV[4],
+    'rated', ARGV[5],
+    'queuedAtMs', ARGV[12],
+    'xRequestId', ARGV[6],
+    'timeControlType', ARGV[7],
+    'pool', ARGV[8],
+    'queue', ARGV[9],
+    'rating', ARGV[10],
+    'ratingDeviation', ARGV[11])
+redis.call('EXPIRE', req_key, request_ttl_s)
+redis.call('SET', user_key, request_id, 'EX', request_ttl_s)
+if idem_key then
+    redis.call('SET', idem_key, request_id, 'EX', idem_ttl_s)
+end
+
+redis.call('ZADD', queue_key, 'NX', rating, request_id)
+redis.call('ZADD', queue_ts_key, 'NX', now_ms, request_id)
+
+if not match then
+    return {1, redis.call('HGETALL', req_key), {}}
+end
+
+-- same acceptance rule as try-match.lua: the gap must be within both players' current ranges
+local function range_of(queued_at)
+    local r = initial_range + math.floor((now_ms - queued_at) / expansion_interval_ms) * range_increment
+    if r > max_range then
+        r = max_range
+    end
+    return r
+end
+
+local my_range = range_of(now_ms)
+local candidates = redis.call('ZRANGEBYSCORE', queue_key, rating - my_range, rating + my_range,
+    'WITHSCORES', 'LIMIT', 0, max_candidates)
+for i = 1, #candidates, 2 do
+    local opp_id = candidates[i]
+    if opp_id ~= request_id then
+        local opp_key = request_key(opp_id)
+        if redis.call('EXISTS', opp_key) == 0 then
+            -- the queue entry outlived its hash; there is no one left to match
+            redis.call('ZREM', queue_key, opp_id)
+            redis.call('ZREM', queue_ts_key, opp_id)
+        else
+            local gap = math.abs(rating - tonumber(candidates[i + 1]))
+            local opp_range = range_of(tonumber(redis.call('ZSCORE', queue_ts_key, opp_id) or now_ms))
+            if gap <= opp_range then
+                redis.call('ZREM', queue_key, request_id, opp_id)
+                redis.call('ZREM', queue_ts_key, request_id, opp_id)
+                redis.call('HSET', req_key, 'status', 'MATCHED', 'gameId', game_id)
+                redis.call('HSET', opp_key, 'status', 'MATCHED', 'gameId', game_id)
+                redis.call('EXPIRE', req_key, matched_ttl_s)
+                redis.call('EXPIRE', opp_key, matched_ttl_s)
+                return {1, redis.call('HGETALL', req_key), redis.call('HGETALL', opp_key)}
+            end
+        end
+    end
+end
+
+return {1, redis.call('HGETALL', req_key), {}}
@@ -0,0 +1,73 @@
+-- Matches requests of one rating band against the other requests of that band.
+--
+-- KEYS[1] queue key     mm:queue:{<pool>:<bucket>}
+-- KEYS[2] queue ts key  mm:queue_ts:{<pool>:<bucket>}
+--
+-- ARGV[1] request id to match, or "" to sweep the band's oldest requests
+-- ARGV[2] now ms, ARGV[3..6] initial range, range increment, max range, expansion interval ms
+-- ARGV[7] candidates read, ARGV[8] requests swept per call
+--
+-- Queue membership is the claim: a pair is only taken while both are still queued, and both leave the band in
+-- the same call. Returns matched request ids, two per pair.
+--
+-- Each band has its own hash tag, so bands spread over Redis Cluster slots and one call never spans two.
+-- Pairs across a band edge are claimed side by side by the engine instead (QueueClaims).
+
+local queue_key = KEYS[1]
+local queue_ts_key = KEYS[2]
+
+local request_id = ARGV[1]
+local now_ms = tonumber(ARGV[2])
+local initial_range = tonumber(ARGV[3])
+local range_increment = tonumber(ARGV[4])
+local max_range = tonumber(ARGV[5])
+local expansion_interval_ms = tonumber(ARGV[6])
+local max_candidates = tonumber(ARGV[7])
+local sweep_limit = tonumber(ARGV[8])
+
+local function range_of(queued_at)
+    local r = initial_range + math.floor((now_ms - queued_at) / expansion_interval_ms) * range_increment
+    if r > max_range then
+        r = max_range
+    end
+    return r
+end
+
+local pending
+if request_id ~= '' then
+    pending = {request_id}
+else
+    -- oldest first: they have the widest ranges
+    pending = redis.call('ZRANGE', queue_ts_key, 0, sweep_limit - 1)
+end
+
+local claimed = {}
+for _, id in ipairs(pending) do
+    local score = redis.call('ZSCORE', queue_key, id)
+    if score then
+        local rating = tonumber(score)
+        local my_range = range_of(tonumber(redis.call('ZSCORE', queue_ts_key, id) or now_ms))
+        local candidates = redis.call('ZRANGEBYSCORE', queue_key, rating - my_range, rating + my_range,
+            'WITHSCORES', 'LIMIT', 0, max_candidates)
+        local best, best_gap
+        for i = 1, #candidates, 2 do
+            local opp_id = candidates[i]
+            local gap = math.abs(rating - tonumber(candidates[i + 1]))
+            if opp_id ~= id and (not best_gap or gap < best_gap) then
+                -- the gap must be within both players' current ranges
+                local opp_range = range_of(tonumber(redis.call('ZSCORE', queue_ts_key, opp_id) or now_ms))
+                if gap <= opp_range then
+                    best, best_gap = opp_id, gap
+                end
+            end
+        end
+        if best then
+            redis.call('ZREM', queue_key, id, best)
+            redis.call('ZREM', queue_ts_key, id, best)
+            claimed[#claimed + 1] = id
+            claimed[#claimed + 1] = best
+        end
+    end
+end
+
+return claimed
@@ -0,0 +1,28 @@
+-- Counts the requests of one queue, in total and per rating bin, for the queue depth gauges.
+--
+-- KEYS[1] queue key  mm:queue:<queue> (ZSET requestId -> rating)
+--
+-- ARGV[1] bin width
+--
+-- Costs O(bins * log n): ZCOUNT per bin between the lowest and highest rating, never a scan of the queue.
+-- Returns {depth, bin, count, bin, count, ...} with bin = floor(rating / width), non-empty bins only.
+
+local queue_key = KEYS[1]
+local width = tonumber(ARGV[1])
+
+local depth = redis.call('ZCARD', queue_key)
+if depth == 0 then
+    return {'0'}
+end
+
+local lowest = redis.call('ZRANGE', queue_key, 0, 0, 'WITHSCORES')
+local highest = redis.call('ZRANGE', queue_key, -1, -1, 'WITHSCORES')
+local out = {tostring(depth)}
+for bin = math.floor(tonumber(lowest[2]) / width), math.floor(tonumber(highest[2]) / width) do
+    local count = redis.call('ZCOUNT', queue_key, bin * width, '(' .. ((bin + 1) * width))
+    if count > 0 then
+        out[#out + 1] = tostring(bin)
+        out[#out + 1] = tostring(count)
+    end
+end
+return out
@@ -1,3 +1,16 @@
+-- Queues a request and matches it against its queue, reading nothing but the queue itself: every key it
+-- touches is declared and shares the pool's hash tag, so it runs on Redis Cluster.
+--
+-- KEYS[1] queue key     mm:queue:<queue>
+-- KEYS[2] queue ts key  mm:queue_ts:<queue>
+--
+-- ARGV[1] request id, ARGV[2] rating, ARGV[3] now ms
+-- ARGV[4..7] initial range, range increment, max range, expansion interval ms, ARGV[8] max candidates
+--
+-- Queue membership stands for QUEUED (requests leave the queue when matched, cancelled or expired); a
+-- request's rating is its score in the queue and its join time its score in the ts queue. The gap must be
+-- within both players' current ranges. Returns {requestId, opponentId} when a pair was claimed, nil otherwise.
+
 local queue_key = KEYS[1]
 local queue_ts_key = KEYS[2]
 
@@ -8,61 +21,34 @@ local initial_range = tonumber(ARGV[4])
 local range_increment = tonumber(ARGV[5])
 local max_range = tonumber(ARGV[6])
 local expansion_interval_ms = tonumber(ARGV[7])
-local req_key_prefix = ARGV[8] -- e.g. "mm:req:"
-local max_candidates = tonumber(ARGV[9]) or 50
-
-local function req_key(id)
-    return req_key_prefix .. id
-end
+local max_candidates = tonumber(ARGV[8]) or 50
 
-local my_key = req_key(request_id)
-local my_status = redis.call('HGET', my_key, 'status')
-if (not my_status) or my_status ~= 'QUEUED' then
-    return nil
+local function range_of(queued_at)
+    local r = initial_range + math.floor((now_ms - queued_at) / expansion_interval_ms) * range_increment
+    if r > max_range then
+        r = max_range
+    end
+    return r
 end
 
-local my_queued_at = tonumber(redis.call('HGET', my_key, 'queuedAtMs') or now_ms)
-
--- ensure membership exists
+-- NX keeps the original join time of a request that is already queued
 redis.call('ZADD', queue_key, 'NX', rating, request_id)
-redis.call('ZADD', queue_ts_key, 'NX', my_queued_at, request_id)
-
-local my_expansions = math.floor((now_ms - my_queued_at) / expansion_interval_ms)
-local my_range = initial_range + (my_expansions * range_increment)
-if my_range > max_range then
-    my_range = max_range
-end
-
-local candidates = redis.call('ZRANGEBYSCORE', queue_key, rating - my_range, rating + my_range, 'LIMIT', 0, max_candidates)
-for i = 1, #candidates do
-    local opp_request_id = candidates[i]
-    if opp_request_id ~= request_id then
-        local opp_key = req_key(opp_request_id)
-        local opp_status = redis.call('HGET', opp_key, 'status')
-        if opp_status == 'QUEUED' then
-            local opp_rating = tonumber(redis.call('HGET', opp_key, 'rating') or '0')
-            local opp_queued_at = tonumber(redis.call('HGET', opp_key, 'queuedAtMs') or now_ms)
-
-            local opp_expansions = math.floor((now_ms - opp_queued_at) / expansion_interval_ms)
-            local opp_range = initial_range + (opp_expansions * range_increment)
-            if opp_range > max_range then
-                opp_range = max_range
-            end
-
-            local diff = math.abs(rating - opp_rating)
-            local allowed = my_range
-            if opp_range < allowed then
-                allowed = opp_range
-            end
-
-            if diff <= allowed then
-                redis.call('ZREM', queue_key, request_id, opp_request_id)
-                redis.call('ZREM', queue_ts_key, request_id, opp_request_id)
-                return {request_id, opp_request_id}
-            end
+redis.call('ZADD', queue_ts_key, 'NX', now_ms, request_id)
+local my_range = range_of(tonumber(redis.call('ZSCORE', queue_ts_key, request_id) or now_ms))
+
+local candidates = redis.call('ZRANGEBYSCORE', queue_key, rating - my_range, rating + my_range,
+    'WITHSCORES', 'LIMIT', 0, max_candidates)
+for i = 1, #candidates, 2 do
+    local opp_id = candidates[i]
+    if opp_id ~= request_id then
+        local gap = math.abs(rating - tonumber(candidates[i + 1]))
+        local opp_range = range_of(tonumber(redis.call('ZSCORE', queue_ts_key, opp_id) or now_ms))
+        if gap <= opp_range then
+            redis.call('ZREM', queue_key, request_id, opp_id)
+            redis.call('ZREM', queue_ts_key, request_id, opp_id)
+            return {request_id, opp_id}
         end
     end
 end
 
 return nil
-
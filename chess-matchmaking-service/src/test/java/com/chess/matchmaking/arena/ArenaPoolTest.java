@@ -0,0 +1,160 @@
+package com.chess.matchmaking.arena;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArenaPoolTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private ArenaPool pool() {
+        return new ArenaPool(3, 15_000, 32);
+    }
+
+    @Test
+    void pair_takesNearestWaitingNeighbourInStandings() {
+        ArenaPool pool = pool();
+        pool.join("a", 1500, NOW);
+        pool.join("b", 1510, NOW);
+        pool.join("c", 2100, NOW);
+
+        List<ArenaPool.Pairing> pairings = pool.pair(List.of(pool.player("a")), NOW);
+
+        assertThat(pairings).hasSize(1);
+        assertThat(List.of(pairings.get(0).white().userId(), pairings.get(0).black().userId()))
+                .containsExactlyInAnyOrder("a", "b");
+        assertThat(pool.waitingCount()).isEqualTo(1);
+        assertThat(pool.player("c").state()).isEqualTo(ArenaPool.State.WAITING);
+    }
+
+    @Test
+    void finish_scoresStreaksAndRepairsAvoidingRecentOpponent() {
+        ArenaPool pool = pool();
+        pool.join("a", 1500, NOW);
+        pool.join("b", 1500, NOW);
+        ArenaPool.Pairing first = pool.pairWaiting(NOW).get(0);
+        pool.started(first, "g1", NOW);
+        pool.join("c", 1400, NOW);
+
+        ArenaPool.Player[] players = pool.finish("g1", ArenaScoring.WIN, NOW + 1_000);
+
+        assertThat(players).containsExactly(first.white(), first.black());
+        assertThat(first.white().points()).isEqualTo(2);
+        assertThat(first.white().streak()).isEqualTo(1);
+        assertThat(first.black().points()).isZero();
+        assertThat(pool.finish("g1", ArenaScoring.WIN, NOW + 1_000)).isNull();
+
+        // the two just played each other, so each is offered c first; only one of them gets c
+        List<ArenaPool.Pairing> again = pool.pair(List.of(players), NOW + 1_000);
+        assertThat(again).hasSize(1);
+        assertThat(List.of(again.get(0).white().userId(), again.get(0).black().userId())).contains("c");
+        assertThat(pool.waitingCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pair_allowsRematchOfOlderOpponentOnlyAfterRelaxWait() {
+        ArenaPool pool = new ArenaPool(1, 15_000, 32);
+        pool.join("a", 1500, NOW);
+        pool.join("b", 1500, NOW);
+        pool.started(pool.pairWaiting(NOW).get(0), "g1", NOW);
+        pool.finish("g1", ArenaScoring.DRAW, NOW);
+
+        assertThat(pool.pairWaiting(NOW + 1_000)).isEmpty();
+        // after waiting long enough only the very last opponent is avoided, and with one remembered that is b
+        assertThat(pool.pairWaiting(NOW + 20_000)).isEmpty();
+
+        pool.join("c", 1500, NOW + 20_000);
+        assertThat(pool.pairWaiting(NOW + 20_000)).hasSize(1);
+    }
+
+    @Test
+    void pair_balancesColours() {
+        ArenaPool pool = pool();
+        pool.join("a", 1500, NOW);
+        pool.join("b", 1500, NOW);
+        pool.join("c", 1500, NOW);
+        ArenaPool.Pairing first = pool.pairWaiting(NOW).get(0);
+        pool.started(first, "g1", NOW);
+        String hadWhite = first.white().userId();
+        pool.finish("g1", ArenaScoring.DRAW, NOW);
+
+        ArenaPool.Pairing second = pool.pair(List.of(pool.player(hadWhite)), NOW).get(0);
+
+        assertThat(second.black().userId()).isEqualTo(hadWhite);
+    }
+
+    @Test
+    void pauseAndAbandon_releasePlayers() {
+        ArenaPool pool = pool();
+        pool.join("a", 1500, NOW);
+        pool.join("b", 1500, NOW);
+        pool.join("c", 1500, NOW);
+        pool.pause("c");
+        pool.started(pool.pairWaiting(NOW).get(0), "g1", NOW);
+
+        assertThat(pool.player("c").state()).isEqualTo(ArenaPool.State.PAUSED);
+        assertThat(pool.abandonStartedBefore(NOW, NOW)).isEmpty();
+        assertThat(pool.abandonStartedBefore(NOW + 1, NOW + 1)).hasSize(2);
+        assertThat(pool.gamesInProgress()).isZero();
+        assertThat(pool.waitingCount()).isEqualTo(2);
+        assertThat(pool.player("a").games()).isZero();
+    }
+
+    @Test
+    void pause_duringGame_takesEffectWhenTheGameEnds() {
+        ArenaPool pool = pool();
+        pool.join("a", 1500, NOW);
+        pool.join("b", 1500, NOW);
+        pool.join("c", 1500, NOW);
+        pool.join("d", 1500, NOW);
+        List<ArenaPool.Pairing> pairings = pool.pairWaiting(NOW);
+        pool.started(pairings.get(0), "g1", NOW);
+        pool.started(pairings.get(1), "g2", NOW);
+        String pausing = pairings.get(0).white().userId();
+        String resuming = pairings.get(1).white().userId();
+
+        pool.pause(pausing);
+        pool.pause(resuming);
+        pool.join(resuming, 1500, NOW);
+
+        assertThat(pool.player(pausing).state()).isEqualTo(ArenaPool.State.PLAYING);
+        pool.finish("g1", ArenaScoring.WIN, NOW + 1);
+        pool.abandonStartedBefore(NOW + 1, NOW + 1);
+
+        assertThat(pool.player(pausing).state()).isEqualTo(ArenaPool.State.PAUSED);
+        assertThat(pool.player(pausing).pauseRequested()).isFalse();
+        assertThat(pool.player(pausing).points()).isEqualTo(2);
+        assertThat(pool.player(resuming).state()).isEqualTo(ArenaPool.State.WAITING);
+        assertThat(pool.waitingCount()).isEqualTo(3);
+    }
+
+    @Test
+    void restoreGames_rebuildsRunningGamesFromScoreSheets() {
+        ArenaPool pool = pool();
+        pool.restore(new ArenaPool.Player("w", 1500)
+                .restore(2, 1, 1, 1, 1, List.of("b"), ArenaPool.State.PLAYING, "g1", NOW, true, false));
+        pool.restore(new ArenaPool.Player("b", 1500)
+                .restore(0, 1, 0, 0, -1, List.of("w"), ArenaPool.State.PLAYING, "g1", NOW, false, false));
+        pool.restore(new ArenaPool.Player("x", 1500)
+                .restore(0, 0, 0, 0, 0, List.of(), ArenaPool.State.PLAYING, "lost", NOW, true, false));
+        pool.restoreGames(NOW);
+
+        assertThat(pool.hasGame("g1")).isTrue();
+        assertThat(pool.player("x").state()).isEqualTo(ArenaPool.State.WAITING);
+        ArenaPool.Player[] players = pool.finish("g1", ArenaScoring.LOSS, NOW);
+        assertThat(players[0].userId()).isEqualTo("w");
+        assertThat(pool.player("b").points()).isEqualTo(2);
+    }
+
+    @Test
+    void scoring_doublesOnStreak() {
+        assertThat(ArenaScoring.points(ArenaScoring.WIN, 0)).isEqualTo(2);
+        assertThat(ArenaScoring.points(ArenaScoring.WIN, 2)).isEqualTo(4);
+        assertThat(ArenaScoring.points(ArenaScoring.DRAW, 2)).isEqualTo(2);
+        assertThat(ArenaScoring.streak(ArenaScoring.DRAW, 5)).isZero();
+        assertThat(ArenaScoring.standingScore(3, 1800)).isGreaterThan(ArenaScoring.standingScore(2, 3000));
+    }
+}
@@ -0,0 +1,54 @@
+package com.chess.matchmaking.challenge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void advance_returnsItemsOnceTheirDeadlinePassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(8, 100, START);
+        wheel.schedule("a", START + 250);
+        wheel.schedule("b", START + 400);
+
+        assertThat(wheel.advance(START + 200)).isEmpty();
+        assertThat(wheel.advance(START + 300)).containsExactly("a");
+        assertThat(wheel.advance(START + 300)).isEmpty();
+        assertThat(wheel.advance(START + 400)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_keepsDeadlinesOfLaterRotationsInTheirSlot() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 100, START);
+        wheel.schedule("near", START + 100);
+        wheel.schedule("far", START + 500); // same slot, one rotation later
+
+        assertThat(wheel.advance(START + 100)).containsExactly("near");
+        assertThat(wheel.advance(START + 400)).isEmpty();
+        assertThat(wheel.advance(START + 500)).containsExactly("far");
+    }
+
+    @Test
+    void advance_afterLongPauseReturnsEverythingDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 100, START);
+        wheel.schedule("a", START + 100);
+        wheel.schedule("b", START + 900);
+        wheel.schedule("c", START + 5_000);
+
+        assertThat(wheel.advance(START + 2_000)).containsExactlyInAnyOrder("a", "b");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void schedule_pastDeadlineComesOutOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(4, 100, START);
+        wheel.advance(START + 1_000);
+        wheel.schedule("late", START);
+
+        assertThat(wheel.advance(START + 1_100)).containsExactly("late");
+    }
+}
@@ -0,0 +1,112 @@
+package com.chess.matchmaking.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RatingCacheTest {
+
+    private UserRatingsClient client;
+    private RatingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(UserRatingsClient.class);
+        cache = new RatingCache(client, new SimpleMeterRegistry(), 1000, 600, 200);
+    }
+
+    @Test
+    void get_loadsOnce_andAppliesRatingUpdates() {
+        UUID userId = UUID.randomUUID();
+        when(client.fetchAllRatings(userId)).thenReturn(ratings(1500));
+
+        assertThat(cache.get(userId, "BLITZ").rating()).isEqualTo(1500.0);
+        cache.onRatingUpdated(userId, "blitz", 1512.5, 80.0);
+
+        UserRatingsClient.RatingInfo updated = cache.get(userId, "BLITZ");
+        assertThat(updated.rating()).isEqualTo(1512.5);
+        assertThat(updated.ratingDeviation()).isEqualTo(80.0);
+        assertThat(cache.get(userId, "BULLET").rating()).isEqualTo(1500.0);
+        verify(client, times(1)).fetchAllRatings(userId);
+    }
+
+    @Test
+    void onRatingUpdated_ignoresUsersNotCached() {
+        cache.onRatingUpdated(UUID.randomUUID(), "BLITZ", 1600.0, 60.0);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentMisses_areCoalescedIntoBulkCalls() throws Exception {
+        UUID first = UUID.randomUUID();
+        CountDownLatch firstCallStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(client.fetchAllRatings(first)).thenAnswer(inv -> {
+            firstCallStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ratings(1400);
+        });
+        when(client.fetchRatings(any())).thenAnswer(inv -> {
+            Map<UUID, Map<String, UserRatingsClient.RatingInfo>> out = new HashMap<>();
+            for (UUID id : (Collection<UUID>) inv.getArgument(0)) {
+                out.put(id, ratings(1500));
+            }
+            return out;
+        });
+
+        ExecutorService joins = Executors.newVirtualThreadPerTaskExecutor();
+        Future<UserRatingsClient.RatingInfo> firstJoin = joins.submit(() -> cache.get(first, "BLITZ"));
+        assertThat(firstCallStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // while the first call is in flight: 50 users join, one of them twice
+        List<UUID> others = Stream.generate(UUID::randomUUID).limit(50).toList();
+        List<Future<UserRatingsClient.RatingInfo>> rest = new ArrayList<>();
+        for (UUID id : others) {
+            rest.add(joins.submit(() -> cache.get(id, "BLITZ")));
+        }
+        rest.add(joins.submit(() -> cache.get(others.get(0), "RAPID")));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> cache.size() == 51);
+        release.countDown();
+
+        assertThat(firstJoin.get(5, TimeUnit.SECONDS).rating()).isEqualTo(1400.0);
+        for (Future<UserRatingsClient.RatingInfo> f : rest) {
+            assertThat(f.get(5, TimeUnit.SECONDS).rating()).isEqualTo(1500.0);
+        }
+        ArgumentCaptor<Collection<UUID>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(client, atMost(2)).fetchRatings(batches.capture());
+        assertThat(batches.getAllValues().stream().mapToInt(Collection::size).sum()).isEqualTo(50);
+        joins.shutdown();
+    }
+
+    private static Map<String, UserRatingsClient.RatingInfo> ratings(double rating) {
+        Map<String, UserRatingsClient.RatingInfo> out = new HashMap<>();
+        for (String type : List.of("BULLET", "BLITZ", "RAPID", "CLASSICAL")) {
+            out.put(type, new UserRatingsClient.RatingInfo(type, rating, 120.0));
+        }
+        return out;
+    }
+}
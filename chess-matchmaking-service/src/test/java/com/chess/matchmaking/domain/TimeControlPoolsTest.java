@@ -0,0 +1,63 @@
+package com.chess.matchmaking.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeControlPoolsTest {
+
+    private final TimeControlPools pools = new TimeControlPools(new TimeControlClassifier());
+
+    @Test
+    void of_internsPoolsByBaseAndIncrement() {
+        TimeControlPool blitz = pools.of(180, 2);
+
+        assertThat(pools.of(180, 2)).isSameAs(blitz);
+        assertThat(pools.of(180, 0)).isNotSameAs(blitz);
+        assertThat(blitz.key()).isEqualTo("180+2");
+        assertThat(pools.parse("180+2")).isSameAs(blitz);
+    }
+
+    @Test
+    void of_keepsEveryPoolAcrossTableGrowth() {
+        for (int base = 10; base < 1000; base += 10) {
+            for (int inc = 0; inc <= 5; inc++) {
+                assertThat(pools.of(base, inc).key()).isEqualTo(base + "+" + inc);
+            }
+        }
+        assertThat(pools.of(500, 3)).isSameAs(pools.parse("500+3"));
+    }
+
+    @Test
+    void of_stopsCopyingTheTableAtItsCapacity() {
+        TimeControlPool standard = pools.of(180, 2);
+        for (int base = 1; base <= 2 * TimeControlPools.TABLE_CAPACITY; base++) {
+            pools.of(base, 7);
+        }
+
+        assertThat(pools.tableSize()).isEqualTo(TimeControlPools.TABLE_CAPACITY);
+        assertThat(pools.of(180, 2)).isSameAs(standard);
+        TimeControlPool overflowed = pools.of(2 * TimeControlPools.TABLE_CAPACITY, 7);
+        assertThat(pools.of(2 * TimeControlPools.TABLE_CAPACITY, 7)).isSameAs(overflowed);
+        assertThat(pools.parse(overflowed.key())).isSameAs(overflowed);
+    }
+
+    @Test
+    void parse_rejectsMalformedKeys() {
+        assertThat(pools.parse("BLITZ")).isNull();
+        assertThat(pools.parse("180+")).isNull();
+        assertThat(pools.parse("+2")).isNull();
+        assertThat(pools.parse("a+b")).isNull();
+        assertThat(pools.parse(null)).isNull();
+    }
+
+    @Test
+    void category_weighsTheIncrement() {
+        assertThat(pools.of(120, 1).category()).isEqualTo(TimeControlType.BULLET);
+        assertThat(pools.of(120, 5).category()).isEqualTo(TimeControlType.BLITZ);
+        assertThat(pools.of(180, 2).category()).isEqualTo(TimeControlType.BLITZ);
+        assertThat(pools.of(300, 5).category()).isEqualTo(TimeControlType.BLITZ);
+        assertThat(pools.of(600, 10).category()).isEqualTo(TimeControlType.RAPID);
+        assertThat(pools.of(1800, 0).category()).isEqualTo(TimeControlType.CLASSICAL);
+    }
+}
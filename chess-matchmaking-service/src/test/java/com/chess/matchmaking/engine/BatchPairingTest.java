@@ -0,0 +1,53 @@
+package com.chess.matchmaking.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchPairingTest {
+
+    private static final long NOW = 1_000_000L;
+    private final BatchPairing pairing = new BatchPairing(new RangePolicy(100, 50, 500, 10_000), 3, 2.0, 80.0);
+
+    @Test
+    void pair_minimizesTotalRatingGap_whereFirstComeWouldNot() {
+        // joining in this order, per-join matching pairs 1040 with 1060 and then 1000 with 1100 (gap 120)
+        List<OrderBook.Entry> queue = List.of(
+                new OrderBook.Entry("b", 1040, 0, NOW),
+                new OrderBook.Entry("c", 1060, 0, NOW),
+                new OrderBook.Entry("a", 1000, 0, NOW),
+                new OrderBook.Entry("d", 1100, 0, NOW));
+
+        List<OrderBook.Entry[]> pairs = pairing.pair(queue, NOW);
+
+        assertThat(pairs).extracting(p -> p[0].requestId() + p[1].requestId()).containsExactly("ab", "cd");
+    }
+
+    @Test
+    void pair_prefersLongestWaitingWhenNotEveryoneCanBePaired() {
+        List<OrderBook.Entry> queue = List.of(
+                new OrderBook.Entry("a", 1000, 0, NOW),
+                new OrderBook.Entry("b", 1090, 0, NOW),
+                new OrderBook.Entry("c", 1180, 0, NOW - 60_000));
+
+        List<OrderBook.Entry[]> pairs = pairing.pair(queue, NOW);
+
+        assertThat(pairs).hasSize(1);
+        assertThat(pairs.get(0)).extracting(OrderBook.Entry::requestId).containsExactly("b", "c");
+    }
+
+    @Test
+    void pair_onlyPairsWithinBothRanges_andDiscountsUncertainRatings() {
+        List<OrderBook.Entry> queue = List.of(
+                new OrderBook.Entry("a", 1000, 0, NOW),
+                new OrderBook.Entry("b", 1300, 0, NOW));
+        assertThat(pairing.pair(queue, NOW)).isEmpty();
+
+        OrderBook.Entry established = new OrderBook.Entry("x", 1500, 50, NOW);
+        OrderBook.Entry provisional = new OrderBook.Entry("y", 1600, 320, NOW);
+        assertThat(pairing.pairCost(established, new OrderBook.Entry("z", 1600, 50, NOW))).isEqualTo(100.0);
+        assertThat(pairing.pairCost(new OrderBook.Entry("w", 1500, 320, NOW), provisional)).isEqualTo(25.0);
+    }
+}
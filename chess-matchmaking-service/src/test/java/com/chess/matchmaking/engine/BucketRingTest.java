@@ -0,0 +1,69 @@
+package com.chess.matchmaking.engine;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BucketRingTest {
+
+    @Test
+    void buckets_coverTheSearchRangeWithNeighbours() {
+        RatingBuckets buckets = new RatingBuckets(100);
+
+        assertThat(buckets.bucket(1550)).isEqualTo(15);
+        assertThat(buckets.bucket(-20)).isEqualTo(-1);
+        assertThat(buckets.first(1550, 100)).isEqualTo(14);
+        assertThat(buckets.last(1550, 100)).isEqualTo(16);
+        assertThat(buckets.reach(500)).isEqualTo(5);
+        assertThat(buckets.reach(150)).isEqualTo(2);
+        assertThat(RatingBuckets.queueName("180+2", 15)).isEqualTo("{180+2:15}");
+    }
+
+    @Test
+    void queueName_putsTheBandsOfAPoolInDifferentSlots() {
+        Set<Integer> slots = new HashSet<>();
+        for (int bucket = 10; bucket < 30; bucket++) {
+            slots.add(SlotHash.getSlot(QueueKeys.queue(RatingBuckets.queueName("180+2", bucket))));
+        }
+
+        assertThat(slots).hasSizeGreaterThan(15);
+    }
+
+    @Test
+    void owner_isTheSameOnEveryInstance() {
+        BucketRing a = new BucketRing(List.of("n1", "n2", "n3"), 64);
+        BucketRing b = new BucketRing(List.of("n3", "n1", "n2"), 64);
+
+        for (int bucket = 0; bucket < 40; bucket++) {
+            String key = RatingBuckets.queueName("BLITZ", bucket);
+            assertThat(a.owner(key)).isEqualTo(b.owner(key));
+        }
+    }
+
+    @Test
+    void removingANode_onlyMovesItsOwnBuckets() {
+        BucketRing before = new BucketRing(List.of("n1", "n2", "n3"), 64);
+        BucketRing after = new BucketRing(List.of("n1", "n2"), 64);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int bucket = 0; bucket < 400; bucket++) {
+            String key = RatingBuckets.queueName("RAPID", bucket);
+            String owner = before.owner(key);
+            owned.merge(owner, 1, Integer::sum);
+            if (!"n3".equals(owner)) {
+                assertThat(after.owner(key)).isEqualTo(owner);
+            } else {
+                assertThat(after.owner(key)).isIn("n1", "n2");
+            }
+        }
+        assertThat(owned).containsKeys("n1", "n2", "n3");
+        assertThat(new BucketRing(List.of(), 64).owner("RAPID:1")).isNull();
+    }
+}
@@ -0,0 +1,65 @@
+package com.chess.matchmaking.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderBookTest {
+
+    private static final long NOW = 1_000_000L;
+    private final RangePolicy policy = new RangePolicy(100, 50, 500, 10_000);
+
+    @Test
+    void findMatch_returnsNearestOpponentWithinRange() {
+        OrderBook book = new OrderBook();
+        book.add(new OrderBook.Entry("far", 1390, 0, NOW));
+        book.add(new OrderBook.Entry("near", 1540, 0, NOW));
+        book.add(new OrderBook.Entry("above", 1580, 0, NOW));
+        OrderBook.Entry joiner = new OrderBook.Entry("joiner", 1500, 0, NOW);
+        book.add(joiner);
+
+        assertThat(book.findMatch(joiner, policy, NOW).requestId()).isEqualTo("near");
+    }
+
+    @Test
+    void findMatch_requiresBothRangesToCoverTheGap() {
+        OrderBook book = new OrderBook();
+        // waited 30s: range 250, but the fresh joiner only accepts 100
+        book.add(new OrderBook.Entry("veteran", 1700, 0, NOW - 30_000));
+        OrderBook.Entry joiner = new OrderBook.Entry("joiner", 1500, 0, NOW);
+        book.add(joiner);
+
+        assertThat(book.findMatch(joiner, policy, NOW)).isNull();
+        assertThat(book.findMatch(joiner, policy, NOW + 20_000).requestId()).isEqualTo("veteran");
+    }
+
+    @Test
+    void sweep_pairsNeighboursOnceRangesHaveGrown() {
+        OrderBook book = new OrderBook();
+        book.add(new OrderBook.Entry("a", 1000, 0, NOW));
+        book.add(new OrderBook.Entry("b", 1180, 0, NOW));
+        book.add(new OrderBook.Entry("c", 1300, 0, NOW));
+        book.add(new OrderBook.Entry("d", 2000, 0, NOW));
+
+        assertThat(book.sweep(policy, NOW)).isEmpty();
+
+        List<OrderBook.Entry[]> pairs = book.sweep(policy, NOW + 20_000);
+        assertThat(pairs).hasSize(1);
+        assertThat(pairs.get(0)).extracting(OrderBook.Entry::requestId).containsExactly("a", "b");
+        assertThat(book.entries()).extracting(OrderBook.Entry::requestId).containsExactly("c", "d");
+    }
+
+    @Test
+    void add_isIdempotent_andRemoveDropsEntry() {
+        OrderBook book = new OrderBook();
+        assertThat(book.add(new OrderBook.Entry("a", 1500, 0, NOW))).isTrue();
+        assertThat(book.add(new OrderBook.Entry("a", 1600, 0, NOW))).isFalse();
+        assertThat(book.size()).isEqualTo(1);
+
+        assertThat(book.remove("a")).isNotNull();
+        assertThat(book.contains("a")).isFalse();
+        assertThat(book.entries()).isEmpty();
+    }
+}
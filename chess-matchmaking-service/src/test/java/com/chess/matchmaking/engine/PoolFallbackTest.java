@@ -0,0 +1,39 @@
+package com.chess.matchmaking.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PoolFallbackTest {
+
+    private static final long NOW = 1_000_000L;
+    private final RangePolicy policy = new RangePolicy(100, 50, 500, 10_000);
+
+    @Test
+    void pair_onlyAcrossPools_longerWaiterFirst() {
+        List<PoolFallback.Waiting[]> pairs = PoolFallback.pair(List.of(
+                waiting("180+0", "a", 1500, NOW - 30_000),
+                waiting("180+0", "b", 1510, NOW - 40_000),
+                waiting("180+2", "c", 1520, NOW - 50_000)), policy, NOW);
+
+        assertThat(pairs).hasSize(1);
+        assertThat(pairs.get(0)[0].entry().requestId()).isEqualTo("c");
+        assertThat(pairs.get(0)[1].entry().requestId()).isEqualTo("a");
+    }
+
+    @Test
+    void pair_requiresBothRangesToCoverTheGap() {
+        List<PoolFallback.Waiting> waiting = List.of(
+                waiting("180+0", "a", 1500, NOW - 30_000),
+                waiting("180+2", "b", 1800, NOW - 30_000));
+
+        assertThat(PoolFallback.pair(waiting, policy, NOW)).isEmpty();
+        assertThat(PoolFallback.pair(waiting, policy, NOW + 20_000)).hasSize(1);
+    }
+
+    private static PoolFallback.Waiting waiting(String pool, String id, double rating, long queuedAtMs) {
+        return new PoolFallback.Waiting(pool, pool, new OrderBook.Entry(id, rating, 0, queuedAtMs));
+    }
+}
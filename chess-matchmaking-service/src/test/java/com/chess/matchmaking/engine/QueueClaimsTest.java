@@ -0,0 +1,96 @@
+package com.chess.matchmaking.engine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueueClaimsTest {
+
+    private static final String BAND_15 = "{180+2:15}";
+    private static final String BAND_16 = "{180+2:16}";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> claimRequestsScript;
+    @Mock
+    private HashOperations<String, Object, Object> hashOps;
+    @Mock
+    private ZSetOperations<String, String> zSetOps;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOps);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+    }
+
+    @Test
+    void claim_takesEachSideInItsOwnQueue() {
+        claimable(BAND_15, "a");
+        claimable(BAND_16, "b");
+
+        List<PoolFallback.Waiting[]> claimed = QueueClaims.claim(redisTemplate, claimRequestsScript, pairs("a", "b"));
+
+        assertThat(claimed).hasSize(1);
+        assertThat(claimed.get(0)[1].entry().requestId()).isEqualTo("b");
+        verify(zSetOps, never()).addIfAbsent(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void claim_putsTheFirstSideBackWhenItsPartnerIsGone() {
+        claimable(BAND_15, "a");
+        claimable(BAND_16);
+        when(hashOps.get(QueueKeys.request("a"), "status")).thenReturn("QUEUED");
+
+        assertThat(QueueClaims.claim(redisTemplate, claimRequestsScript, pairs("a", "b"))).isEmpty();
+
+        verify(zSetOps).addIfAbsent(QueueKeys.queue(BAND_15), "a", 1590.0);
+        verify(zSetOps).addIfAbsent(QueueKeys.queueTs(BAND_15), "a", 1_000.0);
+    }
+
+    @Test
+    void claim_leavesAFirstSideCancelledMeanwhileOutOfTheQueue() {
+        claimable(BAND_15, "a");
+        claimable(BAND_16);
+        when(hashOps.get(QueueKeys.request("a"), "status")).thenReturn("CANCELLED");
+
+        assertThat(QueueClaims.claim(redisTemplate, claimRequestsScript, pairs("a", "b"))).isEmpty();
+
+        verify(zSetOps, never()).addIfAbsent(anyString(), anyString(), anyDouble());
+    }
+
+    private void claimable(String queue, String... ids) {
+        when(redisTemplate.execute(eq(claimRequestsScript), eq(List.of(QueueKeys.queue(queue), QueueKeys.queueTs(queue))),
+                any(Object[].class))).thenReturn(List.of(ids));
+    }
+
+    private static List<PoolFallback.Waiting[]> pairs(String first, String second) {
+        List<PoolFallback.Waiting[]> pairs = new ArrayList<>();
+        pairs.add(new PoolFallback.Waiting[]{
+                new PoolFallback.Waiting(BAND_15, BAND_15, new OrderBook.Entry(first, 1590, 0, 1_000)),
+                new PoolFallback.Waiting(BAND_16, BAND_16, new OrderBook.Entry(second, 1610, 0, 2_000))});
+        return pairs;
+    }
+}
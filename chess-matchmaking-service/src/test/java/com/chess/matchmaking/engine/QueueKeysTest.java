@@ -0,0 +1,37 @@
+package com.chess.matchmaking.engine;
+
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueueKeysTest {
+
+    @Test
+    void newRequestId_isAUuidWhoseHashSharesTheQueueSlot() {
+        for (String queue : new String[]{"{180+2}", "{600+0}", "{BLITZ}", "{180+2:15}"}) {
+            String id = QueueKeys.newRequestId(queue);
+
+            assertThat(UUID.fromString(id).toString()).isEqualTo(id);
+            assertThat(SlotHash.getSlot(QueueKeys.request(id))).isEqualTo(SlotHash.getSlot(QueueKeys.queue(queue)));
+        }
+    }
+
+    @Test
+    void newRequestId_keepsTheRestOfTheIdRandom() {
+        String first = QueueKeys.newRequestId("{180+2}");
+        String second = QueueKeys.newRequestId("{180+2}");
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(first.substring(first.length() - 5)).isEqualTo(second.substring(second.length() - 5));
+    }
+
+    @Test
+    void request_isTaggedWithTheLastFiveCharactersOfTheId() {
+        String id = "0f8e2c1a-7b3d-4e5f-9a0b-1c2d3e4f5a6b";
+        assertThat(QueueKeys.request(id)).isEqualTo("mm:req:{f5a6b}:" + id);
+        assertThat(QueueKeys.request("a")).isEqualTo("mm:req:{a}:a");
+    }
+}
@@ -0,0 +1,155 @@
+package com.chess.matchmaking.repo;
+
+import com.chess.matchmaking.engine.QueueKeys;
+import io.lettuce.core.cluster.SlotHash;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RedisMatchmakingRequestStoreTest {
+
+    private static final String QUEUE = "mm:queue:{180+2}";
+    private static final String QUEUE_TS = "mm:queue_ts:{180+2}";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> joinScript;
+    @Mock
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> expireScript;
+    @Mock
+    private HashOperations<String, Object, Object> hashOps;
+    @Mock
+    private ZSetOperations<String, String> zSetOps;
+    @Mock
+    private ValueOperations<String, String> valueOps;
+
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicReference<String> requestId = new AtomicReference<>();
+    private RedisMatchmakingRequestStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        store = new RedisMatchmakingRequestStore(redisTemplate, joinScript, expireScript);
+        lenient().when(redisTemplate.opsForHash()).thenReturn((HashOperations) hashOps);
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOps);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        lenient().when(redisTemplate.execute(eq(joinScript), anyList(), any(Object[].class))).thenAnswer(inv -> {
+            requestId.set(inv.getArgument(2));
+            return List.of(1L, List.of("requestId", requestId.get(), "status", "QUEUED"), List.of());
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void join_runsOneScriptOverKeysInTheQueueSlot() {
+        store.join(command("idem-1"));
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(eq(joinScript), keys.capture(), any(Object[].class));
+        assertThat(keys.getValue()).containsExactly(
+                "mm:user:{180+2}:" + userId,
+                QueueKeys.request(requestId.get()),
+                QUEUE,
+                QUEUE_TS,
+                "mm:idemp:join:{180+2}:" + userId + ":idem-1");
+        assertThat(keys.getValue()).extracting(SlotHash::getSlot).containsOnly(SlotHash.getSlot(QUEUE));
+        verify(redisTemplate, never()).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    void join_returnsTheRequestAndTheOpponentMatchedByTheScript() {
+        when(redisTemplate.execute(eq(joinScript), anyList(), any(Object[].class))).thenAnswer(inv -> {
+            requestId.set(inv.getArgument(2));
+            return List.of(1L,
+                    List.of("requestId", requestId.get(), "status", "MATCHED", "gameId", "game-1"),
+                    List.of("requestId", "opp", "status", "MATCHED", "gameId", "game-1"));
+        });
+
+        MatchmakingRequestStore.JoinResult result = store.join(command(null));
+
+        assertThat(result.created()).isTrue();
+        assertThat(result.request().requestId()).isEqualTo(requestId.get());
+        assertThat(result.opponent().requestId()).isEqualTo("opp");
+        assertThat(result.opponent().gameId()).isEqualTo("game-1");
+    }
+
+    @Test
+    void join_retryReturnsTheActiveRequestWithoutAnOpponent() {
+        when(redisTemplate.execute(eq(joinScript), anyList(), any(Object[].class)))
+                .thenReturn(List.of(0L, List.of("requestId", "active", "status", "QUEUED"), List.of()));
+
+        MatchmakingRequestStore.JoinResult result = store.join(command("idem-1"));
+
+        assertThat(result.created()).isFalse();
+        assertThat(result.request().requestId()).isEqualTo("active");
+        assertThat(result.opponent()).isNull();
+    }
+
+    @Test
+    void cancelRequest_releasesTheUserInTheQueueTheRequestJoined() {
+        String id = QueueKeys.newRequestId("{180+2}");
+        when(hashOps.get(QueueKeys.request(id), "queue")).thenReturn("{180+2}");
+        when(valueOps.get("mm:user:{180+2}:" + userId)).thenReturn(id);
+
+        store.cancelRequest(userId, id, null, null);
+
+        verify(hashOps).put(QueueKeys.request(id), "status", "CANCELLED");
+        verify(redisTemplate).delete("mm:user:{180+2}:" + userId);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expireQueued_markingFails_putsTheTakenRequestsBack() {
+        when(redisTemplate.execute(eq(expireScript), anyList(), any(Object[].class))).thenReturn(List.of("r1", "1500.0"));
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        when(operations.opsForZSet()).thenReturn(zSetOps);
+        when(redisTemplate.executePipelined(any(SessionCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenAnswer(inv -> {
+                    inv.getArgument(0, SessionCallback.class).execute(operations);
+                    return List.of();
+                });
+
+        assertThatThrownBy(() -> store.expireQueued("{180+2}", 1_000L, 10))
+                .isInstanceOf(RedisConnectionFailureException.class);
+
+        verify(zSetOps).addIfAbsent(QUEUE, "r1", 1500.0);
+        verify(zSetOps).addIfAbsent(QUEUE_TS, "r1", 1_000.0);
+    }
+
+    private MatchmakingRequestStore.JoinCommand command(String idempotencyKey) {
+        return new MatchmakingRequestStore.JoinCommand(userId, 180, 2, true, idempotencyKey, null, "BLITZ", "180+2",
+                1500.0, 80.0, "{180+2}", new MatchmakingRequestStore.MatchParams(100, 50, 500, 10_000, "game-1"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.chess.matchmaking.repo;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindMatchmakingAuditRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindMatchmakingAuditRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        repo = new WriteBehindMatchmakingAuditRepository(jdbcTemplate, meterRegistry, 4, 50, 500);
+    }
+
+    @Test
+    void flush_mergesQueuedAndMatchedIntoOneUpsertRow() {
+        UUID requestId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+        UUID gameId = UUID.randomUUID();
+        Instant now = Instant.now();
+
+        repo.flush(List.of(
+                new WriteBehindMatchmakingAuditRepository.Change(requestId, "QUEUED", now, null, null,
+                        new WriteBehindMatchmakingAuditRepository.Queued(userId, "BLITZ", 180, 2, true,
+                                1500.0, 120.0, "rid", "idem")),
+                new WriteBehindMatchmakingAuditRepository.Change(requestId, "MATCHED", now, gameId, null, null)));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), args.capture());
+        assertThat(sql.getValue()).startsWith("INSERT INTO matchmaking_request_audit").contains("ON CONFLICT (request_id)");
+        assertThat(args.getValue()).hasSize(15);
+        assertThat(args.getValue()[0]).isEqualTo(requestId);
+        assertThat(args.getValue()[8]).isEqualTo("MATCHED");
+        assertThat(args.getValue()[9]).isEqualTo(gameId);
+    }
+
+    @Test
+    void flush_writesStatusChangesOfEarlierRequestsInOneUpdate() {
+        Instant now = Instant.now();
+
+        repo.flush(List.of(
+                new WriteBehindMatchmakingAuditRepository.Change(UUID.randomUUID(), "EXPIRED", now, null, "timeout", null),
+                new WriteBehindMatchmakingAuditRepository.Change(UUID.randomUUID(), "CANCELLED", now, null, "cancelled", null),
+                new WriteBehindMatchmakingAuditRepository.Change(UUID.randomUUID(), "EXPIRED", now, null, "timeout", null)));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(sql.capture(), args.capture());
+        assertThat(sql.getValue()).startsWith("UPDATE matchmaking_request_audit");
+        assertThat(args.getValue()).hasSize(15);
+    }
+
+    @Test
+    void changesBeyondTheBuffer_areDroppedAndCounted() {
+        for (int i = 0; i < 6; i++) {
+            repo.markExpired(UUID.randomUUID());
+        }
+
+        assertThat(meterRegistry.get("matchmaking.audit.dropped").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("matchmaking.audit.buffered").gauge().value()).isEqualTo(4.0);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
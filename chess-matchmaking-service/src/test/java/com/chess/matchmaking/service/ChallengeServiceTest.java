@@ -0,0 +1,171 @@
+package com.chess.matchmaking.service;
+
+import com.chess.common.exception.ConflictException;
+import com.chess.common.exception.ForbiddenException;
+import com.chess.common.exception.ValidationException;
+import com.chess.matchmaking.client.GameServiceClient;
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlClassifier;
+import com.chess.matchmaking.domain.TimeControlType;
+import com.chess.matchmaking.dto.ChallengeResponse;
+import com.chess.matchmaking.dto.CreateChallengeRequest;
+import com.chess.matchmaking.dto.MatchFoundDto;
+import com.chess.matchmaking.messaging.MatchmakingEventPublisher;
+import com.chess.matchmaking.repo.ChallengeStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChallengeServiceTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+
+    @Mock
+    private ChallengeStore challengeStore;
+    @Mock
+    private GameServiceClient gameServiceClient;
+    @Mock
+    private TimeControlClassifier timeControlClassifier;
+    @Mock
+    private MatchmakingEventPublisher eventPublisher;
+
+    private ChallengeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ChallengeService(challengeStore, gameServiceClient, timeControlClassifier, eventPublisher,
+                new MatchmakingProperties());
+    }
+
+    @Test
+    void create_fixesColoursAndGameIdUpFront() {
+        when(timeControlClassifier.classify(60, 0)).thenReturn(TimeControlType.BULLET);
+        CreateChallengeRequest request = request(BOB, "BLACK");
+
+        ChallengeResponse response = service.create(ALICE, request);
+
+        ArgumentCaptor<ChallengeStore.Challenge> captor = ArgumentCaptor.forClass(ChallengeStore.Challenge.class);
+        verify(challengeStore).create(captor.capture());
+        ChallengeStore.Challenge stored = captor.getValue();
+        assertThat(stored.whiteId()).isEqualTo(BOB.toString());
+        assertThat(stored.blackId()).isEqualTo(ALICE.toString());
+        assertThat(stored.gameId()).isNotBlank();
+        assertThat(stored.status()).isEqualTo(ChallengeStore.PENDING);
+        assertThat(response.getGameId()).isNull();
+        assertThat(service.scheduledExpiries()).isEqualTo(1);
+    }
+
+    @Test
+    void create_rejectsSelfChallenge() {
+        assertThatThrownBy(() -> service.create(ALICE, request(ALICE, null)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void accept_createsGameInOneCallAndAnnouncesIt() {
+        ChallengeStore.Challenge pending = challenge(ChallengeStore.PENDING, null);
+        when(challengeStore.get("c1")).thenReturn(pending);
+        when(challengeStore.transition(pending, ChallengeStore.PENDING, ChallengeStore.ACCEPTED)).thenReturn(true);
+
+        ChallengeResponse response = service.accept(BOB, "c1");
+
+        assertThat(response.getStatus()).isEqualTo(ChallengeStore.ACCEPTED);
+        assertThat(response.getGameId()).isEqualTo("g1");
+        verify(gameServiceClient).createGame("g1", ALICE.toString(), BOB.toString(), "BULLET", 60, 0, true);
+        ArgumentCaptor<MatchFoundDto> captor = ArgumentCaptor.forClass(MatchFoundDto.class);
+        verify(eventPublisher).publishMatchFound(captor.capture());
+        assertThat(captor.getValue().getMatchId()).isEqualTo("g1");
+    }
+
+    @Test
+    void accept_rollsBackToPendingWhenGameCreationFails() {
+        ChallengeStore.Challenge pending = challenge(ChallengeStore.PENDING, null);
+        when(challengeStore.get("c1")).thenReturn(pending);
+        when(challengeStore.transition(pending, ChallengeStore.PENDING, ChallengeStore.ACCEPTED)).thenReturn(true);
+        when(gameServiceClient.createGame(anyString(), anyString(), anyString(), anyString(), anyInt(), anyInt(), anyBoolean()))
+                .thenThrow(new RuntimeException("down"));
+
+        assertThatThrownBy(() -> service.accept(BOB, "c1")).hasMessage("down");
+
+        verify(challengeStore).transition(pending, ChallengeStore.ACCEPTED, ChallengeStore.PENDING);
+        verify(eventPublisher, never()).publishMatchFound(any());
+    }
+
+    @Test
+    void accept_onlyByChallengedUser() {
+        when(challengeStore.get("c1")).thenReturn(challenge(ChallengeStore.PENDING, null));
+
+        assertThatThrownBy(() -> service.accept(ALICE, "c1")).isInstanceOf(ForbiddenException.class);
+    }
+
+    @Test
+    void rematch_acceptsOpponentsPendingOffer() {
+        when(gameServiceClient.getGame("old")).thenReturn(new GameServiceClient.GameSummary(
+                "old", BOB.toString(), ALICE.toString(), "BULLET", 60, 0, true, "FINISHED", "1-0"));
+        ChallengeStore.Challenge offer = challenge(ChallengeStore.PENDING, "old");
+        when(challengeStore.rematchOf("old")).thenReturn("c1");
+        when(challengeStore.get("c1")).thenReturn(offer);
+        when(challengeStore.transition(offer, ChallengeStore.PENDING, ChallengeStore.ACCEPTED)).thenReturn(true);
+
+        ChallengeResponse response = service.rematch(BOB, "old");
+
+        assertThat(response.getStatus()).isEqualTo(ChallengeStore.ACCEPTED);
+        verify(challengeStore, never()).create(any());
+    }
+
+    @Test
+    void rematch_swapsColours() {
+        when(gameServiceClient.getGame("old")).thenReturn(new GameServiceClient.GameSummary(
+                "old", ALICE.toString(), BOB.toString(), "BLITZ", 180, 2, false, "FINISHED", "0-1"));
+        when(timeControlClassifier.classify(180, 2)).thenReturn(TimeControlType.BLITZ);
+        when(challengeStore.claimRematch(eq("old"), anyString(), any())).thenReturn(true);
+
+        ChallengeResponse response = service.rematch(ALICE, "old");
+
+        assertThat(response.getWhiteId()).isEqualTo(BOB.toString());
+        assertThat(response.getBlackId()).isEqualTo(ALICE.toString());
+        assertThat(response.getRematchOf()).isEqualTo("old");
+    }
+
+    @Test
+    void rematch_refusedWhileGameRuns() {
+        when(gameServiceClient.getGame("old")).thenReturn(new GameServiceClient.GameSummary(
+                "old", ALICE.toString(), BOB.toString(), "BLITZ", 180, 2, false, "RUNNING", null));
+
+        assertThatThrownBy(() -> service.rematch(ALICE, "old")).isInstanceOf(ConflictException.class);
+    }
+
+    private static CreateChallengeRequest request(UUID challenged, String color) {
+        CreateChallengeRequest request = new CreateChallengeRequest();
+        request.setChallengedUserId(challenged);
+        request.setBaseSeconds(60);
+        request.setIncrementSeconds(0);
+        request.setRated(true);
+        request.setColor(color);
+        return request;
+    }
+
+    private static ChallengeStore.Challenge challenge(String status, String rematchOf) {
+        long now = System.currentTimeMillis();
+        return new ChallengeStore.Challenge("c1", ALICE.toString(), BOB.toString(), ALICE.toString(), BOB.toString(),
+                "BULLET", 60, 0, true, "g1", rematchOf, now, now + 60_000, status);
+    }
+}
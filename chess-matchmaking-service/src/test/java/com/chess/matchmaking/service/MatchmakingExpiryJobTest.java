@@ -1,25 +1,32 @@
 package com.chess.matchmaking.service;
 
 import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlClassifier;
+import com.chess.matchmaking.domain.TimeControlPools;
+import com.chess.matchmaking.engine.MatchmakingEngine;
 import com.chess.matchmaking.messaging.MatchmakingEventPublisher;
 import com.chess.matchmaking.repo.MatchmakingAuditRepository;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
 import com.chess.matchmaking.repo.MatchmakingRequestStore;
-import com.chess.matchmaking.repo.RedisMatchmakingEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,7 +34,7 @@ import static org.mockito.Mockito.when;
 class MatchmakingExpiryJobTest {
 
     @Mock
-    private RedisMatchmakingEngine matchmakingEngine;
+    private MatchmakingEngine matchmakingEngine;
     @Mock
     private MatchmakingRequestStore requestStore;
     @Mock
@@ -36,6 +43,10 @@ class MatchmakingExpiryJobTest {
     private ObjectProvider<MatchmakingAuditRepository> auditRepositoryProvider;
     @Mock
     private MatchmakingAuditRepository auditRepository;
+    @Mock
+    private MatchmakingPoolIndex poolIndex;
+
+    private final TimeControlPools pools = new TimeControlPools(new TimeControlClassifier());
 
     private MatchmakingProperties properties;
     private MatchmakingExpiryJob job;
@@ -44,53 +55,50 @@ class MatchmakingExpiryJobTest {
     void setUp() {
         properties = new MatchmakingProperties();
         properties.setQueueTimeoutSeconds(120);
-        job = new MatchmakingExpiryJob(matchmakingEngine, requestStore, properties, eventPublisher, auditRepositoryProvider);
+        job = new MatchmakingExpiryJob(matchmakingEngine, requestStore, properties, eventPublisher, auditRepositoryProvider,
+                poolIndex);
     }
 
     @Test
-    void expireQueued_marksExpired_andAudits_andRemovesFromQueues() {
+    void expireQueued_publishesAndAuditsTheExpiredBatch() {
         String requestId = UUID.randomUUID().toString();
         UUID userId = UUID.randomUUID();
 
-        when(matchmakingEngine.findExpired(eq("BULLET"), anyLong(), anyInt())).thenReturn(List.of(requestId));
-        when(matchmakingEngine.findExpired(eq("BLITZ"), anyLong(), anyInt())).thenReturn(Collections.emptyList());
-        when(matchmakingEngine.findExpired(eq("RAPID"), anyLong(), anyInt())).thenReturn(Collections.emptyList());
-        when(matchmakingEngine.findExpired(eq("CLASSICAL"), anyLong(), anyInt())).thenReturn(Collections.emptyList());
-
-        when(requestStore.getRequest(requestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
-                requestId, userId.toString(), "QUEUED", null, "BULLET",
-                "60", "1", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
-        ));
-
+        when(poolIndex.pools(anyLong())).thenReturn(List.of(pools.of(60, 1), pools.of(180, 2)));
+        for (String pool : List.of("60+1", "180+2")) {
+            when(matchmakingEngine.queueNames(pool)).thenReturn(List.of("{" + pool + "}"));
+        }
+        when(requestStore.expireQueued(anyString(), anyLong(), anyInt())).thenReturn(List.of());
+        when(requestStore.expireQueued(eq("{60+1}"), anyLong(), anyInt()))
+                .thenReturn(List.of(new MatchmakingRequestStore.ExpiredRequest(requestId, userId.toString(), 1500.0)));
         when(auditRepositoryProvider.getIfAvailable()).thenReturn(auditRepository);
 
         job.expireQueued();
 
-        verify(matchmakingEngine).removeFromQueues(eq("BULLET"), eq(requestId));
-        verify(requestStore).markExpired(eq(requestId));
-        verify(eventPublisher).publishPlayerDequeued(eq(requestId), eq(userId), eq("EXPIRED"));
-        verify(auditRepository).markExpired(eq(UUID.fromString(requestId)));
+        verify(matchmakingEngine).onExpired(eq("60+1"), eq(List.of(requestId)));
+        verify(requestStore).expireQueued(eq("BLITZ"), anyLong(), anyInt());
+        verify(eventPublisher).publishPlayersDequeued(eq(Map.of(requestId, userId)), eq("EXPIRED"));
+        verify(auditRepository).markExpired(eq(List.of(UUID.fromString(requestId))));
     }
 
     @Test
-    void expireQueued_doesNotExpireWhenAlreadyMatched_butCleansQueue() {
-        String requestId = UUID.randomUUID().toString();
-        UUID userId = UUID.randomUUID();
-
-        when(matchmakingEngine.findExpired(eq("BULLET"), anyLong(), anyInt())).thenReturn(List.of(requestId));
-        when(matchmakingEngine.findExpired(eq("BLITZ"), anyLong(), anyInt())).thenReturn(Collections.emptyList());
-        when(matchmakingEngine.findExpired(eq("RAPID"), anyLong(), anyInt())).thenReturn(Collections.emptyList());
-        when(matchmakingEngine.findExpired(eq("CLASSICAL"), anyLong(), anyInt())).thenReturn(Collections.emptyList());
-
-        when(requestStore.getRequest(requestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
-                requestId, userId.toString(), "MATCHED", "game", "BULLET",
-                "60", "1", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
-        ));
+    void expireQueued_drainsBacklogInBatches_acrossEveryQueue() {
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        List<MatchmakingRequestStore.ExpiredRequest> full = List.of(
+                new MatchmakingRequestStore.ExpiredRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString(), 1500.0),
+                new MatchmakingRequestStore.ExpiredRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString(), 1500.0));
+        List<MatchmakingRequestStore.ExpiredRequest> rest = List.of(
+                new MatchmakingRequestStore.ExpiredRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString(), 1500.0));
+
+        when(poolIndex.pools(anyLong())).thenReturn(List.of(pools.of(180, 2)));
+        when(matchmakingEngine.queueNames("180+2")).thenReturn(List.of("{180+2:14}", "{180+2:15}"));
+        when(requestStore.expireQueued(anyString(), anyLong(), eq(2))).thenReturn(List.of());
+        when(requestStore.expireQueued(eq("{180+2:15}"), anyLong(), eq(2))).thenReturn(full, rest);
 
         job.expireQueued();
 
-        verify(matchmakingEngine).removeFromQueues(eq("BULLET"), eq(requestId));
-        verify(requestStore, never()).markExpired(eq(requestId));
+        verify(requestStore, times(2)).expireQueued(eq("{180+2:15}"), anyLong(), eq(2));
+        verify(eventPublisher, times(2)).publishPlayersDequeued(any(), eq("EXPIRED"));
+        verify(eventPublisher, never()).publishPlayerDequeued(anyString(), any(), anyString());
     }
 }
-
@@ -1,15 +1,19 @@
 package com.chess.matchmaking.service;
 
 import com.chess.common.exception.ForbiddenException;
+import com.chess.matchmaking.client.RatingCache;
 import com.chess.matchmaking.client.UserRatingsClient;
 import com.chess.matchmaking.config.MatchmakingProperties;
 import com.chess.matchmaking.domain.TimeControlClassifier;
+import com.chess.matchmaking.domain.TimeControlPools;
 import com.chess.matchmaking.domain.TimeControlType;
 import com.chess.matchmaking.dto.MatchFoundDto;
+import com.chess.matchmaking.engine.MatchmakingEngine;
 import com.chess.matchmaking.repo.MatchmakingAuditRepository;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
 import com.chess.matchmaking.messaging.MatchmakingEventPublisher;
 import com.chess.matchmaking.repo.MatchmakingRequestStore;
-import com.chess.matchmaking.repo.RedisMatchmakingEngine;
+import com.chess.matchmaking.stats.QueueStats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,6 +27,7 @@ import java.util.UUID;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -36,14 +41,16 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class MatchmakingServiceTest {
 
+    @Mock
+    private QueueStats queueStats;
     @Mock
     private MatchmakingRequestStore requestStore;
     @Mock
-    private TimeControlClassifier timeControlClassifier;
+    private MatchmakingPoolIndex poolIndex;
     @Mock
-    private UserRatingsClient userRatingsClient;
+    private RatingCache ratingCache;
     @Mock
-    private RedisMatchmakingEngine matchmakingEngine;
+    private MatchmakingEngine matchmakingEngine;
     @Mock
     private MatchmakingEventPublisher eventPublisher;
     @Mock
@@ -64,41 +71,32 @@ class MatchmakingServiceTest {
 
         service = new MatchmakingService(
                 requestStore,
-                timeControlClassifier,
-                userRatingsClient,
+                new TimeControlPools(new TimeControlClassifier()),
+                poolIndex,
+                ratingCache,
                 matchmakingEngine,
                 properties,
                 eventPublisher,
-                auditRepositoryProvider
+                auditRepositoryProvider,
+                queueStats
         );
     }
 
     @Test
-    void join_enrichesQueuedRequest_auditsQueued_andEnqueues() {
+    void join_createsRequestWithRating_auditsQueued_andEnqueues() {
         UUID userId = UUID.randomUUID();
         String requestId = UUID.randomUUID().toString();
 
-        when(requestStore.createOrGetActiveRequest(eq(userId), eq(180), eq(2), eq(true), eq("idem"), eq("rid")))
-                .thenReturn(requestId);
-        when(timeControlClassifier.classify(180, 2)).thenReturn(TimeControlType.BLITZ);
-        when(userRatingsClient.fetchRating(eq(userId), eq(TimeControlType.BLITZ.name())))
+        when(ratingCache.get(eq(userId), eq(TimeControlType.BLITZ.name())))
                 .thenReturn(new UserRatingsClient.RatingInfo(TimeControlType.BLITZ.name(), 1500.0, 120.0));
         when(auditRepositoryProvider.getIfAvailable()).thenReturn(auditRepository);
-
-        MatchmakingRequestStore.StoredRequest initial = new MatchmakingRequestStore.StoredRequest(
-                requestId, userId.toString(), "QUEUED", null, null,
-                "180", "2", "true", null, null, String.valueOf(System.currentTimeMillis())
-        );
-        MatchmakingRequestStore.StoredRequest enriched = new MatchmakingRequestStore.StoredRequest(
-                requestId, userId.toString(), "QUEUED", null, TimeControlType.BLITZ.name(),
-                "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
-        );
-        when(requestStore.getRequest(requestId)).thenReturn(initial, enriched);
+        when(requestStore.join(any())).thenReturn(new MatchmakingRequestStore.JoinResult(true, queued(requestId, userId), null));
 
         when(matchmakingEngine.enqueueAndTryMatch(
-                eq(TimeControlType.BLITZ.name()),
+                eq("180+2"),
                 eq(requestId),
                 anyDouble(),
+                eq(120.0),
                 anyInt(),
                 anyInt(),
                 anyInt(),
@@ -108,7 +106,14 @@ class MatchmakingServiceTest {
         String returned = service.join(userId, 180, 2, true, "idem", "rid");
 
         assertThat(returned).isEqualTo(requestId);
-        verify(requestStore).enrichQueuedRequest(eq(requestId), eq(TimeControlType.BLITZ.name()), eq(1500.0), eq(120.0));
+        ArgumentCaptor<MatchmakingRequestStore.JoinCommand> command = ArgumentCaptor.forClass(MatchmakingRequestStore.JoinCommand.class);
+        verify(requestStore).join(command.capture());
+        assertThat(command.getValue().timeControlType()).isEqualTo(TimeControlType.BLITZ.name());
+        assertThat(command.getValue().pool()).isEqualTo("180+2");
+        assertThat(command.getValue().rating()).isEqualTo(1500.0);
+        assertThat(command.getValue().ratingDeviation()).isEqualTo(120.0);
+        assertThat(command.getValue().idempotencyKey()).isEqualTo("idem");
+        assertThat(command.getValue().match()).isNull();
         verify(auditRepository).upsertQueued(
                 eq(UUID.fromString(requestId)),
                 eq(userId),
@@ -125,6 +130,51 @@ class MatchmakingServiceTest {
         verify(requestStore, never()).markMatched(anyString(), anyString());
     }
 
+    @Test
+    void join_matchedInJoinScript_announcesWithoutFurtherStoreCalls() {
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        String requestId = UUID.randomUUID().toString();
+        String otherRequestId = UUID.randomUUID().toString();
+
+        when(ratingCache.get(eq(userId), eq(TimeControlType.BLITZ.name())))
+                .thenReturn(new UserRatingsClient.RatingInfo(TimeControlType.BLITZ.name(), 1500.0, 120.0));
+        when(matchmakingEngine.matchesInJoinScript()).thenReturn(true);
+        when(requestStore.join(any())).thenReturn(new MatchmakingRequestStore.JoinResult(
+                true, queued(requestId, userId), queued(otherRequestId, otherUserId)));
+
+        service.join(userId, 180, 2, true, null, null);
+
+        ArgumentCaptor<MatchmakingRequestStore.JoinCommand> command = ArgumentCaptor.forClass(MatchmakingRequestStore.JoinCommand.class);
+        verify(requestStore).join(command.capture());
+        assertThat(command.getValue().match()).isNotNull();
+        assertThat(command.getValue().match().maxRange()).isEqualTo(500);
+
+        ArgumentCaptor<MatchFoundDto> eventCaptor = ArgumentCaptor.forClass(MatchFoundDto.class);
+        verify(eventPublisher).publishMatchFound(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getMatchId()).isEqualTo(command.getValue().match().gameId());
+        verify(eventPublisher).publishPlayerDequeued(eq(otherRequestId), eq(otherUserId), eq("MATCHED"));
+        verify(queueStats, times(2)).matched(eq(TimeControlType.BLITZ.name()), eq(1500.0), anyLong(), anyLong());
+        verify(requestStore, never()).markMatched(anyString(), anyString());
+        verify(requestStore, never()).getRequest(anyString());
+        verify(matchmakingEngine, never()).enqueueAndTryMatch(anyString(), anyString(), anyDouble(), anyDouble(), anyInt(), anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+    void join_whenAlreadyActive_returnsExistingRequest_withoutEvents() {
+        UUID userId = UUID.randomUUID();
+        String requestId = UUID.randomUUID().toString();
+
+        when(ratingCache.get(eq(userId), eq(TimeControlType.BLITZ.name())))
+                .thenReturn(new UserRatingsClient.RatingInfo(TimeControlType.BLITZ.name(), 1500.0, 120.0));
+        when(requestStore.join(any())).thenReturn(new MatchmakingRequestStore.JoinResult(false, queued(requestId, userId), null));
+
+        assertThat(service.join(userId, 180, 2, true, "idem", null)).isEqualTo(requestId);
+
+        verify(eventPublisher, never()).publishPlayerQueued(anyString(), any(), anyString(), anyInt(), anyInt(), anyBoolean());
+        verify(matchmakingEngine, never()).enqueueAndTryMatch(anyString(), anyString(), anyDouble(), anyDouble(), anyInt(), anyInt(), anyInt(), anyLong());
+    }
+
     @Test
     void join_whenMatched_marksMatched_publishesEvent_andAuditsMatched() {
         UUID userId = UUID.randomUUID();
@@ -132,29 +182,18 @@ class MatchmakingServiceTest {
         String otherRequestId = UUID.randomUUID().toString();
         UUID otherUserId = UUID.randomUUID();
 
-        when(requestStore.createOrGetActiveRequest(eq(userId), eq(180), eq(2), eq(true), eq(null), eq(null)))
-                .thenReturn(requestId);
-        when(timeControlClassifier.classify(180, 2)).thenReturn(TimeControlType.BLITZ);
-        when(userRatingsClient.fetchRating(eq(userId), eq(TimeControlType.BLITZ.name())))
+        when(ratingCache.get(eq(userId), eq(TimeControlType.BLITZ.name())))
                 .thenReturn(new UserRatingsClient.RatingInfo(TimeControlType.BLITZ.name(), 1500.0, 120.0));
         when(auditRepositoryProvider.getIfAvailable()).thenReturn(auditRepository);
+        when(requestStore.join(any())).thenReturn(new MatchmakingRequestStore.JoinResult(true, queued(requestId, userId), null));
+        when(requestStore.getRequest(requestId)).thenReturn(queued(requestId, userId));
 
-        MatchmakingRequestStore.StoredRequest initial = new MatchmakingRequestStore.StoredRequest(
-                requestId, userId.toString(), "QUEUED", null, null,
-                "180", "2", "true", null, null, String.valueOf(System.currentTimeMillis())
-        );
-        MatchmakingRequestStore.StoredRequest enriched = new MatchmakingRequestStore.StoredRequest(
-                requestId, userId.toString(), "QUEUED", null, TimeControlType.BLITZ.name(),
-                "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
-        );
-        when(requestStore.getRequest(requestId)).thenReturn(initial, enriched);
-
-        when(matchmakingEngine.enqueueAndTryMatch(anyString(), anyString(), anyDouble(), anyInt(), anyInt(), anyInt(), anyLong()))
-                .thenReturn(new RedisMatchmakingEngine.MatchPair(requestId, otherRequestId));
+        when(matchmakingEngine.enqueueAndTryMatch(anyString(), anyString(), anyDouble(), anyDouble(), anyInt(), anyInt(), anyInt(), anyLong()))
+                .thenReturn(new MatchmakingEngine.MatchPair(requestId, otherRequestId));
 
         when(requestStore.getRequest(otherRequestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
                 otherRequestId, otherUserId.toString(), "QUEUED", null, TimeControlType.BLITZ.name(),
-                "180", "2", "true", "1510.0", "110.0", String.valueOf(System.currentTimeMillis())
+                "180+2", "180", "2", "true", "1510.0", "110.0", String.valueOf(System.currentTimeMillis())
         ));
 
         service.join(userId, 180, 2, true, null, null);
@@ -181,6 +220,30 @@ class MatchmakingServiceTest {
         verify(auditRepository).markMatched(eq(UUID.fromString(otherRequestId)), eq(UUID.fromString(gameId)));
     }
 
+    @Test
+    void completeMatch_withoutJoinContext_takesGameSettingsFromFirstRequest() {
+        String requestId = UUID.randomUUID().toString();
+        String otherRequestId = UUID.randomUUID().toString();
+        when(requestStore.getRequest(requestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
+                requestId, UUID.randomUUID().toString(), "MATCHED", null, TimeControlType.RAPID.name(),
+                "600+5", "600", "5", "false", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
+        ));
+        when(requestStore.getRequest(otherRequestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
+                otherRequestId, UUID.randomUUID().toString(), "MATCHED", null, TimeControlType.RAPID.name(),
+                "600+0", "600", "0", "true", "1620.0", "90.0", String.valueOf(System.currentTimeMillis())
+        ));
+
+        service.completeMatch(TimeControlType.RAPID.name(), new MatchmakingEngine.MatchPair(requestId, otherRequestId),
+                null, null, null);
+
+        ArgumentCaptor<MatchFoundDto> eventCaptor = ArgumentCaptor.forClass(MatchFoundDto.class);
+        verify(eventPublisher).publishMatchFound(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getInitialTimeSeconds()).isEqualTo(600);
+        assertThat(eventCaptor.getValue().getIncrementSeconds()).isEqualTo(5);
+        assertThat(eventCaptor.getValue().getRated()).isFalse();
+        verify(requestStore, times(2)).markMatched(anyString(), anyString());
+    }
+
     @Test
     void leave_forOtherUser_throwsForbidden() {
         UUID userId = UUID.randomUUID();
@@ -189,7 +252,7 @@ class MatchmakingServiceTest {
 
         when(requestStore.getRequest(requestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
                 requestId, ownerId.toString(), "QUEUED", null, "BLITZ",
-                "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
+                "180+2", "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
         ));
 
         assertThatThrownBy(() -> service.leave(userId, requestId, "idem", "rid"))
@@ -206,15 +269,56 @@ class MatchmakingServiceTest {
 
         when(requestStore.getRequest(requestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
                 requestId, userId.toString(), "QUEUED", null, "BLITZ",
-                "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
+                "180+2", "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
         ));
         when(auditRepositoryProvider.getIfAvailable()).thenReturn(auditRepository);
 
         service.leave(userId, requestId, "idem", "rid");
 
-        verify(matchmakingEngine).removeFromQueues(eq("BLITZ"), eq(requestId));
+        verify(matchmakingEngine).removeFromQueues(eq("180+2"), eq(requestId));
         verify(requestStore).cancelRequest(eq(userId), eq(requestId), eq("idem"), eq("rid"));
         verify(auditRepository).markCancelled(eq(UUID.fromString(requestId)), eq("cancelled"));
     }
-}
 
+    @Test
+    void leave_requestQueuedBeforePools_removesFromCategoryQueue() {
+        UUID userId = UUID.randomUUID();
+        String requestId = UUID.randomUUID().toString();
+
+        when(requestStore.getRequest(requestId)).thenReturn(new MatchmakingRequestStore.StoredRequest(
+                requestId, userId.toString(), "QUEUED", null, "BLITZ",
+                null, "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
+        ));
+
+        service.leave(userId, requestId, null, null);
+
+        verify(matchmakingEngine).removeFromQueues(eq("BLITZ"), eq(requestId));
+    }
+
+    @Test
+    void join_sameBaseDifferentIncrement_queuesInSeparatePools() {
+        UUID userId = UUID.randomUUID();
+        when(ratingCache.get(eq(userId), eq(TimeControlType.BLITZ.name())))
+                .thenReturn(new UserRatingsClient.RatingInfo(TimeControlType.BLITZ.name(), 1500.0, 120.0));
+        when(matchmakingEngine.queueName(anyString(), anyDouble())).thenAnswer(inv -> inv.getArgument(0));
+        when(requestStore.join(any())).thenAnswer(inv -> new MatchmakingRequestStore.JoinResult(
+                false, queued(UUID.randomUUID().toString(), userId), null));
+
+        service.join(userId, 180, 0, true, null, null);
+        service.join(userId, 180, 2, true, null, null);
+
+        ArgumentCaptor<MatchmakingRequestStore.JoinCommand> command = ArgumentCaptor.forClass(MatchmakingRequestStore.JoinCommand.class);
+        verify(requestStore, times(2)).join(command.capture());
+        assertThat(command.getAllValues()).extracting(MatchmakingRequestStore.JoinCommand::queue)
+                .containsExactly("180+0", "180+2");
+        assertThat(command.getAllValues()).extracting(MatchmakingRequestStore.JoinCommand::timeControlType)
+                .containsOnly(TimeControlType.BLITZ.name());
+    }
+
+    private static MatchmakingRequestStore.StoredRequest queued(String requestId, UUID userId) {
+        return new MatchmakingRequestStore.StoredRequest(
+                requestId, userId.toString(), "QUEUED", null, TimeControlType.BLITZ.name(),
+                "180+2", "180", "2", "true", "1500.0", "120.0", String.valueOf(System.currentTimeMillis())
+        );
+    }
+}
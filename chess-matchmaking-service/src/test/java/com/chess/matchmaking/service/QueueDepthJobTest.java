@@ -0,0 +1,109 @@
+package com.chess.matchmaking.service;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.domain.TimeControlClassifier;
+import com.chess.matchmaking.domain.TimeControlPools;
+import com.chess.matchmaking.engine.MatchmakingEngine;
+import com.chess.matchmaking.repo.MatchmakingPoolIndex;
+import com.chess.matchmaking.stats.QueueStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QueueDepthJobTest {
+
+    @Mock
+    private MatchmakingEngine matchmakingEngine;
+    @Mock
+    private MatchmakingPoolIndex poolIndex;
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+    @Mock
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> queueDepthScript;
+
+    private final TimeControlPools pools = new TimeControlPools(new TimeControlClassifier());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private QueueDepthJob job;
+
+    @BeforeEach
+    void setUp() {
+        QueueStats queueStats = new QueueStats(meterRegistry, new MatchmakingProperties(), 100, 16, 900);
+        job = new QueueDepthJob(matchmakingEngine, poolIndex, redisTemplate, queueDepthScript, queueStats);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_sumsEveryQueueOfACategoryAndZeroesEmptiedBins() {
+        when(poolIndex.pools(anyLong())).thenReturn(List.of(pools.of(180, 2), pools.of(300, 0)));
+        when(matchmakingEngine.queueNames("180+2")).thenReturn(List.of("{180+2:15}", "{180+2:16}"));
+        when(matchmakingEngine.queueNames("300+0")).thenReturn(List.of("{300+0}"));
+        when(redisTemplate.execute(any(RedisScript.class), any(List.class), any(Object[].class))).thenReturn(List.of("0"));
+        depth("mm:queue:{180+2:15}", "2", "15", "2");
+        depth("mm:queue:{180+2:16}", "1", "16", "1");
+        depth("mm:queue:{300+0}", "3", "15", "1", "17", "2");
+        depth("mm:queue:BLITZ", "1", "12", "1");
+
+        job.refresh();
+
+        assertThat(gauge("matchmaking.queue.depth", "BLITZ")).isEqualTo(7.0);
+        assertThat(bin("BLITZ", "1500")).isEqualTo(3.0);
+        assertThat(bin("BLITZ", "1700")).isEqualTo(2.0);
+        assertThat(gauge("matchmaking.queue.depth", "BULLET")).isZero();
+
+        when(poolIndex.pools(anyLong())).thenReturn(List.of(pools.of(300, 0)));
+        depth("mm:queue:{300+0}", "1", "15", "1");
+        depth("mm:queue:BLITZ", "0");
+
+        job.refresh();
+
+        assertThat(gauge("matchmaking.queue.depth", "BLITZ")).isEqualTo(1.0);
+        assertThat(bin("BLITZ", "1500")).isEqualTo(1.0);
+        assertThat(bin("BLITZ", "1700")).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_keepsTheLastReadingWhenRedisFails() {
+        when(poolIndex.pools(anyLong())).thenReturn(List.of(pools.of(180, 2)));
+        when(matchmakingEngine.queueNames("180+2")).thenReturn(List.of("{180+2}"));
+        when(redisTemplate.execute(any(RedisScript.class), any(List.class), any(Object[].class))).thenReturn(List.of("0"));
+        depth("mm:queue:{180+2}", "4", "15", "4");
+        job.refresh();
+
+        when(redisTemplate.execute(any(RedisScript.class), any(List.class), anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        job.refresh();
+
+        assertThat(gauge("matchmaking.queue.depth", "BLITZ")).isEqualTo(4.0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void depth(String queueKey, String... reply) {
+        when(redisTemplate.execute(eq(queueDepthScript), eq(List.of(queueKey)), eq("100"))).thenReturn(List.of((Object[]) reply));
+    }
+
+    private double gauge(String name, String timeControl) {
+        return meterRegistry.get(name).tag("time_control", timeControl).gauge().value();
+    }
+
+    private double bin(String timeControl, String bin) {
+        return meterRegistry.get("matchmaking.queue.rating_bin").tags("time_control", timeControl, "bin", bin).gauge().value();
+    }
+}
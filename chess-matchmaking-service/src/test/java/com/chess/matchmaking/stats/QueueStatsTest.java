@@ -0,0 +1,72 @@
+package com.chess.matchmaking.stats;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.dto.QueueStatsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueueStatsTest {
+
+    private static final long NOW = 10_000_000L;
+
+    private SimpleMeterRegistry meterRegistry;
+    private QueueStats stats;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stats = new QueueStats(meterRegistry, new MatchmakingProperties(), 100, 16, 900);
+    }
+
+    @Test
+    void depthAndRatingBins_followTheLastReading() {
+        stats.depth("BLITZ", 3, Map.of(15, 2L, 17, 1L));
+        stats.depth("BLITZ", 1, Map.of(15, 1L));
+        stats.matched("BLITZ", 1720, NOW - 5_000, NOW);
+
+        assertThat(meterRegistry.get("matchmaking.queue.depth").tag("time_control", "BLITZ").gauge().value())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("matchmaking.queue.rating_bin").tags("time_control", "BLITZ", "bin", "1500")
+                .gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("matchmaking.queue.rating_bin").tags("time_control", "BLITZ", "bin", "1700")
+                .gauge().value()).isEqualTo(0.0);
+    }
+
+    @Test
+    void matched_recordsTimeToMatchAndExpansionLevel() {
+        // default properties: a range expansion every 10s, 8 expansions to reach the max range
+        stats.matched("RAPID", 1500, NOW - 25_000, NOW);
+        stats.matched("RAPID", 1500, NOW - 600_000, NOW);
+
+        assertThat(meterRegistry.get("matchmaking.time_to_match").tag("time_control", "RAPID").timer().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("matchmaking.match.expansion_level").tag("time_control", "RAPID")
+                .summary().max()).isEqualTo(8.0);
+        assertThat(meterRegistry.get("matchmaking.match.expansion_level").tag("time_control", "RAPID")
+                .summary().totalAmount()).isEqualTo(10.0);
+    }
+
+    @Test
+    void snapshot_estimatesWaitPerBandFromRecentMatches() {
+        stats.matched("BLITZ", 1500, NOW - 2_000, NOW);
+        stats.matched("BLITZ", 1550, NOW - 4_000, NOW);
+        stats.matched("BLITZ", 1560, NOW - 6_000, NOW);
+        stats.matched("BLITZ", 2400, NOW - 60_000, NOW);
+        // outside the 15 minute window
+        stats.matched("BLITZ", 1000, NOW - 1_000_000, NOW - 1_000_000);
+
+        QueueStatsResponse.TimeControlQueue blitz = stats.snapshot("BLITZ", NOW);
+
+        assertThat(blitz.getRecentMatches()).isEqualTo(4);
+        assertThat(blitz.getBands()).extracting(QueueStatsResponse.RatingBand::getMinRating).containsExactly(1500, 2400);
+        assertThat(blitz.getBands().get(0).getEstimatedWaitSeconds()).isEqualTo(4.0);
+        assertThat(blitz.getBands().get(0).getMaxRating()).isEqualTo(1599);
+        assertThat(blitz.getBands().get(1).getEstimatedWaitSeconds()).isEqualTo(60.0);
+        assertThat(stats.snapshot("BULLET", NOW).getEstimatedWaitSeconds()).isNull();
+    }
+}
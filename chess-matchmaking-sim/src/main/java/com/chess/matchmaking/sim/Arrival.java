@@ -0,0 +1,9 @@
+package com.chess.matchmaking.sim;
+
+/** One line of a join/leave stream. {@code rating} and {@code ratingDeviation} are unused for leaves. */
+public record Arrival(long atMs, Kind kind, String requestId, double rating, double ratingDeviation) {
+
+    public enum Kind {
+        JOIN, LEAVE
+    }
+}
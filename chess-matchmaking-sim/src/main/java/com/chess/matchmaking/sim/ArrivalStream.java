@@ -0,0 +1,96 @@
+package com.chess.matchmaking.sim;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Join/leave streams: generated from a seed, or read from a CSV recording
+ * ({@code at_ms,kind,request_id,rating,rating_deviation}, one arrival per line, a header line allowed).
+ */
+public final class ArrivalStream {
+
+    private static final String HEADER = "at_ms,kind,request_id,rating,rating_deviation";
+
+    private ArrivalStream() {
+    }
+
+    /**
+     * Poisson joins at {@code arrivals-per-second}; each player also gets a leave at the end of their patience,
+     * which the simulator ignores if they were matched or expired before.
+     */
+    public static List<Arrival> synthetic(SimProperties sim) {
+        SplittableRandom random = new SplittableRandom(sim.getSeed());
+        List<Arrival> arrivals = new ArrayList<>(sim.getPlayers() * 2);
+        double meanGapMs = 1000.0 / Math.max(1e-9, sim.getArrivalsPerSecond());
+        double at = 0;
+        for (int i = 0; i < sim.getPlayers(); i++) {
+            at += -Math.log(1 - random.nextDouble()) * meanGapMs;
+            long joinAt = (long) at;
+            String id = String.format("p%07d", i);
+            double rating = Math.round(clamp(sim.getRatingMean() + gaussian(random) * sim.getRatingStdDev(),
+                    sim.getMinRating(), sim.getMaxRating()));
+            double deviation = random.nextDouble() < sim.getProvisionalShare()
+                    ? 250 + random.nextInt(101)
+                    : 45 + random.nextInt(46);
+            arrivals.add(new Arrival(joinAt, Arrival.Kind.JOIN, id, rating, deviation));
+            if (sim.getMeanPatienceSeconds() > 0) {
+                long patienceMs = (long) (-Math.log(1 - random.nextDouble()) * sim.getMeanPatienceSeconds() * 1000);
+                arrivals.add(new Arrival(joinAt + Math.max(1, patienceMs), Arrival.Kind.LEAVE, id, 0, 0));
+            }
+        }
+        // stable: a join and a leave at the same millisecond keep their generated order
+        arrivals.sort(Comparator.comparingLong(Arrival::atMs));
+        return arrivals;
+    }
+
+    public static List<Arrival> read(Path path) throws IOException {
+        List<Arrival> arrivals = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            if (line.isBlank() || line.startsWith("at_ms")) {
+                continue;
+            }
+            String[] f = line.split(",");
+            if (f.length < 3) {
+                throw new IllegalArgumentException("Malformed arrival: " + line);
+            }
+            arrivals.add(new Arrival(
+                    Long.parseLong(f[0].trim()),
+                    Arrival.Kind.valueOf(f[1].trim().toUpperCase(Locale.ROOT)),
+                    f[2].trim(),
+                    f.length > 3 ? Double.parseDouble(f[3].trim()) : 0,
+                    f.length > 4 ? Double.parseDouble(f[4].trim()) : 0));
+        }
+        arrivals.sort(Comparator.comparingLong(Arrival::atMs));
+        return arrivals;
+    }
+
+    public static void write(Path path, List<Arrival> arrivals) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            out.write(HEADER);
+            out.newLine();
+            for (Arrival a : arrivals) {
+                out.write(a.atMs() + "," + a.kind().name().toLowerCase(Locale.ROOT) + "," + a.requestId() + ","
+                        + a.rating() + "," + a.ratingDeviation());
+                out.newLine();
+            }
+        }
+    }
+
+    /** Box-Muller, so the stream does not depend on how a JDK implements nextGaussian. */
+    private static double gaussian(SplittableRandom random) {
+        double u = 1 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
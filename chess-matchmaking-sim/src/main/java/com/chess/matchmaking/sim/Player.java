@@ -0,0 +1,9 @@
+package com.chess.matchmaking.sim;
+
+/** A queued request; each simulated join is a new user. */
+public record Player(String requestId, double rating, double ratingDeviation, long joinedAtMs) {
+
+    public String userId() {
+        return "u-" + requestId;
+    }
+}
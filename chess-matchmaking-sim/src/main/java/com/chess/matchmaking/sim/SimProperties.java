@@ -0,0 +1,38 @@
+package com.chess.matchmaking.sim;
+
+import lombok.Data;
+
+/** {@code sim.*} options; the engines themselves read the usual {@code matchmaking.*} properties. */
+@Data
+public class SimProperties {
+
+    /** Same seed, same stream, same report (apart from the measured CPU time). */
+    private long seed = 1;
+    private int players = 20_000;
+    private double arrivalsPerSecond = 20;
+
+    /** Ratings are drawn from a normal distribution clamped to [min, max]. */
+    private double ratingMean = 1500;
+    private double ratingStdDev = 350;
+    private double minRating = 400;
+    private double maxRating = 3000;
+    /** Share of players with a provisional (high deviation) rating, as new accounts have. */
+    private double provisionalShare = 0.1;
+
+    /** Players give up after an exponentially distributed wait with this mean; 0 = nobody leaves. */
+    private double meanPatienceSeconds = 90;
+
+    /** {@code matchmaking.expire-scan-interval-ms} and {@code matchmaking.expire-batch-size}. */
+    private long expireScanMs = 5000;
+    private int expireBatchSize = 1000;
+
+    /** Rating band width of the fairness table. */
+    private int fairnessBandWidth = 200;
+
+    /** Comma-separated: redis, redis-batch, order-book, order-book-batch. */
+    private String engines = "redis,redis-batch,order-book,order-book-batch";
+    /** Replays this recorded stream instead of generating one. */
+    private String trace = "";
+    /** Writes the stream that was run to this file, for replay. */
+    private String record = "";
+}
@@ -0,0 +1,208 @@
+package com.chess.matchmaking.sim;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of one simulated run: pairing latency (time from join to match, in simulated milliseconds), rating
+ * difference per pair, how each rating band fared, and the Redis commands and round trips spent per pairing.
+ * Everything but {@link #engineNanos()} depends only on the stream and the properties.
+ */
+public class SimReport {
+
+    private static final long HIGHEST_WAIT_MS = TimeUnit.HOURS.toMillis(1);
+    private static final long HIGHEST_DIFF = 10_000;
+    /** Bands with fewer joins are left out of the fairness spread; their rates are mostly noise. */
+    private static final int MIN_BAND_JOINS = 50;
+
+    private final String engine;
+    private final int bandWidth;
+    private final Histogram waitMs = new Histogram(HIGHEST_WAIT_MS, 3);
+    private final Histogram ratingDiff = new Histogram(HIGHEST_DIFF, 3);
+    private final Map<Integer, Band> bands = new TreeMap<>();
+    private long joined;
+    private long pairs;
+    private long left;
+    private long expired;
+    private long unmatched;
+    private long redisCommands;
+    private long redisRoundTrips;
+    private long engineNanos;
+
+    public SimReport(String engine, int bandWidth) {
+        this.engine = engine;
+        this.bandWidth = Math.max(1, bandWidth);
+    }
+
+    void joined(Player player) {
+        joined++;
+        band(player).joined++;
+    }
+
+    void matched(Player a, Player b, long nowMs) {
+        pairs++;
+        ratingDiff.recordValue(Math.min(HIGHEST_DIFF, Math.round(Math.abs(a.rating() - b.rating()))));
+        for (Player p : new Player[]{a, b}) {
+            long wait = Math.min(HIGHEST_WAIT_MS, Math.max(0, nowMs - p.joinedAtMs()));
+            waitMs.recordValue(wait);
+            Band band = band(p);
+            band.matched++;
+            band.waitMs.recordValue(wait);
+            band.diffSum += Math.abs(a.rating() - b.rating());
+        }
+    }
+
+    void left(Player player) {
+        left++;
+        band(player).left++;
+    }
+
+    void expired(Player player) {
+        expired++;
+        band(player).expired++;
+    }
+
+    void unmatched(Player player) {
+        unmatched++;
+    }
+
+    void redis(long commands, long roundTrips) {
+        this.redisCommands = commands;
+        this.redisRoundTrips = roundTrips;
+    }
+
+    void engineNanos(long nanos) {
+        engineNanos += nanos;
+    }
+
+    public String engine() {
+        return engine;
+    }
+
+    public long joined() {
+        return joined;
+    }
+
+    public long pairs() {
+        return pairs;
+    }
+
+    public long left() {
+        return left;
+    }
+
+    public long expired() {
+        return expired;
+    }
+
+    public long unmatched() {
+        return unmatched;
+    }
+
+    public long redisCommands() {
+        return redisCommands;
+    }
+
+    public long redisRoundTrips() {
+        return redisRoundTrips;
+    }
+
+    /** Wall-clock time spent inside the engine; the only part of the report that differs between runs. */
+    public long engineNanos() {
+        return engineNanos;
+    }
+
+    public long waitPercentileMs(double percentile) {
+        return waitMs.getTotalCount() > 0 ? waitMs.getValueAtPercentile(percentile) : 0;
+    }
+
+    public long ratingDiffPercentile(double percentile) {
+        return ratingDiff.getTotalCount() > 0 ? ratingDiff.getValueAtPercentile(percentile) : 0;
+    }
+
+    /** Share of the band's players that were matched, by band floor rating. */
+    public Map<Integer, Double> matchRateByBand() {
+        Map<Integer, Double> rates = new TreeMap<>();
+        bands.forEach((floor, band) -> rates.put(floor, band.matchRate()));
+        return rates;
+    }
+
+    public String format() {
+        StringBuilder out = new StringBuilder();
+        double matchedShare = joined > 0 ? 2.0 * pairs / joined : 0;
+        out.append(String.format(Locale.ROOT, "=== %s ===%n", engine));
+        out.append(String.format(Locale.ROOT,
+                "joined %d  matched %d (%.1f%%)  left %d  expired %d  still queued %d%n",
+                joined, 2 * pairs, 100 * matchedShare, left, expired, unmatched));
+        out.append(String.format(Locale.ROOT,
+                "pairing latency ms   p50 %d  p90 %d  p99 %d  max %d%n",
+                waitPercentileMs(50), waitPercentileMs(90), waitPercentileMs(99), waitMs.getMaxValue()));
+        out.append(String.format(Locale.ROOT,
+                "rating difference    p50 %d  p90 %d  p99 %d  max %d  mean %.1f%n",
+                ratingDiffPercentile(50), ratingDiffPercentile(90), ratingDiffPercentile(99),
+                ratingDiff.getMaxValue(), ratingDiff.getTotalCount() > 0 ? ratingDiff.getMean() : 0));
+        out.append(String.format(Locale.ROOT,
+                "redis per pairing    commands %.1f  round trips %.1f  (per join: %.1f / %.1f)%n",
+                perPair(redisCommands), perPair(redisRoundTrips),
+                joined > 0 ? (double) redisCommands / joined : 0, joined > 0 ? (double) redisRoundTrips / joined : 0));
+        out.append(String.format(Locale.ROOT,
+                "engine cpu           %.2f us per join%n",
+                joined > 0 ? engineNanos / 1000.0 / joined : 0));
+
+        out.append(String.format(Locale.ROOT, "%-11s %7s %8s %8s %8s %9s %9s %9s%n",
+                "band", "joined", "matched", "left", "expired", "p50 wait", "p90 wait", "mean diff"));
+        double minRate = Double.MAX_VALUE;
+        double maxRate = 0;
+        for (Map.Entry<Integer, Band> e : bands.entrySet()) {
+            Band b = e.getValue();
+            out.append(String.format(Locale.ROOT, "%5d-%-5d %7d %7.1f%% %7.1f%% %7.1f%% %9d %9d %9.1f%n",
+                    e.getKey(), e.getKey() + bandWidth, b.joined, 100 * b.matchRate(), 100 * b.share(b.left),
+                    100 * b.share(b.expired), b.waitPercentile(50), b.waitPercentile(90),
+                    b.matched > 0 ? b.diffSum / b.matched : 0));
+            if (b.joined >= MIN_BAND_JOINS) {
+                minRate = Math.min(minRate, b.matchRate());
+                maxRate = Math.max(maxRate, b.matchRate());
+            }
+        }
+        if (maxRate > 0) {
+            out.append(String.format(Locale.ROOT,
+                    "fairness: match rate spread across bands with >= %d joins: %.1f%% .. %.1f%%%n",
+                    MIN_BAND_JOINS, 100 * minRate, 100 * maxRate));
+        }
+        return out.toString();
+    }
+
+    private double perPair(long total) {
+        return pairs > 0 ? (double) total / pairs : 0;
+    }
+
+    private Band band(Player player) {
+        int floor = (int) Math.floor(player.rating() / bandWidth) * bandWidth;
+        return bands.computeIfAbsent(floor, k -> new Band());
+    }
+
+    private static final class Band {
+        final Histogram waitMs = new Histogram(HIGHEST_WAIT_MS, 3);
+        long joined;
+        long matched;
+        long left;
+        long expired;
+        double diffSum;
+
+        double matchRate() {
+            return share(matched);
+        }
+
+        double share(long count) {
+            return joined > 0 ? (double) count / joined : 0;
+        }
+
+        long waitPercentile(double percentile) {
+            return waitMs.getTotalCount() > 0 ? waitMs.getValueAtPercentile(percentile) : 0;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.chess.matchmaking.sim;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.engine.MatchmakingEngine.MatchPair;
+import com.chess.matchmaking.sim.engine.SimEngine;
+import com.chess.matchmaking.sim.redis.InMemoryRedis;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays a join/leave stream through one engine on a simulated clock. Between arrivals the clock stops at
+ * every tick ({@code matchmaking.tick-ms}) and expiry scan, as the scheduled jobs would; after the last
+ * arrival it keeps going until the queue is empty or everyone left has timed out. Single-threaded and free
+ * of wall-clock reads, so a stream always produces the same pairs.
+ */
+public class Simulator {
+
+    private final SimProperties sim;
+    private final MatchmakingProperties properties;
+
+    public Simulator(SimProperties sim, MatchmakingProperties properties) {
+        this.sim = sim;
+        this.properties = properties;
+    }
+
+    public SimReport run(SimEngine engine, List<Arrival> arrivals) {
+        SimReport report = new SimReport(engine.name(), sim.getFairnessBandWidth());
+        Map<String, Player> waiting = new HashMap<>();
+        long tickMs = Math.max(1, properties.getTickMs());
+        long expireMs = Math.max(1, sim.getExpireScanMs());
+        long timeoutMs = properties.getQueueTimeoutSeconds() * 1000;
+        long nextTick = tickMs;
+        long nextExpire = expireMs;
+
+        for (Arrival arrival : arrivals) {
+            while (Math.min(nextTick, nextExpire) <= arrival.atMs()) {
+                if (nextTick <= nextExpire) {
+                    tick(engine, nextTick, waiting, report);
+                    nextTick += tickMs;
+                } else {
+                    expire(engine, nextExpire - timeoutMs, waiting, report);
+                    nextExpire += expireMs;
+                }
+            }
+            if (arrival.kind() == Arrival.Kind.JOIN) {
+                join(engine, arrival, waiting, report);
+            } else {
+                leave(engine, arrival, waiting, report);
+            }
+        }
+
+        long end = (arrivals.isEmpty() ? 0 : arrivals.getLast().atMs()) + timeoutMs + expireMs;
+        while (!waiting.isEmpty() && Math.min(nextTick, nextExpire) <= end) {
+            if (nextTick <= nextExpire) {
+                tick(engine, nextTick, waiting, report);
+                nextTick += tickMs;
+            } else {
+                expire(engine, nextExpire - timeoutMs, waiting, report);
+                nextExpire += expireMs;
+            }
+        }
+        waiting.values().forEach(report::unmatched);
+
+        InMemoryRedis redis = engine.redis().redis();
+        report.redis(redis.commands(), redis.roundTrips());
+        return report;
+    }
+
+    private void join(SimEngine engine, Arrival arrival, Map<String, Player> waiting, SimReport report) {
+        if (waiting.containsKey(arrival.requestId())) {
+            return;
+        }
+        Player player = new Player(arrival.requestId(), arrival.rating(), arrival.ratingDeviation(), arrival.atMs());
+        waiting.put(player.requestId(), player);
+        report.joined(player);
+        long start = System.nanoTime();
+        MatchPair pair = engine.join(player, arrival.atMs());
+        report.engineNanos(System.nanoTime() - start);
+        if (pair != null) {
+            matched(pair, arrival.atMs(), waiting, report);
+        }
+    }
+
+    private void leave(SimEngine engine, Arrival arrival, Map<String, Player> waiting, SimReport report) {
+        Player player = waiting.remove(arrival.requestId());
+        if (player == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        engine.leave(player, arrival.atMs());
+        report.engineNanos(System.nanoTime() - start);
+        report.left(player);
+    }
+
+    private void tick(SimEngine engine, long nowMs, Map<String, Player> waiting, SimReport report) {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<MatchPair> pairs = engine.tick(nowMs);
+        report.engineNanos(System.nanoTime() - start);
+        for (MatchPair pair : pairs) {
+            matched(pair, nowMs, waiting, report);
+        }
+    }
+
+    private void expire(SimEngine engine, long cutoffMs, Map<String, Player> waiting, SimReport report) {
+        if (waiting.isEmpty()) {
+            return;
+        }
+        for (String requestId : engine.expire(cutoffMs, Math.max(1, sim.getExpireBatchSize()))) {
+            Player player = waiting.remove(requestId);
+            if (player != null) {
+                report.expired(player);
+            }
+        }
+    }
+
+    private static void matched(MatchPair pair, long nowMs, Map<String, Player> waiting, SimReport report) {
+        Player a = waiting.remove(pair.requestId1());
+        Player b = waiting.remove(pair.requestId2());
+        if (a == null || b == null) {
+            throw new IllegalStateException("Engine paired a request that was not waiting: " + pair);
+        }
+        report.matched(a, b, nowMs);
+    }
+}
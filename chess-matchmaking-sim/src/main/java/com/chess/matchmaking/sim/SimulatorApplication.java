@@ -0,0 +1,54 @@
+package com.chess.matchmaking.sim;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.sim.engine.SimEngines;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs one stream through each configured engine and prints a report per engine. Options are
+ * {@code --sim.*} (see {@link SimProperties}) and the service's own {@code --matchmaking.*} properties, e.g.
+ * <pre>
+ * java -cp target/benchmarks.jar com.chess.matchmaking.sim.SimulatorApplication \
+ *     --sim.players=50000 --sim.arrivals-per-second=40 --matchmaking.max-rating-range=400
+ * </pre>
+ */
+public final class SimulatorApplication {
+
+    private SimulatorApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        Binder binder = new Binder(new MapConfigurationPropertySource(options));
+        SimProperties sim = binder.bind("sim", Bindable.ofInstance(new SimProperties())).orElseGet(SimProperties::new);
+        MatchmakingProperties properties = binder.bind("matchmaking", Bindable.ofInstance(new MatchmakingProperties()))
+                .orElseGet(MatchmakingProperties::new);
+
+        List<Arrival> arrivals = sim.getTrace().isBlank()
+                ? ArrivalStream.synthetic(sim)
+                : ArrivalStream.read(Path.of(sim.getTrace()));
+        if (!sim.getRecord().isBlank()) {
+            ArrivalStream.write(Path.of(sim.getRecord()), arrivals);
+        }
+
+        Simulator simulator = new Simulator(sim, properties);
+        for (String mode : sim.getEngines().split(",")) {
+            if (!mode.isBlank()) {
+                System.out.println(simulator.run(SimEngines.create(mode, properties), arrivals).format());
+            }
+        }
+    }
+}
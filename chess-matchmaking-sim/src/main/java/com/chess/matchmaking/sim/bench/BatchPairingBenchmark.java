@@ -0,0 +1,60 @@
+package com.chess.matchmaking.sim.bench;
+
+import com.chess.matchmaking.engine.BatchPairing;
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.RangePolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** One batch tick over a whole queue, and the order-book sweep that per-join pairing runs each tick instead. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchPairingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int queued;
+
+    private final RangePolicy policy = new RangePolicy(100, 50, 500, 10_000);
+    private final BatchPairing pairing = new BatchPairing(policy, 3, 2.0, 80.0);
+    private List<OrderBook.Entry> queue;
+    private OrderBook book;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        queue = Queues.entries(queued, 42);
+    }
+
+    /** The sweep removes what it pairs, so every invocation starts from a full book. */
+    @Setup(Level.Invocation)
+    public void refillBook() {
+        book = new OrderBook();
+        queue.forEach(book::add);
+    }
+
+    @Benchmark
+    public List<OrderBook.Entry[]> batchPair() {
+        return pairing.pair(queue, Queues.NOW_MS);
+    }
+
+    @Benchmark
+    public List<OrderBook.Entry[]> sweep() {
+        return book.sweep(policy, Queues.NOW_MS);
+    }
+}
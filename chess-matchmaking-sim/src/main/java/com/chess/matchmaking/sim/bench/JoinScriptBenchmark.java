@@ -0,0 +1,67 @@
+package com.chess.matchmaking.sim.bench;
+
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.RangePolicy;
+import com.chess.matchmaking.sim.redis.InMemoryRedis;
+import com.chess.matchmaking.sim.redis.MatchmakingRedis;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The matching logic of {@code join.lua} on the in-memory stand-in, at a steady queue depth. This measures the
+ * script's algorithm (candidate scan in rating order, an existence check and a join-time read per candidate), not Redis itself; compare
+ * it with {@link OrderBookBenchmark} before moving logic between the script and the JVM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinScriptBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int queued;
+
+    private final RangePolicy policy = new RangePolicy(100, 50, 500, 10_000);
+    private MatchmakingRedis redis;
+    private SplittableRandom random;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        redis = new MatchmakingRedis(new InMemoryRedis(), "BLITZ");
+        for (OrderBook.Entry e : Queues.entries(queued, 42)) {
+            redis.join(e.requestId(), "u-" + e.requestId(), e.rating(), e.ratingDeviation(), e.queuedAtMs(), false, policy);
+        }
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public String joinAndMatch() {
+        OrderBook.Entry e = Queues.entry(random, "j" + next++);
+        String opponent = redis.join(e.requestId(), "u-" + e.requestId(), e.rating(), e.ratingDeviation(),
+                Queues.NOW_MS, true, policy);
+        if (opponent != null) {
+            redis.forget(e.requestId(), "u-" + e.requestId());
+            redis.forget(opponent, "u-" + opponent);
+            OrderBook.Entry refill = Queues.entry(random, "j" + next++);
+            redis.join(refill.requestId(), "u-" + refill.requestId(), refill.rating(), refill.ratingDeviation(),
+                    refill.queuedAtMs(), false, policy);
+        }
+        return opponent;
+    }
+}
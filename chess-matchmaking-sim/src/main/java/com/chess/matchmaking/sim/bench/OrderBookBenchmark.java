@@ -0,0 +1,65 @@
+package com.chess.matchmaking.sim.bench;
+
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.RangePolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The order-book engine's join path at a steady queue depth: a join is added, matched against the book and,
+ * when matched, both entries leave and two fresh ones take their place.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int queued;
+
+    private final RangePolicy policy = new RangePolicy(100, 50, 500, 10_000);
+    private OrderBook book;
+    private SplittableRandom random;
+    private long next;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        book = new OrderBook();
+        Queues.entries(queued, 42).forEach(book::add);
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public OrderBook.Entry joinAndMatch() {
+        OrderBook.Entry entry = Queues.entry(random, "j" + next++);
+        book.add(entry);
+        OrderBook.Entry opponent = book.findMatch(entry, policy, Queues.NOW_MS);
+        if (opponent != null) {
+            book.remove(entry.requestId());
+            book.remove(opponent.requestId());
+            book.add(Queues.entry(random, "j" + next++));
+        }
+        return opponent;
+    }
+
+    @Benchmark
+    public OrderBook.Entry findMatchOnly() {
+        return book.findMatch(Queues.entry(random, "probe"), policy, Queues.NOW_MS);
+    }
+}
@@ -0,0 +1,35 @@
+package com.chess.matchmaking.sim.bench;
+
+import com.chess.matchmaking.engine.OrderBook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/** Seeded queue contents shared by the benchmarks: ratings around 1500, everyone queued within the last minute. */
+final class Queues {
+
+    static final long NOW_MS = 1_000_000;
+
+    private Queues() {
+    }
+
+    static List<OrderBook.Entry> entries(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<OrderBook.Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(entry(random, "q" + i));
+        }
+        return entries;
+    }
+
+    static OrderBook.Entry entry(SplittableRandom random, String requestId) {
+        double rating = Math.round(Math.max(400, Math.min(3000, 1500 + 350 * gaussian(random))));
+        double deviation = 45 + random.nextInt(46);
+        return new OrderBook.Entry(requestId, rating, deviation, NOW_MS - random.nextLong(60_000));
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
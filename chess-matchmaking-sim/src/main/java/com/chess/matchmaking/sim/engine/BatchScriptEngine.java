@@ -0,0 +1,72 @@
+package com.chess.matchmaking.sim.engine;
+
+import com.chess.matchmaking.engine.BatchPairing;
+import com.chess.matchmaking.engine.MatchmakingEngine.MatchPair;
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.RangePolicy;
+import com.chess.matchmaking.sim.Player;
+import com.chess.matchmaking.sim.redis.MatchmakingRedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code matchmaking.engine=redis} with batch pairing: joins only queue; every tick reads the whole queue,
+ * pairs it with {@link BatchPairing} and claims the pairs in one script call.
+ */
+public class BatchScriptEngine implements SimEngine {
+
+    private final MatchmakingRedis redis;
+    private final RangePolicy policy;
+    private final BatchPairing pairing;
+
+    public BatchScriptEngine(MatchmakingRedis redis, RangePolicy policy, BatchPairing pairing) {
+        this.redis = redis;
+        this.policy = policy;
+        this.pairing = pairing;
+    }
+
+    @Override
+    public String name() {
+        return "redis-batch";
+    }
+
+    @Override
+    public MatchPair join(Player player, long nowMs) {
+        redis.join(player.requestId(), player.userId(), player.rating(), player.ratingDeviation(), nowMs, false, policy);
+        redis.enqueue(player.requestId(), player.rating(), nowMs);
+        return null;
+    }
+
+    @Override
+    public void leave(Player player, long nowMs) {
+        redis.removeFromQueues(player.requestId());
+        redis.cancel(player.requestId(), player.userId());
+    }
+
+    @Override
+    public List<MatchPair> tick(long nowMs) {
+        redis.tickLock();
+        List<OrderBook.Entry[]> proposed = pairing.pair(redis.snapshot(nowMs), nowMs);
+        if (proposed.isEmpty()) {
+            return List.of();
+        }
+        List<String> ids = new ArrayList<>(proposed.size() * 2);
+        for (OrderBook.Entry[] pair : proposed) {
+            ids.add(pair[0].requestId());
+            ids.add(pair[1].requestId());
+        }
+        List<String> claimed = redis.claimPairs(ids);
+        List<MatchPair> pairs = new ArrayList<>(claimed.size() / 2);
+        for (int i = 0; i + 1 < claimed.size(); i += 2) {
+            redis.completeMatch(claimed.get(i), claimed.get(i + 1));
+            pairs.add(new MatchPair(claimed.get(i), claimed.get(i + 1)));
+        }
+        return pairs;
+    }
+
+    @Override
+    public MatchmakingRedis redis() {
+        return redis;
+    }
+}
@@ -0,0 +1,98 @@
+package com.chess.matchmaking.sim.engine;
+
+import com.chess.matchmaking.engine.BatchPairing;
+import com.chess.matchmaking.engine.MatchmakingEngine.MatchPair;
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.RangePolicy;
+import com.chess.matchmaking.sim.Player;
+import com.chess.matchmaking.sim.redis.MatchmakingRedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code matchmaking.engine=order-book} on the instance that owns the book: queue membership is written
+ * through to Redis, matching happens in the in-process {@link OrderBook}. With {@code batch} set, joins only
+ * queue and every tick pairs the book with {@link BatchPairing}; otherwise a join is matched right away and the
+ * tick sweeps neighbours whose ranges have grown.
+ */
+public class OrderBookSimEngine implements SimEngine {
+
+    private final MatchmakingRedis redis;
+    private final RangePolicy policy;
+    private final BatchPairing pairing;
+    private final OrderBook book = new OrderBook();
+
+    /** {@code pairing} is null for per-join pairing. */
+    public OrderBookSimEngine(MatchmakingRedis redis, RangePolicy policy, BatchPairing pairing) {
+        this.redis = redis;
+        this.policy = policy;
+        this.pairing = pairing;
+    }
+
+    @Override
+    public String name() {
+        return pairing != null ? "order-book-batch" : "order-book";
+    }
+
+    @Override
+    public MatchPair join(Player player, long nowMs) {
+        redis.join(player.requestId(), player.userId(), player.rating(), player.ratingDeviation(), nowMs, false, policy);
+        redis.enqueue(player.requestId(), player.rating(), nowMs);
+
+        OrderBook.Entry entry = new OrderBook.Entry(player.requestId(), player.rating(), player.ratingDeviation(), nowMs);
+        if (!book.add(entry) || pairing != null) {
+            return null;
+        }
+        OrderBook.Entry opponent = book.findMatch(entry, policy, nowMs);
+        if (opponent == null) {
+            return null;
+        }
+        book.remove(entry.requestId());
+        book.remove(opponent.requestId());
+        redis.removeFromQueues(entry.requestId(), opponent.requestId());
+        redis.completeMatch(entry.requestId(), opponent.requestId());
+        return new MatchPair(entry.requestId(), opponent.requestId());
+    }
+
+    @Override
+    public void leave(Player player, long nowMs) {
+        redis.removeFromQueues(player.requestId());
+        book.remove(player.requestId());
+        redis.cancel(player.requestId(), player.userId());
+    }
+
+    @Override
+    public List<MatchPair> tick(long nowMs) {
+        redis.renewLeaseAndReadLog();
+        List<OrderBook.Entry[]> found;
+        if (pairing == null) {
+            found = book.sweep(policy, nowMs);
+        } else {
+            found = pairing.pair(book.entries(), nowMs);
+            for (OrderBook.Entry[] pair : found) {
+                book.remove(pair[0].requestId());
+                book.remove(pair[1].requestId());
+            }
+        }
+        List<MatchPair> pairs = new ArrayList<>(found.size());
+        for (OrderBook.Entry[] pair : found) {
+            redis.removeFromQueues(pair[0].requestId(), pair[1].requestId());
+            redis.completeMatch(pair[0].requestId(), pair[1].requestId());
+            pairs.add(new MatchPair(pair[0].requestId(), pair[1].requestId()));
+        }
+        return pairs;
+    }
+
+    @Override
+    public void onExpired(List<String> requestIds) {
+        for (String requestId : requestIds) {
+            book.remove(requestId);
+        }
+    }
+
+    @Override
+    public MatchmakingRedis redis() {
+        return redis;
+    }
+}
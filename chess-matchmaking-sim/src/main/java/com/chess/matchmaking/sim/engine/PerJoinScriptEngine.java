@@ -0,0 +1,52 @@
+package com.chess.matchmaking.sim.engine;
+
+import com.chess.matchmaking.engine.MatchmakingEngine.MatchPair;
+import com.chess.matchmaking.engine.RangePolicy;
+import com.chess.matchmaking.sim.Player;
+import com.chess.matchmaking.sim.redis.MatchmakingRedis;
+
+import java.util.List;
+
+/**
+ * {@code matchmaking.engine=redis} with per-join pairing: the join script matches the request against the
+ * queue in the same call that creates it. Nothing retries a request left waiting; it is matched only by a
+ * later join that accepts it.
+ */
+public class PerJoinScriptEngine implements SimEngine {
+
+    private final MatchmakingRedis redis;
+    private final RangePolicy policy;
+
+    public PerJoinScriptEngine(MatchmakingRedis redis, RangePolicy policy) {
+        this.redis = redis;
+        this.policy = policy;
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    @Override
+    public MatchPair join(Player player, long nowMs) {
+        String opponent = redis.join(player.requestId(), player.userId(), player.rating(), player.ratingDeviation(),
+                nowMs, true, policy);
+        return opponent != null ? new MatchPair(player.requestId(), opponent) : null;
+    }
+
+    @Override
+    public void leave(Player player, long nowMs) {
+        redis.removeFromQueues(player.requestId());
+        redis.cancel(player.requestId(), player.userId());
+    }
+
+    @Override
+    public List<MatchPair> tick(long nowMs) {
+        return List.of();
+    }
+
+    @Override
+    public MatchmakingRedis redis() {
+        return redis;
+    }
+}
@@ -0,0 +1,45 @@
+package com.chess.matchmaking.sim.engine;
+
+import com.chess.matchmaking.engine.MatchmakingEngine.MatchPair;
+import com.chess.matchmaking.sim.Player;
+import com.chess.matchmaking.sim.redis.MatchmakingRedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One matchmaking mode as the service runs it for a single time control: the same Redis calls (against the
+ * in-memory stand-in) and the same in-process matching classes, driven by the simulator's clock instead of
+ * the wall clock.
+ */
+public interface SimEngine {
+
+    String name();
+
+    /** Queues the player; returns the pair when the join itself was matched. */
+    MatchPair join(Player player, long nowMs);
+
+    /** The player gave up waiting. */
+    void leave(Player player, long nowMs);
+
+    /** Work done every {@code matchmaking.tick-ms}; pairs found between joins. */
+    List<MatchPair> tick(long nowMs);
+
+    /** One run of {@code MatchmakingExpiryJob}: batches until one comes back short; the expired request ids. */
+    default List<String> expire(long cutoffMs, int batchSize) {
+        List<String> expired = new ArrayList<>();
+        List<String> batch;
+        do {
+            batch = redis().expire(cutoffMs, batchSize);
+            expired.addAll(batch);
+        } while (batch.size() >= batchSize);
+        onExpired(expired);
+        return expired;
+    }
+
+    /** Called with the requests an expiry scan removed from the Redis queue. */
+    default void onExpired(List<String> requestIds) {
+    }
+
+    MatchmakingRedis redis();
+}
@@ -0,0 +1,29 @@
+package com.chess.matchmaking.sim.engine;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.engine.BatchPairing;
+import com.chess.matchmaking.engine.RangePolicy;
+import com.chess.matchmaking.sim.redis.InMemoryRedis;
+import com.chess.matchmaking.sim.redis.MatchmakingRedis;
+
+/** Builds a fresh engine, with its own empty Redis, for a mode name. */
+public final class SimEngines {
+
+    private static final String QUEUE = "BLITZ";
+
+    private SimEngines() {
+    }
+
+    public static SimEngine create(String mode, MatchmakingProperties properties) {
+        MatchmakingRedis redis = new MatchmakingRedis(new InMemoryRedis(), QUEUE);
+        RangePolicy policy = RangePolicy.of(properties);
+        return switch (mode.trim()) {
+            case "redis" -> new PerJoinScriptEngine(redis, policy);
+            case "redis-batch" -> new BatchScriptEngine(redis, policy, BatchPairing.of(properties));
+            case "order-book" -> new OrderBookSimEngine(redis, policy, null);
+            case "order-book-batch" -> new OrderBookSimEngine(redis, policy, BatchPairing.of(properties));
+            default -> throw new IllegalArgumentException("Unknown engine: " + mode
+                    + " (expected redis, redis-batch, order-book or order-book-batch)");
+        };
+    }
+}
@@ -0,0 +1,215 @@
+package com.chess.matchmaking.sim.redis;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The slice of Redis the matchmaking keys use (ZSETs, hashes, strings), single-threaded and in memory. Every
+ * command is counted in {@link #commands()}; callers count network round trips themselves with
+ * {@link #roundTrip()}, since a script call or a pipeline is one round trip for many commands.
+ *
+ * ZSETs order equal scores by member, like Redis. Expiry and streams are not modelled: TTLs only matter for keys of requests
+ * that already left the queue, and {@code EXPIRE} is still counted as a command.
+ */
+public final class InMemoryRedis {
+
+    private final Map<String, ZSet> zsets = new HashMap<>();
+    private final Map<String, Map<String, String>> hashes = new HashMap<>();
+    private final Map<String, String> strings = new HashMap<>();
+    private long commands;
+    private long roundTrips;
+
+    public long commands() {
+        return commands;
+    }
+
+    public long roundTrips() {
+        return roundTrips;
+    }
+
+    public void roundTrip() {
+        roundTrips++;
+    }
+
+    // --- ZSET ---
+
+    public boolean zaddNx(String key, String member, double score) {
+        commands++;
+        return zsets.computeIfAbsent(key, k -> new ZSet()).addIfAbsent(member, score);
+    }
+
+    public int zrem(String key, String... members) {
+        commands++;
+        ZSet zset = zsets.get(key);
+        if (zset == null) {
+            return 0;
+        }
+        int removed = 0;
+        for (String member : members) {
+            removed += zset.remove(member) ? 1 : 0;
+        }
+        return removed;
+    }
+
+    public Double zscore(String key, String member) {
+        commands++;
+        ZSet zset = zsets.get(key);
+        return zset != null ? zset.scores.get(member) : null;
+    }
+
+    /** {@code ZRANGEBYSCORE key min max LIMIT 0 limit}. */
+    public List<String> zrangeByScore(String key, double min, double max, int limit) {
+        commands++;
+        ZSet zset = zsets.get(key);
+        List<String> result = new ArrayList<>();
+        if (zset == null) {
+            return result;
+        }
+        for (Member m : zset.ordered.tailSet(new Member("", min), true)) {
+            if (m.score > max || result.size() >= limit) {
+                break;
+            }
+            result.add(m.id);
+        }
+        return result;
+    }
+
+    /** {@code ZRANGEBYSCORE key min max WITHSCORES LIMIT 0 limit}, in score order. */
+    public Map<String, Double> zrangeByScoreWithScores(String key, double min, double max, int limit) {
+        commands++;
+        ZSet zset = zsets.get(key);
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (zset == null) {
+            return result;
+        }
+        for (Member m : zset.ordered.tailSet(new Member("", min), true)) {
+            if (m.score > max || result.size() >= limit) {
+                break;
+            }
+            result.put(m.id, m.score);
+        }
+        return result;
+    }
+
+    /** {@code ZRANGE key 0 -1 WITHSCORES}, in score order. */
+    public Map<String, Double> zrangeWithScores(String key) {
+        commands++;
+        ZSet zset = zsets.get(key);
+        Map<String, Double> result = new LinkedHashMap<>();
+        if (zset != null) {
+            for (Member m : zset.ordered) {
+                result.put(m.id, m.score);
+            }
+        }
+        return result;
+    }
+
+    // --- HASH ---
+
+    public void hset(String key, Map<String, String> fields) {
+        commands++;
+        hashes.computeIfAbsent(key, k -> new HashMap<>()).putAll(fields);
+    }
+
+    public void hset(String key, String field, String value) {
+        commands++;
+        hashes.computeIfAbsent(key, k -> new HashMap<>()).put(field, value);
+    }
+
+    public String hget(String key, String field) {
+        commands++;
+        Map<String, String> hash = hashes.get(key);
+        return hash != null ? hash.get(field) : null;
+    }
+
+    public List<String> hmget(String key, String... fields) {
+        commands++;
+        Map<String, String> hash = hashes.getOrDefault(key, Map.of());
+        List<String> values = new ArrayList<>(fields.length);
+        for (String field : fields) {
+            values.add(hash.get(field));
+        }
+        return values;
+    }
+
+    public Map<String, String> hgetall(String key) {
+        commands++;
+        return Map.copyOf(hashes.getOrDefault(key, Map.of()));
+    }
+
+    // --- STRING / KEY ---
+
+    public String get(String key) {
+        commands++;
+        return strings.get(key);
+    }
+
+    public void set(String key, String value) {
+        commands++;
+        strings.put(key, value);
+    }
+
+    public boolean exists(String key) {
+        commands++;
+        return strings.containsKey(key) || hashes.containsKey(key) || zsets.containsKey(key);
+    }
+
+    public void del(String key) {
+        commands++;
+        strings.remove(key);
+        hashes.remove(key);
+        zsets.remove(key);
+    }
+
+    /** A key expiring on its own: gone without a command. */
+    public void evict(String key) {
+        strings.remove(key);
+        hashes.remove(key);
+        zsets.remove(key);
+    }
+
+    public void expire(String key) {
+        commands++;
+    }
+
+    /** {@code XREAD}; streams are not modelled, a single simulated instance has nothing forwarded to it. */
+    public List<String> xread(String key) {
+        commands++;
+        return List.of();
+    }
+
+    private record Member(String id, double score) {
+    }
+
+    private static final class ZSet {
+        private static final Comparator<Member> ORDER = Comparator
+                .comparingDouble(Member::score)
+                .thenComparing(Member::id);
+
+        final Map<String, Double> scores = new HashMap<>();
+        final NavigableSet<Member> ordered = new TreeSet<>(ORDER);
+
+        boolean addIfAbsent(String member, double score) {
+            if (scores.putIfAbsent(member, score) != null) {
+                return false;
+            }
+            ordered.add(new Member(member, score));
+            return true;
+        }
+
+        boolean remove(String member) {
+            Double score = scores.remove(member);
+            if (score == null) {
+                return false;
+            }
+            ordered.remove(new Member(member, score));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.chess.matchmaking.sim.redis;
+
+import com.chess.matchmaking.engine.OrderBook;
+import com.chess.matchmaking.engine.QueueKeys;
+import com.chess.matchmaking.engine.RangePolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The Redis calls the matchmaking service makes for one pool, issued against {@link InMemoryRedis} with the same
+ * keys, commands and round trips. The scripts are line-for-line ports of {@code join.lua}, {@code try-match.lua},
+ * {@code claim-pairs.lua} and {@code expire.lua}; the rest mirror {@code RedisMatchmakingRequestStore},
+ * {@code RedisMatchmakingEngine} and {@code QueueSnapshot}. When one of those changes, change its port here so
+ * the simulator keeps reporting what production does.
+ */
+public final class MatchmakingRedis {
+
+    private static final String USER_KEY_PREFIX = "mm:user:";
+    private static final String BATCH_TICK_KEY_PREFIX = "mm:batch:tick:";
+    private static final String OWNER_KEY_PREFIX = "mm:engine:owner:";
+    private static final String LOG_KEY_PREFIX = "mm:log:";
+    private static final int MAX_MATCH_CANDIDATES = 50;
+
+    private final InMemoryRedis redis;
+    private final String queue;
+    private final String queueKey;
+    private final String queueTsKey;
+    private final String tickKey;
+    private final String ownerKey;
+    private final String logKey;
+
+    public MatchmakingRedis(InMemoryRedis redis, String pool) {
+        this.redis = redis;
+        this.queue = QueueKeys.tag(pool);
+        this.queueKey = QueueKeys.queue(queue);
+        this.queueTsKey = QueueKeys.queueTs(queue);
+        this.tickKey = QueueKeys.pooled(BATCH_TICK_KEY_PREFIX, pool);
+        this.ownerKey = QueueKeys.pooled(OWNER_KEY_PREFIX, pool);
+        this.logKey = QueueKeys.pooled(LOG_KEY_PREFIX, pool);
+    }
+
+    public InMemoryRedis redis() {
+        return redis;
+    }
+
+    /**
+     * {@code RedisMatchmakingRequestStore.join} without an idempotency key, one {@code join.lua} call: reserves
+     * the user in the queue, writes and queues the request and, when {@code match} is set, matches it and marks
+     * both requests matched. Returns the opponent's request id, or null.
+     */
+    public String join(String requestId, String userId, double rating, double ratingDeviation, long nowMs,
+                       boolean match, RangePolicy policy) {
+        String reqKey = QueueKeys.request(requestId);
+        String userKey = userKey(userId);
+
+        redis.roundTrip();
+        String active = redis.get(userKey);
+        if (active != null) {
+            redis.hgetall(QueueKeys.request(active));
+            return null;
+        }
+        redis.hset(reqKey, Map.of(
+                "requestId", requestId,
+                "userId", userId,
+                "status", "QUEUED",
+                "queuedAtMs", String.valueOf(nowMs),
+                "queue", queue,
+                "rating", String.valueOf(rating),
+                "ratingDeviation", String.valueOf(ratingDeviation)));
+        redis.expire(reqKey);
+        redis.set(userKey, requestId);
+        redis.zaddNx(queueKey, requestId, rating);
+        redis.zaddNx(queueTsKey, requestId, nowMs);
+        if (!match) {
+            redis.hgetall(reqKey);
+            return null;
+        }
+
+        double myRange = policy.range(nowMs, nowMs);
+        Map<String, Double> candidates = redis.zrangeByScoreWithScores(
+                queueKey, rating - myRange, rating + myRange, MAX_MATCH_CANDIDATES);
+        for (Map.Entry<String, Double> candidate : candidates.entrySet()) {
+            String oppId = candidate.getKey();
+            if (oppId.equals(requestId)) {
+                continue;
+            }
+            String oppKey = QueueKeys.request(oppId);
+            if (!redis.exists(oppKey)) {
+                redis.zrem(queueKey, oppId);
+                redis.zrem(queueTsKey, oppId);
+                continue;
+            }
+            Double oppQueuedAt = redis.zscore(queueTsKey, oppId);
+            double oppRange = policy.range(oppQueuedAt != null ? oppQueuedAt.longValue() : nowMs, nowMs);
+            if (Math.abs(rating - candidate.getValue()) <= oppRange) {
+                redis.zrem(queueKey, requestId, oppId);
+                redis.zrem(queueTsKey, requestId, oppId);
+                redis.hset(reqKey, "status", "MATCHED");
+                redis.hset(oppKey, "status", "MATCHED");
+                redis.expire(reqKey);
+                redis.expire(oppKey);
+                redis.hgetall(reqKey);
+                redis.hgetall(oppKey);
+                return oppId;
+            }
+        }
+        redis.hgetall(reqKey);
+        return null;
+    }
+
+    /** Drops a closed request's keys, as their TTLs eventually do; not counted as commands the service sends. */
+    public void forget(String requestId, String userId) {
+        redis.evict(QueueKeys.request(requestId));
+        redis.evict(userKey(userId));
+    }
+
+    /** Write-through queue membership after a join ({@code ZADD NX} on both ZSETs, two round trips). */
+    public void enqueue(String requestId, double rating, long nowMs) {
+        redis.roundTrip();
+        redis.zaddNx(queueKey, requestId, rating);
+        redis.roundTrip();
+        redis.zaddNx(queueTsKey, requestId, nowMs);
+    }
+
+    /** {@code MatchmakingEngine.removeFromQueues}. */
+    public void removeFromQueues(String... requestIds) {
+        redis.roundTrip();
+        redis.zrem(queueKey, requestIds);
+        redis.roundTrip();
+        redis.zrem(queueTsKey, requestIds);
+    }
+
+    /** The store side of a leave: read the request, mark it cancelled and release the user in its queue. */
+    public void cancel(String requestId, String userId) {
+        String reqKey = QueueKeys.request(requestId);
+        String userKey = userKey(userId);
+        redis.roundTrip();
+        redis.hgetall(reqKey);
+        redis.roundTrip();
+        redis.hget(reqKey, "queue");
+        redis.roundTrip();
+        redis.hset(reqKey, "status", "CANCELLED");
+        redis.roundTrip();
+        redis.expire(reqKey);
+        redis.roundTrip();
+        if (requestId.equals(redis.get(userKey))) {
+            redis.roundTrip();
+            redis.del(userKey);
+        }
+    }
+
+    /** {@code MatchmakingService.completeMatch} for a pair found outside the join script. */
+    public void completeMatch(String requestId1, String requestId2) {
+        for (String requestId : new String[]{requestId1, requestId2}) {
+            String reqKey = QueueKeys.request(requestId);
+            redis.roundTrip();
+            redis.hset(reqKey, "status", "MATCHED");
+            redis.roundTrip();
+            redis.hset(reqKey, "gameId", "game");
+            redis.roundTrip();
+            redis.expire(reqKey);
+        }
+        redis.roundTrip();
+        redis.hgetall(QueueKeys.request(requestId1));
+        redis.roundTrip();
+        redis.hgetall(QueueKeys.request(requestId2));
+    }
+
+    /** The per-tick lock of batch pairing; a single simulated instance always gets it. */
+    public void tickLock() {
+        redis.roundTrip();
+        redis.set(tickKey, "1");
+    }
+
+    /** The order-book owner's tick: the lease renewal script, then one read of the forwarded-changes log. */
+    public void renewLeaseAndReadLog() {
+        redis.roundTrip();
+        redis.get(ownerKey);
+        redis.expire(ownerKey);
+        redis.roundTrip();
+        redis.xread(logKey);
+    }
+
+    /** {@code QueueSnapshot.read}: both ZSETs, then one pipeline of rating deviations. */
+    public List<OrderBook.Entry> snapshot(long nowMs) {
+        redis.roundTrip();
+        Map<String, Double> ratings = redis.zrangeWithScores(queueKey);
+        if (ratings.isEmpty()) {
+            return List.of();
+        }
+        redis.roundTrip();
+        Map<String, Double> since = redis.zrangeWithScores(queueTsKey);
+        redis.roundTrip();
+        List<OrderBook.Entry> entries = new ArrayList<>(ratings.size());
+        for (Map.Entry<String, Double> e : ratings.entrySet()) {
+            String deviation = redis.hget(QueueKeys.request(e.getKey()), "ratingDeviation");
+            Double queuedAt = since.get(e.getKey());
+            entries.add(new OrderBook.Entry(e.getKey(), e.getValue(),
+                    deviation != null ? Double.parseDouble(deviation) : 0.0,
+                    queuedAt != null ? queuedAt.longValue() : nowMs));
+        }
+        return entries;
+    }
+
+    /** {@code claim-pairs.lua}: keeps the proposed pairs whose requests are both still queued. */
+    public List<String> claimPairs(List<String> ids) {
+        redis.roundTrip();
+        List<String> claimed = new ArrayList<>();
+        for (int i = 0; i + 1 < ids.size(); i += 2) {
+            String a = ids.get(i);
+            String b = ids.get(i + 1);
+            if (redis.zscore(queueKey, a) != null && redis.zscore(queueKey, b) != null) {
+                redis.zrem(queueKey, a, b);
+                redis.zrem(queueTsKey, a, b);
+                claimed.add(a);
+                claimed.add(b);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * {@code RedisMatchmakingRequestStore.expireQueued}: {@code expire.lua} takes up to {@code limit} requests queued
+     * before the cutoff out of the queue, then pipelines mark those still queued expired and release their
+     * users. Returns the expired ids.
+     */
+    public List<String> expire(long cutoffMs, int limit) {
+        redis.roundTrip();
+        List<String> ids = redis.zrangeByScore(queueTsKey, Double.NEGATIVE_INFINITY, cutoffMs, limit);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+        for (String id : ids) {
+            redis.zscore(queueKey, id);
+        }
+        for (int i = 0; i < ids.size(); i += 1000) {
+            String[] chunk = ids.subList(i, Math.min(ids.size(), i + 1000)).toArray(String[]::new);
+            redis.zrem(queueKey, chunk);
+            redis.zrem(queueTsKey, chunk);
+        }
+
+        redis.roundTrip();
+        List<String> expired = new ArrayList<>();
+        List<String> users = new ArrayList<>();
+        for (String id : ids) {
+            List<String> req = redis.hmget(QueueKeys.request(id), "status", "userId");
+            if (req.get(1) != null && (req.get(0) == null || "QUEUED".equals(req.get(0)))) {
+                expired.add(id);
+                users.add(req.get(1));
+            }
+        }
+        if (expired.isEmpty()) {
+            return expired;
+        }
+
+        redis.roundTrip();
+        for (String id : expired) {
+            redis.hset(QueueKeys.request(id), "status", "EXPIRED");
+            redis.expire(QueueKeys.request(id));
+        }
+        List<String> released = new ArrayList<>();
+        for (int i = 0; i < expired.size(); i++) {
+            if (expired.get(i).equals(redis.get(userKey(users.get(i))))) {
+                released.add(userKey(users.get(i)));
+            }
+        }
+        if (!released.isEmpty()) {
+            redis.roundTrip();
+            released.forEach(redis::del);
+        }
+        return expired;
+    }
+
+    private String userKey(String userId) {
+        return USER_KEY_PREFIX + queue + ":" + userId;
+    }
+}
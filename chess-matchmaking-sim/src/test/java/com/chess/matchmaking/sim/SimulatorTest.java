@@ -0,0 +1,74 @@
+package com.chess.matchmaking.sim;
+
+import com.chess.matchmaking.config.MatchmakingProperties;
+import com.chess.matchmaking.sim.engine.SimEngines;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulatorTest {
+
+    private final MatchmakingProperties properties = new MatchmakingProperties();
+
+    private SimProperties sim(long seed) {
+        SimProperties sim = new SimProperties();
+        sim.setSeed(seed);
+        sim.setPlayers(2000);
+        sim.setArrivalsPerSecond(10);
+        return sim;
+    }
+
+    @Test
+    void sameSeed_sameStream_sameReport() {
+        SimProperties sim = sim(7);
+        List<Arrival> arrivals = ArrivalStream.synthetic(sim);
+        assertThat(ArrivalStream.synthetic(sim(7))).isEqualTo(arrivals);
+
+        for (String mode : List.of("redis", "redis-batch", "order-book", "order-book-batch")) {
+            SimReport first = new Simulator(sim, properties).run(SimEngines.create(mode, properties), arrivals);
+            SimReport second = new Simulator(sim, properties).run(SimEngines.create(mode, properties), arrivals);
+
+            assertThat(second.pairs()).isEqualTo(first.pairs());
+            assertThat(second.waitPercentileMs(99)).isEqualTo(first.waitPercentileMs(99));
+            assertThat(second.ratingDiffPercentile(90)).isEqualTo(first.ratingDiffPercentile(90));
+            assertThat(second.redisCommands()).isEqualTo(first.redisCommands());
+            assertThat(second.matchRateByBand()).isEqualTo(first.matchRateByBand());
+        }
+    }
+
+    @Test
+    void everyJoinEndsMatchedLeftExpiredOrQueued_andPairsRespectTheMaxRange() {
+        SimProperties sim = sim(3);
+        List<Arrival> arrivals = ArrivalStream.synthetic(sim);
+
+        for (String mode : List.of("redis", "redis-batch", "order-book", "order-book-batch")) {
+            SimReport report = new Simulator(sim, properties).run(SimEngines.create(mode, properties), arrivals);
+
+            assertThat(report.joined()).isEqualTo(2000);
+            assertThat(2 * report.pairs() + report.left() + report.expired() + report.unmatched()).isEqualTo(2000);
+            assertThat(report.pairs()).isPositive();
+            assertThat(report.ratingDiffPercentile(100)).isLessThanOrEqualTo(properties.getMaxRatingRange());
+            assertThat(report.redisRoundTrips()).isPositive();
+        }
+    }
+
+    @Test
+    void recordedStream_replaysLikeTheGeneratedOne(@TempDir Path dir)
+            throws Exception {
+        SimProperties sim = sim(11);
+        List<Arrival> arrivals = ArrivalStream.synthetic(sim);
+        Path trace = dir.resolve("trace.csv");
+        ArrivalStream.write(trace, arrivals);
+
+        SimReport generated = new Simulator(sim, properties).run(SimEngines.create("order-book", properties), arrivals);
+        SimReport replayed = new Simulator(sim, properties)
+                .run(SimEngines.create("order-book", properties), ArrivalStream.read(trace));
+
+        assertThat(replayed.pairs()).isEqualTo(generated.pairs());
+        assertThat(replayed.waitPercentileMs(50)).isEqualTo(generated.waitPercentileMs(50));
+    }
+}
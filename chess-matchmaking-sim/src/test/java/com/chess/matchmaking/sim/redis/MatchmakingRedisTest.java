@@ -0,0 +1,95 @@
+package com.chess.matchmaking.sim.redis;
+
+import com.chess.matchmaking.engine.QueueKeys;
+import com.chess.matchmaking.engine.RangePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchmakingRedisTest {
+
+    private final RangePolicy policy = new RangePolicy(100, 50, 500, 10_000);
+    private final InMemoryRedis redis = new InMemoryRedis();
+    private final MatchmakingRedis mm = new MatchmakingRedis(redis, "BLITZ");
+
+    @Test
+    void join_matchesFirstCandidateInRatingOrderThatBothSidesAccept() {
+        mm.join("a", "ua", 1400, 60, 0, false, policy);
+        mm.join("b", "ub", 1450, 60, 0, false, policy);
+
+        // 1390 is within 100 of both; the lower-rated candidate comes first, as ZRANGEBYSCORE returns it
+        assertThat(mm.join("c", "uc", 1390, 60, 0, true, policy)).isEqualTo("a");
+        assertThat(redis.zscore("mm:queue:{BLITZ}", "a")).isNull();
+        assertThat(redis.zscore("mm:queue:{BLITZ}", "b")).isNotNull();
+        assertThat(redis.hget(QueueKeys.request("a"), "status")).isEqualTo("MATCHED");
+    }
+
+    @Test
+    void join_rangeOfTheWaitingSideGrowsWithItsWait() {
+        mm.join("a", "ua", 1500, 60, 0, false, policy);
+
+        // a joiner's own range is the initial one, so 1650 only matches once a has waited long enough
+        assertThat(mm.join("b", "ub", 1650, 60, 5_000, true, policy)).isNull();
+        assertThat(mm.join("c", "uc", 1600, 60, 20_000, true, policy)).isEqualTo("a");
+    }
+
+    @Test
+    void join_isOneRoundTrip_includingTheMatch() {
+        mm.join("a", "ua", 1500, 60, 0, false, policy);
+        long roundTrips = redis.roundTrips();
+        long commands = redis.commands();
+
+        mm.join("b", "ub", 1510, 60, 0, true, policy);
+
+        assertThat(redis.roundTrips() - roundTrips).isEqualTo(1);
+        // GET, HSET, EXPIRE, SET, 2x ZADD, ZRANGEBYSCORE, EXISTS, ZSCORE, 2x ZREM, 2x HSET, 2x EXPIRE, 2x HGETALL
+        assertThat(redis.commands() - commands).isEqualTo(17);
+    }
+
+    @Test
+    void join_dropsACandidateWhoseHashIsGone() {
+        mm.join("a", "ua", 1500, 60, 0, false, policy);
+        redis.evict(QueueKeys.request("a"));
+
+        assertThat(mm.join("b", "ub", 1510, 60, 0, true, policy)).isNull();
+        assertThat(redis.zscore("mm:queue:{BLITZ}", "a")).isNull();
+        assertThat(redis.zscore("mm:queue:{BLITZ}", "b")).isNotNull();
+    }
+
+    @Test
+    void join_secondJoinOfAUserReturnsTheActiveRequest_withoutWritingItsOwn() {
+        mm.join("a", "ua", 1500, 60, 0, false, policy);
+
+        assertThat(mm.join("a2", "ua", 1500, 60, 0, true, policy)).isNull();
+        assertThat(redis.hget(QueueKeys.request("a2"), "status")).isNull();
+        assertThat(redis.get("mm:user:{BLITZ}:ua")).isEqualTo("a");
+        assertThat(redis.zscore("mm:queue:{BLITZ}", "a2")).isNull();
+    }
+
+    @Test
+    void expire_onlyExpiresQueuedRequestsPastTheCutoff_andReleasesTheirUsers() {
+        mm.join("old", "u1", 1500, 60, 0, false, policy);
+        mm.join("new", "u2", 2500, 60, 50_000, false, policy);
+
+        List<String> expired = mm.expire(10_000, 100);
+
+        assertThat(expired).containsExactly("old");
+        assertThat(redis.hget(QueueKeys.request("old"), "status")).isEqualTo("EXPIRED");
+        assertThat(redis.get("mm:user:{BLITZ}:u1")).isNull();
+        assertThat(redis.zscore("mm:queue:{BLITZ}", "new")).isNotNull();
+    }
+
+    @Test
+    void claimPairs_skipsPairsWithARequestNoLongerQueued() {
+        mm.join("a", "ua", 1500, 60, 0, false, policy);
+        mm.join("b", "ub", 1510, 60, 0, false, policy);
+        mm.join("c", "uc", 1600, 60, 0, false, policy);
+        mm.join("d", "ud", 1610, 60, 0, false, policy);
+        mm.removeFromQueues("c");
+
+        assertThat(mm.claimPairs(List.of("a", "b", "c", "d"))).containsExactly("a", "b");
+        assertThat(redis.zscore("mm:queue:{BLITZ}", "d")).isNotNull();
+    }
+}
@@ -1,5 +1,6 @@
 package com.chess.user.config;
 
+import com.chess.common.concurrent.NatsOptions;
 import com.chess.events.constants.NatsSubjects;
 import io.nats.client.Connection;
 import io.nats.client.ConnectionListener;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import java.io.IOException;
 import java.time.Duration;
@@ -37,9 +39,9 @@ public class NatsConfig {
 
     @Bean
     @ConditionalOnProperty(name = "nats.enabled", havingValue = "true", matchIfMissing = true)
-    public Connection natsConnection() {
+    public Connection natsConnection(Environment environment) {
         try {
-            Options options = new Options.Builder()
+            Options.Builder builder = new Options.Builder()
                     .server(natsUrl)
                     .connectionName(connectionName)
                     .maxReconnects(maxReconnects)
@@ -71,8 +73,9 @@ public class NatsConfig {
                         public void slowConsumerDetected(Connection conn, io.nats.client.Consumer consumer) {
                             log.warn("NATS slow consumer detected: {}", consumer);
                         }
-                    })
-                    .build();
+                    });
+            NatsOptions.applyVirtualThreads(builder, environment);
+            Options options = builder.build();
 
             Connection connection = Nats.connect(options);
             log.info("Connected to NATS server: {}", natsUrl);
@@ -1,6 +1,9 @@
 package com.chess.user.controller;
 
+import com.chess.common.exception.ValidationException;
 import com.chess.user.dto.CreateUserInternalRequest;
+import com.chess.user.dto.RatingsResponse;
+import com.chess.user.service.RatingService;
 import com.chess.user.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -8,11 +11,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
- * Internal API for auth-service to create user profile synchronously on registration.
- * Not exposed via gateway; only reachable inside the Docker network.
+ * Internal API for auth-service to create user profile synchronously on registration, and for matchmaking
+ * to load ratings in bulk. Not exposed via gateway; only reachable inside the Docker network.
  */
 @Slf4j
 @RestController
@@ -20,7 +25,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class InternalUserController {
 
+    private static final int MAX_RATINGS_BATCH = 500;
+
     private final UserService userService;
+    private final RatingService ratingService;
 
     @PostMapping
     public ResponseEntity<Map<String, String>> createUser(@Valid @RequestBody CreateUserInternalRequest request) {
@@ -28,4 +36,16 @@ public class InternalUserController {
         userService.createUser(request.getUserId(), request.getEmail());
         return ResponseEntity.ok(Map.of("userId", request.getUserId().toString()));
     }
+
+    @PostMapping("/ratings")
+    public ResponseEntity<List<RatingsResponse>> getRatings(@RequestBody List<UUID> userIds) {
+        if (userIds.size() > MAX_RATINGS_BATCH) {
+            throw new ValidationException("At most " + MAX_RATINGS_BATCH + " users per request");
+        }
+        log.debug("Internal ratings lookup: users={}", userIds.size());
+        List<RatingsResponse> response = ratingService.getUsersRatings(userIds).entrySet().stream()
+                .map(e -> RatingsResponse.builder().userId(e.getKey()).ratings(e.getValue()).build())
+                .toList();
+        return ResponseEntity.ok(response);
+    }
 }
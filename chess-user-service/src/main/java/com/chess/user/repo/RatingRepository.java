@@ -4,6 +4,7 @@ import com.chess.user.domain.Rating;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,5 +16,7 @@ public interface RatingRepository extends JpaRepository<Rating, UUID> {
 
     List<Rating> findByUserId(UUID userId);
 
+    List<Rating> findByUserIdIn(Collection<UUID> userIds);
+
     List<Rating> findByTimeControlOrderByRatingDesc(String timeControl);
 }
@@ -14,7 +14,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -65,6 +68,14 @@ public class RatingService {
                 .collect(Collectors.toList());
     }
 
+    /** Ratings of many users in one query; users without ratings are absent from the result. */
+    @Transactional(readOnly = true)
+    public Map<UUID, List<RatingDto>> getUsersRatings(Collection<UUID> userIds) {
+        return ratingRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(Rating::getUserId, LinkedHashMap::new,
+                        Collectors.mapping(this::toRatingDto, Collectors.toList())));
+    }
+
     @Transactional(readOnly = true)
     public Rating getRating(UUID userId, String timeControl) {
         return ratingRepository.findByUserIdAndTimeControl(userId, timeControl)
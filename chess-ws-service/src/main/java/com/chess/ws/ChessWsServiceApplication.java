@@ -3,9 +3,11 @@ package com.chess.ws;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(excludeName = "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration")
 @EnableRetry
+@EnableScheduling
 public class ChessWsServiceApplication {
 
     public static void main(String[] args) {
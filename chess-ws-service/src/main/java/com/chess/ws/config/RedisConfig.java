@@ -0,0 +1,34 @@
+package com.chess.ws.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Objects;
+
+/**
+ * Redis connection for the features that need one (redis processed-event store, cluster presence).
+ * Main application excludes RedisAutoConfiguration by default so local runs without Redis.
+ */
+@Configuration
+@ConditionalOnExpression("'${ws.processed-event-store.type:inmemory}' == 'redis' or ${ws.presence.enabled:false}")
+public class RedisConfig {
+
+    @Bean
+    public RedisConnectionFactory redisConnectionFactory(
+            @Value("${spring.data.redis.host:localhost}") String host,
+            @Value("${spring.data.redis.port:6379}") int port) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(host, port);
+        factory.afterPropertiesSet();
+        return factory;
+    }
+
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return new StringRedisTemplate(Objects.requireNonNull(connectionFactory));
+    }
+}
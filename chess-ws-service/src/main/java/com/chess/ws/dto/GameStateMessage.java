@@ -22,5 +22,7 @@ public class GameStateMessage {
     private String result;
     private String finishReason;
     private UUID drawOfferedBy;
+    /** Set when ws-service capped the move list; the full history must be fetched from game-service. */
+    private boolean movesTruncated;
 }
 
@@ -26,5 +26,6 @@ public class WsGameStateMessage {
     private String status;
     private String sideToMove;
     private UUID drawOfferedBy;
+    private boolean movesTruncated;
 }
 
@@ -19,6 +19,7 @@ public class WsMoveAcceptedMessage {
     private UUID gameId;
     private String clientMoveId;
     private Integer ply;
+    private String uci;
     private String fen;
     private GameClocksMessage clocks;
 }
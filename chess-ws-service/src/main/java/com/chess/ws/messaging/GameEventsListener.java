@@ -15,6 +15,8 @@ import com.chess.ws.dto.ws.WsGameFinishedMessage;
 import com.chess.ws.dto.ws.WsGameStateMessage;
 import com.chess.ws.dto.ws.WsMove;
 import com.chess.ws.dto.ws.WsMoveAcceptedMessage;
+import com.chess.ws.ws.BinaryFrames;
+import com.chess.ws.ws.GameHandleTable;
 import com.chess.ws.ws.GameStateCache;
 import com.chess.ws.ws.WsSessionRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -187,8 +189,9 @@ public class GameEventsListener {
             String uci = e.getFrom() + e.getTo() + (e.getPromotion() != null ? e.getPromotion() : "");
 
             // update cache
-            cache.get(gameId).ifPresent(st -> {
+            cache.update(gameId, st -> {
                 st.setFen(e.getFen());
+                st.setSideToMove(sideToMove(e.getFen()));
                 st.setClocks(new GameClocksMessage(e.getWhiteTimeLeftMs(), e.getBlackTimeLeftMs()));
                 if (st.getMoves() != null) {
                     st.getMoves().add(new GameMoveMessage(
@@ -206,6 +209,7 @@ public class GameEventsListener {
                     .gameId(gameId)
                     .clientMoveId(null)
                     .ply(e.getMoveNumber())
+                    .uci(uci)
                     .fen(e.getFen())
                     .clocks(new GameClocksMessage((long) e.getWhiteTimeLeftMs(), (long) e.getBlackTimeLeftMs()))
                     .build());
@@ -274,7 +278,7 @@ public class GameEventsListener {
         }
     }
 
-    private void broadcast(UUID gameId, Object message) {
+    void broadcast(UUID gameId, Object message) {
         String json;
         try {
             json = objectMapper.writeValueAsString(message);
@@ -286,17 +290,25 @@ public class GameEventsListener {
         TextMessage tm = new TextMessage(json);
         for (WebSocketSession session : registry.get(gameId)) {
             try {
-                if (session.isOpen()) {
+                WebSocketSession out = WsSessionRegistry.outbound(session);
+                if (out.isOpen()) {
                     // Deduplicate for the sender session: if it already received MOVE_ACCEPTED for this ply via direct response,
                     // skip the broadcast with same ply.
                     if (message instanceof WsMoveAcceptedMessage mam && mam.getPly() != null) {
-                        Object lastObj = session.getAttributes().get("last_sent_ply");
-                        int last = lastObj instanceof Integer li ? li : 0;
-                        if (mam.getPly() <= last) {
+                        if (mam.getPly() <= WsSessionRegistry.sentPly(session, gameId)) {
                             continue;
                         }
                     }
-                    session.sendMessage(tm);
+                    // the binary frame has no way to say "ply unknown"; such moves go out as JSON
+                    if (message instanceof WsMoveAcceptedMessage mam && mam.getPly() != null && mam.getUci() != null
+                            && BinaryFrames.isBinary(session)) {
+                        int handle = GameHandleTable.of(session).handleOf(gameId);
+                        if (handle != 0) {
+                            out.sendMessage(BinaryFrames.moveAccepted(handle, mam.getPly(), mam.getUci(), mam.getClocks(), 0));
+                            continue;
+                        }
+                    }
+                    out.sendMessage(tm);
                 }
             } catch (Exception e) {
                 log.debug("Failed to send WS message to sessionId={}", session.getId(), e);
@@ -304,6 +316,15 @@ public class GameEventsListener {
         }
     }
 
+    /** Side to move from the FEN active-colour field, matching game-service's WHITE/BLACK naming. */
+    private static String sideToMove(String fen) {
+        if (fen == null) {
+            return null;
+        }
+        String[] parts = fen.split(" ");
+        return parts.length > 1 && "b".equals(parts[1]) ? "BLACK" : "WHITE";
+    }
+
     private GameStateMessage fetchStateUsingAnySessionToken(UUID gameId) {
         for (WebSocketSession session : registry.get(gameId)) {
             try {
@@ -338,6 +359,7 @@ public class GameEventsListener {
                 .status(state.getStatus())
                 .sideToMove(state.getSideToMove())
                 .drawOfferedBy(state.getDrawOfferedBy())
+                .movesTruncated(state.isMovesTruncated())
                 .build();
     }
 
@@ -0,0 +1,236 @@
+package com.chess.ws.messaging;
+
+import com.chess.common.messaging.ProcessedEventStore;
+import com.chess.events.common.EventEnvelope;
+import com.chess.events.constants.NatsSubjects;
+import com.chess.events.matchmaking.MatchFoundEvent;
+import com.chess.events.matchmaking.PlayerDequeuedEvent;
+import com.chess.ws.dto.GameClocksMessage;
+import com.chess.ws.dto.GameStateMessage;
+import com.chess.ws.ws.GameStateCache;
+import com.chess.ws.ws.StreamWebSocketHandler;
+import com.chess.ws.ws.WsSessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nats.client.Connection;
+import io.nats.client.Dispatcher;
+import io.nats.client.JetStream;
+import io.nats.client.JetStreamSubscription;
+import io.nats.client.Message;
+import io.nats.client.PushSubscribeOptions;
+import io.nats.client.api.AckPolicy;
+import io.nats.client.api.ConsumerConfiguration;
+import io.nats.client.api.DeliverPolicy;
+import io.nats.client.api.ReplayPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pushes matchmaking results to the players' {@code /ws/stream} connections (lobby or matchmaking channel),
+ * so clients no longer poll matchmaking status, and pre-warms {@link GameStateCache} with the starting
+ * position so the first GAME_STATE after a pairing needs no round trip to game-service.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "nats.enabled", havingValue = "true", matchIfMissing = true)
+public class MatchmakingEventsListener {
+
+    static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private final Connection natsConnection;
+    private final JetStream jetStream;
+    private final ObjectMapper objectMapper;
+    private final WsSessionRegistry registry;
+    private final GameStateCache cache;
+    private final ProcessedEventStore processedEventStore;
+
+    private Dispatcher dispatcher;
+    private JetStreamSubscription subMatchFound;
+    private JetStreamSubscription subDequeued;
+
+    private static final String CONSUMER = "ws-service-domain-matchmaking";
+    private static final String DURABLE_MATCH_FOUND = "ws-service-mm-match-found-v1";
+    private static final String DURABLE_DEQUEUED = "ws-service-mm-player-dequeued-v1";
+
+    @PostConstruct
+    public void init() {
+        try {
+            dispatcher = natsConnection.createDispatcher();
+            subMatchFound = jetStream.subscribe(
+                    NatsSubjects.MATCHMAKING_MATCH_FOUND,
+                    dispatcher,
+                    this::onMatchFound,
+                    false,
+                    PushSubscribeOptions.builder().configuration(baseConsumerConfig(DURABLE_MATCH_FOUND)).build()
+            );
+            subDequeued = jetStream.subscribe(
+                    NatsSubjects.MATCHMAKING_PLAYER_DEQUEUED,
+                    dispatcher,
+                    this::onPlayerDequeued,
+                    false,
+                    PushSubscribeOptions.builder().configuration(baseConsumerConfig(DURABLE_DEQUEUED)).build()
+            );
+            log.info("JetStream subscribed to matchmaking events: {}, {}", NatsSubjects.MATCHMAKING_MATCH_FOUND, NatsSubjects.MATCHMAKING_PLAYER_DEQUEUED);
+        } catch (Exception e) {
+            log.error("Failed to initialize matchmaking JetStream subscriptions", e);
+        }
+    }
+
+    /**
+     * Live notifications only: a fresh consumer starts at new messages instead of replaying old pairings,
+     * and redelivery is short because a late push is worth little once the client has polled.
+     */
+    private ConsumerConfiguration baseConsumerConfig(String durable) {
+        return ConsumerConfiguration.builder()
+                .durable(durable)
+                .ackPolicy(AckPolicy.Explicit)
+                .ackWait(Duration.ofSeconds(10))
+                .maxDeliver(3)
+                .deliverPolicy(DeliverPolicy.New)
+                .replayPolicy(ReplayPolicy.Instant)
+                .build();
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        tryUnsub(subMatchFound);
+        tryUnsub(subDequeued);
+    }
+
+    void onMatchFound(Message msg) {
+        try {
+            EventEnvelope<MatchFoundEvent> env = objectMapper.readValue(new String(msg.getData(), StandardCharsets.UTF_8),
+                    objectMapper.getTypeFactory().constructParametricType(EventEnvelope.class, MatchFoundEvent.class));
+            if (env.getEventId() != null && processedEventStore.isProcessed(CONSUMER, env.getEventId())) {
+                msg.ack();
+                return;
+            }
+            MatchFoundEvent e = env.getPayload();
+            if (e == null) {
+                msg.ack();
+                return;
+            }
+            UUID gameId = UUID.fromString(e.getGameId());
+            UUID whiteId = UUID.fromString(e.getWhitePlayerId());
+            UUID blackId = UUID.fromString(e.getBlackPlayerId());
+
+            prewarm(gameId, whiteId, blackId, e.getBaseSeconds());
+            pushToUser(whiteId, matchFound(e, gameId, whiteId, blackId, "WHITE"));
+            pushToUser(blackId, matchFound(e, gameId, whiteId, blackId, "BLACK"));
+
+            if (env.getEventId() != null) {
+                processedEventStore.markProcessed(CONSUMER, env.getEventId());
+            }
+            msg.ack();
+        } catch (Exception ex) {
+            log.warn("Failed to handle MatchFound", ex);
+            safeNak(msg);
+        }
+    }
+
+    void onPlayerDequeued(Message msg) {
+        try {
+            EventEnvelope<PlayerDequeuedEvent> env = objectMapper.readValue(new String(msg.getData(), StandardCharsets.UTF_8),
+                    objectMapper.getTypeFactory().constructParametricType(EventEnvelope.class, PlayerDequeuedEvent.class));
+            if (env.getEventId() != null && processedEventStore.isProcessed(CONSUMER, env.getEventId())) {
+                msg.ack();
+                return;
+            }
+            PlayerDequeuedEvent e = env.getPayload();
+            // MATCHED is followed by MatchFound, which carries everything the client needs
+            if (e != null && !"MATCHED".equals(e.getReason())) {
+                pushToUser(UUID.fromString(e.getUserId()), Map.of(
+                        "type", "MATCHMAKING_DEQUEUED",
+                        "requestId", e.getRequestId(),
+                        "reason", e.getReason()));
+            }
+            if (env.getEventId() != null) {
+                processedEventStore.markProcessed(CONSUMER, env.getEventId());
+            }
+            msg.ack();
+        } catch (Exception ex) {
+            log.warn("Failed to handle PlayerDequeued", ex);
+            safeNak(msg);
+        }
+    }
+
+    private void prewarm(UUID gameId, UUID whiteId, UUID blackId, Integer baseSeconds) {
+        long baseMs = baseSeconds != null ? baseSeconds * 1000L : 0L;
+        GameStateMessage state = new GameStateMessage();
+        state.setGameId(gameId);
+        state.setWhiteId(whiteId);
+        state.setBlackId(blackId);
+        state.setFen(START_FEN);
+        state.setMoves(new ArrayList<>());
+        state.setClocks(new GameClocksMessage(baseMs, baseMs));
+        state.setStatus("RUNNING");
+        state.setSideToMove("WHITE");
+        // GameStarted may already have cached the authoritative state
+        cache.putIfAbsent(gameId, state);
+    }
+
+    private Map<String, Object> matchFound(MatchFoundEvent e, UUID gameId, UUID whiteId, UUID blackId, String color) {
+        return Map.of(
+                "type", "MATCH_FOUND",
+                "gameId", gameId,
+                "whiteId", whiteId,
+                "blackId", blackId,
+                "color", color,
+                "timeControlType", e.getTimeControlType(),
+                "baseSeconds", e.getBaseSeconds(),
+                "incrementSeconds", e.getIncrementSeconds(),
+                "rated", Boolean.TRUE.equals(e.getRated()));
+    }
+
+    private void pushToUser(UUID userId, Object message) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(message);
+        } catch (Exception e) {
+            log.warn("Failed to serialize WS message", e);
+            return;
+        }
+        TextMessage tm = new TextMessage(json);
+        for (WebSocketSession session : registry.getByUser(userId)) {
+            if (!StreamWebSocketHandler.isSubscribed(session, StreamWebSocketHandler.CHANNEL_MATCHMAKING)
+                    && !StreamWebSocketHandler.isSubscribed(session, StreamWebSocketHandler.CHANNEL_LOBBY)) {
+                continue;
+            }
+            try {
+                WebSocketSession out = WsSessionRegistry.outbound(session);
+                if (out.isOpen()) {
+                    out.sendMessage(tm);
+                }
+            } catch (Exception e) {
+                log.debug("Failed to send WS message to sessionId={}", session.getId(), e);
+            }
+        }
+    }
+
+    private void tryUnsub(JetStreamSubscription sub) {
+        if (sub == null) return;
+        try {
+            sub.unsubscribe();
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void safeNak(Message msg) {
+        try {
+            msg.nak();
+        } catch (Exception ignored) {
+        }
+    }
+}
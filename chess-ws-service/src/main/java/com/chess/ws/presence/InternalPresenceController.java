@@ -0,0 +1,51 @@
+package com.chess.ws.presence;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Internal API for game-service: whether players are connected anywhere in the cluster and since when
+ * they are gone, so abandonment clocks can be paused while a player is online.
+ * Not exposed via gateway; only reachable inside the Docker network.
+ */
+@RestController
+@RequestMapping("/internal/presence")
+@RequiredArgsConstructor
+public class InternalPresenceController {
+
+    private final PresenceService presenceService;
+    private final ObjectProvider<RedisPresenceSync> presenceSyncProvider;
+
+    @GetMapping
+    public ResponseEntity<List<PresenceService.PresenceStatus>> presence(@RequestParam List<UUID> userIds) {
+        List<PresenceService.PresenceStatus> statuses = new ArrayList<>(userIds.size());
+        List<UUID> unknownOffline = new ArrayList<>();
+        for (UUID userId : userIds) {
+            PresenceService.PresenceStatus status = presenceService.status(userId);
+            statuses.add(status);
+            if (!status.online() && status.disconnectedAt() == null) {
+                unknownOffline.add(userId);
+            }
+        }
+
+        RedisPresenceSync sync = presenceSyncProvider.getIfAvailable();
+        if (sync != null && !unknownOffline.isEmpty()) {
+            Map<UUID, Instant> remote = sync.disconnectedAt(unknownOffline);
+            statuses.replaceAll(s -> remote.containsKey(s.userId())
+                    ? new PresenceService.PresenceStatus(s.userId(), false, remote.get(s.userId()))
+                    : s);
+        }
+        return ResponseEntity.ok(statuses);
+    }
+}
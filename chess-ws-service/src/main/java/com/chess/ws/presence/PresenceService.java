@@ -0,0 +1,169 @@
+package com.chess.ws.presence;
+
+import com.chess.ws.dto.GameStateMessage;
+import com.chess.ws.ws.JwtHandshakeInterceptor;
+import com.chess.ws.ws.UserConnectionLimiter;
+import com.chess.ws.ws.WsSessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Whether users are connected anywhere in the cluster, and OPPONENT_ONLINE / OPPONENT_DISCONNECTED pushes
+ * to players whose opponent changes state. Local connects and disconnects are seen immediately; changes on
+ * other nodes arrive with the next presence sync.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PresenceService {
+
+    private static final String ATTR_WATCHING = "presence_watching";
+
+    private final UserConnectionLimiter limiter;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ws.presence.offline-retention-seconds:3600}")
+    private long offlineRetentionSeconds;
+
+    /** opponentId -> sessions (with game) interested in that opponent's presence. */
+    private final ConcurrentHashMap<UUID, Set<Watch>> watchers = new ConcurrentHashMap<>();
+    /** Last observed state of watched users, to push transitions only. */
+    private final ConcurrentHashMap<UUID, Boolean> lastOnline = new ConcurrentHashMap<>();
+    /** When users were last seen going offline; fed locally and from the sync. */
+    private final ConcurrentHashMap<UUID, Instant> disconnectedAt = new ConcurrentHashMap<>();
+
+    public boolean isOnline(UUID userId) {
+        return limiter.localCount(userId) + limiter.remoteCount(userId) > 0;
+    }
+
+    public PresenceStatus status(UUID userId) {
+        boolean online = isOnline(userId);
+        return new PresenceStatus(userId, online, online ? null : disconnectedAt.get(userId));
+    }
+
+    /** Registers the session's player for presence of their opponent in the game; spectators are ignored. */
+    public void watch(WebSocketSession session, UUID gameId, GameStateMessage state) {
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        if (userId == null || state == null) {
+            return;
+        }
+        UUID opponentId;
+        if (userId.equals(state.getWhiteId())) {
+            opponentId = state.getBlackId();
+        } else if (userId.equals(state.getBlackId())) {
+            opponentId = state.getWhiteId();
+        } else {
+            return;
+        }
+        if (opponentId == null) {
+            return;
+        }
+        Watch watch = new Watch(session, gameId, opponentId);
+        if (!watchers.computeIfAbsent(opponentId, k -> ConcurrentHashMap.newKeySet()).add(watch)) {
+            return;
+        }
+        watching(session).add(watch);
+        boolean online = isOnline(opponentId);
+        lastOnline.putIfAbsent(opponentId, online);
+        if (online) {
+            push(watch, "OPPONENT_ONLINE");
+        }
+    }
+
+    public void unwatchAll(WebSocketSession session) {
+        for (Watch watch : watching(session)) {
+            unwatch(watch);
+        }
+        session.getAttributes().remove(ATTR_WATCHING);
+    }
+
+    public void unwatch(WebSocketSession session, UUID gameId) {
+        for (Watch watch : watching(session)) {
+            if (watch.gameId().equals(gameId)) {
+                watching(session).remove(watch);
+                unwatch(watch);
+            }
+        }
+    }
+
+    /** Re-evaluates the users after a local connect/disconnect or a sync and pushes transitions. */
+    public void recheck(Collection<UUID> userIds) {
+        for (UUID userId : userIds) {
+            boolean online = isOnline(userId);
+            if (!online) {
+                disconnectedAt.putIfAbsent(userId, Instant.now());
+            } else {
+                disconnectedAt.remove(userId);
+            }
+            Set<Watch> set = watchers.get(userId);
+            if (set == null || set.isEmpty()) {
+                continue;
+            }
+            Boolean previous = lastOnline.put(userId, online);
+            if (previous != null && previous == online) {
+                continue;
+            }
+            for (Watch watch : set) {
+                push(watch, online ? "OPPONENT_ONLINE" : "OPPONENT_DISCONNECTED");
+            }
+        }
+    }
+
+    public Set<UUID> watchedUsers() {
+        return watchers.keySet();
+    }
+
+    /** Drops old offline timestamps so the map does not grow with every user ever seen. */
+    @Scheduled(fixedDelayString = "${ws.presence.cleanup-interval-ms:60000}")
+    public void forgetStaleOffline() {
+        Instant cutoff = Instant.now().minusSeconds(offlineRetentionSeconds);
+        disconnectedAt.entrySet().removeIf(e -> e.getValue().isBefore(cutoff) && !watchers.containsKey(e.getKey()));
+    }
+
+    private void unwatch(Watch watch) {
+        watchers.computeIfPresent(watch.opponentId(), (k, set) -> {
+            set.remove(watch);
+            if (set.isEmpty()) {
+                lastOnline.remove(k);
+                return null;
+            }
+            return set;
+        });
+    }
+
+    private void push(Watch watch, String type) {
+        try {
+            WebSocketSession out = WsSessionRegistry.outbound(watch.session());
+            if (out.isOpen()) {
+                out.sendMessage(new TextMessage(objectMapper.writeValueAsString(
+                        Map.of("type", type, "gameId", watch.gameId(), "userId", watch.opponentId()))));
+            }
+        } catch (Exception e) {
+            log.debug("Failed to push presence to sessionId={}", watch.session().getId(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<Watch> watching(WebSocketSession session) {
+        return (Set<Watch>) session.getAttributes().computeIfAbsent(ATTR_WATCHING, k -> ConcurrentHashMap.<Watch>newKeySet());
+    }
+
+    record Watch(WebSocketSession session, UUID gameId, UUID opponentId) {
+    }
+
+    public record PresenceStatus(UUID userId, boolean online, Instant disconnectedAt) {
+    }
+}
@@ -0,0 +1,202 @@
+package com.chess.ws.presence;
+
+import com.chess.ws.ws.UserConnectionLimiter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Periodically syncs this node's connection counts into Redis and reads back other nodes' counts.
+ *
+ * Layout:
+ * <ul>
+ *   <li>{@code ws:presence:nodes} ZSET nodeId -> last heartbeat (ms); nodes silent for the TTL are dropped</li>
+ *   <li>{@code ws:presence:node:{nodeId}} HASH userId -> connections on that node, expiring with the heartbeat</li>
+ *   <li>{@code ws:presence:offline:{userId}} epoch ms of the user's last disconnect on any node</li>
+ * </ul>
+ *
+ * Each round costs a fixed handful of round trips regardless of how many connects happened in between:
+ * one pipelined write of the users whose local count changed, the node list, and one pipelined read of the
+ * counts on other nodes for the users this node cares about (local users and watched opponents). Every {@code full-sync-every} rounds the whole local
+ * hash is rewritten so a lost key (Redis restart, expired TTL after a pause) heals itself.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ws.presence.enabled", havingValue = "true")
+public class RedisPresenceSync {
+
+    static final String NODES_KEY = "ws:presence:nodes";
+    static final String NODE_KEY_PREFIX = "ws:presence:node:";
+    static final String OFFLINE_KEY_PREFIX = "ws:presence:offline:";
+
+    private final StringRedisTemplate redis;
+    private final UserConnectionLimiter limiter;
+    private final PresenceService presence;
+    private final String nodeId;
+    private final long nodeTtlMs;
+    private final int fullSyncEvery;
+    private final long offlineRetentionSeconds;
+
+    private long round;
+    private boolean forceFull = true;
+
+    public RedisPresenceSync(
+            StringRedisTemplate redis,
+            UserConnectionLimiter limiter,
+            PresenceService presence,
+            @Value("${ws.presence.node-id:}") String nodeId,
+            @Value("${ws.presence.node-ttl-ms:15000}") long nodeTtlMs,
+            @Value("${ws.presence.full-sync-every:15}") int fullSyncEvery,
+            @Value("${ws.presence.offline-retention-seconds:3600}") long offlineRetentionSeconds) {
+        this.redis = redis;
+        this.limiter = limiter;
+        this.presence = presence;
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString();
+        this.nodeTtlMs = nodeTtlMs;
+        this.fullSyncEvery = Math.max(1, fullSyncEvery);
+        this.offlineRetentionSeconds = offlineRetentionSeconds;
+        log.info("Presence sync enabled: nodeId={}", this.nodeId);
+    }
+
+    @Scheduled(fixedDelayString = "${ws.presence.sync-interval-ms:2000}")
+    public synchronized void sync() {
+        try {
+            push();
+            pull();
+        } catch (Exception e) {
+            forceFull = true;
+            log.warn("Presence sync failed: {}", e.getMessage());
+        }
+    }
+
+    /** Last disconnect time per user as recorded by any node; users never seen are absent. */
+    public Map<UUID, Instant> disconnectedAt(List<UUID> userIds) {
+        Map<UUID, Instant> out = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return out;
+        }
+        List<String> values = redis.opsForValue().multiGet(userIds.stream().map(id -> OFFLINE_KEY_PREFIX + id).toList());
+        for (int i = 0; values != null && i < userIds.size(); i++) {
+            String v = values.get(i);
+            if (v != null) {
+                out.put(userIds.get(i), Instant.ofEpochMilli(Long.parseLong(v)));
+            }
+        }
+        return out;
+    }
+
+    @PreDestroy
+    public void leave() {
+        try {
+            redis.delete(nodeKey(nodeId));
+            redis.opsForZSet().remove(NODES_KEY, nodeId);
+        } catch (Exception e) {
+            log.debug("Failed to remove presence node {}", nodeId, e);
+        }
+    }
+
+    private void push() {
+        Map<UUID, Integer> changed = limiter.drainDirty();
+        // after a failed round the hash may hold counts whose HDEL was lost, so rebuild it from scratch
+        boolean reset = forceFull;
+        boolean full = reset || round++ % fullSyncEvery == 0;
+        Map<UUID, Integer> toWrite = full ? limiter.localCounts() : changed;
+        long now = System.currentTimeMillis();
+        try {
+            write(reset, toWrite, changed, now);
+        } catch (RuntimeException e) {
+            // drained users whose write was lost (notably their offline timestamp) go out again next round
+            limiter.markDirty(changed.keySet());
+            throw e;
+        }
+        forceFull = false;
+    }
+
+    private void write(boolean reset, Map<UUID, Integer> toWrite, Map<UUID, Integer> changed, long now) {
+        String nodeKey = nodeKey(nodeId);
+        String offlineAt = Long.toString(now);
+        redis.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection c = (StringRedisConnection) connection;
+            if (reset) {
+                c.del(nodeKey);
+            }
+            toWrite.forEach((userId, count) -> {
+                if (count > 0) {
+                    c.hSet(nodeKey, userId.toString(), count.toString());
+                }
+            });
+            changed.forEach((userId, count) -> {
+                if (count <= 0) {
+                    c.hDel(nodeKey, userId.toString());
+                    c.setEx(OFFLINE_KEY_PREFIX + userId, offlineRetentionSeconds, offlineAt);
+                }
+            });
+            c.pExpire(nodeKey, nodeTtlMs);
+            c.zAdd(NODES_KEY, now, nodeId);
+            return null;
+        });
+    }
+
+    private void pull() {
+        long now = System.currentTimeMillis();
+        redis.opsForZSet().removeRangeByScore(NODES_KEY, Double.NEGATIVE_INFINITY, now - nodeTtlMs);
+        Set<String> nodes = redis.opsForZSet().range(NODES_KEY, 0, -1);
+        List<String> others = new ArrayList<>();
+        if (nodes != null) {
+            for (String n : nodes) {
+                if (!nodeId.equals(n)) {
+                    others.add(n);
+                }
+            }
+        }
+
+        Set<UUID> interest = new HashSet<>(limiter.localCounts().keySet());
+        interest.addAll(presence.watchedUsers());
+        Map<UUID, Integer> remote = new HashMap<>();
+        if (!others.isEmpty() && !interest.isEmpty()) {
+            List<UUID> users = new ArrayList<>(interest);
+            String[] fields = users.stream().map(UUID::toString).toArray(String[]::new);
+            List<Object> results = redis.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection c = (StringRedisConnection) connection;
+                for (String other : others) {
+                    c.hMGet(nodeKey(other), fields);
+                }
+                return null;
+            });
+            for (Object result : results) {
+                if (!(result instanceof List<?> values)) {
+                    continue;
+                }
+                for (int i = 0; i < users.size() && i < values.size(); i++) {
+                    Object v = values.get(i);
+                    if (v != null) {
+                        remote.merge(users.get(i), Integer.parseInt(v.toString()), Integer::sum);
+                    }
+                }
+            }
+        }
+
+        limiter.updateRemoteCounts(remote);
+        presence.recheck(new ArrayList<>(presence.watchedUsers()));
+    }
+
+    private static String nodeKey(String nodeId) {
+        return NODE_KEY_PREFIX + nodeId;
+    }
+}
@@ -2,6 +2,7 @@ package com.chess.ws.security;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -22,6 +23,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/ws/**", "/v1/ws/**").permitAll()
+                        // unauthenticated on purpose: safe only because the gateway routes /ws/** here, never
+                        // /internal/**, so these are reachable from inside the Docker network alone (as in user/game services)
+                        .requestMatchers(HttpMethod.GET, "/internal/**").permitAll()
                         .anyRequest().denyAll()
                 );
         return http.build();
@@ -0,0 +1,191 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.dto.GameClocksMessage;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Wire format of the {@value #SUBPROTOCOL} WebSocket subprotocol.
+ *
+ * Every frame starts with a one-byte opcode followed by the per-connection game handle as a varint
+ * (see {@link GameHandleTable}). Moves are packed into 2 bytes: from (6 bits), to (6 bits),
+ * promotion (3 bits: 0 none, 1 n, 2 b, 3 r, 4 q). Integers are unsigned LEB128 varints.
+ *
+ * <pre>
+ * client -> server
+ *   MOVE         0x01 handle seq move:u16
+ *   SYNC         0x02 handle lastSeenPly
+ *   RESIGN       0x03 handle
+ *   OFFER_DRAW   0x04 handle
+ *   ACCEPT_DRAW  0x05 handle
+ * server -> client
+ *   BIND          0x81 handle gameId:16 bytes
+ *   MOVE_ACCEPTED 0x82 handle ply move:u16 whiteMs blackMs seq (0 when not the receiver's move)
+ *   MOVE_REJECTED 0x83 handle seq reasonLen reason:utf8
+ * </pre>
+ *
+ * Frames not listed here (GAME_STATE, GAME_FINISHED, draw/resign replies) stay JSON text frames.
+ */
+public final class BinaryFrames {
+
+    public static final String SUBPROTOCOL = "chess.bin.v1";
+
+    public static final byte OP_MOVE = 0x01;
+    public static final byte OP_SYNC = 0x02;
+    public static final byte OP_RESIGN = 0x03;
+    public static final byte OP_OFFER_DRAW = 0x04;
+    public static final byte OP_ACCEPT_DRAW = 0x05;
+
+    public static final byte OP_BIND = (byte) 0x81;
+    public static final byte OP_MOVE_ACCEPTED = (byte) 0x82;
+    public static final byte OP_MOVE_REJECTED = (byte) 0x83;
+
+    private static final int MAX_VARINT_BYTES = 10;
+    private static final char[] PROMOTIONS = {0, 'n', 'b', 'r', 'q'};
+
+    private BinaryFrames() {
+    }
+
+    public static boolean isBinary(WebSocketSession session) {
+        return SUBPROTOCOL.equals(session.getAcceptedProtocol());
+    }
+
+    // ---- encoding ----
+
+    public static BinaryMessage bind(int handle, UUID gameId) {
+        ByteBuffer buf = ByteBuffer.allocate(1 + MAX_VARINT_BYTES + 16);
+        buf.put(OP_BIND);
+        writeVarint(buf, handle);
+        buf.putLong(gameId.getMostSignificantBits());
+        buf.putLong(gameId.getLeastSignificantBits());
+        return message(buf);
+    }
+
+    public static BinaryMessage moveAccepted(int handle, int ply, String uci, GameClocksMessage clocks, long seq) {
+        ByteBuffer buf = ByteBuffer.allocate(1 + 2 + MAX_VARINT_BYTES * 5);
+        buf.put(OP_MOVE_ACCEPTED);
+        writeVarint(buf, handle);
+        writeVarint(buf, ply);
+        buf.putShort((short) packMove(uci));
+        writeVarint(buf, clocks != null ? Math.max(0L, clocks.getWhiteMs()) : 0L);
+        writeVarint(buf, clocks != null ? Math.max(0L, clocks.getBlackMs()) : 0L);
+        writeVarint(buf, seq);
+        return message(buf);
+    }
+
+    public static BinaryMessage moveRejected(int handle, long seq, String reason) {
+        byte[] reasonBytes = (reason != null ? reason : "ERROR").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buf = ByteBuffer.allocate(1 + MAX_VARINT_BYTES * 3 + reasonBytes.length);
+        buf.put(OP_MOVE_REJECTED);
+        writeVarint(buf, handle);
+        writeVarint(buf, seq);
+        writeVarint(buf, reasonBytes.length);
+        buf.put(reasonBytes);
+        return message(buf);
+    }
+
+    private static BinaryMessage message(ByteBuffer buf) {
+        return new BinaryMessage(buf.array(), 0, buf.position(), true);
+    }
+
+    // ---- decoding (reads primitives straight off the frame buffer) ----
+
+    public static int readHandle(ByteBuffer buf) {
+        long v = readVarint(buf);
+        if (v > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Handle out of range");
+        }
+        return (int) v;
+    }
+
+    public static long readVarint(ByteBuffer buf) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /** Reads a packed move and returns it in UCI notation (e.g. e7e8q). */
+    public static String readMove(ByteBuffer buf) {
+        return unpackMove(buf.getShort() & 0xFFFF);
+    }
+
+    /**
+     * Stable clientMoveId for a binary move sequence number, so retries after a reconnect
+     * hit game-service's idempotency cache just like JSON clients sending the same UUID.
+     * Built from bits rather than hashed: game-service scopes the id to the game, so it only has to tell the
+     * two players and their sequence numbers apart.
+     */
+    public static String clientMoveId(UUID gameId, UUID userId, long seq) {
+        long userBits = userId.getMostSignificantBits() ^ userId.getLeastSignificantBits();
+        return new UUID(gameId.getMostSignificantBits() ^ userBits, seq).toString();
+    }
+
+    // ---- move packing ----
+
+    static int packMove(String uci) {
+        if (uci == null || uci.length() < 4 || uci.length() > 5) {
+            throw new IllegalArgumentException("Invalid UCI move: " + uci);
+        }
+        int from = square(uci.charAt(0), uci.charAt(1));
+        int to = square(uci.charAt(2), uci.charAt(3));
+        int promo = 0;
+        if (uci.length() == 5) {
+            promo = promotionCode(Character.toLowerCase(uci.charAt(4)));
+        }
+        return from | (to << 6) | (promo << 12);
+    }
+
+    static String unpackMove(int packed) {
+        int from = packed & 0x3F;
+        int to = (packed >>> 6) & 0x3F;
+        int promo = (packed >>> 12) & 0x07;
+        if (promo >= PROMOTIONS.length) {
+            throw new IllegalArgumentException("Invalid promotion code: " + promo);
+        }
+        char[] out = new char[promo == 0 ? 4 : 5];
+        out[0] = (char) ('a' + (from & 7));
+        out[1] = (char) ('1' + (from >>> 3));
+        out[2] = (char) ('a' + (to & 7));
+        out[3] = (char) ('1' + (to >>> 3));
+        if (promo != 0) {
+            out[4] = PROMOTIONS[promo];
+        }
+        return new String(out);
+    }
+
+    private static int square(char file, char rank) {
+        int f = file - 'a';
+        int r = rank - '1';
+        if (f < 0 || f > 7 || r < 0 || r > 7) {
+            throw new IllegalArgumentException("Invalid square: " + file + rank);
+        }
+        return f | (r << 3);
+    }
+
+    private static int promotionCode(char c) {
+        for (int i = 1; i < PROMOTIONS.length; i++) {
+            if (PROMOTIONS[i] == c) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Invalid promotion piece: " + c);
+    }
+
+    private static void writeVarint(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+}
@@ -0,0 +1,229 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.client.GameServiceClient;
+import com.chess.ws.dto.GameStateMessage;
+import com.chess.ws.dto.MoveCommand;
+import com.chess.ws.dto.ws.WsGameStateMessage;
+import com.chess.ws.dto.ws.WsMove;
+import com.chess.ws.dto.ws.WsMoveAcceptedMessage;
+import com.chess.ws.dto.ws.WsMoveRejectedMessage;
+import com.chess.ws.presence.PresenceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Game commands (SYNC, MOVE, RESIGN, draw) shared by the per-game and multiplexed endpoints.
+ * All writes go through the session's outbound queue (see {@link WsSessionRegistry#outbound}).
+ */
+@Component
+@RequiredArgsConstructor
+public class GameCommands {
+
+    private final ObjectMapper objectMapper;
+    private final GameServiceClient gameServiceClient;
+    private final GameStateCache cache;
+    private final PresenceService presence;
+
+    /** Handles a JSON game command; returns false when the type is not a game command. */
+    public boolean handleJson(WebSocketSession session, UUID gameId, String type, JsonNode root) throws Exception {
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        String token = (String) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_TOKEN);
+
+        switch (type) {
+            case "SYNC" -> sendGameState(session, gameId, root.hasNonNull("lastSeenPly") ? root.get("lastSeenPly").asInt(0) : null);
+            case "MOVE" -> {
+                String uci = root.hasNonNull("uci") ? root.get("uci").asText() : null;
+                String clientMoveId = root.hasNonNull("clientMoveId") ? root.get("clientMoveId").asText() : null;
+                if (uci == null || uci.isBlank()) {
+                    send(session, WsMoveRejectedMessage.builder()
+                            .gameId(gameId)
+                            .clientMoveId(clientMoveId)
+                            .reason("MISSING_UCI")
+                            .build());
+                    return true;
+                }
+
+                try {
+                    GameStateMessage state = gameServiceClient.move(gameId, token, new MoveCommand(uci, clientMoveId));
+                    int ply = state.getMoves() != null ? state.getMoves().size() : 0;
+                    WsSessionRegistry.markSentPly(session, gameId, ply);
+                    send(session, WsMoveAcceptedMessage.builder()
+                            .gameId(gameId)
+                            .clientMoveId(clientMoveId)
+                            .ply(ply)
+                            .uci(uci)
+                            .fen(state.getFen())
+                            .clocks(state.getClocks())
+                            .build());
+                } catch (Exception e) {
+                    String code = gameServiceClient.extractErrorCode(e);
+                    send(session, WsMoveRejectedMessage.builder()
+                            .gameId(gameId)
+                            .clientMoveId(clientMoveId)
+                            .reason(code)
+                            .build());
+                }
+            }
+            case "RESIGN" -> resign(session, gameId, userId, token);
+            case "OFFER_DRAW" -> offerDraw(session, gameId, userId, token);
+            case "ACCEPT_DRAW" -> acceptDraw(session, gameId, userId, token);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Handles a {@link BinaryFrames} command; the game is resolved from the connection's handle table. */
+    public void handleBinary(WebSocketSession session, BinaryMessage message) throws Exception {
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        String token = (String) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_TOKEN);
+
+        ByteBuffer buf = message.getPayload();
+        try {
+            byte op = buf.get();
+            int handle = BinaryFrames.readHandle(buf);
+            UUID gameId = GameHandleTable.of(session).gameOf(handle);
+            if (gameId == null) {
+                session.close(CloseStatus.BAD_DATA.withReason("Unknown game handle"));
+                return;
+            }
+
+            switch (op) {
+                case BinaryFrames.OP_MOVE -> {
+                    long seq = BinaryFrames.readVarint(buf);
+                    String uci = BinaryFrames.readMove(buf);
+                    String clientMoveId = BinaryFrames.clientMoveId(gameId, userId, seq);
+                    try {
+                        GameStateMessage state = gameServiceClient.move(gameId, token, new MoveCommand(uci, clientMoveId));
+                        int ply = state.getMoves() != null ? state.getMoves().size() : 0;
+                        WsSessionRegistry.markSentPly(session, gameId, ply);
+                        sendBinary(session, BinaryFrames.moveAccepted(handle, ply, uci, state.getClocks(), seq));
+                    } catch (Exception e) {
+                        sendBinary(session, BinaryFrames.moveRejected(handle, seq, gameServiceClient.extractErrorCode(e)));
+                    }
+                }
+                case BinaryFrames.OP_SYNC -> sendGameState(session, gameId, (int) BinaryFrames.readVarint(buf));
+                case BinaryFrames.OP_RESIGN -> resign(session, gameId, userId, token);
+                case BinaryFrames.OP_OFFER_DRAW -> offerDraw(session, gameId, userId, token);
+                case BinaryFrames.OP_ACCEPT_DRAW -> acceptDraw(session, gameId, userId, token);
+                default -> send(session, Map.of("type", "ERROR", "message", "Unknown message type"));
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            session.close(CloseStatus.BAD_DATA.withReason("Malformed binary frame"));
+        }
+    }
+
+    /** Sends a BIND frame to binary sessions so later frames can refer to the game by handle. */
+    public void bindIfBinary(WebSocketSession session, UUID gameId) throws Exception {
+        if (BinaryFrames.isBinary(session)) {
+            int handle = GameHandleTable.of(session).intern(gameId);
+            sendBinary(session, BinaryFrames.bind(handle, gameId));
+        }
+    }
+
+    /**
+     * Snapshot on connect/subscribe. Served from {@link GameStateCache} when the game is cached in full
+     * (e.g. pre-warmed on MatchFound) and the user is a participant; otherwise fetched from game-service.
+     * Explicit SYNC always goes to game-service.
+     */
+    public void sendInitialState(WebSocketSession session, UUID gameId) throws Exception {
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        Optional<GameStateMessage> cached = cache.snapshot(gameId)
+                .filter(st -> !st.isMovesTruncated())
+                .filter(st -> userId != null && (userId.equals(st.getWhiteId()) || userId.equals(st.getBlackId())));
+        if (cached.isPresent()) {
+            presence.watch(session, gameId, cached.get());
+            send(session, toWsGameState(cached.get(), null));
+            return;
+        }
+        sendGameState(session, gameId, null);
+    }
+
+    public void sendGameState(WebSocketSession session, UUID gameId, Integer lastSeenPly) throws Exception {
+        String token = (String) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_TOKEN);
+        GameStateMessage state = gameServiceClient.getState(gameId, token);
+        cache.put(gameId, state);
+        presence.watch(session, gameId, state);
+        send(session, toWsGameState(state, lastSeenPly));
+    }
+
+    private WsGameStateMessage toWsGameState(GameStateMessage state, Integer lastSeenPly) {
+        List<WsMove> moves = null;
+        if (state.getMoves() != null) {
+            moves = state.getMoves().stream()
+                    .filter(m -> lastSeenPly == null || lastSeenPly <= 0 || m.getPly() > lastSeenPly)
+                    .map(m -> new WsMove(m.getPly(), m.getUci(), m.getSan()))
+                    .toList();
+        }
+        return WsGameStateMessage.builder()
+                .gameId(state.getGameId())
+                .whiteId(state.getWhiteId())
+                .blackId(state.getBlackId())
+                .fen(state.getFen())
+                .moves(moves)
+                .clocks(state.getClocks())
+                .status(state.getStatus())
+                .sideToMove(state.getSideToMove())
+                .drawOfferedBy(state.getDrawOfferedBy())
+                .movesTruncated(state.isMovesTruncated())
+                .build();
+    }
+
+    private void resign(WebSocketSession session, UUID gameId, UUID userId, String token) throws Exception {
+        try {
+            gameServiceClient.resign(gameId, token);
+            send(session, Map.of("type", "RESIGN_ACCEPTED", "gameId", gameId, "userId", userId));
+        } catch (Exception e) {
+            send(session, Map.of("type", "RESIGN_REJECTED", "gameId", gameId, "reason", gameServiceClient.extractErrorCode(e)));
+        }
+    }
+
+    private void offerDraw(WebSocketSession session, UUID gameId, UUID userId, String token) throws Exception {
+        try {
+            gameServiceClient.offerDraw(gameId, token);
+            send(session, Map.of("type", "DRAW_OFFERED", "gameId", gameId, "userId", userId));
+        } catch (Exception e) {
+            send(session, Map.of("type", "DRAW_OFFER_REJECTED", "gameId", gameId, "reason", gameServiceClient.extractErrorCode(e)));
+        }
+    }
+
+    private void acceptDraw(WebSocketSession session, UUID gameId, UUID userId, String token) throws Exception {
+        try {
+            gameServiceClient.acceptDraw(gameId, token);
+            send(session, Map.of("type", "DRAW_ACCEPTED", "gameId", gameId, "userId", userId));
+        } catch (Exception e) {
+            send(session, Map.of("type", "DRAW_ACCEPT_REJECTED", "gameId", gameId, "reason", gameServiceClient.extractErrorCode(e)));
+        }
+    }
+
+    public void send(WebSocketSession session, Object msg) throws Exception {
+        WebSocketSession out = WsSessionRegistry.outbound(session);
+        if (!out.isOpen()) {
+            return;
+        }
+        String json = objectMapper.writeValueAsString(msg);
+        out.sendMessage(new TextMessage(json));
+    }
+
+    public void sendBinary(WebSocketSession session, BinaryMessage msg) throws Exception {
+        WebSocketSession out = WsSessionRegistry.outbound(session);
+        if (!out.isOpen()) {
+            return;
+        }
+        out.sendMessage(msg);
+    }
+}
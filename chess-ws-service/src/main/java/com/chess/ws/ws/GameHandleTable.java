@@ -0,0 +1,52 @@
+package com.chess.ws.ws;
+
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-connection interning of game IDs to small integer handles used by binary frames
+ * instead of 16-byte UUIDs. Handles start at 1 and are never reused within a connection.
+ */
+public class GameHandleTable {
+
+    public static final String ATTR = "bin_handles";
+
+    private final Map<UUID, Integer> handlesByGame = new ConcurrentHashMap<>();
+    private final Map<Integer, UUID> gamesByHandle = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger(1);
+
+    public static GameHandleTable of(WebSocketSession session) {
+        return (GameHandleTable) session.getAttributes().computeIfAbsent(ATTR, k -> new GameHandleTable());
+    }
+
+    /** Returns the handle for the game, assigning a new one if needed. */
+    public int intern(UUID gameId) {
+        return handlesByGame.computeIfAbsent(gameId, id -> {
+            int handle = next.getAndIncrement();
+            gamesByHandle.put(handle, id);
+            return handle;
+        });
+    }
+
+    /** Returns the handle for the game or 0 when the game is not bound on this connection. */
+    public int handleOf(UUID gameId) {
+        Integer handle = handlesByGame.get(gameId);
+        return handle != null ? handle : 0;
+    }
+
+    public UUID gameOf(int handle) {
+        return gamesByHandle.get(handle);
+    }
+
+    /** Drops the binding, e.g. when a multiplexed connection unsubscribes from the game. */
+    public void release(UUID gameId) {
+        Integer handle = handlesByGame.remove(gameId);
+        if (handle != null) {
+            gamesByHandle.remove(handle);
+        }
+    }
+}
@@ -1,26 +1,188 @@
 package com.chess.ws.ws;
 
+import com.chess.ws.dto.GameMoveMessage;
 import com.chess.ws.dto.GameStateMessage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+/**
+ * Bounded cache of game snapshots used to serve broadcasts without a round trip to game-service.
+ *
+ * Entries are weighed by their estimated on-heap size and evicted by total weight and by idle time,
+ * so games whose GameFinished event never arrives cannot leak. Move lists are capped at
+ * ws.game-state-cache.max-moves; a capped entry carries movesTruncated=true and clients must fetch
+ * the full history from game-service.
+ */
+@Slf4j
 @Component
 public class GameStateCache {
-    private final ConcurrentHashMap<UUID, GameStateMessage> cache = new ConcurrentHashMap<>();
+
+    static final String METRIC_NAME = "ws.game_state_cache";
+
+    private final Cache<UUID, GameStateMessage> cache;
+    private final long maxWeightBytes;
+    private final Duration idleTtl;
+    private final int maxMoves;
+
+    public GameStateCache(
+            @Value("${ws.game-state-cache.max-weight-bytes:67108864}") long maxWeightBytes,
+            @Value("${ws.game-state-cache.idle-ttl-seconds:3600}") long idleTtlSeconds,
+            @Value("${ws.game-state-cache.max-moves:200}") int maxMoves,
+            MeterRegistry meterRegistry) {
+        this.maxWeightBytes = maxWeightBytes;
+        this.idleTtl = Duration.ofSeconds(idleTtlSeconds);
+        this.maxMoves = Math.max(1, maxMoves);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((UUID gameId, GameStateMessage state) -> GameStateSizeEstimator.estimateBytes(state))
+                .expireAfterAccess(idleTtl)
+                .recordStats()
+                .removalListener((gameId, state, cause) -> {
+                    if (cause.wasEvicted()) {
+                        log.debug("Game state evicted from cache: gameId={}, cause={}", gameId, cause);
+                    }
+                })
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, METRIC_NAME);
+        Gauge.builder(METRIC_NAME + ".weight", this, GameStateCache::weightedSizeBytes)
+                .baseUnit("bytes")
+                .description("Estimated on-heap bytes held by cached game states")
+                .register(meterRegistry);
+    }
 
     public Optional<GameStateMessage> get(UUID gameId) {
-        return Optional.ofNullable(cache.get(gameId));
+        return Optional.ofNullable(cache.getIfPresent(gameId));
+    }
+
+    /**
+     * Returns a copy taken under the entry lock, so it is consistent with concurrent {@link #update} calls.
+     * The lookup goes through {@code getIfPresent} first: Caffeine records no hit or miss for compute calls.
+     */
+    public Optional<GameStateMessage> snapshot(UUID gameId) {
+        if (cache.getIfPresent(gameId) == null) {
+            return Optional.empty();
+        }
+        GameStateMessage[] copy = new GameStateMessage[1];
+        cache.asMap().computeIfPresent(gameId, (id, state) -> {
+            copy[0] = new GameStateMessage(
+                    state.getGameId(),
+                    state.getWhiteId(),
+                    state.getBlackId(),
+                    state.getFen(),
+                    state.getMoves() != null ? new ArrayList<>(state.getMoves()) : null,
+                    state.getClocks(),
+                    state.getStatus(),
+                    state.getSideToMove(),
+                    state.getResult(),
+                    state.getFinishReason(),
+                    state.getDrawOfferedBy(),
+                    state.isMovesTruncated()
+            );
+            return state;
+        });
+        return Optional.ofNullable(copy[0]);
     }
 
     public void put(UUID gameId, GameStateMessage state) {
-        cache.put(gameId, state);
+        cache.put(gameId, capMoves(state));
+    }
+
+    /** Caches the state unless the game is already cached (a fresher state must not be overwritten). */
+    public void putIfAbsent(UUID gameId, GameStateMessage state) {
+        cache.asMap().putIfAbsent(gameId, capMoves(state));
+    }
+
+    /**
+     * Mutates a cached state in place and re-weighs it. No-op when the game is not cached.
+     */
+    public void update(UUID gameId, Consumer<GameStateMessage> mutator) {
+        cache.asMap().computeIfPresent(gameId, (id, state) -> {
+            mutator.accept(state);
+            return trimMovesInPlace(state);
+        });
     }
 
     public void remove(UUID gameId) {
-        cache.remove(gameId);
+        cache.invalidate(gameId);
+    }
+
+    public Footprint footprint() {
+        cache.cleanUp();
+        var stats = cache.stats();
+        return new Footprint(
+                cache.estimatedSize(),
+                weightedSizeBytes(),
+                maxWeightBytes,
+                idleTtl.toSeconds(),
+                maxMoves,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.evictionWeight()
+        );
     }
-}
 
+    long weightedSizeBytes() {
+        return cache.policy().eviction()
+                .map(e -> e.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    /** Returns a copy with the move list capped, leaving the caller's instance untouched. */
+    private GameStateMessage capMoves(GameStateMessage state) {
+        List<GameMoveMessage> moves = state.getMoves();
+        if (moves == null || moves.size() <= maxMoves) {
+            return state;
+        }
+        return new GameStateMessage(
+                state.getGameId(),
+                state.getWhiteId(),
+                state.getBlackId(),
+                state.getFen(),
+                new ArrayList<>(moves.subList(moves.size() - maxMoves, moves.size())),
+                state.getClocks(),
+                state.getStatus(),
+                state.getSideToMove(),
+                state.getResult(),
+                state.getFinishReason(),
+                state.getDrawOfferedBy(),
+                true
+        );
+    }
+
+    private GameStateMessage trimMovesInPlace(GameStateMessage state) {
+        List<GameMoveMessage> moves = state.getMoves();
+        if (moves != null && moves.size() > maxMoves) {
+            moves.subList(0, moves.size() - maxMoves).clear();
+            state.setMovesTruncated(true);
+        }
+        return state;
+    }
+
+    public record Footprint(
+            long entries,
+            long weightedBytes,
+            long maxWeightBytes,
+            long idleTtlSeconds,
+            int maxMovesPerGame,
+            long hits,
+            long misses,
+            long evictions,
+            long evictedBytes
+    ) {
+    }
+}
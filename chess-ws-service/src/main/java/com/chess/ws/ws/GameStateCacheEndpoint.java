@@ -0,0 +1,22 @@
+package com.chess.ws.ws;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the game state cache footprint at /actuator/gamestatecache.
+ */
+@Component
+@Endpoint(id = "gamestatecache")
+@RequiredArgsConstructor
+public class GameStateCacheEndpoint {
+
+    private final GameStateCache cache;
+
+    @ReadOperation
+    public GameStateCache.Footprint footprint() {
+        return cache.footprint();
+    }
+}
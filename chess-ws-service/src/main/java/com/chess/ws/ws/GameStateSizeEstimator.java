@@ -0,0 +1,72 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.dto.GameMoveMessage;
+import com.chess.ws.dto.GameStateMessage;
+
+import java.util.List;
+
+/**
+ * Rough on-heap size of a cached game state (64-bit JVM, compressed oops).
+ * Only needs to be proportional to real usage so the cache weight bound tracks the heap.
+ */
+final class GameStateSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int UUID_BYTES = 32;
+    private static final int INSTANT_BYTES = 24;
+    private static final int CLOCKS_BYTES = OBJECT_HEADER + 16;
+    private static final int STATE_SHELL = OBJECT_HEADER + 11 * REFERENCE + 8;
+    private static final int MOVE_SHELL = OBJECT_HEADER + 5 * REFERENCE + 4;
+    private static final int LIST_SHELL = OBJECT_HEADER + 16;
+
+    private GameStateSizeEstimator() {
+    }
+
+    static int estimateBytes(GameStateMessage state) {
+        if (state == null) {
+            return 0;
+        }
+        long bytes = STATE_SHELL;
+        bytes += uuid(state.getGameId()) + uuid(state.getWhiteId()) + uuid(state.getBlackId()) + uuid(state.getDrawOfferedBy());
+        bytes += string(state.getFen()) + string(state.getStatus()) + string(state.getSideToMove());
+        bytes += string(state.getResult()) + string(state.getFinishReason());
+        if (state.getClocks() != null) {
+            bytes += CLOCKS_BYTES;
+        }
+        bytes += moves(state.getMoves());
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private static long moves(List<GameMoveMessage> moves) {
+        if (moves == null) {
+            return 0;
+        }
+        long bytes = LIST_SHELL + (long) moves.size() * REFERENCE;
+        for (GameMoveMessage m : moves) {
+            bytes += MOVE_SHELL
+                    + string(m.getUci())
+                    + string(m.getSan())
+                    + string(m.getFenAfter())
+                    + (m.getPlayedAt() != null ? INSTANT_BYTES : 0)
+                    + uuid(m.getByUserId());
+        }
+        return bytes;
+    }
+
+    private static long uuid(Object id) {
+        return id != null ? UUID_BYTES : 0;
+    }
+
+    /** Compact Latin-1 strings: String shell + byte[] header + one byte per char, 8-byte aligned. */
+    private static long string(String s) {
+        if (s == null) {
+            return 0;
+        }
+        return 24 + align(OBJECT_HEADER + s.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
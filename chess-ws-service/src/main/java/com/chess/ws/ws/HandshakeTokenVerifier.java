@@ -0,0 +1,117 @@
+package com.chess.ws.ws;
+
+import com.chess.common.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Verifies handshake JWTs at most once per token: verified claims are cached under a SHA-256 of the
+ * token until the token's own {@code exp}, so reconnect storms after a deploy skip signature checks
+ * and claim parsing for tokens seen before.
+ */
+@Slf4j
+@Component
+public class HandshakeTokenVerifier {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, VerifiedToken> verified;
+
+    public HandshakeTokenVerifier(
+            JwtTokenProvider jwtTokenProvider,
+            ObjectMapper objectMapper,
+            @Value("${ws.handshake.token-cache-size:100000}") long maxEntries,
+            MeterRegistry meterRegistry) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.objectMapper = objectMapper;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return Math.max(0L, value.expiresAtMs() - System.currentTimeMillis()) * 1_000_000L;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "ws.handshake.token_cache");
+    }
+
+    /** Returns the verified user, or null when the token is invalid or expired. */
+    public UUID verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verified.getIfPresent(key);
+        if (cached != null && cached.expiresAtMs() > System.currentTimeMillis()) {
+            return cached.userId();
+        }
+        try {
+            Claims claims = jwtTokenProvider.parseClaims(token);
+            UUID userId = UUID.fromString(claims.getSubject());
+            if (claims.getExpiration() != null) {
+                verified.put(key, new VerifiedToken(userId, claims.getExpiration().getTime()));
+            }
+            return userId;
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Invalid JWT token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads {@code sub} from the payload without verifying anything. Only good for rejecting early
+     * (a forged subject can only get the forger's own handshake refused), never for accepting.
+     */
+    public UUID unverifiedSubject(String token) {
+        try {
+            int first = token.indexOf('.');
+            int second = token.indexOf('.', first + 1);
+            if (first < 0 || second < 0) {
+                return null;
+            }
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(first + 1, second));
+            JsonNode sub = objectMapper.readTree(payload).get("sub");
+            return sub != null && sub.isTextual() ? UUID.fromString(sub.asText()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    record VerifiedToken(UUID userId, long expiresAtMs) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.chess.ws.ws;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-side heartbeat for all sockets on one timing wheel: a single thread advances one slot per tick,
+ * and every socket lives in exactly one slot, so each socket is pinged once per revolution and the pings
+ * are spread evenly over the interval instead of bursting. A socket that has not answered (pong or any
+ * inbound frame) for {@code max-missed} pings is closed and its reap callback releases limiter permits and
+ * registry entries even if the container never reports the close.
+ *
+ * Writes go through the session's outbound queue on virtual threads so a stuck peer cannot stall the wheel.
+ */
+@Slf4j
+@Component
+public class HeartbeatWheel {
+
+    static final String ATTR = "heartbeat";
+
+    private final long tickMs;
+    private final int maxMissed;
+    private final Set<Beat>[] slots;
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final AtomicInteger live = new AtomicInteger();
+    private final Counter reaped;
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService senders;
+    private int cursor;
+
+    @SuppressWarnings("unchecked")
+    public HeartbeatWheel(
+            @Value("${ws.heartbeat.interval-ms:25000}") long intervalMs,
+            @Value("${ws.heartbeat.tick-ms:250}") long tickMs,
+            @Value("${ws.heartbeat.max-missed:2}") int maxMissed,
+            MeterRegistry meterRegistry) {
+        this.tickMs = Math.max(10, tickMs);
+        this.maxMissed = Math.max(1, maxMissed);
+        int slotCount = (int) Math.max(1, intervalMs / this.tickMs);
+        this.slots = new Set[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = ConcurrentHashMap.newKeySet();
+        }
+        Gauge.builder("ws.sockets.live", live, AtomicInteger::get)
+                .description("Open WebSocket sessions tracked by the heartbeat")
+                .register(meterRegistry);
+        this.reaped = Counter.builder("ws.heartbeat.reaped")
+                .description("Sessions closed for missing heartbeats")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ws-heartbeat-wheel");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (senders != null) {
+            senders.shutdownNow();
+        }
+    }
+
+    /** Starts heartbeats for the session; {@code onReap} runs once if the session is closed as dead. */
+    public void register(WebSocketSession session, Runnable onReap) {
+        int slot = Math.floorMod(nextSlot.getAndIncrement(), slots.length);
+        Beat beat = new Beat(session, slot, onReap);
+        session.getAttributes().put(ATTR, beat);
+        slots[slot].add(beat);
+        live.incrementAndGet();
+    }
+
+    public void unregister(WebSocketSession session) {
+        Object beat = session.getAttributes().remove(ATTR);
+        if (beat instanceof Beat b && slots[b.slot].remove(b)) {
+            live.decrementAndGet();
+        }
+    }
+
+    /** Any pong or inbound frame proves the peer is alive. */
+    public void touch(WebSocketSession session) {
+        if (session.getAttributes().get(ATTR) instanceof Beat b) {
+            b.missed = 0;
+        }
+    }
+
+    public int liveSockets() {
+        return live.get();
+    }
+
+    int slotCount() {
+        return slots.length;
+    }
+
+    void tick() {
+        try {
+            Set<Beat> slot = slots[cursor];
+            cursor = (cursor + 1) % slots.length;
+            for (Beat beat : slot) {
+                if (++beat.missed > maxMissed) {
+                    if (slot.remove(beat)) {
+                        live.decrementAndGet();
+                        reaped.increment();
+                        senders.execute(() -> reap(beat));
+                    }
+                } else {
+                    senders.execute(() -> ping(beat));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Heartbeat tick failed", e);
+        }
+    }
+
+    private void ping(Beat beat) {
+        try {
+            WebSocketSession out = WsSessionRegistry.outbound(beat.session);
+            if (out.isOpen()) {
+                out.sendMessage(new PingMessage());
+            }
+        } catch (Exception e) {
+            log.debug("Heartbeat ping failed for sessionId={}", beat.session.getId(), e);
+        }
+    }
+
+    private void reap(Beat beat) {
+        beat.session.getAttributes().remove(ATTR);
+        log.debug("Closing unresponsive WS session: sessionId={}", beat.session.getId());
+        try {
+            beat.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (Exception ignored) {
+        }
+        try {
+            beat.onReap.run();
+        } catch (Exception e) {
+            log.debug("Heartbeat reap callback failed for sessionId={}", beat.session.getId(), e);
+        }
+    }
+
+    static final class Beat {
+        final WebSocketSession session;
+        final int slot;
+        final Runnable onReap;
+        volatile int missed;
+
+        Beat(WebSocketSession session, int slot, Runnable onReap) {
+            this.session = session;
+            this.slot = slot;
+            this.onReap = onReap;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.chess.ws.ws;
 
-import com.chess.common.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -11,6 +10,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -27,14 +27,42 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
     public static final String ATTR_TOKEN = "token";
     public static final String ATTR_TRACE_ID = "traceId";
 
-    private final JwtTokenProvider jwtTokenProvider;
+    private final HandshakeTokenVerifier tokenVerifier;
+    private final UserConnectionLimiter limiter;
 
+    /**
+     * Cheapest checks first: token presence, game id syntax and the per-user limit (on the unverified
+     * subject) are all rejected before any signature work; verification itself is cached per token.
+     */
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler, Map<String, Object> attributes) {
         try {
             // Extract token from query (?token=...) or Authorization: Bearer ...
             String token = extractToken(request);
-            if (!StringUtils.hasText(token) || !jwtTokenProvider.validateToken(token)) {
+            if (!StringUtils.hasText(token)) {
+                response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                return false;
+            }
+
+            // /ws/stream is not bound to a game; games are subscribed per frame. The handler arrives wrapped in
+            // Spring's logging/exception decorators, so look at the one underneath.
+            UUID gameId = null;
+            if (!(WebSocketHandlerDecorator.unwrap(wsHandler) instanceof StreamWebSocketHandler)) {
+                gameId = extractGameIdFromPath(request.getURI().getPath());
+                if (gameId == null) {
+                    response.setStatusCode(HttpStatus.BAD_REQUEST);
+                    return false;
+                }
+            }
+
+            UUID claimedUser = tokenVerifier.unverifiedSubject(token);
+            if (claimedUser != null && limiter.isAtLimit(claimedUser)) {
+                response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                return false;
+            }
+
+            UUID userId = tokenVerifier.verify(token);
+            if (userId == null) {
                 response.setStatusCode(HttpStatus.UNAUTHORIZED);
                 return false;
             }
@@ -44,13 +72,11 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
                 traceId = UUID.randomUUID().toString();
             }
             attributes.put(ATTR_TRACE_ID, traceId);
-
-            UUID userId = jwtTokenProvider.getUserIdFromToken(token);
             attributes.put(ATTR_USER_ID, userId);
             attributes.put(ATTR_TOKEN, token);
-
-            UUID gameId = extractGameIdFromPath(request.getURI().getPath());
-            attributes.put(ATTR_GAME_ID, gameId);
+            if (gameId != null) {
+                attributes.put(ATTR_GAME_ID, gameId);
+            }
 
             return true;
         } catch (Exception e) {
@@ -82,11 +108,13 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
     private UUID extractGameIdFromPath(String path) {
         // expected: /ws/game/{gameId}
         int idx = path.lastIndexOf('/');
-        if (idx < 0 || idx == path.length() - 1) {
-            throw new IllegalArgumentException("Invalid WS path");
+        if (idx < 0 || path.length() - idx - 1 != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(path.substring(idx + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
         }
-        String last = path.substring(idx + 1);
-        return UUID.fromString(last);
     }
 }
-
@@ -0,0 +1,238 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.client.GameServiceClient;
+import com.chess.ws.presence.PresenceService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.SubProtocolCapable;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Multiplexed endpoint ({@code /ws/stream}): one authenticated socket per client carrying any number
+ * of game subscriptions plus the lobby and matchmaking channels.
+ *
+ * <pre>
+ * {"type":"SUBSCRIBE","channel":"game","gameId":"..."}   -> SUBSCRIBED + GAME_STATE, or SUBSCRIBE_REJECTED
+ * {"type":"SUBSCRIBE","channel":"lobby"}                 -> SUBSCRIBED
+ * {"type":"SUBSCRIBE","channel":"matchmaking"}           -> SUBSCRIBED
+ * {"type":"UNSUBSCRIBE","channel":"...","gameId":"..."}  -> UNSUBSCRIBED
+ * </pre>
+ *
+ * Game commands (MOVE, SYNC, RESIGN, OFFER_DRAW, ACCEPT_DRAW) are the same as on {@code /ws/game/{gameId}}
+ * but carry a {@code gameId} of a subscribed game. Binary clients address games by the handle from BIND.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamWebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
+
+    public static final String CHANNEL_GAME = "game";
+    public static final String CHANNEL_LOBBY = "lobby";
+    public static final String CHANNEL_MATCHMAKING = "matchmaking";
+
+    static final String ATTR_GAMES = "stream_games";
+    static final String ATTR_CHANNELS = "stream_channels";
+
+    private final ObjectMapper objectMapper;
+    private final WsSessionRegistry registry;
+    private final WsConnectionSupport connections;
+    private final GameCommands commands;
+    private final GameServiceClient gameServiceClient;
+    private final PresenceService presence;
+
+    @Value("${ws.stream.max-games-per-connection:20}")
+    private int maxGamesPerConnection;
+
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(BinaryFrames.SUBPROTOCOL);
+    }
+
+    /** Whether the session is a multiplexed connection subscribed to the channel (lobby or matchmaking). */
+    public static boolean isSubscribed(WebSocketSession session, String channel) {
+        Object channels = session.getAttributes().get(ATTR_CHANNELS);
+        return channels instanceof Set<?> set && set.contains(channel);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        if (!connections.open(session, () -> afterConnectionClosed(session, CloseStatus.SESSION_NOT_RELIABLE))) {
+            return;
+        }
+        session.getAttributes().put(ATTR_GAMES, ConcurrentHashMap.<UUID>newKeySet());
+        session.getAttributes().put(ATTR_CHANNELS, ConcurrentHashMap.<String>newKeySet());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        connections.withMdc(session, () -> {
+            if (!connections.rateLimitOk(session)) {
+                session.close(CloseStatus.POLICY_VIOLATION);
+                return null;
+            }
+
+            JsonNode root = objectMapper.readTree(message.getPayload());
+            String type = root.hasNonNull("type") ? root.get("type").asText() : "";
+            String channel = root.hasNonNull("channel") ? root.get("channel").asText() : CHANNEL_GAME;
+            UUID gameId = parseGameId(root);
+
+            switch (type) {
+                case "SUBSCRIBE" -> subscribe(session, channel, gameId);
+                case "UNSUBSCRIBE" -> unsubscribe(session, channel, gameId);
+                default -> {
+                    if (gameId == null || !games(session).contains(gameId)) {
+                        commands.send(session, Map.of("type", "ERROR", "message", "Not subscribed to game"));
+                        return null;
+                    }
+                    if (!commands.handleJson(session, gameId, type, root)) {
+                        commands.send(session, Map.of("type", "ERROR", "message", "Unknown message type"));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        connections.withMdc(session, () -> {
+            if (!connections.rateLimitOk(session)) {
+                session.close(CloseStatus.POLICY_VIOLATION);
+                return null;
+            }
+            // handles only exist for subscribed games, so the handle table doubles as the subscription check
+            commands.handleBinary(session, message);
+            return null;
+        });
+    }
+
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        connections.pong(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        connections.close(session);
+        for (UUID gameId : games(session)) {
+            registry.remove(gameId, session);
+        }
+        registry.removeLobby(session);
+    }
+
+    private void subscribe(WebSocketSession session, String channel, UUID gameId) throws Exception {
+        switch (channel) {
+            case CHANNEL_GAME -> {
+                if (gameId == null) {
+                    reject(session, channel, null, "MISSING_GAME_ID");
+                    return;
+                }
+                Set<UUID> games = games(session);
+                if (games.contains(gameId)) {
+                    commands.sendGameState(session, gameId, null);
+                    return;
+                }
+                if (games.size() >= maxGamesPerConnection) {
+                    reject(session, channel, gameId, "TOO_MANY_SUBSCRIPTIONS");
+                    return;
+                }
+                // register before fetching the snapshot so no broadcast falls between the two
+                games.add(gameId);
+                registry.add(gameId, session);
+                try {
+                    commands.bindIfBinary(session, gameId);
+                    commands.sendInitialState(session, gameId);
+                } catch (Exception e) {
+                    dropGame(session, gameId);
+                    reject(session, channel, gameId, gameServiceClient.extractErrorCode(e));
+                    return;
+                }
+                commands.send(session, Map.of("type", "SUBSCRIBED", "channel", channel, "gameId", gameId));
+            }
+            case CHANNEL_LOBBY -> {
+                channels(session).add(channel);
+                registry.addLobby(session);
+                commands.send(session, Map.of("type", "SUBSCRIBED", "channel", channel));
+            }
+            case CHANNEL_MATCHMAKING -> {
+                channels(session).add(channel);
+                commands.send(session, Map.of("type", "SUBSCRIBED", "channel", channel));
+            }
+            default -> reject(session, channel, gameId, "UNKNOWN_CHANNEL");
+        }
+    }
+
+    private void unsubscribe(WebSocketSession session, String channel, UUID gameId) throws Exception {
+        switch (channel) {
+            case CHANNEL_GAME -> {
+                if (gameId == null) {
+                    reject(session, channel, null, "MISSING_GAME_ID");
+                    return;
+                }
+                dropGame(session, gameId);
+                commands.send(session, Map.of("type", "UNSUBSCRIBED", "channel", channel, "gameId", gameId));
+            }
+            case CHANNEL_LOBBY, CHANNEL_MATCHMAKING -> {
+                channels(session).remove(channel);
+                if (CHANNEL_LOBBY.equals(channel)) {
+                    registry.removeLobby(session);
+                }
+                commands.send(session, Map.of("type", "UNSUBSCRIBED", "channel", channel));
+            }
+            default -> reject(session, channel, gameId, "UNKNOWN_CHANNEL");
+        }
+    }
+
+    private void dropGame(WebSocketSession session, UUID gameId) {
+        games(session).remove(gameId);
+        registry.remove(gameId, session);
+        GameHandleTable.of(session).release(gameId);
+        WsSessionRegistry.clearSentPly(session, gameId);
+        presence.unwatch(session, gameId);
+    }
+
+    private void reject(WebSocketSession session, String channel, UUID gameId, String reason) throws Exception {
+        if (gameId != null) {
+            commands.send(session, Map.of("type", "SUBSCRIBE_REJECTED", "channel", channel, "gameId", gameId, "reason", reason));
+        } else {
+            commands.send(session, Map.of("type", "SUBSCRIBE_REJECTED", "channel", channel, "reason", reason));
+        }
+    }
+
+    private UUID parseGameId(JsonNode root) {
+        if (!root.hasNonNull("gameId")) {
+            return null;
+        }
+        try {
+            return UUID.fromString(root.get("gameId").asText());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<UUID> games(WebSocketSession session) {
+        Object games = session.getAttributes().get(ATTR_GAMES);
+        return games instanceof Set<?> set ? (Set<UUID>) set : Set.of();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> channels(WebSocketSession session) {
+        return (Set<String>) session.getAttributes().computeIfAbsent(ATTR_CHANNELS, k -> ConcurrentHashMap.<String>newKeySet());
+    }
+}
@@ -3,40 +3,99 @@ package com.chess.ws.ws;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Per-user connection limit. Counts on this node are exact; connections on other nodes are known from
+ * the last presence sync (see {@code RedisPresenceSync}), so the cluster-wide limit may be overshot by
+ * connections opened on different nodes within one sync interval.
+ */
 @Component
 public class UserConnectionLimiter {
 
     private final ConcurrentHashMap<UUID, AtomicInteger> counts = new ConcurrentHashMap<>();
+    /** Users whose local count changed since the last {@link #drainDirty()}. */
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private volatile Map<UUID, Integer> remoteCounts = Map.of();
 
     @Value("${ws.max-connections-per-user:5}")
     private int maxConnectionsPerUser;
 
     public boolean tryAcquire(UUID userId) {
         AtomicInteger ai = counts.computeIfAbsent(userId, k -> new AtomicInteger(0));
+        int limit = maxConnectionsPerUser - remoteCount(userId);
         while (true) {
             int current = ai.get();
-            if (current >= maxConnectionsPerUser) {
+            if (current >= limit) {
                 return false;
             }
             if (ai.compareAndSet(current, current + 1)) {
+                dirty.add(userId);
                 return true;
             }
         }
     }
 
+    /** Cheap pre-check for the handshake; the authoritative check is {@link #tryAcquire}. */
+    public boolean isAtLimit(UUID userId) {
+        AtomicInteger ai = counts.get(userId);
+        return (ai != null ? ai.get() : 0) + remoteCount(userId) >= maxConnectionsPerUser;
+    }
+
     public void release(UUID userId) {
         AtomicInteger ai = counts.get(userId);
         if (ai == null) {
             return;
         }
+        dirty.add(userId);
         int next = ai.decrementAndGet();
         if (next <= 0) {
             counts.remove(userId);
         }
     }
-}
 
+    public int localCount(UUID userId) {
+        AtomicInteger ai = counts.get(userId);
+        return ai != null ? Math.max(0, ai.get()) : 0;
+    }
+
+    public int remoteCount(UUID userId) {
+        return remoteCounts.getOrDefault(userId, 0);
+    }
+
+    /** Replaces the view of connections held on other nodes. */
+    public void updateRemoteCounts(Map<UUID, Integer> remote) {
+        this.remoteCounts = Map.copyOf(remote);
+    }
+
+    /** Returns the current local count of every user changed since the previous call (0 = gone). */
+    public Map<UUID, Integer> drainDirty() {
+        Map<UUID, Integer> changed = new HashMap<>();
+        for (UUID userId : dirty) {
+            dirty.remove(userId);
+            changed.put(userId, localCount(userId));
+        }
+        return changed;
+    }
+
+    /** Puts users back for the next {@link #drainDirty()}, e.g. after their changes failed to reach Redis. */
+    public void markDirty(Collection<UUID> userIds) {
+        dirty.addAll(userIds);
+    }
+
+    public Map<UUID, Integer> localCounts() {
+        Map<UUID, Integer> snapshot = new HashMap<>();
+        counts.forEach((userId, ai) -> {
+            if (ai.get() > 0) {
+                snapshot.put(userId, ai.get());
+            }
+        });
+        return snapshot;
+    }
+}
@@ -6,6 +6,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.OriginHandshakeInterceptor;
+
+import java.util.Arrays;
 
 @Configuration
 @EnableWebSocket
@@ -13,6 +16,7 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final GameWebSocketHandler handler;
+    private final StreamWebSocketHandler streamHandler;
     private final JwtHandshakeInterceptor jwtHandshakeInterceptor;
 
     @Value("${spring.websocket.allowed-origins:*}")
@@ -21,8 +25,14 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         String[] origins = allowedOrigins != null ? allowedOrigins.split(",") : new String[]{"*"};
+        // Spring appends its own origin check after custom interceptors; run it first so
+        // cross-origin handshakes are refused before any token work.
+        OriginHandshakeInterceptor originCheck = new OriginHandshakeInterceptor(Arrays.asList(origins));
         registry.addHandler(handler, "/ws/game/{gameId}")
-                .addInterceptors(jwtHandshakeInterceptor)
+                .addInterceptors(originCheck, jwtHandshakeInterceptor)
+                .setAllowedOrigins(origins);
+        registry.addHandler(streamHandler, "/ws/stream")
+                .addInterceptors(originCheck, jwtHandshakeInterceptor)
                 .setAllowedOrigins(origins);
     }
 }
@@ -0,0 +1,97 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.presence.PresenceService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Connection lifecycle shared by the per-game and multiplexed handlers: per-user connection
+ * limit, outbound queue, user index, presence, inbound rate limit and MDC.
+ */
+@Component
+@RequiredArgsConstructor
+public class WsConnectionSupport {
+
+    private final WsSessionRegistry registry;
+    private final UserConnectionLimiter limiter;
+    private final PresenceService presence;
+    private final HeartbeatWheel heartbeat;
+
+    @Value("${ws.max-messages-per-second:10}")
+    private int maxMessagesPerSecond;
+
+    /**
+     * Returns false (and closes the session) when the user is over the connection limit.
+     * {@code onReap} is the handler's close path, run by the heartbeat if the peer stops answering.
+     */
+    public boolean open(WebSocketSession session, Runnable onReap) throws Exception {
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        if (userId != null && !limiter.tryAcquire(userId)) {
+            session.close(new CloseStatus(429, "Too many connections"));
+            return false;
+        }
+        session.getAttributes().put("conn_acquired", true);
+        registry.attachOutbound(session);
+        heartbeat.register(session, onReap);
+        if (userId != null) {
+            registry.addUser(userId, session);
+            presence.recheck(List.of(userId));
+        }
+        return true;
+    }
+
+    /** Idempotent: the heartbeat reaper and the container may both report the same close. */
+    public void close(WebSocketSession session) {
+        heartbeat.unregister(session);
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        Object acquired = session.getAttributes().remove("conn_acquired");
+        if (userId != null && Boolean.TRUE.equals(acquired)) {
+            limiter.release(userId);
+            registry.removeUser(userId, session);
+            presence.unwatchAll(session);
+            presence.recheck(List.of(userId));
+        }
+    }
+
+    /** Called per inbound frame: any frame counts as a heartbeat, then the rate limit applies. */
+    public boolean rateLimitOk(WebSocketSession session) {
+        heartbeat.touch(session);
+        long nowSec = Instant.now().getEpochSecond();
+        Long window = (Long) session.getAttributes().get("rl_window");
+        Integer count = (Integer) session.getAttributes().get("rl_count");
+        if (window == null || window != nowSec) {
+            session.getAttributes().put("rl_window", nowSec);
+            session.getAttributes().put("rl_count", 1);
+            return true;
+        }
+        int next = (count != null ? count : 0) + 1;
+        session.getAttributes().put("rl_count", next);
+        return next <= maxMessagesPerSecond;
+    }
+
+    public void pong(WebSocketSession session) {
+        heartbeat.touch(session);
+    }
+
+    public <T> T withMdc(WebSocketSession session, ThrowingSupplier<T> fn) throws Exception {
+        String traceId = (String) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_TRACE_ID);
+        UUID userId = (UUID) session.getAttributes().get(JwtHandshakeInterceptor.ATTR_USER_ID);
+        try (var c1 = MDC.putCloseable("traceId", traceId != null ? traceId : UUID.randomUUID().toString());
+             var c2 = MDC.putCloseable("userId", userId != null ? userId.toString() : null)) {
+            return fn.get();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+}
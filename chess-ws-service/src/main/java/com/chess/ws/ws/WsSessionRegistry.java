@@ -1,9 +1,12 @@
 package com.chess.ws.ws;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -12,7 +15,52 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class WsSessionRegistry {
 
+    /** Session attribute holding the serialized outbound queue for the connection. */
+    public static final String ATTR_OUTBOUND = "outbound";
+    /** Session attribute holding the last ply delivered per game, used to dedupe broadcasts. */
+    public static final String ATTR_SENT_PLY = "sent_ply";
+
     private final ConcurrentHashMap<UUID, Set<WebSocketSession>> sessionsByGame = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Set<WebSocketSession>> sessionsByUser = new ConcurrentHashMap<>();
+    private final Set<WebSocketSession> lobbySessions = ConcurrentHashMap.newKeySet();
+
+    @Value("${ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${ws.send-buffer-size-limit-bytes:524288}")
+    private int sendBufferSizeLimitBytes;
+
+    /**
+     * Wraps the session in a single outbound queue so that direct replies and broadcasts from
+     * NATS dispatcher threads never write to the socket concurrently. A slow client whose queue
+     * exceeds the time or size limit is closed instead of blocking the senders.
+     */
+    public void attachOutbound(WebSocketSession session) {
+        session.getAttributes().put(ATTR_OUTBOUND,
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferSizeLimitBytes));
+    }
+
+    public static WebSocketSession outbound(WebSocketSession session) {
+        Object out = session.getAttributes().get(ATTR_OUTBOUND);
+        return out instanceof WebSocketSession ws ? ws : session;
+    }
+
+    public static void markSentPly(WebSocketSession session, UUID gameId, int ply) {
+        sentPlies(session).merge(gameId, ply, Math::max);
+    }
+
+    public static int sentPly(WebSocketSession session, UUID gameId) {
+        return sentPlies(session).getOrDefault(gameId, 0);
+    }
+
+    public static void clearSentPly(WebSocketSession session, UUID gameId) {
+        sentPlies(session).remove(gameId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<UUID, Integer> sentPlies(WebSocketSession session) {
+        return (Map<UUID, Integer>) session.getAttributes().computeIfAbsent(ATTR_SENT_PLY, k -> new ConcurrentHashMap<UUID, Integer>());
+    }
 
     public void add(UUID gameId, WebSocketSession session) {
         sessionsByGame.computeIfAbsent(gameId, k -> ConcurrentHashMap.newKeySet()).add(session);
@@ -34,5 +82,35 @@ public class WsSessionRegistry {
     public Set<WebSocketSession> get(UUID gameId) {
         return sessionsByGame.getOrDefault(gameId, Set.of());
     }
-}
 
+    public void addUser(UUID userId, WebSocketSession session) {
+        sessionsByUser.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet()).add(session);
+    }
+
+    public void removeUser(UUID userId, WebSocketSession session) {
+        Set<WebSocketSession> set = sessionsByUser.get(userId);
+        if (set == null) {
+            return;
+        }
+        set.remove(session);
+        if (set.isEmpty()) {
+            sessionsByUser.remove(userId);
+        }
+    }
+
+    public Set<WebSocketSession> getByUser(UUID userId) {
+        return sessionsByUser.getOrDefault(userId, Set.of());
+    }
+
+    public void addLobby(WebSocketSession session) {
+        lobbySessions.add(session);
+    }
+
+    public void removeLobby(WebSocketSession session) {
+        lobbySessions.remove(session);
+    }
+
+    public Set<WebSocketSession> lobby() {
+        return lobbySessions;
+    }
+}
@@ -0,0 +1,96 @@
+package com.chess.ws.messaging;
+
+import com.chess.common.messaging.InMemoryProcessedEventStore;
+import com.chess.ws.client.GameServiceClient;
+import com.chess.ws.dto.GameClocksMessage;
+import com.chess.ws.dto.ws.WsMoveAcceptedMessage;
+import com.chess.ws.ws.BinaryFrames;
+import com.chess.ws.ws.GameHandleTable;
+import com.chess.ws.ws.GameStateCache;
+import com.chess.ws.ws.WsSessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.nats.client.Connection;
+import io.nats.client.JetStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GameEventsListenerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final WsSessionRegistry registry = new WsSessionRegistry();
+    private GameEventsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new GameEventsListener(mock(Connection.class), mock(JetStream.class), objectMapper, registry,
+                mock(GameServiceClient.class), new GameStateCache(1 << 20, 60, 200, new SimpleMeterRegistry()),
+                new InMemoryProcessedEventStore(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void moveAccepted_goesOutAsBinaryFrame_toBinarySessions() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        WebSocketSession session = binarySession(gameId);
+
+        listener.broadcast(gameId, move(gameId, 3));
+
+        assertThat(sent(session)).isInstanceOf(BinaryMessage.class);
+    }
+
+    @Test
+    void moveAcceptedWithoutPly_fallsBackToJson_forBinarySessions() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        WebSocketSession session = binarySession(gameId);
+
+        listener.broadcast(gameId, move(gameId, null));
+
+        WebSocketMessage<?> sent = sent(session);
+        assertThat(sent).isInstanceOf(TextMessage.class);
+        assertThat(objectMapper.readValue(((TextMessage) sent).getPayload(), Map.class))
+                .containsEntry("type", "MOVE_ACCEPTED")
+                .containsEntry("uci", "e2e4");
+    }
+
+    private WebSocketSession binarySession(UUID gameId) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(new ConcurrentHashMap<>());
+        when(session.getAcceptedProtocol()).thenReturn(BinaryFrames.SUBPROTOCOL);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn(UUID.randomUUID().toString());
+        GameHandleTable.of(session).intern(gameId);
+        registry.add(gameId, session);
+        return session;
+    }
+
+    private static WsMoveAcceptedMessage move(UUID gameId, Integer ply) {
+        return WsMoveAcceptedMessage.builder()
+                .gameId(gameId)
+                .ply(ply)
+                .uci("e2e4")
+                .fen("fen-after")
+                .clocks(new GameClocksMessage(59_000, 60_000))
+                .build();
+    }
+
+    private static WebSocketMessage<?> sent(WebSocketSession session) throws Exception {
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session).sendMessage(captor.capture());
+        return captor.getValue();
+    }
+}
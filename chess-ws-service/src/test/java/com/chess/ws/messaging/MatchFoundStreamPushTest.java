@@ -0,0 +1,160 @@
+package com.chess.ws.messaging;
+
+import com.chess.common.messaging.InMemoryProcessedEventStore;
+import com.chess.common.security.JwtTokenProvider;
+import com.chess.events.common.EventEnvelope;
+import com.chess.events.matchmaking.MatchFoundEvent;
+import com.chess.events.matchmaking.PlayerDequeuedEvent;
+import com.chess.ws.ws.GameStateCache;
+import com.chess.ws.ws.WsSessionRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.nats.client.Connection;
+import io.nats.client.JetStream;
+import io.nats.client.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * MATCH_FOUND and MATCHMAKING_DEQUEUED reach clients over a real {@code /ws/stream} connection. NATS is off in
+ * the test profile, so the listener is fed the event directly; everything from the registry to the socket is
+ * the running service.
+ */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MatchFoundStreamPushTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    WsSessionRegistry registry;
+
+    @Autowired
+    GameStateCache cache;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private MatchmakingEventsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new MatchmakingEventsListener(mock(Connection.class), mock(JetStream.class), objectMapper, registry,
+                cache, new InMemoryProcessedEventStore(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void matchFound_pushedToBothPlayersOnTheirStreams() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        UUID whiteId = UUID.randomUUID();
+        UUID blackId = UUID.randomUUID();
+        BlockingQueue<String> white = new LinkedBlockingQueue<>();
+        BlockingQueue<String> black = new LinkedBlockingQueue<>();
+        WebSocket whiteWs = subscribe(whiteId, "matchmaking", white);
+        WebSocket blackWs = subscribe(blackId, "lobby", black);
+
+        listener.onMatchFound(message(EventEnvelope.builder()
+                .eventId(UUID.randomUUID().toString())
+                .payload(MatchFoundEvent.builder()
+                        .gameId(gameId.toString())
+                        .whitePlayerId(whiteId.toString())
+                        .blackPlayerId(blackId.toString())
+                        .timeControlType("BLITZ")
+                        .baseSeconds(180)
+                        .incrementSeconds(2)
+                        .rated(true)
+                        .build())
+                .build()));
+
+        JsonNode toWhite = next(white);
+        assertThat(toWhite.get("type").asText()).isEqualTo("MATCH_FOUND");
+        assertThat(toWhite.get("gameId").asText()).isEqualTo(gameId.toString());
+        assertThat(toWhite.get("color").asText()).isEqualTo("WHITE");
+        JsonNode toBlack = next(black);
+        assertThat(toBlack.get("type").asText()).isEqualTo("MATCH_FOUND");
+        assertThat(toBlack.get("color").asText()).isEqualTo("BLACK");
+
+        whiteWs.sendClose(WebSocket.NORMAL_CLOSURE, "bye").join();
+        blackWs.sendClose(WebSocket.NORMAL_CLOSURE, "bye").join();
+    }
+
+    @Test
+    void playerDequeued_pushedToMatchmakingStream() throws Exception {
+        UUID userId = UUID.randomUUID();
+        BlockingQueue<String> incoming = new LinkedBlockingQueue<>();
+        WebSocket ws = subscribe(userId, "matchmaking", incoming);
+
+        listener.onPlayerDequeued(message(EventEnvelope.builder()
+                .eventId(UUID.randomUUID().toString())
+                .payload(PlayerDequeuedEvent.builder()
+                        .userId(userId.toString())
+                        .requestId("req-1")
+                        .reason("EXPIRED")
+                        .build())
+                .build()));
+
+        JsonNode pushed = next(incoming);
+        assertThat(pushed.get("type").asText()).isEqualTo("MATCHMAKING_DEQUEUED");
+        assertThat(pushed.get("reason").asText()).isEqualTo("EXPIRED");
+        ws.sendClose(WebSocket.NORMAL_CLOSURE, "bye").join();
+    }
+
+    private WebSocket subscribe(UUID userId, String channel, BlockingQueue<String> incoming) throws Exception {
+        String jwt = new JwtTokenProvider(SECRET, 60000, 300000).generateAccessToken(userId, List.of("USER"));
+        URI uri = URI.create("ws://localhost:" + port + "/ws/stream?token=" + URLEncoder.encode(jwt, StandardCharsets.UTF_8));
+        WebSocket ws = HttpClient.newHttpClient().newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .buildAsync(uri, new WebSocket.Listener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket) {
+                        webSocket.request(1);
+                    }
+
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        incoming.add(data.toString());
+                        webSocket.request(1);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                })
+                .join();
+        ws.sendText("{\"type\":\"SUBSCRIBE\",\"channel\":\"" + channel + "\"}", true).join();
+        assertThat(next(incoming).get("type").asText()).isEqualTo("SUBSCRIBED");
+        return ws;
+    }
+
+    private Message message(EventEnvelope<?> envelope) throws Exception {
+        Message msg = mock(Message.class);
+        when(msg.getData()).thenReturn(objectMapper.writeValueAsBytes(envelope));
+        return msg;
+    }
+
+    private JsonNode next(BlockingQueue<String> incoming) throws Exception {
+        String text = incoming.poll(5, TimeUnit.SECONDS);
+        assertThat(text).isNotNull();
+        return objectMapper.readTree(text);
+    }
+}
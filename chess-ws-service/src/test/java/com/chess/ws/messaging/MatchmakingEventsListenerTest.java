@@ -0,0 +1,143 @@
+package com.chess.ws.messaging;
+
+import com.chess.common.messaging.InMemoryProcessedEventStore;
+import com.chess.events.common.EventEnvelope;
+import com.chess.events.matchmaking.MatchFoundEvent;
+import com.chess.ws.dto.GameStateMessage;
+import com.chess.ws.ws.GameStateCache;
+import com.chess.ws.ws.StreamWebSocketHandler;
+import com.chess.ws.ws.WsSessionRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.nats.client.Connection;
+import io.nats.client.JetStream;
+import io.nats.client.Message;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MatchmakingEventsListenerTest {
+
+    @Mock
+    private Connection natsConnection;
+    @Mock
+    private JetStream jetStream;
+    @Mock
+    private Message msg;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final WsSessionRegistry registry = new WsSessionRegistry();
+    private GameStateCache cache;
+    private MatchmakingEventsListener listener;
+
+    @BeforeEach
+    void setUp() {
+        cache = new GameStateCache(1 << 20, 60, 200, new SimpleMeterRegistry());
+        listener = new MatchmakingEventsListener(natsConnection, jetStream, objectMapper, registry, cache,
+                new InMemoryProcessedEventStore(Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void matchFound_pushesToSubscribedSessions_andPrewarmsCache() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        UUID whiteId = UUID.randomUUID();
+        UUID blackId = UUID.randomUUID();
+        WebSocketSession whiteSession = session(whiteId, StreamWebSocketHandler.CHANNEL_MATCHMAKING);
+        WebSocketSession blackSession = session(blackId, StreamWebSocketHandler.CHANNEL_LOBBY);
+        WebSocketSession unsubscribed = session(blackId, null);
+
+        when(msg.getData()).thenReturn(objectMapper.writeValueAsBytes(EventEnvelope.builder()
+                .eventId(UUID.randomUUID().toString())
+                .payload(MatchFoundEvent.builder()
+                        .gameId(gameId.toString())
+                        .whitePlayerId(whiteId.toString())
+                        .blackPlayerId(blackId.toString())
+                        .timeControlType("BLITZ")
+                        .baseSeconds(180)
+                        .incrementSeconds(2)
+                        .rated(true)
+                        .build())
+                .build()));
+
+        listener.onMatchFound(msg);
+
+        assertThat(objectMapper.readValue(sentText(whiteSession), Map.class))
+                .containsEntry("type", "MATCH_FOUND")
+                .containsEntry("gameId", gameId.toString())
+                .containsEntry("color", "WHITE");
+        assertThat(objectMapper.readValue(sentText(blackSession), Map.class))
+                .containsEntry("color", "BLACK");
+        verify(unsubscribed, never()).sendMessage(any());
+
+        GameStateMessage warmed = cache.get(gameId).orElseThrow();
+        assertThat(warmed.getFen()).isEqualTo(MatchmakingEventsListener.START_FEN);
+        assertThat(warmed.getClocks().getWhiteMs()).isEqualTo(180_000L);
+        assertThat(warmed.getWhiteId()).isEqualTo(whiteId);
+        verify(msg).ack();
+    }
+
+    @Test
+    void matchFound_doesNotOverwriteStateFromGameStarted() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        GameStateMessage started = new GameStateMessage();
+        started.setGameId(gameId);
+        started.setFen("started-fen");
+        cache.put(gameId, started);
+
+        when(msg.getData()).thenReturn(objectMapper.writeValueAsBytes(EventEnvelope.builder()
+                .payload(MatchFoundEvent.builder()
+                        .gameId(gameId.toString())
+                        .whitePlayerId(UUID.randomUUID().toString())
+                        .blackPlayerId(UUID.randomUUID().toString())
+                        .timeControlType("BLITZ")
+                        .baseSeconds(180)
+                        .incrementSeconds(0)
+                        .build())
+                .build()));
+
+        listener.onMatchFound(msg);
+
+        assertThat(cache.get(gameId).orElseThrow().getFen()).isEqualTo("started-fen");
+    }
+
+    private WebSocketSession session(UUID userId, String channel) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        if (channel != null) {
+            attributes.put("stream_channels", Set.of(channel));
+        }
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn(UUID.randomUUID().toString());
+        registry.addUser(userId, session);
+        return session;
+    }
+
+    private static String sentText(WebSocketSession session) throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session).sendMessage(captor.capture());
+        return captor.getValue().getPayload();
+    }
+}
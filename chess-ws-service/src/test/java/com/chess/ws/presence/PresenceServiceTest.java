@@ -0,0 +1,111 @@
+package com.chess.ws.presence;
+
+import com.chess.ws.dto.GameStateMessage;
+import com.chess.ws.ws.JwtHandshakeInterceptor;
+import com.chess.ws.ws.UserConnectionLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PresenceServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private UserConnectionLimiter limiter;
+    private PresenceService presence;
+
+    private final UUID gameId = UUID.randomUUID();
+    private final UUID white = UUID.randomUUID();
+    private final UUID black = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        limiter = new UserConnectionLimiter();
+        ReflectionTestUtils.setField(limiter, "maxConnectionsPerUser", 2);
+        presence = new PresenceService(limiter, objectMapper);
+    }
+
+    @Test
+    void limiter_countsConnectionsOnOtherNodes() {
+        limiter.updateRemoteCounts(Map.of(white, 1));
+
+        assertThat(limiter.tryAcquire(white)).isTrue();
+        assertThat(limiter.isAtLimit(white)).isTrue();
+        assertThat(limiter.tryAcquire(white)).isFalse();
+        assertThat(limiter.drainDirty()).containsEntry(white, 1);
+        assertThat(limiter.drainDirty()).isEmpty();
+    }
+
+    @Test
+    void watch_pushesOpponentTransitionsOnly() throws Exception {
+        WebSocketSession whiteSession = session(white);
+        presence.watch(whiteSession, gameId, state());
+        verify(whiteSession, never()).sendMessage(any());
+
+        // opponent connects on another node
+        limiter.updateRemoteCounts(Map.of(black, 1));
+        presence.recheck(List.of(black));
+        presence.recheck(List.of(black));
+
+        // ...and goes away
+        limiter.updateRemoteCounts(Map.of());
+        presence.recheck(List.of(black));
+
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(whiteSession, times(2)).sendMessage(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(m -> objectMapper.readValue(m.getPayload(), Map.class).get("type"))
+                .containsExactly("OPPONENT_ONLINE", "OPPONENT_DISCONNECTED");
+        assertThat(presence.status(black).online()).isFalse();
+        assertThat(presence.status(black).disconnectedAt()).isNotNull();
+    }
+
+    @Test
+    void watch_ignoresSpectators_andStopsAfterUnwatch() throws Exception {
+        WebSocketSession spectator = session(UUID.randomUUID());
+        WebSocketSession whiteSession = session(white);
+        presence.watch(spectator, gameId, state());
+        presence.watch(whiteSession, gameId, state());
+        presence.unwatchAll(whiteSession);
+
+        limiter.tryAcquire(black);
+        presence.recheck(List.of(black));
+
+        verify(spectator, never()).sendMessage(any());
+        verify(whiteSession, never()).sendMessage(any());
+        assertThat(presence.watchedUsers()).isEmpty();
+    }
+
+    private GameStateMessage state() {
+        GameStateMessage state = new GameStateMessage();
+        state.setGameId(gameId);
+        state.setWhiteId(white);
+        state.setBlackId(black);
+        return state;
+    }
+
+    private static WebSocketSession session(UUID userId) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        attributes.put(JwtHandshakeInterceptor.ATTR_USER_ID, userId);
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}
@@ -0,0 +1,72 @@
+package com.chess.ws.presence;
+
+import com.chess.ws.ws.UserConnectionLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisPresenceSyncTest {
+
+    private final UUID user = UUID.randomUUID();
+
+    private StringRedisTemplate redis;
+    private StringRedisConnection connection;
+    private UserConnectionLimiter limiter;
+    private RedisPresenceSync sync;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redis = mock(StringRedisTemplate.class);
+        connection = mock(StringRedisConnection.class);
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        when(redis.opsForZSet()).thenReturn(zSet);
+        when(zSet.range(anyString(), anyLong(), anyLong())).thenReturn(Set.of("node-a"));
+
+        limiter = new UserConnectionLimiter();
+        ReflectionTestUtils.setField(limiter, "maxConnectionsPerUser", 2);
+        sync = new RedisPresenceSync(redis, limiter, new PresenceService(limiter, new ObjectMapper()),
+                "node-a", 15_000, 15, 3600);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sync_failedWrite_keepsDisconnectsForTheNextRound() {
+        limiter.tryAcquire(user);
+        limiter.release(user);
+        when(redis.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenAnswer(inv -> {
+                    inv.getArgument(0, RedisCallback.class).doInRedis(connection);
+                    return List.of();
+                });
+
+        sync.sync();
+        verify(connection, never()).setEx(anyString(), anyLong(), anyString());
+
+        sync.sync();
+        verify(connection).hDel("ws:presence:node:node-a", user.toString());
+        verify(connection).setEx(eq("ws:presence:offline:" + user), eq(3600L), anyString());
+        assertThat(limiter.drainDirty()).isEmpty();
+    }
+}
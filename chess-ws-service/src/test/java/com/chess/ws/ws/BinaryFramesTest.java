@@ -0,0 +1,56 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.dto.GameClocksMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryFramesTest {
+
+    @Test
+    void packMove_roundTripsPlainAndPromotionMoves() {
+        for (String uci : new String[]{"e2e4", "a1h8", "h8a1", "e7e8q", "b2a1n", "g7g8r", "c2c1b"}) {
+            assertThat(BinaryFrames.unpackMove(BinaryFrames.packMove(uci))).isEqualTo(uci);
+        }
+    }
+
+    @Test
+    void packMove_rejectsInvalidInput() {
+        assertThatThrownBy(() -> BinaryFrames.packMove("e9e4")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BinaryFrames.packMove("e7e8k")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BinaryFrames.unpackMove(7 << 12)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void moveAccepted_isCompactAndDecodable() {
+        BinaryMessage msg = BinaryFrames.moveAccepted(1, 42, "e7e8q", new GameClocksMessage(179_500L, 181_250L), 7);
+        ByteBuffer buf = msg.getPayload();
+
+        assertThat(buf.remaining()).isLessThanOrEqualTo(16);
+        assertThat(buf.get()).isEqualTo(BinaryFrames.OP_MOVE_ACCEPTED);
+        assertThat(BinaryFrames.readHandle(buf)).isEqualTo(1);
+        assertThat(BinaryFrames.readVarint(buf)).isEqualTo(42);
+        assertThat(BinaryFrames.readMove(buf)).isEqualTo("e7e8q");
+        assertThat(BinaryFrames.readVarint(buf)).isEqualTo(179_500L);
+        assertThat(BinaryFrames.readVarint(buf)).isEqualTo(181_250L);
+        assertThat(BinaryFrames.readVarint(buf)).isEqualTo(7);
+        assertThat(buf.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void clientMoveId_isStablePerGameUserAndSeq() {
+        UUID gameId = UUID.randomUUID();
+        UUID userId = UUID.randomUUID();
+
+        assertThat(BinaryFrames.clientMoveId(gameId, userId, 3)).isEqualTo(BinaryFrames.clientMoveId(gameId, userId, 3));
+        assertThat(BinaryFrames.clientMoveId(gameId, userId, 3)).isNotEqualTo(BinaryFrames.clientMoveId(gameId, userId, 4));
+        assertThat(BinaryFrames.clientMoveId(gameId, userId, 3))
+                .isNotEqualTo(BinaryFrames.clientMoveId(gameId, UUID.randomUUID(), 3));
+        assertThat(UUID.fromString(BinaryFrames.clientMoveId(gameId, userId, 3))).isNotNull();
+    }
+}
@@ -0,0 +1,163 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.dto.GameClocksMessage;
+import com.chess.ws.dto.GameMoveMessage;
+import com.chess.ws.dto.GameStateMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameStateCacheTest {
+
+    private static final int MAX_MOVES = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GameStateCache cache = new GameStateCache(1 << 20, 60, MAX_MOVES, meterRegistry);
+
+    @Test
+    void put_capsMovesToTheLatest_andFlagsTruncation_withoutTouchingCallerState() {
+        UUID gameId = UUID.randomUUID();
+        GameStateMessage state = state(gameId, 5);
+
+        cache.put(gameId, state);
+
+        GameStateMessage cached = cache.get(gameId).orElseThrow();
+        assertThat(cached.getMoves()).extracting(GameMoveMessage::getPly).containsExactly(3, 4, 5);
+        assertThat(cached.isMovesTruncated()).isTrue();
+        assertThat(state.getMoves()).hasSize(5);
+        assertThat(state.isMovesTruncated()).isFalse();
+    }
+
+    @Test
+    void put_keepsShortHistoriesAsIs() {
+        UUID gameId = UUID.randomUUID();
+        GameStateMessage state = state(gameId, MAX_MOVES);
+
+        cache.put(gameId, state);
+
+        GameStateMessage cached = cache.get(gameId).orElseThrow();
+        assertThat(cached.getMoves()).hasSize(MAX_MOVES);
+        assertThat(cached.isMovesTruncated()).isFalse();
+    }
+
+    @Test
+    void putIfAbsent_capsMoves_andDoesNotReplaceCachedState() {
+        UUID gameId = UUID.randomUUID();
+        cache.putIfAbsent(gameId, state(gameId, 4));
+        assertThat(cache.get(gameId).orElseThrow().isMovesTruncated()).isTrue();
+
+        GameStateMessage other = state(gameId, 1);
+        other.setFen("other");
+        cache.putIfAbsent(gameId, other);
+
+        assertThat(cache.get(gameId).orElseThrow().getFen()).isNotEqualTo("other");
+    }
+
+    @Test
+    void update_trimsMovesInPlace_onceTheCapIsExceeded() {
+        UUID gameId = UUID.randomUUID();
+        cache.put(gameId, state(gameId, MAX_MOVES));
+
+        cache.update(gameId, s -> s.getMoves().add(move(4)));
+
+        GameStateMessage cached = cache.get(gameId).orElseThrow();
+        assertThat(cached.getMoves()).extracting(GameMoveMessage::getPly).containsExactly(2, 3, 4);
+        assertThat(cached.isMovesTruncated()).isTrue();
+    }
+
+    @Test
+    void update_isNoOpForUncachedGame() {
+        UUID gameId = UUID.randomUUID();
+
+        cache.update(gameId, s -> s.setFen("changed"));
+
+        assertThat(cache.get(gameId)).isEmpty();
+    }
+
+    @Test
+    void snapshot_copiesMovesAndTruncationFlag() {
+        UUID gameId = UUID.randomUUID();
+        cache.put(gameId, state(gameId, 5));
+
+        GameStateMessage copy = cache.snapshot(gameId).orElseThrow();
+        copy.getMoves().clear();
+
+        assertThat(copy.isMovesTruncated()).isTrue();
+        assertThat(cache.get(gameId).orElseThrow().getMoves()).hasSize(MAX_MOVES);
+    }
+
+    @Test
+    void snapshot_countsHitsAndMisses() {
+        UUID gameId = UUID.randomUUID();
+        cache.put(gameId, state(gameId, 1));
+
+        assertThat(cache.snapshot(gameId)).isPresent();
+        assertThat(cache.snapshot(UUID.randomUUID())).isEmpty();
+        cache.update(gameId, st -> st.setFen("updated"));
+
+        GameStateCache.Footprint footprint = cache.footprint();
+        assertThat(footprint.hits()).isEqualTo(1);
+        assertThat(footprint.misses()).isEqualTo(1);
+        assertThat(gets("hit")).isEqualTo(1.0);
+        assertThat(gets("miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    void weightTracksEstimatedSize_andUpdatesAreReweighed() {
+        UUID gameId = UUID.randomUUID();
+        cache.put(gameId, state(gameId, 1));
+        long before = cache.footprint().weightedBytes();
+        assertThat(before).isEqualTo(GameStateSizeEstimator.estimateBytes(cache.get(gameId).orElseThrow()));
+
+        cache.update(gameId, s -> s.getMoves().add(move(2)));
+
+        assertThat(cache.footprint().weightedBytes()).isGreaterThan(before);
+    }
+
+    @Test
+    void entriesAreEvictedOnceTotalWeightExceedsTheBound() {
+        int oneState = GameStateSizeEstimator.estimateBytes(state(UUID.randomUUID(), MAX_MOVES));
+        GameStateCache small = new GameStateCache(oneState * 4L, 60, MAX_MOVES, new SimpleMeterRegistry());
+
+        for (int i = 0; i < 50; i++) {
+            UUID gameId = UUID.randomUUID();
+            small.put(gameId, state(gameId, MAX_MOVES));
+        }
+
+        GameStateCache.Footprint footprint = small.footprint();
+        assertThat(footprint.weightedBytes()).isLessThanOrEqualTo(oneState * 4L);
+        assertThat(footprint.entries()).isLessThanOrEqualTo(4);
+        assertThat(footprint.evictions()).isPositive();
+    }
+
+    static GameStateMessage state(UUID gameId, int moves) {
+        List<GameMoveMessage> list = new ArrayList<>();
+        for (int ply = 1; ply <= moves; ply++) {
+            list.add(move(ply));
+        }
+        GameStateMessage state = new GameStateMessage();
+        state.setGameId(gameId);
+        state.setWhiteId(UUID.randomUUID());
+        state.setBlackId(UUID.randomUUID());
+        state.setFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        state.setMoves(list);
+        state.setClocks(new GameClocksMessage(60_000, 60_000));
+        state.setStatus("RUNNING");
+        state.setSideToMove("WHITE");
+        return state;
+    }
+
+    static GameMoveMessage move(int ply) {
+        return new GameMoveMessage(ply, "e2e4", "e4", "fen-after-" + ply, null, UUID.randomUUID());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", GameStateCache.METRIC_NAME, "result", result)
+                .functionCounter().count();
+    }
+}
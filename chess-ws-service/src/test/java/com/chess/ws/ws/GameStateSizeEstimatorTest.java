@@ -0,0 +1,48 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.dto.GameMoveMessage;
+import com.chess.ws.dto.GameStateMessage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameStateSizeEstimatorTest {
+
+    @Test
+    void nullState_weighsNothing() {
+        assertThat(GameStateSizeEstimator.estimateBytes(null)).isZero();
+    }
+
+    @Test
+    void emptyState_weighsItsShellOnly() {
+        assertThat(GameStateSizeEstimator.estimateBytes(new GameStateMessage())).isEqualTo(16 + 11 * 4 + 8);
+    }
+
+    @Test
+    void eachMoveAddsAConstantShellPlusItsStrings() {
+        UUID gameId = UUID.randomUUID();
+        int one = GameStateSizeEstimator.estimateBytes(GameStateCacheTest.state(gameId, 1));
+        int two = GameStateSizeEstimator.estimateBytes(GameStateCacheTest.state(gameId, 2));
+        int three = GameStateSizeEstimator.estimateBytes(GameStateCacheTest.state(gameId, 3));
+
+        assertThat(two - one).isPositive().isEqualTo(three - two);
+    }
+
+    @Test
+    void longerStringsAndTimestampsWeighMore() {
+        GameStateMessage state = GameStateCacheTest.state(UUID.randomUUID(), 1);
+        int base = GameStateSizeEstimator.estimateBytes(state);
+
+        GameMoveMessage move = state.getMoves().get(0);
+        move.setPlayedAt(Instant.now());
+        int withTimestamp = GameStateSizeEstimator.estimateBytes(state);
+        move.setFenAfter(move.getFenAfter() + "x".repeat(64));
+        int withLongerFen = GameStateSizeEstimator.estimateBytes(state);
+
+        assertThat(withTimestamp).isEqualTo(base + 24);
+        assertThat(withLongerFen).isEqualTo(withTimestamp + 64);
+    }
+}
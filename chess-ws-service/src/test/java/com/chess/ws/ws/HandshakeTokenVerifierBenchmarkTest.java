@@ -0,0 +1,94 @@
+package com.chess.ws.ws;
+
+import com.chess.common.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Single-thread handshake token throughput, before and after the cached fast path. Opt-in, since it takes
+ * tens of seconds and its numbers only mean something on a quiet machine:
+ * {@code ./mvnw -pl chess-ws-service -am test -Dtest=HandshakeTokenVerifierBenchmarkTest -Dsurefire.failIfNoSpecifiedTests=false -Dws.bench=true}.
+ * "before" is the pre-cache interceptor: {@code validateToken} then {@code getUserIdFromToken}, each building
+ * its own parser and verifying the signature.
+ */
+@EnabledIfSystemProperty(named = "ws.bench", matches = "true")
+class HandshakeTokenVerifierBenchmarkTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+    private static final int TOKENS = 20_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private final JwtTokenProvider jwtTokenProvider = new JwtTokenProvider(SECRET, 3_600_000, 7_200_000);
+    private final SecretKey secretKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void handshakeThroughput() {
+        List<String> tokens = new ArrayList<>(TOKENS);
+        for (int i = 0; i < TOKENS; i++) {
+            tokens.add(jwtTokenProvider.generateAccessToken(UUID.randomUUID(), List.of("USER")));
+        }
+
+        double before = measure(tokens, () -> this::verifyTwiceWithFreshParsers);
+        double firstSight = measure(tokens, () -> newVerifier()::verify);
+        HandshakeTokenVerifier primed = newVerifier();
+        tokens.forEach(primed::verify);
+        double cached = measure(tokens, () -> primed::verify);
+
+        System.out.printf("handshake tokens, %d distinct, single thread (median of %d rounds)%n", TOKENS, MEASURED_ROUNDS);
+        System.out.printf("  before (validateToken + getUserIdFromToken): %,.0f/s%n", before);
+        System.out.printf("  after, first sight of each token:            %,.0f/s%n", firstSight);
+        System.out.printf("  after, reconnect with a cached token:        %,.0f/s%n", cached);
+    }
+
+    /** Median tokens per second over the measured rounds; each round gets a fresh verifier from the supplier. */
+    private static double measure(List<String> tokens, Supplier<Function<String, UUID>> verifiers) {
+        double[] rates = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            Function<String, UUID> verifier = verifiers.get();
+            int rejected = 0;
+            long start = System.nanoTime();
+            for (String token : tokens) {
+                if (verifier.apply(token) == null) {
+                    rejected++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            assertThat(rejected).isZero();
+            if (round >= WARMUP_ROUNDS) {
+                rates[round - WARMUP_ROUNDS] = tokens.size() * 1e9 / elapsed;
+            }
+        }
+        Arrays.sort(rates);
+        return rates[MEASURED_ROUNDS / 2];
+    }
+
+    private HandshakeTokenVerifier newVerifier() {
+        return new HandshakeTokenVerifier(jwtTokenProvider, new ObjectMapper(), TOKENS, new SimpleMeterRegistry());
+    }
+
+    private UUID verifyTwiceWithFreshParsers(String token) {
+        parseWithFreshParser(token);
+        return UUID.fromString(parseWithFreshParser(token).getSubject());
+    }
+
+    private Claims parseWithFreshParser(String token) {
+        return Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,63 @@
+package com.chess.ws.ws;
+
+import com.chess.common.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class HandshakeTokenVerifierTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private HandshakeTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = spy(new JwtTokenProvider(SECRET, 60_000, 120_000));
+        verifier = new HandshakeTokenVerifier(jwtTokenProvider, new ObjectMapper(), 1000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void verify_parsesEachTokenOnce() {
+        UUID userId = UUID.randomUUID();
+        String token = jwtTokenProvider.generateAccessToken(userId, List.of("USER"));
+
+        assertThat(verifier.verify(token)).isEqualTo(userId);
+        assertThat(verifier.verify(token)).isEqualTo(userId);
+
+        verify(jwtTokenProvider, times(1)).parseClaims(anyString());
+    }
+
+    @Test
+    void verify_rejectsTamperedAndForeignTokens() {
+        String token = jwtTokenProvider.generateAccessToken(UUID.randomUUID(), List.of("USER"));
+        String foreign = new JwtTokenProvider(SECRET.replace('t', 'x'), 60_000, 120_000)
+                .generateAccessToken(UUID.randomUUID(), List.of("USER"));
+
+        assertThat(verifier.verify(token.substring(0, token.length() - 2) + "xx")).isNull();
+        assertThat(verifier.verify(foreign)).isNull();
+        assertThat(verifier.verify("not-a-jwt")).isNull();
+    }
+
+    @Test
+    void unverifiedSubject_readsSubWithoutVerifying() {
+        UUID userId = UUID.randomUUID();
+        String foreign = new JwtTokenProvider(SECRET.replace('t', 'x'), 60_000, 120_000)
+                .generateAccessToken(userId, List.of("USER"));
+
+        assertThat(verifier.unverifiedSubject(foreign)).isEqualTo(userId);
+        assertThat(verifier.unverifiedSubject("garbage")).isNull();
+        verify(jwtTokenProvider, times(0)).parseClaims(anyString());
+    }
+}
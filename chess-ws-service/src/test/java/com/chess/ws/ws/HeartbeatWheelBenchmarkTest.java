@@ -0,0 +1,117 @@
+package com.chess.ws.ws;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Heap and ticker CPU the heartbeat wheel costs per idle socket, with {@value #SOCKETS} stub sessions on the
+ * production wheel shape (100 slots). Opt-in, like {@link HandshakeTokenVerifierBenchmarkTest}:
+ * {@code ./mvnw -pl chess-ws-service -am test -Dtest=HeartbeatWheelBenchmarkTest -Dsurefire.failIfNoSpecifiedTests=false -Dws.bench=true}.
+ * Heap is the retained growth from registering the sessions, which already exist with their attribute maps; CPU
+ * is the ticker thread's own time for one revolution, so it covers walking the slots and handing pings to the
+ * senders but not the pings themselves, which run on virtual threads.
+ */
+@EnabledIfSystemProperty(named = "ws.bench", matches = "true")
+class HeartbeatWheelBenchmarkTest {
+
+    private static final int SOCKETS = 100_000;
+    private static final int SLOTS = 100;
+    // ticks are driven by the test; the wheel's own ticker is scheduled an hour out so it never races them
+    private static final long TICK_MS = 3_600_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void perSocketCost() {
+        WebSocketSession[] sessions = new WebSocketSession[SOCKETS];
+        for (int i = 0; i < SOCKETS; i++) {
+            sessions[i] = session();
+        }
+
+        double[] bytes = new double[MEASURED_ROUNDS];
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long before = usedHeap();
+            HeartbeatWheel wheel = newWheel();
+            for (WebSocketSession session : sessions) {
+                wheel.register(session, () -> { });
+            }
+            long after = usedHeap();
+            if (round >= WARMUP_ROUNDS) {
+                bytes[round - WARMUP_ROUNDS] = (double) (after - before) / SOCKETS;
+            }
+            for (WebSocketSession session : sessions) {
+                wheel.unregister(session);
+            }
+        }
+
+        HeartbeatWheel wheel = newWheel();
+        for (WebSocketSession session : sessions) {
+            wheel.register(session, () -> { });
+        }
+        assertThat(wheel.slotCount()).isEqualTo(SLOTS);
+        wheel.start();
+        double[] cpuNs = new double[MEASURED_ROUNDS];
+        try {
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+                long start = threads.getCurrentThreadCpuTime();
+                for (int tick = 0; tick < SLOTS; tick++) {
+                    wheel.tick();
+                }
+                long cpu = threads.getCurrentThreadCpuTime() - start;
+                if (round >= WARMUP_ROUNDS) {
+                    cpuNs[round - WARMUP_ROUNDS] = (double) cpu / SOCKETS;
+                }
+            }
+        } finally {
+            wheel.stop();
+        }
+        assertThat(wheel.liveSockets()).isEqualTo(SOCKETS);
+
+        System.out.printf("heartbeat wheel, %d idle sockets on %d slots (median of %d rounds)%n", SOCKETS, SLOTS, MEASURED_ROUNDS);
+        System.out.printf("  retained heap per socket:                 %,.0f bytes%n", median(bytes));
+        System.out.printf("  ticker CPU per socket per revolution:     %,.0f ns%n", median(cpuNs));
+        System.out.printf("  ticker CPU per tick:                      %,.2f ms%n", median(cpuNs) * SOCKETS / SLOTS / 1e6);
+    }
+
+    private static HeartbeatWheel newWheel() {
+        return new HeartbeatWheel(SLOTS * TICK_MS, TICK_MS, Integer.MAX_VALUE, new SimpleMeterRegistry());
+    }
+
+    private long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    /** Stub-only so the mock keeps no invocation history; closed, so a ping is one attribute read and a check. */
+    private static WebSocketSession session() {
+        WebSocketSession session = mock(WebSocketSession.class, withSettings().stubOnly());
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        when(session.getAttributes()).thenReturn(attributes);
+        return session;
+    }
+}
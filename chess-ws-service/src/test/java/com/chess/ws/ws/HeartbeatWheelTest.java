@@ -0,0 +1,98 @@
+package com.chess.ws.ws;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HeartbeatWheelTest {
+
+    private HeartbeatWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        // two slots, ticked by hand: each session is visited every second tick
+        wheel = new HeartbeatWheel(20_000, 10_000, 2, new SimpleMeterRegistry());
+        wheel.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void register_spreadsSessionsOverSlots_andCountsLive() {
+        WebSocketSession a = session();
+        WebSocketSession b = session();
+        wheel.register(a, () -> { });
+        wheel.register(b, () -> { });
+
+        assertThat(wheel.slotCount()).isEqualTo(2);
+        assertThat(wheel.liveSockets()).isEqualTo(2);
+        assertThat(((HeartbeatWheel.Beat) a.getAttributes().get(HeartbeatWheel.ATTR)).slot)
+                .isNotEqualTo(((HeartbeatWheel.Beat) b.getAttributes().get(HeartbeatWheel.ATTR)).slot);
+
+        wheel.unregister(a);
+        wheel.unregister(a);
+        assertThat(wheel.liveSockets()).isEqualTo(1);
+    }
+
+    @Test
+    void silentSession_isPingedThenReaped() throws Exception {
+        WebSocketSession session = session();
+        CountDownLatch reaped = new CountDownLatch(1);
+        wheel.register(session, reaped::countDown);
+
+        wheel.tick();
+        wheel.tick();
+        wheel.tick();
+        verify(session, timeout(1000).times(2)).sendMessage(any(PingMessage.class));
+        wheel.tick();
+        wheel.tick();
+
+        verify(session, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertThat(reaped.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(wheel.liveSockets()).isZero();
+    }
+
+    @Test
+    void touch_keepsSessionAlive() throws Exception {
+        WebSocketSession session = session();
+        wheel.register(session, () -> { });
+
+        for (int i = 0; i < 10; i++) {
+            wheel.tick();
+            wheel.touch(session);
+        }
+
+        verify(session, timeout(1000).times(5)).sendMessage(any(PingMessage.class));
+        verify(session, never()).close(any());
+        assertThat(wheel.liveSockets()).isEqualTo(1);
+    }
+
+    private static WebSocketSession session() {
+        WebSocketSession session = mock(WebSocketSession.class);
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.isOpen()).thenReturn(true);
+        when(session.getId()).thenReturn("s");
+        return session;
+    }
+}
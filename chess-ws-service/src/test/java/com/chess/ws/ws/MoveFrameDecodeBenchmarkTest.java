@@ -0,0 +1,114 @@
+package com.chess.ws.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Single-thread decode cost of an inbound MOVE, JSON text frame against {@link BinaryFrames}, from frame payload
+ * to the (uci, clientMoveId) pair handed to game-service. Opt-in, like {@link HandshakeTokenVerifierBenchmarkTest}:
+ * {@code ./mvnw -pl chess-ws-service -am test -Dtest=MoveFrameDecodeBenchmarkTest -Dsurefire.failIfNoSpecifiedTests=false -Dws.bench=true}.
+ * "binary, hashed id" is the decoder as first shipped, which derived the clientMoveId with an MD5 name UUID.
+ */
+@EnabledIfSystemProperty(named = "ws.bench", matches = "true")
+class MoveFrameDecodeBenchmarkTest {
+
+    private static final int FRAMES = 200_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID gameId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void moveDecodeCost() {
+        String[] json = new String[FRAMES];
+        ByteBuffer[] binary = new ByteBuffer[FRAMES];
+        for (int i = 0; i < FRAMES; i++) {
+            json[i] = "{\"type\":\"MOVE\",\"gameId\":\"" + gameId + "\",\"uci\":\"e2e4\",\"clientMoveId\":\""
+                    + UUID.randomUUID() + "\"}";
+            binary[i] = moveFrame(1, i);
+        }
+
+        double jsonNs = measure(i -> decodeJson(json[i]));
+        double binaryNs = measure(i -> decodeBinary(binary[i].rewind(), false));
+        double hashedNs = measure(i -> decodeBinary(binary[i].rewind(), true));
+
+        System.out.printf("inbound MOVE decode, single thread (median of %d rounds of %d frames)%n", MEASURED_ROUNDS, FRAMES);
+        System.out.printf("  JSON text frame (%d bytes):     %,.0f ns%n", json[0].getBytes(StandardCharsets.UTF_8).length, jsonNs);
+        System.out.printf("  binary frame (%d bytes):          %,.0f ns%n", binary[0].limit(), binaryNs);
+        System.out.printf("  binary frame, hashed id:         %,.0f ns%n", hashedNs);
+    }
+
+    /** Median nanoseconds per frame over the measured rounds. */
+    private static double measure(ToIntFunction<Integer> decode) {
+        double[] costs = new double[MEASURED_ROUNDS];
+        int sink = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < FRAMES; i++) {
+                sink += decode.applyAsInt(i);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                costs[round - WARMUP_ROUNDS] = (double) elapsed / FRAMES;
+            }
+        }
+        assertThat(sink).isNotZero();
+        Arrays.sort(costs);
+        return costs[MEASURED_ROUNDS / 2];
+    }
+
+    /** What the text handler and {@link GameCommands#handleJson} read off a MOVE frame. */
+    private int decodeJson(String payload) {
+        try {
+            JsonNode root = objectMapper.readTree(payload);
+            String type = root.hasNonNull("type") ? root.get("type").asText() : "";
+            UUID game = UUID.fromString(root.get("gameId").asText());
+            String uci = root.hasNonNull("uci") ? root.get("uci").asText() : null;
+            String clientMoveId = root.hasNonNull("clientMoveId") ? root.get("clientMoveId").asText() : null;
+            return type.length() + game.hashCode() + uci.length() + clientMoveId.length();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** What {@link GameCommands#handleBinary} reads off a MOVE frame. */
+    private int decodeBinary(ByteBuffer buf, boolean hashedId) {
+        byte op = buf.get();
+        int handle = BinaryFrames.readHandle(buf);
+        long seq = BinaryFrames.readVarint(buf);
+        String uci = BinaryFrames.readMove(buf);
+        String clientMoveId = hashedId
+                ? UUID.nameUUIDFromBytes((gameId + ":" + userId + ":" + seq).getBytes(StandardCharsets.UTF_8)).toString()
+                : BinaryFrames.clientMoveId(gameId, userId, seq);
+        return op + handle + uci.length() + clientMoveId.length();
+    }
+
+    private static ByteBuffer moveFrame(int handle, long seq) {
+        ByteBuffer buf = ByteBuffer.allocate(32);
+        buf.put(BinaryFrames.OP_MOVE);
+        writeVarint(buf, handle);
+        writeVarint(buf, seq);
+        buf.putShort((short) BinaryFrames.packMove("e2e4"));
+        return buf.flip();
+    }
+
+    private static void writeVarint(ByteBuffer buf, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buf.put((byte) value);
+    }
+}
@@ -0,0 +1,99 @@
+package com.chess.ws.ws;
+
+import com.chess.common.security.JwtTokenProvider;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.net.http.WebSocketHandshakeException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Real handshakes against the running endpoints, through Spring's handler decorators and the interceptors. */
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StreamHandshakeTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-test-secret";
+
+    @LocalServerPort
+    int port;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void streamHandshake_acceptedWithoutGameId_andSubscribesLobby() throws Exception {
+        BlockingQueue<String> incoming = new LinkedBlockingQueue<>();
+        WebSocket ws = connect("/ws/stream", token(UUID.randomUUID()), incoming);
+
+        ws.sendText("{\"type\":\"SUBSCRIBE\",\"channel\":\"lobby\"}", true).join();
+
+        String reply = incoming.poll(5, TimeUnit.SECONDS);
+        assertThat(reply).isNotNull();
+        JsonNode node = objectMapper.readTree(reply);
+        assertThat(node.get("type").asText()).isEqualTo("SUBSCRIBED");
+        assertThat(node.get("channel").asText()).isEqualTo("lobby");
+        ws.sendClose(WebSocket.NORMAL_CLOSURE, "bye").join();
+    }
+
+    @Test
+    void streamHandshake_rejectedWithoutToken() {
+        assertThatThrownBy(() -> connect("/ws/stream", null, new LinkedBlockingQueue<>()))
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(WebSocketHandshakeException.class,
+                        e -> assertThat(e.getResponse().statusCode()).isEqualTo(401));
+    }
+
+    @Test
+    void gameHandshake_stillRequiresGameIdInPath() {
+        assertThatThrownBy(() -> connect("/ws/game/not-a-game", token(UUID.randomUUID()), new LinkedBlockingQueue<>()))
+                .isInstanceOf(CompletionException.class)
+                .cause()
+                .isInstanceOfSatisfying(WebSocketHandshakeException.class,
+                        e -> assertThat(e.getResponse().statusCode()).isEqualTo(400));
+    }
+
+    static String token(UUID userId) {
+        return new JwtTokenProvider(SECRET, 60000, 300000).generateAccessToken(userId, List.of("USER"));
+    }
+
+    WebSocket connect(String path, String jwt, BlockingQueue<String> incoming) {
+        String query = jwt != null ? "?token=" + URLEncoder.encode(jwt, StandardCharsets.UTF_8) : "";
+        URI uri = URI.create("ws://localhost:" + port + path + query);
+        return HttpClient.newHttpClient().newWebSocketBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .buildAsync(uri, new WebSocket.Listener() {
+                    @Override
+                    public void onOpen(WebSocket webSocket) {
+                        webSocket.request(1);
+                    }
+
+                    @Override
+                    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                        incoming.add(data.toString());
+                        webSocket.request(1);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                })
+                .join();
+    }
+}
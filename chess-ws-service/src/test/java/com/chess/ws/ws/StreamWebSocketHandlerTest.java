@@ -0,0 +1,127 @@
+package com.chess.ws.ws;
+
+import com.chess.ws.client.GameServiceClient;
+import com.chess.ws.presence.PresenceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StreamWebSocketHandlerTest {
+
+    @Mock
+    private WsConnectionSupport connections;
+    @Mock
+    private GameCommands commands;
+    @Mock
+    private GameServiceClient gameServiceClient;
+    @Mock
+    private PresenceService presence;
+    @Mock
+    private WebSocketSession session;
+
+    private final WsSessionRegistry registry = new WsSessionRegistry();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private StreamWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        handler = new StreamWebSocketHandler(new ObjectMapper(), registry, connections, commands, gameServiceClient, presence);
+        ReflectionTestUtils.setField(handler, "maxGamesPerConnection", 2);
+
+        attributes.put(JwtHandshakeInterceptor.ATTR_USER_ID, UUID.randomUUID());
+        when(session.getAttributes()).thenReturn(attributes);
+        when(connections.open(eq(session), any())).thenReturn(true);
+        when(connections.rateLimitOk(session)).thenReturn(true);
+        when(connections.withMdc(eq(session), any())).thenAnswer(inv ->
+                inv.<WsConnectionSupport.ThrowingSupplier<?>>getArgument(1).get());
+
+        handler.afterConnectionEstablished(session);
+    }
+
+    @Test
+    void subscribeGame_registersSession_andSendsSnapshot() throws Exception {
+        UUID gameId = UUID.randomUUID();
+
+        handler.handleTextMessage(session, frame("{\"type\":\"SUBSCRIBE\",\"channel\":\"game\",\"gameId\":\"" + gameId + "\"}"));
+
+        assertThat(registry.get(gameId)).containsExactly(session);
+        verify(commands).sendInitialState(session, gameId);
+        verify(commands).send(session, Map.of("type", "SUBSCRIBED", "channel", "game", "gameId", gameId));
+    }
+
+    @Test
+    void subscribeGame_rejectedWhenStateNotAccessible() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        doThrow(new RuntimeException("forbidden")).when(commands).sendInitialState(session, gameId);
+        when(gameServiceClient.extractErrorCode(any())).thenReturn("FORBIDDEN");
+
+        handler.handleTextMessage(session, frame("{\"type\":\"SUBSCRIBE\",\"gameId\":\"" + gameId + "\"}"));
+
+        assertThat(registry.get(gameId)).isEmpty();
+        verify(commands).send(session, Map.of("type", "SUBSCRIBE_REJECTED", "channel", "game", "gameId", gameId, "reason", "FORBIDDEN"));
+    }
+
+    @Test
+    void subscribeGame_rejectedOverPerConnectionCap() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            handler.handleTextMessage(session, frame("{\"type\":\"SUBSCRIBE\",\"gameId\":\"" + UUID.randomUUID() + "\"}"));
+        }
+        UUID third = UUID.randomUUID();
+
+        handler.handleTextMessage(session, frame("{\"type\":\"SUBSCRIBE\",\"gameId\":\"" + third + "\"}"));
+
+        assertThat(registry.get(third)).isEmpty();
+        verify(commands).send(session, Map.of("type", "SUBSCRIBE_REJECTED", "channel", "game", "gameId", third, "reason", "TOO_MANY_SUBSCRIPTIONS"));
+    }
+
+    @Test
+    void gameCommand_forUnsubscribedGame_isNotForwarded() throws Exception {
+        UUID gameId = UUID.randomUUID();
+
+        handler.handleTextMessage(session, frame("{\"type\":\"MOVE\",\"gameId\":\"" + gameId + "\",\"uci\":\"e2e4\"}"));
+
+        verify(commands, never()).handleJson(any(), any(), anyString(), any());
+        verify(commands).send(session, Map.of("type", "ERROR", "message", "Not subscribed to game"));
+    }
+
+    @Test
+    void close_unregistersAllSubscriptions() throws Exception {
+        UUID gameId = UUID.randomUUID();
+        handler.handleTextMessage(session, frame("{\"type\":\"SUBSCRIBE\",\"gameId\":\"" + gameId + "\"}"));
+        handler.handleTextMessage(session, frame("{\"type\":\"SUBSCRIBE\",\"channel\":\"lobby\"}"));
+
+        handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+
+        assertThat(registry.get(gameId)).isEmpty();
+        assertThat(registry.lobby()).isEmpty();
+        verify(connections).close(session);
+    }
+
+    private static TextMessage frame(String json) {
+        return new TextMessage(json);
+    }
+}